@@ -17,32 +17,56 @@
 package org.apache.dubbo.rpc.cluster.support;
 
 
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
-import org.apache.dubbo.common.threadlocal.NamedInternalThreadFactory;
+import org.apache.dubbo.common.threadpool.manager.FrameworkExecutorRepository;
 import org.apache.dubbo.common.utils.JsonUtils;
 import org.apache.dubbo.rpc.AppResponse;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.InvokeMode;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.cluster.Directory;
 import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.protocol.dubbo.FutureAdapter;
+import org.apache.dubbo.rpc.support.RpcUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 /**
  * BroadcastCluster2Invoker
  * <p>
  * sed for collecting all service provider results when in broadcast2 mode
+ * <p>
+ * The fan-out is tuned by (method level) url parameters:
+ * <ul>
+ *     <li>{@code broadcast.mode}: {@code blocking} (default) calls every provider on a thread of the shared
+ *     executor of the framework, {@code async} composes the providers' async results without parking a thread
+ *     per provider</li>
+ *     <li>{@code broadcast.concurrency}: max calls in flight, 0 or less (default) is unlimited like the
+ *     earlier versions</li>
+ *     <li>{@code broadcast.quorum}: return once this many providers succeeded, 0 (default) waits for all</li>
+ *     <li>{@code broadcast.fail.fast}: return on the first failure</li>
+ *     <li>{@code broadcast.virtual.threads}: dispatch calls on virtual threads when running on JDK 21+</li>
+ *     <li>{@code broadcast.results.lazy}: attach {@link BroadcastResults} as {@code broadcast.results.object}
+ *     instead of the json string as {@code broadcast.results}, so the json is only built by its
+ *     {@link BroadcastResults#toString()}</li>
+ * </ul>
+ * In both modes the results are attached to the returned result, which the consumer context filter passes on to
+ * {@link RpcContext#getServerContext()}. {@code broadcast.results} is always a string, read by
+ * {@code getAttachment}, the lazy results are read by {@code getObjectAttachment}.
  */
 public class BroadcastCluster1Invoker<T> extends AbstractClusterInvoker<T> {
 
@@ -50,8 +74,25 @@ public class BroadcastCluster1Invoker<T> extends AbstractClusterInvoker<T> {
 
     private static final String BROADCAST_RESULTS_KEY = "broadcast.results";
 
-    private final ExecutorService executor = Executors.newCachedThreadPool(
-        new NamedInternalThreadFactory("broadcast_cluster1", true));
+    private static final String BROADCAST_RESULTS_OBJECT_KEY = "broadcast.results.object";
+
+    private static final String BROADCAST_MODE_KEY = "broadcast.mode";
+
+    private static final String BROADCAST_MODE_ASYNC = "async";
+
+    private static final String BROADCAST_MODE_BLOCKING = "blocking";
+
+    private static final String BROADCAST_CONCURRENCY_KEY = "broadcast.concurrency";
+
+    private static final String BROADCAST_QUORUM_KEY = "broadcast.quorum";
+
+    private static final String BROADCAST_FAIL_FAST_KEY = "broadcast.fail.fast";
+
+    private static final String BROADCAST_VIRTUAL_THREADS_KEY = "broadcast.virtual.threads";
+
+    private static final String BROADCAST_RESULTS_LAZY_KEY = "broadcast.results.lazy";
+
+    private static final int DEFAULT_BROADCAST_CONCURRENCY = 0;
 
     public BroadcastCluster1Invoker(Directory<T> directory) {
         super(directory);
@@ -62,70 +103,80 @@ public class BroadcastCluster1Invoker<T> extends AbstractClusterInvoker<T> {
     public Result doInvoke(final Invocation invocation, List<Invoker<T>> invokers, LoadBalance loadbalance) throws RpcException {
         checkInvokers(invokers, invocation);
         RpcContext.getContext().setInvokers((List) invokers);
-        InvokeResult res = invoke(invokers, invocation);
-        if (hasException(res.exception)) {
-            return createResult(invocation, res.exception, res.resultList);
+
+        URL url = getUrl();
+        String methodName = RpcUtils.getMethodName(invocation);
+        boolean async = BROADCAST_MODE_ASYNC.equals(url.getMethodParameter(methodName, BROADCAST_MODE_KEY, BROADCAST_MODE_BLOCKING));
+        boolean lazy = url.getMethodParameter(methodName, BROADCAST_RESULTS_LAZY_KEY, false);
+        Executor executor;
+        if (url.getMethodParameter(methodName, BROADCAST_VIRTUAL_THREADS_KEY, false) && VirtualThreadExecutorHolder.EXECUTOR != null) {
+            executor = VirtualThreadExecutorHolder.EXECUTOR;
+        } else if (async) {
+            // async calls do not block, launch them on the calling or completing thread
+            executor = null;
+        } else {
+            // released with the framework
+            executor = url.getOrDefaultFrameworkModel().getBeanFactory()
+                .getBean(FrameworkExecutorRepository.class).getSharedExecutor();
         }
-        Object value = res.resultList.stream().map(it -> it.getData()).findFirst().orElse(null);
-        return createResult(invocation, value, res.resultList);
-    }
 
+        BroadcastFanout<T> fanout = new BroadcastFanout<>(invokers, invocation, async, executor,
+            url.getMethodParameter(methodName, BROADCAST_QUORUM_KEY, 0),
+            url.getMethodParameter(methodName, BROADCAST_FAIL_FAST_KEY, false));
+        CompletableFuture<List<BroadcastResult>> future = fanout.start(
+            url.getMethodParameter(methodName, BROADCAST_CONCURRENCY_KEY, DEFAULT_BROADCAST_CONCURRENCY));
 
-    private InvokeResult invoke(List<Invoker<T>> invokers, final Invocation invocation) {
-        List<BroadcastResult> resultList = new ArrayList<>(invokers.size());
-        List<Callable<BroadcastResult>> tasks = getCallables(invokers, invocation);
+        if (async) {
+            return asyncResult(invocation, future, lazy);
+        }
+        InvokeResult res = invoke(future);
+        return createResult(invocation, res.exception, res.resultList, lazy);
+    }
 
+    private InvokeResult invoke(CompletableFuture<List<BroadcastResult>> future) {
+        List<BroadcastResult> resultList = new ArrayList<>(1);
         try {
-            List<Future<BroadcastResult>> futures = executor.invokeAll(tasks);
-            resultList = futures.stream().map(it -> {
-                try {
-                    return it.get();
-                } catch (Throwable e) {
-                    BroadcastResult br = new BroadcastResult();
-                    br.setException(getRpcException(e));
-                    br.setExceptionMsg(br.getException().getMessage());
-                    return br;
-                }
-            }).collect(Collectors.toList());
-        } catch (InterruptedException e) {
+            resultList = future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             BroadcastResult br = new BroadcastResult();
-            br.setException(getRpcException(e));
+            br.setException(getRpcException(e instanceof ExecutionException ? e.getCause() : e));
             br.setExceptionMsg(br.getException().getMessage());
             resultList.add(br);
         }
+        return new InvokeResult(firstException(resultList), resultList);
+    }
 
-        return new InvokeResult(resultList.stream().map(BroadcastResult::getException)
-            .filter(it -> null != it).findFirst().orElse(null), resultList);
+    private Result asyncResult(Invocation invocation, CompletableFuture<List<BroadcastResult>> future, boolean lazy) {
+        CompletableFuture<AppResponse> responseFuture = future.thenApply(
+            resultList -> createResult(invocation, firstException(resultList), resultList, lazy));
+        AsyncRpcResult result = new AsyncRpcResult(responseFuture, invocation);
 
+        InvokeMode invokeMode = RpcUtils.getInvokeMode(getUrl(), invocation);
+        if (invocation instanceof RpcInvocation) {
+            ((RpcInvocation) invocation).setInvokeMode(invokeMode);
+        }
+        if (invokeMode != InvokeMode.SYNC) {
+            RpcContext.getServiceContext().setFuture(new FutureAdapter<>(responseFuture));
+            return result;
+        }
+        // the caller thread is the only one waiting for the whole broadcast
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw getRpcException(e);
+        } catch (ExecutionException e) {
+            throw getRpcException(e.getCause());
+        }
+        return result;
     }
 
-    private List<Callable<BroadcastResult>> getCallables(List<Invoker<T>> invokers, Invocation invocation) {
-        List<Callable<BroadcastResult>> tasks = invokers.stream().map(it -> (Callable<BroadcastResult>) () -> {
-            BroadcastResult br = new BroadcastResult(it.getUrl().getIp(), it.getUrl().getPort());
-            Result result = null;
-            try {
-                result = it.invoke(invocation);
-                if (null != result && result.hasException()) {
-                    Throwable resultException = result.getException();
-                    if (null != resultException) {
-                        RpcException exception = getRpcException(result.getException());
-                        br.setExceptionMsg(exception.getMessage());
-                        br.setException(exception);
-                        logger.warn(exception.getMessage(), exception);
-                    }
-                } else if (null != result) {
-                    br.setData(result.getValue());
-                    br.setResult(result);
-                }
-            } catch (Throwable ex) {
-                RpcException exception = getRpcException(result == null ? ex : result.getException());
-                br.setExceptionMsg(exception.getMessage());
-                br.setException(exception);
-                logger.warn(exception.getMessage(), exception);
-            }
-            return br;
-        }).collect(Collectors.toList());
-        return tasks;
+    private RpcException firstException(List<BroadcastResult> resultList) {
+        return resultList.stream().map(BroadcastResult::getException)
+            .filter(it -> null != it).findFirst().orElse(null);
     }
 
 
@@ -144,31 +195,24 @@ public class BroadcastCluster1Invoker<T> extends AbstractClusterInvoker<T> {
         return null != exception;
     }
 
-    private Result createResult(Invocation invocation, RpcException exception, List<BroadcastResult> resultList) {
-        AppResponse result = new AppResponse(invocation) {
-            @Override
-            public Result whenCompleteWithContext(BiConsumer<Result, Throwable> fn) {
-                RpcContext.getServerContext().setAttachment(BROADCAST_RESULTS_KEY, JsonUtils.toJson(resultList));
-                return new AppResponse();
-            }
-        };
-        result.setException(exception);
-        return result;
-    }
-
-    private Result createResult(Invocation invocation, Object value, List<BroadcastResult> resultList) {
-        return new AppResponse(invocation) {
-            @Override
-            public Result whenCompleteWithContext(BiConsumer<Result, Throwable> fn) {
-                RpcContext.getServerContext().setAttachment(BROADCAST_RESULTS_KEY, JsonUtils.toJson(resultList));
-                AppResponse res = new AppResponse();
-                res.setValue(value);
-                return res;
-            }
-        };
+    private AppResponse createResult(Invocation invocation, RpcException exception, List<BroadcastResult> resultList,
+                                     boolean lazy) {
+        AppResponse response = new AppResponse(invocation);
+        if (hasException(exception)) {
+            response.setException(exception);
+        } else {
+            response.setValue(resultList.stream().map(BroadcastResult::getData)
+                .filter(Objects::nonNull).findFirst().orElse(null));
+        }
+        if (lazy) {
+            response.setObjectAttachment(BROADCAST_RESULTS_OBJECT_KEY, new BroadcastResults(resultList));
+        } else {
+            response.setAttachment(BROADCAST_RESULTS_KEY, JsonUtils.toJson(resultList));
+        }
+        return response;
     }
 
-    private RpcException getRpcException(Throwable throwable) {
+    static RpcException getRpcException(Throwable throwable) {
         RpcException rpcException = null;
         if (throwable instanceof RpcException) {
             rpcException = (RpcException) throwable;
@@ -177,4 +221,21 @@ public class BroadcastCluster1Invoker<T> extends AbstractClusterInvoker<T> {
         }
         return rpcException;
     }
+
+    /**
+     * Virtual thread per task executor, {@code null} before JDK 21.
+     */
+    private static class VirtualThreadExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = create();
+
+        private static ExecutorService create() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (Throwable t) {
+                logger.info("Virtual threads are not supported by the current jvm, fallback to platform threads for broadcast.");
+                return null;
+            }
+        }
+    }
 }
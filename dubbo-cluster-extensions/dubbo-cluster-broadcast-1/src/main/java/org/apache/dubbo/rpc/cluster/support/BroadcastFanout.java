@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.InvokeMode;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fans one invocation out to all invokers with at most {@code concurrency} calls in flight.
+ * <p>
+ * In async mode every invoker is called with {@link InvokeMode#ASYNC} and the returned
+ * {@link AsyncRpcResult} futures are composed, so no thread is parked per provider. In blocking
+ * mode each call is dispatched to the executor and waits for its result there.
+ * The returned future completes once all invokers answered, {@code quorum} invokers succeeded,
+ * or on the first failure when {@code failFast} is set. Invokers not launched by then are skipped.
+ */
+class BroadcastFanout<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastFanout.class);
+
+    private final List<Invoker<T>> invokers;
+
+    private final Invocation invocation;
+
+    private final boolean async;
+
+    private final Executor executor;
+
+    private final int quorum;
+
+    private final boolean failFast;
+
+    private final AtomicReferenceArray<BroadcastResult> results;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+
+    // pending launch requests, launches triggered while draining are picked up by the draining thread
+    private final AtomicInteger launchRequests = new AtomicInteger();
+
+    private final CompletableFuture<List<BroadcastResult>> future = new CompletableFuture<>();
+
+    /**
+     * @param executor dispatches the calls, {@code null} invokes them on the calling or completing thread,
+     *                 which is only allowed in async mode
+     * @param quorum   successes needed to complete early, values out of {@code (0, invokers.size())} wait for all
+     */
+    BroadcastFanout(List<Invoker<T>> invokers, Invocation invocation, boolean async, Executor executor,
+                    int quorum, boolean failFast) {
+        if (!async && executor == null) {
+            throw new IllegalArgumentException("Blocking broadcast requires an executor");
+        }
+        this.invokers = invokers;
+        this.invocation = invocation;
+        this.async = async;
+        this.executor = executor;
+        this.quorum = quorum > 0 && quorum < invokers.size() ? quorum : invokers.size();
+        this.failFast = failFast;
+        this.results = new AtomicReferenceArray<>(invokers.size());
+    }
+
+    CompletableFuture<List<BroadcastResult>> start(int concurrency) {
+        int size = invokers.size();
+        int initial = concurrency > 0 ? Math.min(concurrency, size) : size;
+        for (int i = 0; i < initial; i++) {
+            launch();
+        }
+        return future;
+    }
+
+    private void launch() {
+        if (launchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (; ; ) {
+            for (int i = 0; i < missed; i++) {
+                launchNext();
+            }
+            missed = launchRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void launchNext() {
+        if (future.isDone()) {
+            return;
+        }
+        int index = nextIndex.getAndIncrement();
+        if (index >= invokers.size()) {
+            return;
+        }
+        if (executor == null) {
+            invoke(index);
+            return;
+        }
+        try {
+            executor.execute(() -> invoke(index));
+        } catch (RejectedExecutionException e) {
+            onComplete(index, null, e);
+        }
+    }
+
+    private void invoke(int index) {
+        Invoker<T> invoker = invokers.get(index);
+        Result result = null;
+        try {
+            if (async) {
+                RpcInvocation asyncInvocation = new RpcInvocation(invocation);
+                asyncInvocation.setInvokeMode(InvokeMode.ASYNC);
+                result = invoker.invoke(asyncInvocation);
+                if (result instanceof AsyncRpcResult) {
+                    ((AsyncRpcResult) result).getResponseFuture()
+                        .whenComplete((appResponse, t) -> onComplete(index, appResponse, t));
+                    return;
+                }
+            } else {
+                result = invoker.invoke(invocation);
+            }
+            onComplete(index, result, null);
+        } catch (Throwable t) {
+            onComplete(index, result, t);
+        }
+    }
+
+    private void onComplete(int index, Result result, Throwable throwable) {
+        Invoker<T> invoker = invokers.get(index);
+        BroadcastResult br = new BroadcastResult(invoker.getUrl().getIp(), invoker.getUrl().getPort());
+        Throwable exception = throwable != null ? throwable : (result == null ? null : result.getException());
+        if (exception != null) {
+            RpcException rpcException = BroadcastCluster1Invoker.getRpcException(exception);
+            br.setExceptionMsg(rpcException.getMessage());
+            br.setException(rpcException);
+            logger.warn(rpcException.getMessage(), rpcException);
+        } else if (result != null) {
+            br.setData(result.getValue());
+            br.setResult(result);
+        }
+        results.set(index, br);
+
+        int done = completed.incrementAndGet();
+        if (exception == null) {
+            if (succeeded.incrementAndGet() >= quorum) {
+                complete();
+            }
+        } else if (failFast || invokers.size() - done + succeeded.get() < quorum && quorum < invokers.size()) {
+            // quorum can no longer be reached
+            complete();
+        }
+        if (done == invokers.size()) {
+            complete();
+        }
+        launch();
+    }
+
+    private void complete() {
+        if (future.isDone()) {
+            return;
+        }
+        List<BroadcastResult> snapshot = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            BroadcastResult br = results.get(i);
+            if (br != null) {
+                snapshot.add(br);
+            }
+        }
+        future.complete(snapshot);
+    }
+}
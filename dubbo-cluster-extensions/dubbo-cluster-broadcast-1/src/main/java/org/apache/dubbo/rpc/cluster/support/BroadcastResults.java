@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.utils.JsonUtils;
+
+import java.util.List;
+
+/**
+ * Lazily aggregated broadcast results, attached as {@code broadcast.results.object} object attachment
+ * instead of the {@code broadcast.results} json string when {@code broadcast.results.lazy} is enabled. The json is only built on the first
+ * {@link #toString()}, the results themselves are available through {@link #getResults()}.
+ */
+public class BroadcastResults {
+
+    private final List<BroadcastResult> results;
+
+    private volatile String json;
+
+    public BroadcastResults(List<BroadcastResult> results) {
+        this.results = results;
+    }
+
+    public List<BroadcastResult> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        String value = json;
+        if (value == null) {
+            value = JsonUtils.toJson(results);
+            json = value;
+        }
+        return value;
+    }
+}
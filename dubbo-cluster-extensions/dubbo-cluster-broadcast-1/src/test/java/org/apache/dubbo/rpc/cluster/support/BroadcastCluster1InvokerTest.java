@@ -18,6 +18,8 @@ package org.apache.dubbo.rpc.cluster.support;
 
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.AppResponse;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.InvokeMode;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
@@ -25,13 +27,19 @@ import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.cluster.Directory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.BDDMockito.given;
@@ -76,7 +84,10 @@ public class BroadcastCluster1InvokerTest {
     void testNormal() {
         given(dic.list(invocation)).willReturn(Arrays.asList(invoker1, invoker2, invoker3, invoker4));
         // Every invoker will be called
-        clusterInvoker.invoke(invocation);
+        Result result = clusterInvoker.invoke(invocation);
+        assertEquals("sucess", result.getValue());
+        // the same channel as the async mode
+        assertInstanceOf(String.class, result.getObjectAttachment("broadcast.results"));
         assertTrue(invoker1.isInvoked());
         assertTrue(invoker2.isInvoked());
         assertTrue(invoker3.isInvoked());
@@ -109,6 +120,85 @@ public class BroadcastCluster1InvokerTest {
         assertTrue(exception.getMessage().contains("java.lang.NullPointerException"));
     }
 
+    @Test
+    void testAsyncMode() {
+        BroadcastCluster1Invoker<DemoService> invoker = newClusterInvoker("broadcast.mode=async");
+        given(dic.list(invocation)).willReturn(Arrays.asList(invoker1, invoker2, invoker3, invoker4));
+        Result result = invoker.invoke(invocation);
+        assertInstanceOf(AsyncRpcResult.class, result);
+        assertEquals("sucess", result.getValue());
+        assertInstanceOf(String.class, result.getObjectAttachment("broadcast.results"));
+        assertTrue(invoker1.isInvoked());
+        assertTrue(invoker2.isInvoked());
+        assertTrue(invoker3.isInvoked());
+        assertTrue(invoker4.isInvoked());
+    }
+
+    @Test
+    void testAsyncQuorum() {
+        BroadcastCluster1Invoker<DemoService> invoker = newClusterInvoker("broadcast.mode=async&broadcast.quorum=2&broadcast.results.lazy=true");
+        List<PendingInvoker> pendingInvokers = Arrays.asList(new PendingInvoker(), new PendingInvoker(), new PendingInvoker(), new PendingInvoker());
+        given(dic.list(invocation)).willReturn(new ArrayList<>(pendingInvokers));
+        invocation.setInvokeMode(InvokeMode.ASYNC);
+
+        AsyncRpcResult result = (AsyncRpcResult) invoker.invoke(invocation);
+        assertFalse(result.getResponseFuture().isDone());
+        pendingInvokers.get(2).complete("2");
+        assertFalse(result.getResponseFuture().isDone());
+        pendingInvokers.get(0).complete("0");
+        assertTrue(result.getResponseFuture().isDone());
+
+        BroadcastResults results = (BroadcastResults) result.getObjectAttachment("broadcast.results.object");
+        assertNull(result.getObjectAttachment("broadcast.results"));
+        assertEquals(2, results.getResults().size());
+        assertEquals("0", result.getValue());
+    }
+
+    @Test
+    void testNullData() {
+        BroadcastCluster1Invoker<DemoService> invoker = newClusterInvoker("broadcast.mode=async");
+        List<PendingInvoker> pendingInvokers = Arrays.asList(new PendingInvoker(), new PendingInvoker());
+        given(dic.list(invocation)).willReturn(new ArrayList<>(pendingInvokers));
+        invocation.setInvokeMode(InvokeMode.ASYNC);
+
+        AsyncRpcResult result = (AsyncRpcResult) invoker.invoke(invocation);
+        pendingInvokers.get(0).complete(null);
+        pendingInvokers.get(1).complete("1");
+        assertNull(result.getException());
+        assertEquals("1", result.getValue());
+    }
+
+    @Test
+    void testConcurrencyLimit() {
+        BroadcastCluster1Invoker<DemoService> invoker = newClusterInvoker("broadcast.mode=async&broadcast.concurrency=1");
+        List<PendingInvoker> pendingInvokers = Arrays.asList(new PendingInvoker(), new PendingInvoker(), new PendingInvoker());
+        given(dic.list(invocation)).willReturn(new ArrayList<>(pendingInvokers));
+        invocation.setInvokeMode(InvokeMode.ASYNC);
+
+        AsyncRpcResult result = (AsyncRpcResult) invoker.invoke(invocation);
+        assertTrue(pendingInvokers.get(0).isInvoked());
+        assertFalse(pendingInvokers.get(1).isInvoked());
+        pendingInvokers.get(0).complete("0");
+        assertTrue(pendingInvokers.get(1).isInvoked());
+        assertFalse(pendingInvokers.get(2).isInvoked());
+        pendingInvokers.get(1).complete("1");
+        pendingInvokers.get(2).complete("2");
+        assertTrue(result.getResponseFuture().isDone());
+    }
+
+    @Test
+    void testFailFast() {
+        BroadcastCluster1Invoker<DemoService> invoker = newClusterInvoker("broadcast.fail.fast=true&broadcast.concurrency=1");
+        given(dic.list(invocation)).willReturn(Arrays.asList(invoker1, invoker2, invoker3, invoker4));
+        invoker1.invokeThrowEx();
+        Throwable exception = invoker.invoke(invocation).getException();
+        assertInstanceOf(RpcException.class, exception);
+        assertTrue(invoker1.isInvoked());
+        assertFalse(invoker2.isInvoked());
+        assertFalse(invoker3.isInvoked());
+        assertFalse(invoker4.isInvoked());
+    }
+
     @Test
     void testNoProvider() {
         given(dic.list(invocation)).willReturn(Collections.emptyList());
@@ -117,6 +207,51 @@ public class BroadcastCluster1InvokerTest {
         );
         assertTrue(exception.getMessage().contains("No provider available"));
     }
+
+    private BroadcastCluster1Invoker<DemoService> newClusterInvoker(String parameters) {
+        URL consumerUrl = URL.valueOf("test://127.0.0.1:8080/test?" + parameters);
+        given(dic.getUrl()).willReturn(consumerUrl);
+        given(dic.getConsumerUrl()).willReturn(consumerUrl);
+        return new BroadcastCluster1Invoker<>(dic);
+    }
+}
+
+class PendingInvoker implements Invoker<DemoService> {
+    private final URL url = URL.valueOf("test://127.0.0.1:8080/test");
+    private final CompletableFuture<AppResponse> future = new CompletableFuture<>();
+    private volatile boolean invoked = false;
+
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {}
+
+    @Override
+    public Class<DemoService> getInterface() {
+        return DemoService.class;
+    }
+
+    @Override
+    public Result invoke(Invocation invocation) throws RpcException {
+        invoked = true;
+        return new AsyncRpcResult(future, invocation);
+    }
+
+    public void complete(Object value) {
+        future.complete(new AppResponse(value));
+    }
+
+    public boolean isInvoked() {
+        return invoked;
+    }
 }
 
 class MockInvoker implements Invoker<DemoService> {
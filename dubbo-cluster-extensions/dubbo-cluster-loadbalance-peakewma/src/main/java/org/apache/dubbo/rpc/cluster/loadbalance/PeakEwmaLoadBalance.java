@@ -24,11 +24,12 @@ import org.apache.dubbo.rpc.RpcStatus;
 import org.apache.dubbo.rpc.model.ApplicationModel;
 import org.apache.dubbo.rpc.model.ScopeModelAware;
 
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * <p>
@@ -36,8 +37,13 @@ import java.util.concurrent.locks.ReentrantLock;
  * It is quick to react to latency spikes recovering only cautiously.Peak EWMA takes
  * history into account,so that slow behavior is penalized relative to the
  * supplied `decayTime`.
- * if there are multiple invokers and the same cost,then randomly called,which doesn't care
- * about weight.
+ * <p>
+ * Selection uses power-of-two-choices: two distinct invokers are sampled at random and
+ * the one with the lower cost wins, tiny clusters are scanned completely instead.
+ * Ties are broken randomly and weight is ignored.
+ * The ewma state of every (invoker, method) slot is packed into a single long and
+ * updated by CAS, so selection neither locks nor allocates. Slots of invokers that have
+ * been destroyed or not been selected for a long time are evicted periodically.
  * <p>
  * Inspiration drawn from:
  * https://github.com/twitter/finagle/blob/1bc837c4feafc0096e43c0e98516a8e1c50c4421
@@ -54,95 +60,220 @@ public class PeakEwmaLoadBalance extends AbstractLoadBalance implements ScopeMod
     //double precision
     private static final double ZERO_COST = 1E-6;
 
+    // up to this many invokers an exact scan is as cheap as sampling and avoids its bias on tiny clusters
+    private static final int FULL_SCAN_THRESHOLD = 4;
+
+    // slots idle for more than this many decay times carry no useful history and are dropped
+    private static final int IDLE_DECAY_TIMES = 10;
+
+    // base of the 32 bits relative timestamps packed into the ewma state
+    private static final long EPOCH = System.currentTimeMillis();
+
     // The mean lifetime of `cost`, it reaches its half-life after decayTime*ln(2).
-    private static double decayTime;
+    private static double decayTime = 10_000;
 
     @Override
     public void setApplicationModel(ApplicationModel applicationModel) {
         decayTime = applicationModel.getModelEnvironment().getConfiguration().getInt(PEAK_EWMA_DECAY_TIME, 10_000);
     }
 
-    private Map<RpcStatus, Metric> methodMap = CollectionUtils.newConcurrentHashMap();
+    private final Map<Invoker<?>, InvokerSlot> slots = CollectionUtils.newConcurrentHashMap();
+
+    private final AtomicLong lastSweepTime = new AtomicLong(EPOCH);
+
+    /**
+     * Per invoker holder of the method level metrics.
+     */
+    protected static class InvokerSlot {
+
+        private final Map<String, Metric> methodMetrics = CollectionUtils.newConcurrentHashMap();
+
+        private volatile long lastSelectTime;
+
+        InvokerSlot(long now) {
+            this.lastSelectTime = now;
+        }
+
+        Metric getMetric(URL url, String methodName) {
+            Metric metric = methodMetrics.get(methodName);
+            if (metric == null) {
+                metric = methodMetrics.computeIfAbsent(methodName, m -> new Metric(RpcStatus.getStatus(url, m)));
+            }
+            return metric;
+        }
+    }
 
     protected static class Metric {
-        // last timestamp in Millis we observed an runningTime
-        private volatile long lastUpdateTime;
 
-        // ewma of rtt, sensitive to peaks.
-        private volatile double cost;
+        private static final AtomicLongFieldUpdater<Metric> STATE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(Metric.class, "state");
 
-        // calculate running time And active num
-        private RpcStatus rpcStatus;
-        private long invokeOffset;
-        private long invokeElapsedOffset;
+        // high 32 bits: float bits of the ewma of rtt, low 32 bits: last observe time relative to EPOCH
+        private volatile long state;
 
-        //lock for get and set cost
-        ReentrantLock ewmaLock = new ReentrantLock();
+        // calculate running time And active num
+        private final RpcStatus rpcStatus;
+        private volatile long succeededOffset;
+        private volatile long succeededElapsedOffset;
 
         public Metric(RpcStatus rpcStatus) {
             this.rpcStatus = rpcStatus;
-            this.lastUpdateTime = System.currentTimeMillis();
-            this.cost = 0.0;
-            this.invokeOffset = 0;
-            this.invokeElapsedOffset = 0;
+            this.succeededOffset = rpcStatus.getSucceeded();
+            this.succeededElapsedOffset = rpcStatus.getSucceededElapsed();
+            this.state = pack(0.0f, relativeTime(System.currentTimeMillis()));
         }
 
-        private void observe() {
-            double rtt = 0;
-            long succeed = this.rpcStatus.getSucceeded() - this.invokeOffset;
-            if (succeed != 0) {
-                rtt = (this.rpcStatus.getSucceededElapsed() * 1.0 - this.invokeElapsedOffset) / succeed;
-            }
+        private static int relativeTime(long currentTime) {
+            return (int) (currentTime - EPOCH);
+        }
 
-            final long currentTime = System.currentTimeMillis();
-            long td = Math.max(currentTime - lastUpdateTime, 0);
-            double w = Math.exp(-td / decayTime);
-            if (rtt > cost) {
-                cost = rtt;
-            } else {
-                cost = cost * w + rtt * (1.0 - w);
-            }
+        private static long pack(float cost, int time) {
+            return ((long) Float.floatToRawIntBits(cost) << 32) | (time & 0xFFFFFFFFL);
+        }
 
-            lastUpdateTime = currentTime;
-            invokeOffset = rpcStatus.getTotal();
-            invokeElapsedOffset = rpcStatus.getTotalElapsed();
+        private static float unpackCost(long state) {
+            return Float.intBitsToFloat((int) (state >>> 32));
         }
 
-        private double getCost() {
-            ewmaLock.lock();
-            observe();
-            int active = rpcStatus.getActive();
-            ewmaLock.unlock();
+        private static int unpackTime(long state) {
+            return (int) state;
+        }
+
+        private double observe(int now) {
+            long succeeded = rpcStatus.getSucceeded();
+            long succeededElapsed = rpcStatus.getSucceededElapsed();
+            for (; ; ) {
+                long current = state;
+                float cost = unpackCost(current);
+                long succeed = succeeded - succeededOffset;
+                // int subtraction keeps the delta right across the 32 bits wrap around
+                int td = Math.max(now - unpackTime(current), 0);
+                if (succeed == 0 && (td == 0 || cost == 0.0f)) {
+                    // nothing new observed and nothing to decay
+                    return cost;
+                }
+
+                double rtt = 0;
+                if (succeed > 0) {
+                    rtt = (succeededElapsed - succeededElapsedOffset) * 1.0 / succeed;
+                }
+                double newCost;
+                if (rtt > cost) {
+                    newCost = rtt;
+                } else {
+                    double w = td == 0 ? 1.0 : Math.exp(-td / decayTime);
+                    newCost = cost * w + rtt * (1.0 - w);
+                }
+
+                if (STATE_UPDATER.compareAndSet(this, current, pack((float) newCost, now))) {
+                    // offsets may briefly lag a concurrent observer, which only smooths the next sample
+                    succeededOffset = succeeded;
+                    succeededElapsedOffset = succeededElapsed;
+                    return newCost;
+                }
+                succeeded = rpcStatus.getSucceeded();
+                succeededElapsed = rpcStatus.getSucceededElapsed();
+            }
+        }
 
-            double costTemp = cost;
+        private double getCost(int now) {
+            double cost = observe(now);
+            int active = rpcStatus.getActive();
 
             //If we don't have any latency history, we penalize the host on the first probe.
-            return (costTemp < ZERO_COST && active != 0) ? PENALTY + active : costTemp * (active + 1);
+            return (cost < ZERO_COST && active != 0) ? PENALTY + active : cost * (active + 1);
         }
     }
 
     @Override
     protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
         int length = invokers.size();
-        double minResponse = Double.MAX_VALUE;
+        long currentTime = System.currentTimeMillis();
+        sweepIfNecessary(currentTime);
 
-        List<Integer> selectInvokerIndexList = new ArrayList<>(invokers.size());
-        for (int i = 0; i < length; i++) {
-            Invoker<T> invoker = invokers.get(i);
-            RpcStatus rpcStatus = RpcStatus.getStatus(invoker.getUrl(), invocation.getMethodName());
-            Metric metric = methodMap.computeIfAbsent(rpcStatus, Metric::new);
+        if (length == 1) {
+            return invokers.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int now = Metric.relativeTime(currentTime);
+        String methodName = invocation.getMethodName();
+        if (length <= FULL_SCAN_THRESHOLD) {
+            return scan(invokers, methodName, currentTime, now, random);
+        }
+
+        int first = random.nextInt(length);
+        int second = random.nextInt(length - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        Invoker<T> firstInvoker = invokers.get(first);
+        Invoker<T> secondInvoker = invokers.get(second);
+
+        // calculate the estimated response time from the product of active connections and succeeded average elapsed time.
+        double firstCost = getMetric(firstInvoker, methodName, currentTime).getCost(now);
+        double secondCost = getMetric(secondInvoker, methodName, currentTime).getCost(now);
+
+        if (firstCost == secondCost) {
+            return random.nextBoolean() ? firstInvoker : secondInvoker;
+        }
+        return firstCost < secondCost ? firstInvoker : secondInvoker;
+    }
 
-            // calculate the estimated response time from the product of active connections and succeeded average elapsed time.
-            double estimateResponse = metric.getCost();
+    private <T> Invoker<T> scan(List<Invoker<T>> invokers, String methodName, long currentTime, int now,
+                                ThreadLocalRandom random) {
+        Invoker<T> selected = null;
+        double minResponse = Double.MAX_VALUE;
+        int sameCount = 0;
+        for (int i = 0, length = invokers.size(); i < length; i++) {
+            Invoker<T> invoker = invokers.get(i);
+            double estimateResponse = getMetric(invoker, methodName, currentTime).getCost(now);
             if (estimateResponse < minResponse) {
-                selectInvokerIndexList.clear();
-                selectInvokerIndexList.add(i);
+                selected = invoker;
                 minResponse = estimateResponse;
-            } else if (estimateResponse == minResponse) {
-                selectInvokerIndexList.add(i);
+                sameCount = 1;
+            } else if (estimateResponse == minResponse && random.nextInt(++sameCount) == 0) {
+                // reservoir sampling keeps the choice among equal costs uniform
+                selected = invoker;
             }
         }
+        return selected;
+    }
+
+    private Metric getMetric(Invoker<?> invoker, String methodName, long currentTime) {
+        InvokerSlot slot = slots.get(invoker);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(invoker, i -> new InvokerSlot(currentTime));
+        }
+        // written at most once per millisecond, so the threads selecting the same invoker mostly read the slot
+        if (slot.lastSelectTime != currentTime) {
+            slot.lastSelectTime = currentTime;
+        }
+        return slot.getMetric(invoker.getUrl(), methodName);
+    }
+
+    /**
+     * Evict the slots of invokers which have left the directory, i.e. destroyed or
+     * unavailable ones, and of invokers not selected for {@link #IDLE_DECAY_TIMES} decay times.
+     * At most one thread sweeps per decay time.
+     */
+    private void sweepIfNecessary(long currentTime) {
+        long lastSweep = lastSweepTime.get();
+        if (currentTime - lastSweep < decayTime || !lastSweepTime.compareAndSet(lastSweep, currentTime)) {
+            return;
+        }
+        long idleTimeout = (long) (decayTime * IDLE_DECAY_TIMES);
+        Iterator<Map.Entry<Invoker<?>, InvokerSlot>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Invoker<?>, InvokerSlot> entry = iterator.next();
+            if (!entry.getKey().isAvailable() || currentTime - entry.getValue().lastSelectTime > idleTimeout) {
+                iterator.remove();
+            }
+        }
+    }
 
-        return invokers.get(selectInvokerIndexList.get(ThreadLocalRandom.current().nextInt(selectInvokerIndexList.size())));
+    int slotSize() {
+        return slots.size();
     }
 }
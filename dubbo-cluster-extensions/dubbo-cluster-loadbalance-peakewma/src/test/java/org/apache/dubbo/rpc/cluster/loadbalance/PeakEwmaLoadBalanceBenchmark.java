@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcStatus;
+import org.apache.dubbo.rpc.model.ApplicationModel;
+import org.apache.dubbo.rpc.support.MockInvoker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PeakEwmaLoadBalance} with {@link LegacyPeakEwmaLoadBalance}.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.apache.dubbo.rpc.cluster.loadbalance.PeakEwmaLoadBalanceBenchmark},
+ * or from the IDE, and add {@code -prof gc} to the options to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PeakEwmaLoadBalanceBenchmark {
+
+    private static final String METHOD_NAME = "sayHello";
+
+    @Param({"10", "100", "1000"})
+    private int invokerCount;
+
+    @Param({"legacy", "p2c"})
+    private String implementation;
+
+    private AbstractLoadBalance loadBalance;
+
+    private List<Invoker<Object>> invokers;
+
+    private URL url;
+
+    private Invocation invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("legacy".equals(implementation)) {
+            LegacyPeakEwmaLoadBalance legacy = new LegacyPeakEwmaLoadBalance();
+            legacy.setApplicationModel(ApplicationModel.defaultModel());
+            loadBalance = legacy;
+        } else {
+            PeakEwmaLoadBalance peakEwma = new PeakEwmaLoadBalance();
+            peakEwma.setApplicationModel(ApplicationModel.defaultModel());
+            loadBalance = peakEwma;
+        }
+
+        invokers = new ArrayList<>(invokerCount);
+        for (int i = 0; i < invokerCount; i++) {
+            URL invokerUrl = URL.valueOf("dubbo://10.0." + (i / 250) + "." + (i % 250) + ":20880/"
+                + implementation + ".DemoService");
+            invokers.add(new MockInvoker<>(invokerUrl, Object.class));
+            // seed a latency history, so the costs differ between invokers
+            for (int j = 0; j < 10; j++) {
+                RpcStatus.beginCount(invokerUrl, METHOD_NAME);
+                RpcStatus.endCount(invokerUrl, METHOD_NAME, ThreadLocalRandom.current().nextInt(1, 50), true);
+            }
+        }
+        url = invokers.get(0).getUrl();
+        invocation = new RpcInvocation(METHOD_NAME, "DemoService", "", new Class<?>[0], new Object[0]);
+    }
+
+    @Benchmark
+    public Invoker<Object> select() {
+        return loadBalance.select(invokers, url, invocation);
+    }
+
+    @Benchmark
+    public Invoker<Object> selectAndRecord() {
+        Invoker<Object> selected = loadBalance.select(invokers, url, invocation);
+        URL selectedUrl = selected.getUrl();
+        RpcStatus.beginCount(selectedUrl, METHOD_NAME);
+        RpcStatus.endCount(selectedUrl, METHOD_NAME, ThreadLocalRandom.current().nextInt(1, 50), true);
+        return selected;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PeakEwmaLoadBalanceBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
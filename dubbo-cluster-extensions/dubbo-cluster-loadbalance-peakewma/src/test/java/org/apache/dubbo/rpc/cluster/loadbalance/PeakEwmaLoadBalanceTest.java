@@ -20,7 +20,9 @@ import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.RpcStatus;
 import org.apache.dubbo.rpc.model.ApplicationModel;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -33,6 +35,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static org.mockito.BDDMockito.given;
+
 /**
  * PeakEwmaLoadBalanceTest
  */
@@ -44,10 +48,30 @@ public class PeakEwmaLoadBalanceTest extends LoadBalanceBaseTest {
 
     private static final long SHAKE_TIME = 50;
 
+    private static final String DECAY_TIME_KEY = "peakEwmaDecayTime";
+
     private AtomicInteger sumInvoker1 = new AtomicInteger(0);
     private AtomicInteger sumInvoker2 = new AtomicInteger(0);
     private AtomicInteger sumInvoker5 = new AtomicInteger(0);
 
+    private String decayTime;
+
+    @BeforeEach
+    public void saveDecayTime() {
+        decayTime = System.getProperty(DECAY_TIME_KEY);
+    }
+
+    @AfterEach
+    public void restoreDecayTime() {
+        if (decayTime == null) {
+            System.clearProperty(DECAY_TIME_KEY);
+        } else {
+            System.setProperty(DECAY_TIME_KEY, decayTime);
+        }
+        // the decay time is shared by all the instances
+        new PeakEwmaLoadBalance().setApplicationModel(ApplicationModel.defaultModel());
+    }
+
     @Test
     public void testWithoutShake() throws InterruptedException {
         //active -> 0
@@ -76,6 +100,42 @@ public class PeakEwmaLoadBalanceTest extends LoadBalanceBaseTest {
         Assertions.assertTrue(sumInvoker1.get() <= INVOKE_NUM);
     }
 
+    @Test
+    public void testPreferLowerCost() {
+        PeakEwmaLoadBalance lb = new PeakEwmaLoadBalance();
+        lb.setApplicationModel(ApplicationModel.defaultModel());
+        List<Invoker<LoadBalanceBaseTest>> twoInvokers = new ArrayList<>();
+        twoInvokers.add(invoker1);
+        twoInvokers.add(invoker2);
+
+        // invoker1 has a request in flight without any latency history, so it is penalized
+        RpcStatus.beginCount(invoker1.getUrl(), invocation.getMethodName());
+        try {
+            for (int i = 0; i < 100; i++) {
+                Assertions.assertSame(invoker2, lb.select(twoInvokers, null, invocation));
+            }
+        } finally {
+            RpcStatus.endCount(invoker1.getUrl(), invocation.getMethodName(), 0L, true);
+        }
+    }
+
+    @Test
+    public void testEvictUnavailableInvoker() throws InterruptedException {
+        System.setProperty(DECAY_TIME_KEY, "1");
+        PeakEwmaLoadBalance lb = new PeakEwmaLoadBalance();
+        lb.setApplicationModel(ApplicationModel.defaultModel());
+        for (int i = 0; i < 100; i++) {
+            lb.select(invokers, null, invocation);
+        }
+        Assertions.assertEquals(invokers.size(), lb.slotSize());
+
+        given(invoker1.isAvailable()).willReturn(false);
+        TimeUnit.MILLISECONDS.sleep(5);
+        invokers.remove(invoker1);
+        lb.select(invokers, null, invocation);
+        Assertions.assertTrue(lb.slotSize() < 5);
+    }
+
     private Callable<Boolean> getTask(boolean needShake) {
         PeakEwmaLoadBalance lb = new PeakEwmaLoadBalance();
         lb.setApplicationModel(ApplicationModel.defaultModel());
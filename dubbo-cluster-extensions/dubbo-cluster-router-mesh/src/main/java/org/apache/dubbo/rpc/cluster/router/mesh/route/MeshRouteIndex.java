@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.mesh.route;
+
+import org.apache.dubbo.common.utils.CollectionUtils;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.VsDestinationGroup;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.DubboMatchRequest;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.DubboRoute;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.DubboRouteDetail;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.VirtualServiceRule;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.destination.DubboRouteDestination;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.match.DubboMethodMatch;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.match.StringMatch;
+import org.apache.dubbo.rpc.cluster.router.mesh.util.TracingContextProvider;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Virtual service rules of all applications compiled for routing.
+ * <p>
+ * The dubbo route of an application only depends on the service name and is memoised per service.
+ * The route details which can match a method only depend on the method name and the router's source labels,
+ * so they are memoised per (service, method) and only the argument and attachment conditions of those
+ * candidates are evaluated per invocation.
+ */
+public class MeshRouteIndex {
+
+    private static final MeshRouteIndex EMPTY = new MeshRouteIndex(Collections.emptyMap(), Collections.emptyMap());
+
+    private static final RouteCandidate[] NO_CANDIDATES = new RouteCandidate[0];
+
+    private final Map<String, AppRoutes> appRoutes;
+
+    private final Map<String, String> sourceLabels;
+
+    private MeshRouteIndex(Map<String, AppRoutes> appRoutes, Map<String, String> sourceLabels) {
+        this.appRoutes = appRoutes;
+        this.sourceLabels = sourceLabels;
+    }
+
+    public static MeshRouteIndex emptyIndex() {
+        return EMPTY;
+    }
+
+    public static MeshRouteIndex build(Map<String, VsDestinationGroup> appToVDGroup, Map<String, String> sourceLabels) {
+        if (CollectionUtils.isEmptyMap(appToVDGroup)) {
+            return EMPTY;
+        }
+        Map<String, AppRoutes> appRoutes = new HashMap<>();
+        for (Map.Entry<String, VsDestinationGroup> entry : appToVDGroup.entrySet()) {
+            List<DubboRoute> routes = new ArrayList<>();
+            for (VirtualServiceRule virtualServiceRule : entry.getValue().getVirtualServiceRuleList()) {
+                if (virtualServiceRule.getSpec() != null && virtualServiceRule.getSpec().getDubbo() != null) {
+                    routes.addAll(virtualServiceRule.getSpec().getDubbo());
+                }
+            }
+            appRoutes.put(entry.getKey(), new AppRoutes(routes));
+        }
+        return new MeshRouteIndex(appRoutes, sourceLabels);
+    }
+
+    /**
+     * Select RouteDestination of the app by Invocation, same as
+     * {@link MeshRuleRouter#getDubboRouteDestination(VsDestinationGroup, Invocation)}.
+     */
+    public List<DubboRouteDestination> getDubboRouteDestination(
+            String appName, Invocation invocation, Set<TracingContextProvider> contextProviders) {
+        AppRoutes routes = appRoutes.get(appName);
+        if (routes == null) {
+            return null;
+        }
+        ServiceRoutes serviceRoutes = routes.getServiceRoutes(invocation.getServiceName());
+        if (serviceRoutes.route == null) {
+            return null;
+        }
+
+        RouteCandidate[] candidates = serviceRoutes.getCandidates(RpcUtils.getMethodName(invocation), sourceLabels);
+        for (RouteCandidate candidate : candidates) {
+            if (candidate.isMatch(invocation, sourceLabels, contextProviders)) {
+                return candidate.detail.getRoute();
+            }
+        }
+        return null;
+    }
+
+    private static class AppRoutes {
+
+        // dubbo routes of all virtual services in rule order, the first one matching the service wins
+        private final List<DubboRoute> routes;
+
+        private final ConcurrentMap<String, ServiceRoutes> serviceRoutes = new ConcurrentHashMap<>();
+
+        AppRoutes(List<DubboRoute> routes) {
+            this.routes = routes;
+        }
+
+        ServiceRoutes getServiceRoutes(String serviceName) {
+            String key = serviceName == null ? "" : serviceName;
+            ServiceRoutes result = serviceRoutes.get(key);
+            if (result == null) {
+                result = serviceRoutes.computeIfAbsent(key, k -> new ServiceRoutes(matchRoute(serviceName)));
+            }
+            return result;
+        }
+
+        private DubboRoute matchRoute(String serviceName) {
+            for (DubboRoute dubboRoute : routes) {
+                List<StringMatch> stringMatchList = dubboRoute.getServices();
+                if (CollectionUtils.isEmpty(stringMatchList)) {
+                    return dubboRoute;
+                }
+                for (StringMatch stringMatch : stringMatchList) {
+                    if (stringMatch.isMatch(serviceName)) {
+                        return dubboRoute;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class ServiceRoutes {
+
+        private final DubboRoute route;
+
+        private final ConcurrentMap<String, RouteCandidate[]> methodCandidates = new ConcurrentHashMap<>();
+
+        ServiceRoutes(DubboRoute route) {
+            this.route = route;
+        }
+
+        RouteCandidate[] getCandidates(String methodName, Map<String, String> sourceLabels) {
+            String key = methodName == null ? "" : methodName;
+            RouteCandidate[] result = methodCandidates.get(key);
+            if (result == null) {
+                result = methodCandidates.computeIfAbsent(key, k -> compile(methodName, sourceLabels));
+            }
+            return result;
+        }
+
+        private RouteCandidate[] compile(String methodName, Map<String, String> sourceLabels) {
+            List<DubboRouteDetail> dubboRouteDetailList = route.getRoutedetail();
+            if (CollectionUtils.isEmpty(dubboRouteDetailList)) {
+                return NO_CANDIDATES;
+            }
+            List<RouteCandidate> candidates = new ArrayList<>();
+            for (DubboRouteDetail dubboRouteDetail : dubboRouteDetailList) {
+                List<DubboMatchRequest> matchRequestList = dubboRouteDetail.getMatch();
+                boolean staticMatch = true;
+                boolean unconditional = true;
+                if (CollectionUtils.isNotEmpty(matchRequestList)) {
+                    for (DubboMatchRequest request : matchRequestList) {
+                        if (!isStaticMatch(request, methodName, sourceLabels)) {
+                            staticMatch = false;
+                            break;
+                        }
+                        unconditional &= !hasDynamicCondition(request);
+                    }
+                }
+                if (!staticMatch) {
+                    continue;
+                }
+                candidates.add(new RouteCandidate(dubboRouteDetail, unconditional));
+                if (unconditional) {
+                    // later details are never reached
+                    break;
+                }
+            }
+            return candidates.toArray(NO_CANDIDATES);
+        }
+
+        /**
+         * Match the conditions which only depend on the method name and the source labels.
+         */
+        private static boolean isStaticMatch(
+                DubboMatchRequest request, String methodName, Map<String, String> sourceLabels) {
+            DubboMethodMatch method = request.getMethod();
+            if (method != null && method.getName_match() != null && !method.getName_match().isMatch(methodName)) {
+                return false;
+            }
+            if (request.getSourceLabels() != null) {
+                for (Map.Entry<String, String> entry : request.getSourceLabels().entrySet()) {
+                    if (!entry.getValue().equals(sourceLabels.get(entry.getKey()))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static boolean hasDynamicCondition(DubboMatchRequest request) {
+            DubboMethodMatch method = request.getMethod();
+            return request.getAttachments() != null
+                    || method != null
+                            && (method.getArgc() != null
+                                    || CollectionUtils.isNotEmpty(method.getArgp())
+                                    || CollectionUtils.isNotEmpty(method.getArgs()));
+        }
+    }
+
+    private static class RouteCandidate {
+
+        private final DubboRouteDetail detail;
+
+        // matches every invocation of the method
+        private final boolean unconditional;
+
+        RouteCandidate(DubboRouteDetail detail, boolean unconditional) {
+            this.detail = detail;
+            this.unconditional = unconditional;
+        }
+
+        boolean isMatch(
+                Invocation invocation,
+                Map<String, String> sourceLabels,
+                Set<TracingContextProvider> contextProviders) {
+            if (unconditional) {
+                return true;
+            }
+            for (DubboMatchRequest request : detail.getMatch()) {
+                if (!request.isMatch(invocation, sourceLabels, contextProviders)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
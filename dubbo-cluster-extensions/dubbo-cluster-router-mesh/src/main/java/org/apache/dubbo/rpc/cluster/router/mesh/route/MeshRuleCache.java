@@ -26,12 +26,16 @@ import org.apache.dubbo.rpc.cluster.router.mesh.rule.destination.DestinationRule
 import org.apache.dubbo.rpc.cluster.router.mesh.rule.destination.Subset;
 import org.apache.dubbo.rpc.cluster.router.state.BitList;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import static org.apache.dubbo.rpc.cluster.router.mesh.route.MeshRuleConstants.INVALID_APP_NAME;
 
@@ -40,16 +44,59 @@ public class MeshRuleCache<T> {
     private final Map<String, VsDestinationGroup> appToVDGroup;
     private final Map<String, Map<String, BitList<Invoker<T>>>> totalSubsetMap;
     private final BitList<Invoker<T>> unmatchedInvokers;
+    // origin list positions of the subset invokers, to test them without cloning the available invokers
+    private final List<Invoker<T>> originList;
+    private final Map<String, Map<String, BitSet>> totalSubsetIndexMap;
+    // the state reused by the next build, see build(MeshRuleCache, String, BitList, Map)
+    private final BitList<Invoker<T>> invokers;
+    private final Map<String, Map<Invoker<T>, List<String>>> appInvokerSubsets;
+    // origin list positions of the invokers of each application, null when some invokers are in the tail list
+    private final Map<String, BitSet> appIndexMap;
+    private final BitSet unmatchedIndexes;
+    private final int touchedInvokers;
 
     private MeshRuleCache(
             List<String> appList,
             Map<String, VsDestinationGroup> appToVDGroup,
             Map<String, Map<String, BitList<Invoker<T>>>> totalSubsetMap,
             BitList<Invoker<T>> unmatchedInvokers) {
+        this(
+                appList,
+                appToVDGroup,
+                totalSubsetMap,
+                unmatchedInvokers,
+                null,
+                Collections.emptyMap(),
+                null,
+                Collections.emptyMap(),
+                null,
+                null,
+                0);
+    }
+
+    private MeshRuleCache(
+            List<String> appList,
+            Map<String, VsDestinationGroup> appToVDGroup,
+            Map<String, Map<String, BitList<Invoker<T>>>> totalSubsetMap,
+            BitList<Invoker<T>> unmatchedInvokers,
+            List<Invoker<T>> originList,
+            Map<String, Map<String, BitSet>> totalSubsetIndexMap,
+            BitList<Invoker<T>> invokers,
+            Map<String, Map<Invoker<T>, List<String>>> appInvokerSubsets,
+            Map<String, BitSet> appIndexMap,
+            BitSet unmatchedIndexes,
+            int touchedInvokers) {
         this.appList = appList;
         this.appToVDGroup = appToVDGroup;
         this.totalSubsetMap = totalSubsetMap;
         this.unmatchedInvokers = unmatchedInvokers;
+        this.originList = originList;
+        this.totalSubsetIndexMap = totalSubsetIndexMap;
+        this.invokers = invokers;
+        this.appInvokerSubsets = appInvokerSubsets;
+        this.appIndexMap = appIndexMap;
+        this.unmatchedIndexes = unmatchedIndexes;
+        this.touchedInvokers = touchedInvokers;
     }
 
     public List<String> getAppList() {
@@ -68,6 +115,13 @@ public class MeshRuleCache<T> {
         return unmatchedInvokers;
     }
 
+    /**
+     * Number of invokers whose labels have been matched against the subsets while building this cache.
+     */
+    public int getTouchedInvokers() {
+        return touchedInvokers;
+    }
+
     public VsDestinationGroup getVsDestinationGroup(String appName) {
         return appToVDGroup.get(appName);
     }
@@ -83,6 +137,29 @@ public class MeshRuleCache<T> {
         return BitList.emptyList();
     }
 
+    /**
+     * Whether any invoker of the subset is contained in the available invokers.
+     * Unlike {@code !availableInvokers.clone().and(subsetInvokers).isEmpty()} this does not copy the available
+     * invokers as long as they share the origin list the cache has been built from.
+     */
+    public boolean hasAvailableInvokers(String appName, String subset, BitList<Invoker<T>> availableInvokers) {
+        BitList<Invoker<T>> subsetInvokers = getSubsetInvokers(appName, subset);
+        if (subsetInvokers.isEmpty()) {
+            return false;
+        }
+        Map<String, BitSet> subsetIndexes = totalSubsetIndexMap.get(appName);
+        BitSet indexes = subsetIndexes == null ? null : subsetIndexes.get(subset);
+        if (indexes == null || originList == null || availableInvokers.getOriginList() != originList) {
+            return !availableInvokers.clone().and(subsetInvokers).isEmpty();
+        }
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            if (availableInvokers.indexExist(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean containsRule() {
         return !totalSubsetMap.isEmpty();
     }
@@ -91,53 +168,245 @@ public class MeshRuleCache<T> {
             String protocolServiceKey,
             BitList<Invoker<T>> invokers,
             Map<String, VsDestinationGroup> vsDestinationGroupMap) {
+        return build(null, protocolServiceKey, invokers, vsDestinationGroupMap);
+    }
+
+    /**
+     * Build the cache, reusing the subset matches of the previous cache.
+     * <p>
+     * On a rule change, i.e. the previous cache was built from the same invokers, only the invokers of the
+     * applications whose rule has been added, replaced or removed are walked, the subsets of the other applications
+     * are shared with the previous cache.
+     * <p>
+     * On an invoker change every invoker is walked, as the subsets are {@link BitList}s of the new origin list, but
+     * the labels are only matched for the new invokers and the invokers of a replaced rule. Removed invokers and
+     * applications just drop out.
+     *
+     * @param previous the cache built before, {@code null} to match all invokers
+     */
+    public static <T> MeshRuleCache<T> build(
+            MeshRuleCache<T> previous,
+            String protocolServiceKey,
+            BitList<Invoker<T>> invokers,
+            Map<String, VsDestinationGroup> vsDestinationGroupMap) {
         if (CollectionUtils.isNotEmptyMap(vsDestinationGroupMap)) {
-            BitList<Invoker<T>> unmatchedInvokers = new BitList<>(invokers.getOriginList(), true);
-            Map<String, Map<String, BitList<Invoker<T>>>> totalSubsetMap = new HashMap<>();
-
-            for (Invoker<T> invoker : invokers) {
-                String remoteApplication = invoker.getUrl().getRemoteApplication();
-                if (StringUtils.isEmpty(remoteApplication) || INVALID_APP_NAME.equals(remoteApplication)) {
-                    unmatchedInvokers.add(invoker);
-                    continue;
+            // the router replaces its invokers on notify rather than changing them
+            if (previous != null && previous.invokers == invokers && previous.appIndexMap != null) {
+                return rebuildRules(previous, protocolServiceKey, invokers, vsDestinationGroupMap);
+            }
+            Builder<T> builder = new Builder<>(previous, protocolServiceKey, invokers, vsDestinationGroupMap);
+            List<Invoker<T>> originList = invokers.getOriginList();
+
+            // walk the origin list by index, BitList#add would look every invoker up in the origin list
+            for (int index = 0; index < originList.size(); index++) {
+                if (invokers.indexExist(index)) {
+                    builder.addInvoker(originList.get(index), index);
                 }
-                VsDestinationGroup vsDestinationGroup = vsDestinationGroupMap.get(remoteApplication);
-                if (vsDestinationGroup == null) {
-                    unmatchedInvokers.add(invoker);
-                    continue;
+            }
+            if (invokers.hasMoreElementInTailList()) {
+                for (Invoker<T> invoker : invokers.getTailList()) {
+                    builder.addInvoker(invoker, -1);
                 }
-                Map<String, BitList<Invoker<T>>> subsetMap =
-                        totalSubsetMap.computeIfAbsent(remoteApplication, (k) -> new HashMap<>());
+            }
+            return builder.build();
+        } else {
+            return new MeshRuleCache<>(
+                    Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(), invokers);
+        }
+    }
 
-                boolean matched = false;
+    private static <T> MeshRuleCache<T> rebuildRules(
+            MeshRuleCache<T> previous,
+            String protocolServiceKey,
+            BitList<Invoker<T>> invokers,
+            Map<String, VsDestinationGroup> vsDestinationGroupMap) {
+        Builder<T> builder = new Builder<>(previous, protocolServiceKey, invokers, vsDestinationGroupMap);
+        Set<String> changedApps = new HashSet<>(previous.appToVDGroup.keySet());
+        changedApps.addAll(vsDestinationGroupMap.keySet());
+        for (Map.Entry<String, VsDestinationGroup> entry : vsDestinationGroupMap.entrySet()) {
+            // rules are replaced as a whole, an untouched group keeps its subsets
+            if (previous.appToVDGroup.get(entry.getKey()) == entry.getValue()) {
+                builder.reuseApp(entry.getKey());
+                changedApps.remove(entry.getKey());
+            }
+        }
+        for (String app : changedApps) {
+            BitSet indexes = previous.appIndexMap.get(app);
+            if (indexes == null) {
+                continue;
+            }
+            for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+                builder.unmatchedIndexes.clear(index);
+                builder.addInvoker(builder.originList.get(index), index);
+            }
+        }
+        return builder.build();
+    }
+
+    private static class Builder<T> {
+
+        private final String protocolServiceKey;
+        private final BitList<Invoker<T>> invokers;
+        private final List<Invoker<T>> originList;
+        private final Map<String, VsDestinationGroup> vsDestinationGroupMap;
+        private final MeshRuleCache<T> previous;
+        private final boolean rebuildRules;
+
+        private final BitSet unmatchedIndexes;
+        private final List<Invoker<T>> unmatchedTailList = new ArrayList<>();
+        private final Map<String, Map<String, BitList<Invoker<T>>>> totalSubsetMap = new HashMap<>();
+        private final Map<String, Map<String, BitSet>> totalSubsetIndexMap = new HashMap<>();
+        private final Map<String, Map<Invoker<T>, List<String>>> appInvokerSubsets = new HashMap<>();
+        private Map<String, BitSet> appIndexMap;
+        private int touchedInvokers;
+
+        Builder(
+                MeshRuleCache<T> previous,
+                String protocolServiceKey,
+                BitList<Invoker<T>> invokers,
+                Map<String, VsDestinationGroup> vsDestinationGroupMap) {
+            this.protocolServiceKey = protocolServiceKey;
+            this.invokers = invokers;
+            this.originList = invokers.getOriginList();
+            this.vsDestinationGroupMap = vsDestinationGroupMap;
+            this.previous = previous;
+            this.rebuildRules = previous != null && previous.invokers == invokers && previous.appIndexMap != null;
+            if (rebuildRules) {
+                this.unmatchedIndexes = (BitSet) previous.unmatchedIndexes.clone();
+                this.appIndexMap = previous.appIndexMap;
+            } else {
+                this.unmatchedIndexes = new BitSet();
+                this.appIndexMap = new HashMap<>();
+            }
+        }
+
+        /**
+         * Share the subsets of an application whose rule has not changed since the previous cache.
+         */
+        void reuseApp(String app) {
+            Map<String, BitList<Invoker<T>>> subsetMap = previous.totalSubsetMap.get(app);
+            if (subsetMap != null) {
+                totalSubsetMap.put(app, subsetMap);
+            }
+            Map<String, BitSet> subsetIndexMap = previous.totalSubsetIndexMap.get(app);
+            if (subsetIndexMap != null) {
+                totalSubsetIndexMap.put(app, subsetIndexMap);
+            }
+            Map<Invoker<T>, List<String>> invokerSubsets = previous.appInvokerSubsets.get(app);
+            if (invokerSubsets != null) {
+                appInvokerSubsets.put(app, invokerSubsets);
+            }
+        }
+
+        /**
+         * @param index position in the origin list, -1 for invokers of the tail list
+         */
+        void addInvoker(Invoker<T> invoker, int index) {
+            String remoteApplication = invoker.getUrl().getRemoteApplication();
+            boolean validApp = StringUtils.isNotEmpty(remoteApplication) && !INVALID_APP_NAME.equals(remoteApplication);
+            if (!rebuildRules && appIndexMap != null && validApp) {
+                if (index >= 0) {
+                    appIndexMap.computeIfAbsent(remoteApplication, (k) -> new BitSet()).set(index);
+                } else {
+                    // tail invokers can not be found by index, the next rule change walks all invokers
+                    appIndexMap = null;
+                }
+            }
+            VsDestinationGroup vsDestinationGroup = validApp ? vsDestinationGroupMap.get(remoteApplication) : null;
+            if (vsDestinationGroup == null) {
+                addUnmatched(invoker, index);
+                return;
+            }
+            Map<String, BitList<Invoker<T>>> subsetMap = totalSubsetMap.get(remoteApplication);
+            if (subsetMap == null) {
+                subsetMap = new HashMap<>();
                 for (DestinationRule destinationRule : vsDestinationGroup.getDestinationRuleList()) {
-                    DestinationRuleSpec destinationRuleSpec = destinationRule.getSpec();
-                    List<Subset> subsetList = destinationRuleSpec.getSubsets();
-                    for (Subset subset : subsetList) {
-                        String subsetName = subset.getName();
-                        List<Invoker<T>> subsetInvokers = subsetMap.computeIfAbsent(
-                                subsetName, (k) -> new BitList<>(invokers.getOriginList(), true));
-
-                        Map<String, String> labels = subset.getLabels();
-                        if (isLabelMatch(invoker.getUrl(), protocolServiceKey, labels)) {
-                            subsetInvokers.add(invoker);
-                            matched = true;
-                        }
+                    for (Subset subset : destinationRule.getSpec().getSubsets()) {
+                        subsetMap.put(subset.getName(), new BitList<>(originList, true));
                     }
                 }
-                if (!matched) {
-                    unmatchedInvokers.add(invoker);
+                totalSubsetMap.put(remoteApplication, subsetMap);
+            }
+            Map<String, BitSet> subsetIndexMap =
+                    totalSubsetIndexMap.computeIfAbsent(remoteApplication, (k) -> new HashMap<>());
+            Map<Invoker<T>, List<String>> invokerSubsets =
+                    appInvokerSubsets.computeIfAbsent(remoteApplication, (k) -> new HashMap<>());
+
+            List<String> matchedSubsets = null;
+            // rules are replaced as a whole, an untouched group means the previous match is still valid
+            if (previous != null && previous.appToVDGroup.get(remoteApplication) == vsDestinationGroup) {
+                Map<Invoker<T>, List<String>> previousInvokerSubsets =
+                        previous.appInvokerSubsets.get(remoteApplication);
+                matchedSubsets = previousInvokerSubsets == null ? null : previousInvokerSubsets.get(invoker);
+            }
+            if (matchedSubsets == null) {
+                matchedSubsets = matchSubsets(invoker, vsDestinationGroup);
+                touchedInvokers++;
+            }
+            invokerSubsets.put(invoker, matchedSubsets);
+
+            if (matchedSubsets.isEmpty()) {
+                addUnmatched(invoker, index);
+                return;
+            }
+            for (String subsetName : matchedSubsets) {
+                addToBitList(subsetMap.get(subsetName), invoker, index);
+                if (index >= 0) {
+                    subsetIndexMap.computeIfAbsent(subsetName, (k) -> new BitSet()).set(index);
+                } else {
+                    // tail invokers can not be tested by index, tail list is walked last
+                    subsetIndexMap.put(subsetName, null);
+                }
+            }
+        }
+
+        private void addUnmatched(Invoker<T> invoker, int index) {
+            if (index >= 0) {
+                unmatchedIndexes.set(index);
+            } else {
+                unmatchedTailList.add(invoker);
+            }
+        }
+
+        private List<String> matchSubsets(Invoker<T> invoker, VsDestinationGroup vsDestinationGroup) {
+            List<String> matchedSubsets = new ArrayList<>(1);
+            for (DestinationRule destinationRule : vsDestinationGroup.getDestinationRuleList()) {
+                DestinationRuleSpec destinationRuleSpec = destinationRule.getSpec();
+                for (Subset subset : destinationRuleSpec.getSubsets()) {
+                    if (isLabelMatch(invoker.getUrl(), protocolServiceKey, subset.getLabels())) {
+                        matchedSubsets.add(subset.getName());
+                    }
                 }
             }
+            return matchedSubsets.isEmpty() ? Collections.emptyList() : matchedSubsets;
+        }
 
+        MeshRuleCache<T> build() {
+            // the unmatched invokers get their own copy, the indexes are changed by the next rule change
+            BitList<Invoker<T>> unmatchedInvokers = new BitList<>(
+                    originList,
+                    (BitSet) unmatchedIndexes.clone(),
+                    unmatchedTailList.isEmpty() ? null : unmatchedTailList);
             return new MeshRuleCache<>(
                     new LinkedList<>(vsDestinationGroupMap.keySet()),
                     Collections.unmodifiableMap(vsDestinationGroupMap),
                     Collections.unmodifiableMap(totalSubsetMap),
-                    unmatchedInvokers);
+                    unmatchedInvokers,
+                    originList,
+                    totalSubsetIndexMap,
+                    invokers,
+                    appInvokerSubsets,
+                    appIndexMap,
+                    unmatchedIndexes,
+                    touchedInvokers);
+        }
+    }
+
+    private static <T> void addToBitList(BitList<Invoker<T>> bitList, Invoker<T> invoker, int index) {
+        if (index >= 0) {
+            bitList.addIndex(index);
         } else {
-            return new MeshRuleCache<>(
-                    Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(), invokers);
+            bitList.add(invoker);
         }
     }
 
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.mesh.route;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rebuild metrics of the {@link MeshRuleCache} of one router.
+ */
+public class MeshRuleCacheStats {
+
+    private final LongAdder rebuildCount = new LongAdder();
+    private final LongAdder totalRebuildNanos = new LongAdder();
+    private final LongAccumulator maxRebuildNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastRebuildNanos = new AtomicLong();
+    private final LongAdder totalTouchedInvokers = new LongAdder();
+    private final AtomicLong lastTouchedInvokers = new AtomicLong();
+
+    void record(long rebuildNanos, int touchedInvokers) {
+        rebuildCount.increment();
+        totalRebuildNanos.add(rebuildNanos);
+        maxRebuildNanos.accumulate(rebuildNanos);
+        lastRebuildNanos.set(rebuildNanos);
+        totalTouchedInvokers.add(touchedInvokers);
+        lastTouchedInvokers.set(touchedInvokers);
+    }
+
+    public long getRebuildCount() {
+        return rebuildCount.sum();
+    }
+
+    public long getTotalRebuildNanos() {
+        return totalRebuildNanos.sum();
+    }
+
+    public long getMaxRebuildNanos() {
+        return maxRebuildNanos.get();
+    }
+
+    public long getLastRebuildNanos() {
+        return lastRebuildNanos.get();
+    }
+
+    /**
+     * Invokers whose labels have been matched against the subsets, over all rebuilds.
+     */
+    public long getTotalTouchedInvokers() {
+        return totalTouchedInvokers.sum();
+    }
+
+    public long getLastTouchedInvokers() {
+        return lastTouchedInvokers.get();
+    }
+
+    @Override
+    public String toString() {
+        return "MeshRuleCacheStats{" + "rebuildCount=" + getRebuildCount()
+                + ", totalRebuildNanos=" + getTotalRebuildNanos()
+                + ", maxRebuildNanos=" + getMaxRebuildNanos()
+                + ", lastRebuildNanos=" + getLastRebuildNanos()
+                + ", totalTouchedInvokers=" + getTotalTouchedInvokers()
+                + ", lastTouchedInvokers=" + getLastTouchedInvokers()
+                + '}';
+    }
+}
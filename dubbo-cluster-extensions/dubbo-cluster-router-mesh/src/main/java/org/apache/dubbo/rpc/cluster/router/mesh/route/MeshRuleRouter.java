@@ -70,6 +70,11 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
 
     protected volatile MeshRuleCache<T> meshRuleCache = MeshRuleCache.emptyCache();
 
+    // rules compiled on rule change, invocations are matched against it instead of the raw rules
+    protected volatile MeshRouteIndex meshRouteIndex = MeshRouteIndex.emptyIndex();
+
+    protected final MeshRuleCacheStats cacheStats = new MeshRuleCacheStats();
+
     public MeshRuleRouter(URL url) {
         super(url);
         sourcesLabels = Collections.unmodifiableMap(new HashMap<>(url.getParameters()));
@@ -89,6 +94,7 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
             Holder<String> messageHolder)
             throws RpcException {
         MeshRuleCache<T> ruleCache = this.meshRuleCache;
+        MeshRouteIndex routeIndex = this.meshRouteIndex;
         if (!ruleCache.containsRule()) {
             if (needToPrintMessage) {
                 messageHolder.set("MeshRuleCache has not been built. Skip route.");
@@ -104,12 +110,12 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
         for (String appName : ruleCache.getAppList()) {
             // find destination by invocation
             List<DubboRouteDestination> routeDestination =
-                    getDubboRouteDestination(ruleCache.getVsDestinationGroup(appName), invocation);
+                    routeIndex.getDubboRouteDestination(appName, invocation, tracingContextProviders);
             if (routeDestination != null) {
                 // aggregate target invokers
                 String subset = randomSelectDestination(ruleCache, appName, routeDestination, invokers);
                 if (subset != null) {
-                    BitList<Invoker<T>> destination = meshRuleCache.getSubsetInvokers(appName, subset);
+                    BitList<Invoker<T>> destination = ruleCache.getSubsetInvokers(appName, subset);
                     result = result.or(destination);
                     if (stringBuilder != null) {
                         stringBuilder
@@ -255,10 +261,7 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
         String subset = dubboDestination.getSubset();
 
         do {
-            BitList<Invoker<T>> result = meshRuleCache.getSubsetInvokers(appName, subset);
-
-            if (CollectionUtils.isNotEmpty(result)
-                    && !availableInvokers.clone().and(result).isEmpty()) {
+            if (meshRuleCache.hasAvailableInvokers(appName, subset, availableInvokers)) {
                 return subset;
             }
 
@@ -344,6 +347,7 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
         }
 
         computeSubset(appToVDGroup);
+        computeRouteIndex(appToVDGroup);
     }
 
     @Override
@@ -351,11 +355,24 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
         Map<String, VsDestinationGroup> appToVDGroup = new ConcurrentHashMap<>(this.meshRuleCache.getAppToVDGroup());
         appToVDGroup.remove(appName);
         computeSubset(appToVDGroup);
+        computeRouteIndex(appToVDGroup);
     }
 
     protected void computeSubset(Map<String, VsDestinationGroup> vsDestinationGroupMap) {
-        this.meshRuleCache =
-                MeshRuleCache.build(getUrl().getProtocolServiceKey(), this.invokerList, vsDestinationGroupMap);
+        long start = System.nanoTime();
+        MeshRuleCache<T> ruleCache = MeshRuleCache.build(
+                this.meshRuleCache, getUrl().getProtocolServiceKey(), this.invokerList, vsDestinationGroupMap);
+        long elapsed = System.nanoTime() - start;
+        this.meshRuleCache = ruleCache;
+        cacheStats.record(elapsed, ruleCache.getTouchedInvokers());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Rebuilt mesh rule cache of " + getUrl().getServiceKey() + " in " + elapsed
+                    + "ns, matched labels of " + ruleCache.getTouchedInvokers() + " invokers.");
+        }
+    }
+
+    protected void computeRouteIndex(Map<String, VsDestinationGroup> vsDestinationGroupMap) {
+        this.meshRouteIndex = MeshRouteIndex.build(vsDestinationGroupMap, sourcesLabels);
     }
 
     @Override
@@ -365,6 +382,10 @@ public abstract class MeshRuleRouter<T> extends AbstractStateRouter<T> implement
         }
     }
 
+    public MeshRuleCacheStats getCacheStats() {
+        return cacheStats;
+    }
+
     /**
      * for ut only
      */
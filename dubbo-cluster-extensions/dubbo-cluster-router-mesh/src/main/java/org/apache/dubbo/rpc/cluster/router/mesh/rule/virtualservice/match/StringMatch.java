@@ -16,12 +16,16 @@
  */
 package org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.match;
 
+import java.util.regex.Pattern;
+
 import static org.apache.dubbo.common.constants.CommonConstants.ANY_VALUE;
 
 public class StringMatch {
     private String exact;
     private String prefix;
     private String regex;
+    // compiled lazily from regex, instead of String#matches compiling it for every input
+    private transient volatile Pattern regexPattern;
     private String noempty;
     private String empty;
     private String wildcard;
@@ -48,6 +52,7 @@ public class StringMatch {
 
     public void setRegex(String regex) {
         this.regex = regex;
+        this.regexPattern = null;
     }
 
     public String getNoempty() {
@@ -80,7 +85,7 @@ public class StringMatch {
         } else if (getPrefix() != null && input != null) {
             return input.startsWith(getPrefix());
         } else if (getRegex() != null && input != null) {
-            return input.matches(getRegex());
+            return getRegexPattern().matcher(input).matches();
         } else if (getWildcard() != null && input != null) {
             // only supports "*"
             return input.equals(getWildcard()) || ANY_VALUE.equals(getWildcard());
@@ -93,6 +98,15 @@ public class StringMatch {
         }
     }
 
+    private Pattern getRegexPattern() {
+        Pattern pattern = regexPattern;
+        if (pattern == null || !pattern.pattern().equals(regex)) {
+            pattern = Pattern.compile(regex);
+            regexPattern = pattern;
+        }
+        return pattern;
+    }
+
     @Override
     public String toString() {
         return "StringMatch{" + "exact='"
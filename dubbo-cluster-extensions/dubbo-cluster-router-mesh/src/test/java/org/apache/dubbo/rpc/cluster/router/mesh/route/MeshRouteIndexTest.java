@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.mesh.route;
+
+import org.apache.dubbo.common.utils.PojoUtils;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.VsDestinationGroup;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.VirtualServiceRule;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.destination.DubboRouteDestination;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MeshRouteIndexTest {
+
+    private static final String rule = "apiVersion: service.dubbo.apache.org/v1alpha1\n" + "kind: VirtualService\n"
+            + "metadata: { name: demo-route }\n"
+            + "spec:\n"
+            + "  dubbo:\n"
+            + "    - routedetail:\n"
+            + "        - match:\n"
+            + "            - method: { name_match: { exact: sayGoodbye } }\n"
+            + "          name: goodbye\n"
+            + "          route:\n"
+            + "            - destination: {host: demo, subset: goodbye}\n"
+            + "        - match:\n"
+            + "            - sourceLabels: {env: gray}\n"
+            + "          name: gray\n"
+            + "          route:\n"
+            + "            - destination: {host: demo, subset: gray}\n"
+            + "        - match:\n"
+            + "            - attachments: \n"
+            + "                dubboContext: {trafficLabel: {regex: test.*}}\n"
+            + "          name: testing\n"
+            + "          route:\n"
+            + "            - destination: {host: demo, subset: testing}\n"
+            + "        - name: default\n"
+            + "          route:\n"
+            + "            - destination: {host: demo, subset: default}\n"
+            + "      services:\n"
+            + "        - {exact: ccc}\n"
+            + "    - routedetail:\n"
+            + "        - name: other\n"
+            + "          route:\n"
+            + "            - destination: {host: demo, subset: other}\n"
+            + "  hosts: [demo]\n";
+
+    private static Map<String, VsDestinationGroup> appToVDGroup() throws Exception {
+        Map<String, Object> ruleMap = new Yaml(new SafeConstructor(new LoaderOptions())).load(rule);
+        VsDestinationGroup vsDestinationGroup = new VsDestinationGroup();
+        vsDestinationGroup.setAppName("app1");
+        vsDestinationGroup.getVirtualServiceRuleList().add(PojoUtils.mapToPojo(ruleMap, VirtualServiceRule.class));
+        Map<String, VsDestinationGroup> appToVDGroup = new HashMap<>();
+        appToVDGroup.put("app1", vsDestinationGroup);
+        return appToVDGroup;
+    }
+
+    private static String subset(List<DubboRouteDestination> destinations) {
+        return destinations == null ? null : destinations.get(0).getDestination().getSubset();
+    }
+
+    @Test
+    void testMatch() throws Exception {
+        MeshRouteIndex index = MeshRouteIndex.build(appToVDGroup(), Collections.emptyMap());
+
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setServiceName("ccc");
+        invocation.setMethodName("sayHello");
+        assertEquals("default", subset(index.getDubboRouteDestination("app1", invocation, Collections.emptySet())));
+
+        invocation.setAttachment("trafficLabel", "testing-trunk");
+        assertEquals("testing", subset(index.getDubboRouteDestination("app1", invocation, Collections.emptySet())));
+
+        invocation.setMethodName("sayGoodbye");
+        assertEquals("goodbye", subset(index.getDubboRouteDestination("app1", invocation, Collections.emptySet())));
+
+        invocation.setServiceName("ddd");
+        assertEquals("other", subset(index.getDubboRouteDestination("app1", invocation, Collections.emptySet())));
+
+        assertNull(index.getDubboRouteDestination("app2", invocation, Collections.emptySet()));
+        assertNull(MeshRouteIndex.emptyIndex().getDubboRouteDestination("app1", invocation, Collections.emptySet()));
+    }
+
+    @Test
+    void testSourceLabels() throws Exception {
+        MeshRouteIndex index = MeshRouteIndex.build(appToVDGroup(), Collections.singletonMap("env", "gray"));
+
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setServiceName("ccc");
+        invocation.setMethodName("sayHello");
+        invocation.setAttachment("trafficLabel", "testing");
+        assertEquals("gray", subset(index.getDubboRouteDestination("app1", invocation, Collections.emptySet())));
+    }
+
+    @Test
+    void testMemoized() throws Exception {
+        MeshRouteIndex index = MeshRouteIndex.build(appToVDGroup(), Collections.emptyMap());
+
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setServiceName("ccc");
+        invocation.setMethodName("sayHello");
+        List<DubboRouteDestination> first = index.getDubboRouteDestination("app1", invocation, Collections.emptySet());
+        List<DubboRouteDestination> second = index.getDubboRouteDestination("app1", invocation, Collections.emptySet());
+        assertSame(first, second);
+    }
+}
@@ -34,6 +34,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -106,4 +108,139 @@ class MeshRuleCacheTest {
         assertEquals(1, cache.getSubsetInvokers("app1", "TestSubset").size());
         assertEquals(0, cache.getSubsetInvokers("app2", "TestSubset").size());
     }
+
+    @Test
+    void testHasAvailableInvokers() {
+        Invoker<Object> invoker1 = createInvoker("app1");
+        Invoker<Object> invoker2 = createInvoker("app1");
+        BitList<Invoker<Object>> invokers = new BitList<>(Arrays.asList(createInvoker("app2"), invoker1, invoker2));
+
+        Subset subset = new Subset();
+        subset.setName("TestSubset");
+        DestinationRule destinationRule = new DestinationRule();
+        DestinationRuleSpec destinationRuleSpec = new DestinationRuleSpec();
+        destinationRuleSpec.setSubsets(Collections.singletonList(subset));
+        destinationRule.setSpec(destinationRuleSpec);
+        VsDestinationGroup vsDestinationGroup = new VsDestinationGroup();
+        vsDestinationGroup.getDestinationRuleList().add(destinationRule);
+        Map<String, VsDestinationGroup> vsDestinationGroupMap = new HashMap<>();
+        vsDestinationGroupMap.put("app1", vsDestinationGroup);
+
+        MeshRuleCache<Object> cache = MeshRuleCache.build("test", invokers, vsDestinationGroupMap);
+        assertTrue(cache.hasAvailableInvokers("app1", "TestSubset", invokers.clone()));
+        assertFalse(cache.hasAvailableInvokers("app1", "UnknownSubset", invokers.clone()));
+        assertFalse(cache.hasAvailableInvokers("app2", "TestSubset", invokers.clone()));
+
+        BitList<Invoker<Object>> available = invokers.clone();
+        available.remove(invoker1);
+        assertTrue(cache.hasAvailableInvokers("app1", "TestSubset", available));
+        available.remove(invoker2);
+        assertFalse(cache.hasAvailableInvokers("app1", "TestSubset", available));
+    }
+
+    @Test
+    void testIncrementalBuild() {
+        Invoker<Object> invoker1 = createInvoker("app1");
+        Invoker<Object> invoker2 = createInvoker("app2");
+        Invoker<Object> invoker3 = createInvoker("app1");
+
+        Map<String, VsDestinationGroup> vsDestinationGroupMap = new HashMap<>();
+        vsDestinationGroupMap.put("app1", createVsDestinationGroup());
+        vsDestinationGroupMap.put("app2", createVsDestinationGroup());
+
+        MeshRuleCache<Object> cache = MeshRuleCache.build(
+                null, "test", new BitList<>(Arrays.asList(invoker1, invoker2)), vsDestinationGroupMap);
+        assertEquals(2, cache.getTouchedInvokers());
+
+        // only the new invoker is matched
+        cache = MeshRuleCache.build(
+                cache, "test", new BitList<>(Arrays.asList(invoker1, invoker2, invoker3)), vsDestinationGroupMap);
+        assertEquals(1, cache.getTouchedInvokers());
+        assertEquals(2, cache.getSubsetInvokers("app1", "TestSubset").size());
+        assertEquals(1, cache.getSubsetInvokers("app2", "TestSubset").size());
+
+        // removed invokers are dropped without matching
+        cache = MeshRuleCache.build(
+                cache, "test", new BitList<>(Arrays.asList(invoker2, invoker3)), vsDestinationGroupMap);
+        assertEquals(0, cache.getTouchedInvokers());
+        assertEquals(1, cache.getSubsetInvokers("app1", "TestSubset").size());
+        assertTrue(cache.getSubsetInvokers("app1", "TestSubset").contains(invoker3));
+
+        // a rule change only matches the invokers of the changed app
+        vsDestinationGroupMap = new HashMap<>(vsDestinationGroupMap);
+        VsDestinationGroup changed = createVsDestinationGroup();
+        changed.getDestinationRuleList().get(0).getSpec().getSubsets().get(0)
+                .setLabels(Collections.singletonMap("test", "test"));
+        vsDestinationGroupMap.put("app1", changed);
+        cache = MeshRuleCache.build(
+                cache, "test", new BitList<>(Arrays.asList(invoker2, invoker3)), vsDestinationGroupMap);
+        assertEquals(1, cache.getTouchedInvokers());
+        assertEquals(0, cache.getSubsetInvokers("app1", "TestSubset").size());
+        assertEquals(1, cache.getSubsetInvokers("app2", "TestSubset").size());
+        assertEquals(1, cache.getUnmatchedInvokers().size());
+    }
+
+    @Test
+    void testRuleChangeOnSameInvokers() {
+        Invoker<Object> invoker1 = createInvoker("app1");
+        Invoker<Object> invoker2 = createInvoker("app2");
+        Invoker<Object> invoker3 = createInvoker("app1");
+        Invoker<Object> invoker4 = createInvoker("app3");
+        BitList<Invoker<Object>> invokers = new BitList<>(Arrays.asList(invoker1, invoker2, invoker3, invoker4));
+
+        Map<String, VsDestinationGroup> vsDestinationGroupMap = new HashMap<>();
+        vsDestinationGroupMap.put("app1", createVsDestinationGroup());
+        vsDestinationGroupMap.put("app2", createVsDestinationGroup());
+        MeshRuleCache<Object> cache = MeshRuleCache.build(null, "test", invokers, vsDestinationGroupMap);
+        assertEquals(3, cache.getTouchedInvokers());
+        assertEquals(1, cache.getUnmatchedInvokers().size());
+
+        // only the invokers of the changed app are walked, the other subsets are shared
+        vsDestinationGroupMap = new HashMap<>(vsDestinationGroupMap);
+        VsDestinationGroup changed = createVsDestinationGroup();
+        changed.getDestinationRuleList().get(0).getSpec().getSubsets().get(0)
+                .setLabels(Collections.singletonMap("test", "test"));
+        vsDestinationGroupMap.put("app1", changed);
+        MeshRuleCache<Object> rebuilt = MeshRuleCache.build(cache, "test", invokers, vsDestinationGroupMap);
+        assertEquals(2, rebuilt.getTouchedInvokers());
+        assertSame(cache.getTotalSubsetMap().get("app2"), rebuilt.getTotalSubsetMap().get("app2"));
+        assertEquals(0, rebuilt.getSubsetInvokers("app1", "TestSubset").size());
+        assertEquals(3, rebuilt.getUnmatchedInvokers().size());
+        assertTrue(rebuilt.hasAvailableInvokers("app2", "TestSubset", invokers.clone()));
+        // the previous cache is left as it was
+        assertEquals(2, cache.getSubsetInvokers("app1", "TestSubset").size());
+        assertEquals(1, cache.getUnmatchedInvokers().size());
+
+        // a new rule for an app without one
+        vsDestinationGroupMap = new HashMap<>(vsDestinationGroupMap);
+        vsDestinationGroupMap.put("app3", createVsDestinationGroup());
+        rebuilt = MeshRuleCache.build(rebuilt, "test", invokers, vsDestinationGroupMap);
+        assertEquals(1, rebuilt.getTouchedInvokers());
+        assertTrue(rebuilt.getSubsetInvokers("app3", "TestSubset").contains(invoker4));
+        assertEquals(2, rebuilt.getUnmatchedInvokers().size());
+
+        // a removed rule moves its invokers to the unmatched ones
+        vsDestinationGroupMap = new HashMap<>(vsDestinationGroupMap);
+        vsDestinationGroupMap.remove("app2");
+        rebuilt = MeshRuleCache.build(rebuilt, "test", invokers, vsDestinationGroupMap);
+        assertEquals(0, rebuilt.getTouchedInvokers());
+        assertEquals(0, rebuilt.getSubsetInvokers("app2", "TestSubset").size());
+        assertEquals(3, rebuilt.getUnmatchedInvokers().size());
+        assertTrue(rebuilt.getUnmatchedInvokers().contains(invoker2));
+
+        // the same as a full build
+        assertEquals(MeshRuleCache.build("test", invokers, vsDestinationGroupMap), rebuilt);
+    }
+
+    private static VsDestinationGroup createVsDestinationGroup() {
+        Subset subset = new Subset();
+        subset.setName("TestSubset");
+        DestinationRule destinationRule = new DestinationRule();
+        DestinationRuleSpec destinationRuleSpec = new DestinationRuleSpec();
+        destinationRuleSpec.setSubsets(Collections.singletonList(subset));
+        destinationRule.setSpec(destinationRuleSpec);
+        VsDestinationGroup vsDestinationGroup = new VsDestinationGroup();
+        vsDestinationGroup.getDestinationRuleList().add(destinationRule);
+        return vsDestinationGroup;
+    }
 }
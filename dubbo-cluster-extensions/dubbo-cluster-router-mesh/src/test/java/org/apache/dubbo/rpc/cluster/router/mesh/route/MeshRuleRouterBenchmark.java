@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.mesh.route;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.router.mesh.rule.virtualservice.destination.DubboRouteDestination;
+import org.apache.dubbo.rpc.cluster.router.state.BitList;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+import org.apache.dubbo.rpc.model.ModuleModel;
+import org.apache.dubbo.rpc.support.MockInvoker;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes against 50 applications with 20 dubbo routes each and 2000 invokers, comparing the
+ * rule matching of {@link MeshRouteIndex} with the raw rule walk of
+ * {@link MeshRuleRouter#getDubboRouteDestination(org.apache.dubbo.rpc.cluster.router.mesh.rule.VsDestinationGroup, Invocation)}.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.apache.dubbo.rpc.cluster.router.mesh.route.MeshRuleRouterBenchmark},
+ * or from the IDE, and add {@code -prof gc} to the options to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeshRuleRouterBenchmark {
+
+    private static final int APP_COUNT = 50;
+
+    private static final int ROUTE_COUNT = 20;
+
+    private static final int INVOKER_COUNT = 2000;
+
+    private FrameworkModel frameworkModel;
+
+    private StandardMeshRuleRouter<Object> router;
+
+    private BitList<Invoker<Object>> invokers;
+
+    private Invocation invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        frameworkModel = new FrameworkModel();
+        ModuleModel moduleModel = frameworkModel.newApplication().newModule();
+        URL url = URL.valueOf("test://localhost/DemoInterface").setScopeModel(moduleModel);
+        router = new StandardMeshRuleRouter<>(url);
+        router.meshRuleManager = Mockito.mock(MeshRuleManager.class);
+
+        List<Invoker<Object>> invokerList = new ArrayList<>(INVOKER_COUNT);
+        for (int i = 0; i < INVOKER_COUNT; i++) {
+            invokerList.add(new MockInvoker<>(URL.valueOf("dubbo://10.0." + (i / 250) + "." + (i % 250)
+                    + ":20880/DemoInterface?remote.application=app" + (i % APP_COUNT) + "&version=v" + (i / APP_COUNT % 2)), Object.class));
+        }
+        invokers = new BitList<>(invokerList);
+        router.notify(invokers);
+
+        Yaml yaml = new Yaml(new SafeConstructor(new LoaderOptions()));
+        for (int app = 0; app < APP_COUNT; app++) {
+            List<Map<String, Object>> rules = new ArrayList<>();
+            rules.add(yaml.load(destinationRule(app)));
+            rules.add(yaml.load(virtualService(app)));
+            router.onRuleChange("app" + app, rules);
+        }
+
+        // matches the last route of every application, the worst case of the raw rule walk
+        RpcInvocation rpcInvocation = new RpcInvocation();
+        rpcInvocation.setServiceName("org.apache.dubbo.demo.Service" + (ROUTE_COUNT - 1));
+        rpcInvocation.setMethodName("sayHello");
+        rpcInvocation.setAttachment("trafficLabel", "gray");
+        invocation = rpcInvocation;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frameworkModel.destroy();
+    }
+
+    private static String destinationRule(int app) {
+        return "apiVersion: service.dubbo.apache.org/v1alpha1\n"
+                + "kind: DestinationRule\n"
+                + "metadata: { name: app" + app + " }\n"
+                + "spec:\n"
+                + "  host: app" + app + "\n"
+                + "  subsets:\n"
+                + "    - labels: { version: v0 }\n"
+                + "      name: stable\n"
+                + "    - labels: { version: v1 }\n"
+                + "      name: gray\n";
+    }
+
+    private static String virtualService(int app) {
+        StringBuilder rule = new StringBuilder("apiVersion: service.dubbo.apache.org/v1alpha1\n"
+                + "kind: VirtualService\n"
+                + "metadata: { name: app" + app + " }\n"
+                + "spec:\n"
+                + "  dubbo:\n");
+        for (int route = 0; route < ROUTE_COUNT; route++) {
+            rule.append("    - services:\n")
+                    .append("        - { exact: org.apache.dubbo.demo.Service")
+                    .append(route)
+                    .append(" }\n")
+                    .append("      routedetail:\n")
+                    .append("        - match:\n")
+                    .append("            - method: { name_match: { exact: sayGoodbye } }\n")
+                    .append("          name: goodbye\n")
+                    .append("          route:\n")
+                    .append("            - destination: { host: app")
+                    .append(app)
+                    .append(", subset: stable }\n")
+                    .append("        - match:\n")
+                    .append("            - attachments:\n")
+                    .append("                dubboContext: { trafficLabel: { exact: gray } }\n")
+                    .append("          name: gray\n")
+                    .append("          route:\n")
+                    .append("            - destination: { host: app")
+                    .append(app)
+                    .append(", subset: gray, fallback: { destination: { host: app")
+                    .append(app)
+                    .append(", subset: stable } } }\n")
+                    .append("        - name: default\n")
+                    .append("          route:\n")
+                    .append("            - destination: { host: app")
+                    .append(app)
+                    .append(", subset: stable }\n");
+        }
+        rule.append("  hosts: [app").append(app).append("]\n");
+        return rule.toString();
+    }
+
+    @Benchmark
+    public void matchRules(Blackhole blackhole) {
+        MeshRuleCache<Object> ruleCache = router.getMeshRuleCache();
+        for (String appName : ruleCache.getAppList()) {
+            List<DubboRouteDestination> destination =
+                    router.getDubboRouteDestination(ruleCache.getAppToVDGroup().get(appName), invocation);
+            blackhole.consume(destination);
+        }
+    }
+
+    @Benchmark
+    public void matchIndex(Blackhole blackhole) {
+        MeshRouteIndex routeIndex = router.meshRouteIndex;
+        for (String appName : router.getMeshRuleCache().getAppList()) {
+            blackhole.consume(routeIndex.getDubboRouteDestination(appName, invocation, router.tracingContextProviders));
+        }
+    }
+
+    @Benchmark
+    public BitList<Invoker<Object>> route() {
+        return router.route(invokers.clone(), null, invocation, false, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(MeshRuleRouterBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -256,6 +256,7 @@ class MeshRuleRouterTest {
         meshRuleRouter.clearRule("app1");
         assertEquals(1, meshRuleRouter.getMeshRuleCache().getAppToVDGroup().size());
         assertTrue(meshRuleRouter.getMeshRuleCache().getAppToVDGroup().containsKey("app2"));
+        assertEquals(4, meshRuleRouter.getCacheStats().getRebuildCount());
     }
 
     @Test
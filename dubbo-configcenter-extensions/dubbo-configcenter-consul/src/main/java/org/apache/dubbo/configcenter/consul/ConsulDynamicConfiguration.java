@@ -35,27 +35,38 @@ import com.orbitz.consul.cache.KVCache;
 import com.orbitz.consul.model.kv.Value;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.dubbo.common.constants.CommonConstants.PATH_SEPARATOR;
 
 /**
  * config center implementation for consul
+ * <p>
+ * The listeners of the keys of a group share one {@link KVCache} watching the group, which also serves the reads of
+ * these keys. Only the keys whose {@code ModifyIndex} changed are notified.
  */
 public class ConsulDynamicConfiguration extends TreePathDynamicConfiguration {
     private static final Logger logger = LoggerFactory.getLogger(ConsulDynamicConfiguration.class);
 
+    private static final int WATCH_INIT_TIMEOUT = 5000;
+
     private final Consul client;
 
     private final KeyValueClient kvClient;
 
     private final int watchTimeout;
 
+    /**
+     * group path -> watcher of the keys of the group
+     */
     private final Map<String, ConsulListener> watchers = CollectionUtils.newConcurrentHashMap();
 
     public ConsulDynamicConfiguration(URL url) {
@@ -75,12 +86,22 @@ public class ConsulDynamicConfiguration extends TreePathDynamicConfiguration {
 
     @Override
     public String getInternalProperty(String key) {
-        logger.info("getting config from: " + key);
+        ConsulListener watcher = watchers.get(getParentPath(key));
+        if (watcher != null) {
+            Optional<String> value = watcher.getValue(key);
+            if (value != null) {
+                return value.orElse(null);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("getting config from: " + key);
+        }
         return kvClient.getValueAsString(key, Charsets.UTF_8).orElse(null);
     }
 
     @Override
     protected boolean doPublishConfig(String pathKey, String content) throws Exception {
+        changing(pathKey);
         return kvClient.putValue(pathKey, content);
     }
 
@@ -91,6 +112,7 @@ public class ConsulDynamicConfiguration extends TreePathDynamicConfiguration {
 
     @Override
     protected boolean doRemoveConfig(String pathKey) throws Exception {
+        changing(pathKey);
         kvClient.deleteKey(pathKey);
         return true;
     }
@@ -111,74 +133,183 @@ public class ConsulDynamicConfiguration extends TreePathDynamicConfiguration {
     @Override
     protected void doAddListener(String pathKey, ConfigurationListener listener, String key, String group) {
         logger.info("register listener " + listener.getClass() + " for config with key: " + pathKey);
-        ConsulListener watcher = watchers.computeIfAbsent(pathKey, k -> new ConsulListener(pathKey));
-        watcher.addListener(listener);
+        String groupPath = getParentPath(pathKey);
+        ConsulListener watcher;
+        do {
+            watcher = watchers.computeIfAbsent(groupPath, ConsulListener::new);
+            // a watcher stopped by the removal of its last listener is replaced
+        } while (!watcher.addListener(pathKey, listener));
+        // not holding any lock, the listeners of the other keys are added and removed meanwhile
+        watcher.awaitInitialized();
     }
 
     @Override
     protected void doRemoveListener(String pathKey, ConfigurationListener listener) {
         logger.info("unregister listener " + listener.getClass() + " for config with key: " + pathKey);
-        ConsulListener watcher = watchers.get(pathKey);
-        if (watcher != null) {
-            watcher.removeListener(listener);
+        String groupPath = getParentPath(pathKey);
+        ConsulListener watcher = watchers.get(groupPath);
+        if (watcher != null && watcher.removeListener(pathKey, listener)) {
+            watchers.remove(groupPath, watcher);
+            watcher.stop();
         }
     }
 
     @Override
     protected void doClose() throws Exception {
+        for (ConsulListener watcher : watchers.values()) {
+            watcher.stop();
+        }
+        watchers.clear();
         client.destroy();
     }
 
-    private class ConsulListener implements KVCache.Listener<String, Value> {
+    /**
+     * The reads of the key go to consul until the watch has seen it change.
+     */
+    private void changing(String pathKey) {
+        ConsulListener watcher = watchers.get(getParentPath(pathKey));
+        if (watcher != null) {
+            watcher.changing(pathKey);
+        }
+    }
 
-        private KVCache kvCache;
-        private final Set<ConfigurationListener> listeners = new LinkedHashSet<>();
-        private final String normalizedKey;
+    private static String getParentPath(String pathKey) {
+        int index = pathKey.lastIndexOf(PATH_SEPARATOR);
+        return index > 0 ? pathKey.substring(0, index) : PATH_SEPARATOR;
+    }
 
-        public ConsulListener(String normalizedKey) {
-            this.normalizedKey = normalizedKey;
-            initKVCache();
-        }
+    private static String normalize(String key) {
+        return key.startsWith(PATH_SEPARATOR) ? key : PATH_SEPARATOR + key;
+    }
 
-        private void initKVCache() {
-            this.kvCache = KVCache.newCache(kvClient, normalizedKey, watchTimeout);
+    private class ConsulListener implements KVCache.Listener<String, Value> {
+
+        private final KVCache kvCache;
+        private final String groupPath;
+        /**
+         * key -> listeners of the key
+         */
+        private final Map<String, Set<ConfigurationListener>> listeners = new HashMap<>();
+        /**
+         * the values of the group at the last notification, {@code null} before the first one
+         */
+        private Map<String, Value> snapshot;
+        private final Set<String> changing = new HashSet<>();
+        private boolean stopped;
+
+        public ConsulListener(String groupPath) {
+            this.groupPath = groupPath;
+            this.kvCache = KVCache.newCache(kvClient, groupPath + PATH_SEPARATOR, watchTimeout);
             kvCache.addListener(this);
             kvCache.start();
         }
 
+        /**
+         * Waits for the first notification, the values the listeners start from.
+         */
+        private void awaitInitialized() {
+            try {
+                if (!kvCache.awaitInitialized(WATCH_INIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    logger.warn("Timed out waiting for the first values of " + groupPath + " from consul");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         @Override
         public void notify(Map<String, Value> newValues) {
-            // Cache notifies all paths with "foo" the root path
-            // If you want to watch only "foo" value, you must filter other paths
-            Optional<Value> newValue = newValues.values().stream()
-                .filter(value -> {
-                    // Normalize the key: Ensure it's prefixed with "/" if it's not already
-                    String key = value.getKey();
-                    if (!key.startsWith("/")) {
-                        key = "/" + key;  // Add "/" prefix if missing
+            // Cache notifies all the values under the group path, keyed by their normalized key
+            Map<String, Value> values = new HashMap<>();
+            for (Value value : newValues.values()) {
+                String key = normalize(value.getKey());
+                // nested paths are not config keys of the group
+                if (groupPath.equals(getParentPath(key))) {
+                    values.put(key, value);
+                }
+            }
+
+            List<ConfigChangedEvent> events = new LinkedList<>();
+            Map<String, Set<ConfigurationListener>> targets = new HashMap<>();
+            synchronized (this) {
+                Map<String, Value> previous = snapshot;
+                snapshot = values;
+                if (previous == null) {
+                    return;
+                }
+                for (Map.Entry<String, Value> entry : values.entrySet()) {
+                    Value old = previous.get(entry.getKey());
+                    if (old == null || old.getModifyIndex() != entry.getValue().getModifyIndex()) {
+                        changing.remove(entry.getKey());
+                        // Values are encoded in key/value store, decode it if needed
+                        entry.getValue().getValueAsString().ifPresent(v -> events.add(new ConfigChangedEvent(
+                                entry.getKey(), getGroup(), v, ConfigChangeType.MODIFIED)));
+                    }
+                }
+                for (String key : previous.keySet()) {
+                    if (!values.containsKey(key)) {
+                        changing.remove(key);
+                        events.add(new ConfigChangedEvent(key, getGroup(), null, ConfigChangeType.DELETED));
+                    }
+                }
+                for (ConfigChangedEvent event : events) {
+                    Set<ConfigurationListener> keyListeners = listeners.get(event.getKey());
+                    if (keyListeners != null) {
+                        targets.put(event.getKey(), new LinkedHashSet<>(keyListeners));
                     }
-                    // Check if the normalized key matches the normalizedKey
-                    return key.equals(normalizedKey);
-                })
-                .findAny();
-
-
-            newValue.ifPresent(value -> {
-                // Values are encoded in key/value store, decode it if needed
-                Optional<String> decodedValue = newValue.get().getValueAsString();
-                decodedValue.ifPresent(v -> listeners.forEach(l -> {
-                    ConfigChangedEvent event = new ConfigChangedEvent(normalizedKey, getGroup(), v, ConfigChangeType.MODIFIED);
-                    l.process(event);
-                }));
-            });
+                }
+            }
+            for (ConfigChangedEvent event : events) {
+                Set<ConfigurationListener> keyListeners = targets.get(event.getKey());
+                if (keyListeners != null) {
+                    keyListeners.forEach(l -> l.process(event));
+                }
+            }
+        }
+
+        /**
+         * The watched value of the key, {@code null} when the watch can't tell it.
+         */
+        private synchronized Optional<String> getValue(String key) {
+            if (snapshot == null || changing.contains(key)) {
+                return null;
+            }
+            Value value = snapshot.get(key);
+            return value == null ? Optional.empty() : value.getValueAsString();
+        }
+
+        private synchronized void changing(String key) {
+            changing.add(key);
+        }
+
+        /**
+         * @return false if the watcher was stopped, as its last listener was removed
+         */
+        private synchronized boolean addListener(String key, ConfigurationListener listener) {
+            if (stopped) {
+                return false;
+            }
+            listeners.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(listener);
+            return true;
         }
 
-        private void addListener(ConfigurationListener listener) {
-            this.listeners.add(listener);
+        /**
+         * @return whether the group has no listener left, the watcher is then stopped
+         */
+        private synchronized boolean removeListener(String key, ConfigurationListener listener) {
+            Set<ConfigurationListener> keyListeners = listeners.get(key);
+            if (keyListeners != null) {
+                keyListeners.remove(listener);
+                if (keyListeners.isEmpty()) {
+                    listeners.remove(key);
+                }
+            }
+            stopped = listeners.isEmpty();
+            return stopped;
         }
 
-        private void removeListener(ConfigurationListener listener) {
-            this.listeners.remove(listener);
+        private void stop() {
+            kvCache.stop();
         }
     }
 }
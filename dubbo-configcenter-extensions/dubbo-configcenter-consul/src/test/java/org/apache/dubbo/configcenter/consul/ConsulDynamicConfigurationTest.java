@@ -24,8 +24,10 @@ import com.pszymczyk.consul.ConsulStarterBuilder;
 import org.apache.dubbo.common.config.configcenter.ConfigChangeType;
 import org.apache.dubbo.common.config.configcenter.ConfigurationListener;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -39,13 +41,11 @@ public class ConsulDynamicConfigurationTest {
 
     private static ConsulProcess consul;
     private static URL configCenterUrl;
-    private static ConsulDynamicConfiguration configuration;
-
     private static Consul client;
     private static KeyValueClient kvClient;
 
-    private static ConfigurationListener configurationListener;
-    private static  CountDownLatch latch;
+    // a configuration per test, the groups watched by a test don't serve the reads of the next ones
+    private ConsulDynamicConfiguration configuration;
 
     @BeforeAll
     public static void setUp() throws Exception {
@@ -54,25 +54,23 @@ public class ConsulDynamicConfigurationTest {
                 .start();
         configCenterUrl = URL.valueOf("consul://127.0.0.1:" + consul.getHttpPort());
 
-        configuration = new ConsulDynamicConfiguration(configCenterUrl);
         client = Consul.builder().withHostAndPort(HostAndPort.fromParts("127.0.0.1", consul.getHttpPort())).withReadTimeoutMillis(TimeUnit.SECONDS.toMillis(11)).build();
         kvClient = client.keyValueClient();
-
-        latch = new CountDownLatch(1);
-        configurationListener = event -> {
-            //test equals
-            assertEquals("value", event.getContent());
-            assertEquals("/dubbo/config/dubbo/abc", event.getKey());
-            assertEquals("dubbo", event.getGroup());
-            assertEquals(ConfigChangeType.MODIFIED, event.getChangeType());
-            System.out.println("Test Passed: Configuration change is correct.");
-            latch.countDown();  // Signal that the event was received
-        };
     }
 
     @AfterAll
     public static void tearDown() throws Exception {
+        client.destroy();
         consul.close();
+    }
+
+    @BeforeEach
+    public void createConfiguration() {
+        configuration = new ConsulDynamicConfiguration(configCenterUrl);
+    }
+
+    @AfterEach
+    public void closeConfiguration() throws Exception {
         configuration.close();
     }
 
@@ -105,6 +103,15 @@ public class ConsulDynamicConfigurationTest {
 
     @Test
     public void testAddListener() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        ConfigurationListener configurationListener = event -> {
+            //test equals
+            assertEquals("value", event.getContent());
+            assertEquals("/dubbo/config/dubbo/abc", event.getKey());
+            assertEquals("dubbo", event.getGroup());
+            assertEquals(ConfigChangeType.MODIFIED, event.getChangeType());
+            latch.countDown();  // Signal that the event was received
+        };
         configuration.addListener("abc","dubbo",configurationListener);
         kvClient.putValue("/dubbo/config/dubbo/abc", "value");
         boolean completed = latch.await(1, TimeUnit.SECONDS);
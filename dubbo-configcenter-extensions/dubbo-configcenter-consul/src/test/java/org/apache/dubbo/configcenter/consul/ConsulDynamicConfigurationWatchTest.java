@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.configcenter.consul;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.config.configcenter.ConfigChangeType;
+import org.apache.dubbo.common.config.configcenter.ConfigChangedEvent;
+import org.apache.dubbo.common.config.configcenter.ConfigurationListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The watches of the config groups, against a local fake of the key/value store of consul.
+ */
+public class ConsulDynamicConfigurationWatchTest {
+
+    private static final String GROUP_PREFIX = "dubbo/config/dubbo/";
+
+    private final BlockingQueue<ConfigChangedEvent> events = new LinkedBlockingQueue<>();
+
+    private final ConfigurationListener listener = events::add;
+
+    private FakeConsulServer server;
+
+    private ConsulDynamicConfiguration configuration;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeConsulServer();
+        server.put(GROUP_PREFIX + "a", "1");
+        server.put(GROUP_PREFIX + "b", "1");
+        // blocking queries of a second
+        configuration = new ConsulDynamicConfiguration(URL.valueOf("consul://127.0.0.1:" + server.getPort())
+                .addParameter(ConsulConstants.WATCH_TIMEOUT, 1));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        configuration.close();
+        server.close();
+    }
+
+    @Test
+    public void testGroupSharesOneWatch() {
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("b", "dubbo", listener);
+        await().until(() -> server.getWatches(GROUP_PREFIX) >= 2);
+        assertEquals(1, server.getMaxPendingWatches(GROUP_PREFIX));
+
+        // served by the watch
+        assertEquals("1", configuration.getConfig("a", "dubbo"));
+        assertEquals("1", configuration.getConfig("b", "dubbo"));
+        assertNull(configuration.getConfig("c", "dubbo"));
+        assertEquals(0, server.getReads(GROUP_PREFIX + "a"));
+        assertEquals(0, server.getReads(GROUP_PREFIX + "c"));
+
+        // a value published through the configuration is read back right away
+        configuration.publishConfig("a", "dubbo", "2");
+        assertEquals("2", configuration.getConfig("a", "dubbo"));
+    }
+
+    @Test
+    public void testNotifyTheModifiedKeys() throws Exception {
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("b", "dubbo", listener);
+
+        server.put(GROUP_PREFIX + "a", "2");
+        assertEvent(GROUP_PREFIX + "a", "2", ConfigChangeType.MODIFIED);
+
+        // keys without listeners and nested paths aren't notified
+        server.put(GROUP_PREFIX + "c", "1");
+        server.put(GROUP_PREFIX + "nested/a", "1");
+        // written again with the same value, the ModifyIndex changed
+        server.put(GROUP_PREFIX + "b", "1");
+        assertEvent(GROUP_PREFIX + "b", "1", ConfigChangeType.MODIFIED);
+        assertNull(events.poll(1500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testNotifyTheDeletedKeys() throws Exception {
+        configuration.addListener("a", "dubbo", listener);
+
+        server.delete(GROUP_PREFIX + "a");
+        assertEvent(GROUP_PREFIX + "a", null, ConfigChangeType.DELETED);
+        assertNull(configuration.getConfig("a", "dubbo"));
+
+        server.put(GROUP_PREFIX + "a", "2");
+        assertEvent(GROUP_PREFIX + "a", "2", ConfigChangeType.MODIFIED);
+    }
+
+    @Test
+    public void testWatchStopsWithItsLastListener() throws Exception {
+        ConfigurationListener other = event -> {};
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("b", "dubbo", other);
+
+        // still watched for b
+        configuration.removeListener("a", "dubbo", listener);
+        int watches = server.getWatches(GROUP_PREFIX);
+        await().until(() -> server.getWatches(GROUP_PREFIX) >= watches + 2);
+        server.put(GROUP_PREFIX + "a", "2");
+        assertNull(events.poll(1500, TimeUnit.MILLISECONDS));
+
+        configuration.removeListener("b", "dubbo", other);
+        // the query in progress returns within its wait time
+        Thread.sleep(1500);
+        int stopped = server.getWatches(GROUP_PREFIX);
+        Thread.sleep(1500);
+        assertEquals(stopped, server.getWatches(GROUP_PREFIX));
+
+        // read from consul again
+        assertEquals("2", configuration.getConfig("a", "dubbo"));
+        assertEquals(1, server.getReads(GROUP_PREFIX + "a"));
+
+        // watched again
+        configuration.addListener("a", "dubbo", listener);
+        server.put(GROUP_PREFIX + "a", "3");
+        assertEvent(GROUP_PREFIX + "a", "3", ConfigChangeType.MODIFIED);
+    }
+
+    private void assertEvent(String key, String content, ConfigChangeType type) throws InterruptedException {
+        ConfigChangedEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("/" + key, event.getKey());
+        assertEquals("dubbo", event.getGroup());
+        assertEquals(content, event.getContent());
+        assertEquals(type, event.getChangeType());
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.configcenter.consul;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The key/value store of consul on a local port, with its blocking queries, counting the queries it receives.
+ */
+public class FakeConsulServer {
+
+    private static final String KV_PATH = "/v1/kv/";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // guarded by this
+    private final TreeMap<String, Entry> entries = new TreeMap<>();
+
+    private long index = 1;
+
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> watches = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> pendingWatches = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> maxPendingWatches = new ConcurrentHashMap<>();
+
+    public FakeConsulServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public synchronized void put(String key, String value) {
+        Entry entry = entries.get(key);
+        index++;
+        entries.put(key, new Entry(key, value, entry == null ? index : entry.createIndex, index));
+        notifyAll();
+    }
+
+    public synchronized void delete(String key) {
+        if (entries.remove(key) != null) {
+            index++;
+            notifyAll();
+        }
+    }
+
+    /**
+     * The number of reads of the key, not counting the watches of its prefix.
+     */
+    public int getReads(String key) {
+        return count(reads, key);
+    }
+
+    /**
+     * The number of blocking queries of the prefix.
+     */
+    public int getWatches(String prefix) {
+        return count(watches, prefix);
+    }
+
+    /**
+     * The highest number of blocking queries of the prefix waiting at the same time.
+     */
+    public int getMaxPendingWatches(String prefix) {
+        return count(maxPendingWatches, prefix);
+    }
+
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static int count(Map<String, AtomicInteger> counts, String key) {
+        AtomicInteger count = counts.get(key);
+        return count == null ? 0 : count.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (!path.startsWith(KV_PATH)) {
+                // the agent ping
+                respond(exchange, 200, "{}");
+                return;
+            }
+            String key = path.substring(KV_PATH.length()).replaceAll("^/+", "");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            switch (exchange.getRequestMethod()) {
+                case "PUT":
+                    put(key, new String(readBody(exchange.getRequestBody()), StandardCharsets.UTF_8));
+                    respond(exchange, 200, "true");
+                    return;
+                case "DELETE":
+                    delete(key);
+                    respond(exchange, 200, "true");
+                    return;
+                default:
+                    get(exchange, key, query);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void get(HttpExchange exchange, String key, Map<String, String> query)
+            throws IOException, InterruptedException {
+        String body;
+        synchronized (this) {
+            if (query.containsKey("index")) {
+                watches.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                int pending = pendingWatches.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                maxPendingWatches.computeIfAbsent(key, k -> new AtomicInteger()).accumulateAndGet(pending, Math::max);
+                try {
+                    long requested = Long.parseLong(query.get("index"));
+                    long deadline = System.currentTimeMillis() + parseWait(query.get("wait"));
+                    long remaining;
+                    while (index <= requested && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                        wait(remaining);
+                    }
+                } finally {
+                    pendingWatches.get(key).decrementAndGet();
+                }
+            } else {
+                reads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            }
+            StringJoiner values = new StringJoiner(",", "[", "]");
+            if (query.containsKey("recurse") || query.containsKey("keys")) {
+                for (Entry entry : entries.tailMap(key).values()) {
+                    if (!entry.key.startsWith(key)) {
+                        break;
+                    }
+                    values.add(query.containsKey("keys") ? "\"" + entry.key + "\"" : entry.toJson());
+                }
+            } else if (entries.containsKey(key)) {
+                values.add(entries.get(key).toJson());
+            }
+            body = values.length() > 2 ? values.toString() : null;
+            exchange.getResponseHeaders().add("X-Consul-Index", String.valueOf(index));
+        }
+        exchange.getResponseHeaders().add("X-Consul-Knownleader", "true");
+        exchange.getResponseHeaders().add("X-Consul-Lastcontact", "0");
+        if (body == null) {
+            respond(exchange, 404, "");
+        } else {
+            respond(exchange, 200, body);
+        }
+    }
+
+    private static long parseWait(String wait) {
+        if (wait == null) {
+            return 300000;
+        }
+        if (wait.endsWith("ms")) {
+            return Long.parseLong(wait.substring(0, wait.length() - 2));
+        }
+        if (wait.endsWith("s")) {
+            return Long.parseLong(wait.substring(0, wait.length() - 1)) * 1000;
+        }
+        return Long.parseLong(wait.substring(0, wait.length() - 1)) * 60000;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int eq = parameter.indexOf('=');
+                String name = eq < 0 ? parameter : parameter.substring(0, eq);
+                String value = eq < 0 ? "" : URLDecoder.decode(parameter.substring(eq + 1), "UTF-8");
+                query.put(name, value);
+            }
+        }
+        return query;
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final String value;
+        private final long createIndex;
+        private final long modifyIndex;
+
+        Entry(String key, String value, long createIndex, long modifyIndex) {
+            this.key = key;
+            this.value = value;
+            this.createIndex = createIndex;
+            this.modifyIndex = modifyIndex;
+        }
+
+        String toJson() {
+            return "{\"LockIndex\":0,\"Key\":\"" + key + "\",\"Flags\":0,\"Value\":\""
+                    + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8))
+                    + "\",\"CreateIndex\":" + createIndex + ",\"ModifyIndex\":" + modifyIndex + "}";
+        }
+    }
+}
@@ -30,28 +30,49 @@ import org.apache.dubbo.remoting.etcd.jetcd.JEtcdClient;
 
 import com.google.protobuf.ByteString;
 import io.etcd.jetcd.api.Event;
-import io.etcd.jetcd.api.WatchCancelRequest;
+import io.etcd.jetcd.api.KVGrpc;
+import io.etcd.jetcd.api.KeyValue;
+import io.etcd.jetcd.api.RangeRequest;
+import io.etcd.jetcd.api.RangeResponse;
 import io.etcd.jetcd.api.WatchCreateRequest;
 import io.etcd.jetcd.api.WatchGrpc;
 import io.etcd.jetcd.api.WatchRequest;
 import io.etcd.jetcd.api.WatchResponse;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.dubbo.common.constants.CommonConstants.CONFIG_NAMESPACE_KEY;
 import static org.apache.dubbo.common.constants.CommonConstants.PATH_SEPARATOR;
+import static org.apache.dubbo.remoting.etcd.jetcd.JEtcdClientWrapper.DEFAULT_REQUEST_TIMEOUT;
 
 /**
  * The etcd implementation of {@link DynamicConfiguration}
+ * <p>
+ * One watch over the root path keeps a snapshot of all the configs, which serves the reads and notifies the listeners
+ * of the changed keys. The watch resumes from the revision of the snapshot after a reconnect, the snapshot is loaded
+ * again if that revision has been compacted.
  */
 public class EtcdDynamicConfiguration implements DynamicConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(EtcdDynamicConfiguration.class);
 
+    /**
+     * a key known to have no value
+     */
+    private static final KeyValue ABSENT = KeyValue.getDefaultInstance();
+
+    private static final long RESUME_PERIOD = 1000;
+
     /**
      * The final root path would be: /$NAME_SPACE/config
      */
@@ -63,12 +84,16 @@ public class EtcdDynamicConfiguration implements DynamicConfiguration {
     private final JEtcdClient etcdClient;
 
     /**
-     * The map store the key to {@link EtcdConfigWatcher} mapping
+     * The map store the normalized key to its listeners mapping
      */
-    private final ConcurrentMap<ConfigurationListener, EtcdConfigWatcher> watchListenerMap;
+    private final ConcurrentMap<String, KeyListeners> watchListenerMap;
+
+    private final ConfigWatcher watcher;
 
     EtcdDynamicConfiguration(URL url) {
         rootPath = PATH_SEPARATOR + url.getParameter(CONFIG_NAMESPACE_KEY, DEFAULT_GROUP) + "/config";
+        // watches the root path, initialized after it
+        watcher = new ConfigWatcher();
         etcdClient = new JEtcdClient(url);
         etcdClient.addStateListener(state -> {
             if (state == StateListener.CONNECTED) {
@@ -84,17 +109,21 @@ public class EtcdDynamicConfiguration implements DynamicConfiguration {
 
     @Override
     public void addListener(String key, String group, ConfigurationListener listener) {
-        if (watchListenerMap.get(listener) == null) {
-            EtcdConfigWatcher watcher = new EtcdConfigWatcher(key, group, listener);
-            watchListenerMap.put(listener, watcher);
-            watcher.watch();
-        }
+        String normalizedKey = convertKey(group, key);
+        watchListenerMap.computeIfAbsent(normalizedKey, k -> new KeyListeners(key, group)).listeners.add(listener);
+        watcher.start();
     }
 
     @Override
     public void removeListener(String key, String group, ConfigurationListener listener) {
-        EtcdConfigWatcher watcher = watchListenerMap.get(listener);
-        watcher.cancelWatch();
+        String normalizedKey = convertKey(group, key);
+        KeyListeners keyListeners = watchListenerMap.get(normalizedKey);
+        if (keyListeners != null) {
+            keyListeners.listeners.remove(listener);
+            if (keyListeners.listeners.isEmpty()) {
+                watchListenerMap.remove(normalizedKey, keyListeners);
+            }
+        }
     }
 
     @Override
@@ -112,9 +141,22 @@ public class EtcdDynamicConfiguration implements DynamicConfiguration {
 
     @Override
     public Object getInternalProperty(String key) {
+        if (key.startsWith(rootPath + PATH_SEPARATOR)) {
+            watcher.start();
+            KeyValue kv = watcher.get(key);
+            if (kv != null) {
+                return kv == ABSENT ? null : kv.getValue().toString(UTF_8);
+            }
+        }
         return etcdClient.getKVValue(key);
     }
 
+    @Override
+    public void close() throws Exception {
+        watcher.stop();
+        etcdClient.close();
+    }
+
     private String buildPath(String group) {
         String actualGroup = StringUtils.isEmpty(group) ? DEFAULT_GROUP : group;
         return rootPath + PATH_SEPARATOR + actualGroup;
@@ -125,77 +167,268 @@ public class EtcdDynamicConfiguration implements DynamicConfiguration {
     }
 
     private void recover() {
-        for (EtcdConfigWatcher watcher : watchListenerMap.values()) {
-            watcher.watch();
-        }
+        watcher.resume();
     }
 
-    public class EtcdConfigWatcher implements StreamObserver<WatchResponse> {
+    private void notify(List<Event> events) {
+        for (Event etcdEvent : events) {
+            KeyListeners keyListeners = watchListenerMap.get(etcdEvent.getKv().getKey().toString(UTF_8));
+            if (keyListeners == null) {
+                continue;
+            }
+            ConfigChangeType type = ConfigChangeType.MODIFIED;
+            if (etcdEvent.getType() == Event.EventType.DELETE) {
+                type = ConfigChangeType.DELETED;
+            }
+            ConfigChangedEvent event = new ConfigChangedEvent(keyListeners.key, keyListeners.group,
+                    etcdEvent.getKv().getValue().toString(UTF_8), type);
+            for (ConfigurationListener listener : keyListeners.listeners) {
+                listener.process(event);
+            }
+        }
+    }
 
-        private ConfigurationListener listener;
-        protected WatchGrpc.WatchStub watchStub;
-        private StreamObserver<WatchRequest> observer;
-        protected long watchId;
-        private ManagedChannel channel;
+    private static class KeyListeners {
 
         private final String key;
 
         private final String group;
 
-        private String normalizedKey;
+        private final Set<ConfigurationListener> listeners = new CopyOnWriteArraySet<>();
 
-        public EtcdConfigWatcher(String key, String group, ConfigurationListener listener) {
+        KeyListeners(String key, String group) {
             this.key = key;
             this.group = group;
-            this.normalizedKey = convertKey(group, key);
-            this.listener = listener;
-            this.channel = etcdClient.getChannel();
-        }
-
-        @Override
-        public void onNext(WatchResponse watchResponse) {
-            this.watchId = watchResponse.getWatchId();
-            for (Event etcdEvent : watchResponse.getEventsList()) {
-                ConfigChangeType type = ConfigChangeType.MODIFIED;
-                if (etcdEvent.getType() == Event.EventType.DELETE) {
-                    type = ConfigChangeType.DELETED;
+        }
+    }
+
+    /**
+     * Watches all the keys under the root path on one stream.
+     */
+    private class ConfigWatcher {
+
+        private final ByteString prefix = ByteString.copyFromUtf8(rootPath + PATH_SEPARATOR);
+
+        private final Map<String, KeyValue> snapshot = new HashMap<>();
+
+        /**
+         * the revision of etcd the snapshot is at, 0 before it is loaded
+         */
+        private long revision;
+
+        /**
+         * the current stream, {@code null} while the snapshot may be stale
+         */
+        private WatchStream stream;
+
+        private long lastOpenTime;
+
+        private boolean closed;
+
+        synchronized void start() {
+            if (closed) {
+                return;
+            }
+            if (revision == 0) {
+                try {
+                    load();
+                } catch (Throwable t) {
+                    logger.error("Failed to load the configs under " + rootPath + " from etcd", t);
+                    return;
                 }
-                ConfigChangedEvent event = new ConfigChangedEvent(key, group,
-                        etcdEvent.getKv().getValue().toString(UTF_8), type);
-                listener.process(event);
+                open();
+            } else if (stream == null && System.currentTimeMillis() - lastOpenTime > RESUME_PERIOD) {
+                // the watch failed without the client reconnecting
+                open();
             }
         }
 
-        @Override
-        public void onError(Throwable throwable) {
-            logger.error("etcd watcher get an error", throwable);
+        /**
+         * The watched value of the key, {@link #ABSENT} if it has none, {@code null} if the snapshot may be stale.
+         */
+        synchronized KeyValue get(String key) {
+            if (stream == null) {
+                return null;
+            }
+            KeyValue kv = snapshot.get(key);
+            return kv == null ? ABSENT : kv;
         }
 
-        @Override
-        public void onCompleted() {
-            // ignore
+        /**
+         * Watches again from the revision of the snapshot.
+         */
+        synchronized void resume() {
+            if (revision > 0 && !closed) {
+                open();
+            }
         }
 
-        public long getWatchId() {
-            return watchId;
+        /**
+         * Ends the watch stream, the watcher is not started again.
+         */
+        synchronized void stop() {
+            closed = true;
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
         }
 
-        private void watch() {
-            watchStub = WatchGrpc.newStub(channel);
-            observer = watchStub.watch(this);
+        private void open() {
+            if (stream != null) {
+                stream.close();
+            }
+            lastOpenTime = System.currentTimeMillis();
+            stream = new WatchStream();
+            stream.requests = WatchGrpc.newStub(etcdClient.getChannel()).watch(stream);
             WatchCreateRequest.Builder builder = WatchCreateRequest.newBuilder()
-                    .setKey(ByteString.copyFromUtf8(normalizedKey))
+                    .setKey(prefix)
+                    .setRangeEnd(rangeEnd(prefix))
+                    .setStartRevision(revision + 1)
                     .setProgressNotify(true);
-            WatchRequest req = WatchRequest.newBuilder().setCreateRequest(builder).build();
-            observer.onNext(req);
+            stream.requests.onNext(WatchRequest.newBuilder().setCreateRequest(builder).build());
+        }
+
+        /**
+         * Loads all the configs, returns the changes of the snapshot as events.
+         */
+        private List<Event> load() {
+            return apply(KVGrpc.newBlockingStub(etcdClient.getChannel())
+                    .withDeadlineAfter(DEFAULT_REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .range(rangeRequest()));
+        }
+
+        /**
+         * Loads all the configs again without blocking, the watch callbacks run on the event loop of the channel
+         * the response is read by. The watch is opened again from the revision loaded.
+         */
+        private void reload() {
+            KVGrpc.newStub(etcdClient.getChannel())
+                    .withDeadlineAfter(DEFAULT_REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .range(rangeRequest(), new StreamObserver<RangeResponse>() {
+                        @Override
+                        public void onNext(RangeResponse response) {
+                            List<Event> events;
+                            synchronized (ConfigWatcher.this) {
+                                if (closed || stream != null) {
+                                    // opened again meanwhile
+                                    return;
+                                }
+                                events = apply(response);
+                                open();
+                            }
+                            EtcdDynamicConfiguration.this.notify(events);
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            // the reads start the watch again
+                            logger.error("Failed to load the configs under " + rootPath + " from etcd", t);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            // ignore
+                        }
+                    });
+        }
+
+        private RangeRequest rangeRequest() {
+            return RangeRequest.newBuilder().setKey(prefix).setRangeEnd(rangeEnd(prefix)).build();
         }
 
-        private void cancelWatch() {
-            WatchCancelRequest watchCancelRequest =
-                    WatchCancelRequest.newBuilder().setWatchId(watchId).build();
-            WatchRequest cancelRequest = WatchRequest.newBuilder()
-                    .setCancelRequest(watchCancelRequest).build();
-            observer.onNext(cancelRequest);
+        /**
+         * Replaces the snapshot with the configs of the response, returns the changes as events.
+         */
+        private List<Event> apply(RangeResponse response) {
+            List<Event> events = new ArrayList<>();
+            Map<String, KeyValue> previous = new HashMap<>(snapshot);
+            snapshot.clear();
+            for (KeyValue kv : response.getKvsList()) {
+                String key = kv.getKey().toString(UTF_8);
+                snapshot.put(key, kv);
+                KeyValue old = previous.remove(key);
+                if (old == null || old.getModRevision() != kv.getModRevision()) {
+                    events.add(Event.newBuilder().setType(Event.EventType.PUT).setKv(kv).build());
+                }
+            }
+            for (KeyValue old : previous.values()) {
+                events.add(Event.newBuilder().setType(Event.EventType.DELETE)
+                        .setKv(KeyValue.newBuilder().setKey(old.getKey())).build());
+            }
+            revision = response.getHeader().getRevision();
+            return events;
+        }
+
+        private void onNext(WatchStream source, WatchResponse response) {
+            List<Event> events;
+            synchronized (this) {
+                if (source != stream) {
+                    return;
+                }
+                if (response.getCompactRevision() > 0 || response.getCanceled()) {
+                    // the revision of the snapshot is gone, the changes since are found by loading it again
+                    logger.warn("The etcd watch of " + rootPath + " was canceled at revision " + revision
+                            + ", compacted revision: " + response.getCompactRevision());
+                    stream.close();
+                    stream = null;
+                    reload();
+                    return;
+                }
+                events = response.getEventsList();
+                for (Event event : events) {
+                    String key = event.getKv().getKey().toString(UTF_8);
+                    if (event.getType() == Event.EventType.DELETE) {
+                        snapshot.remove(key);
+                    } else {
+                        snapshot.put(key, event.getKv());
+                    }
+                }
+                revision = Math.max(revision, response.getHeader().getRevision());
+            }
+            EtcdDynamicConfiguration.this.notify(events);
+        }
+
+        private synchronized void onError(WatchStream source, Throwable t) {
+            if (source == stream) {
+                logger.error("etcd watcher get an error", t);
+                // reads go to etcd until the watch is resumed
+                stream = null;
+            }
+        }
+
+        private ByteString rangeEnd(ByteString key) {
+            byte[] end = key.toByteArray();
+            end[end.length - 1]++;
+            return ByteString.copyFrom(end);
+        }
+
+        private class WatchStream implements StreamObserver<WatchResponse> {
+
+            private StreamObserver<WatchRequest> requests;
+
+            @Override
+            public void onNext(WatchResponse response) {
+                ConfigWatcher.this.onNext(this, response);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                ConfigWatcher.this.onError(this, throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                // ignore
+            }
+
+            void close() {
+                try {
+                    requests.onCompleted();
+                } catch (Throwable t) {
+                    logger.debug("Failed to close the etcd watch stream, cause: " + t.getMessage());
+                }
+            }
         }
     }
 }
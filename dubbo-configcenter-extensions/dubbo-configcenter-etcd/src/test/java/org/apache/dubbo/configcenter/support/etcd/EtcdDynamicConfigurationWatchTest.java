@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.configcenter.support.etcd;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.config.configcenter.ConfigChangeType;
+import org.apache.dubbo.common.config.configcenter.ConfigChangedEvent;
+import org.apache.dubbo.common.config.configcenter.ConfigurationListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The watch of the root path, against a local fake of etcd.
+ */
+public class EtcdDynamicConfigurationWatchTest {
+
+    private static final String ROOT = "/dubbo/config/";
+
+    private final BlockingQueue<ConfigChangedEvent> events = new LinkedBlockingQueue<>();
+
+    private final ConfigurationListener listener = events::add;
+
+    private FakeEtcdServer server;
+
+    private EtcdDynamicConfiguration configuration;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeEtcdServer();
+        server.put(ROOT + "dubbo/a", "1");
+        server.put(ROOT + "test/b", "1");
+        configuration = new EtcdDynamicConfiguration(URL.valueOf("etcd3://" + server.getAddress()));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        configuration.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void testRootWatchServesTheReads() {
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("b", "test", listener);
+
+        // one watch of the root path, created after the snapshot it was loaded at
+        await().until(() -> !server.getCreateRequests().isEmpty());
+        assertEquals(1, server.getWatchStreams());
+        assertEquals(1, server.getCreateRequests().size());
+        assertEquals(ROOT, server.getCreateRequests().get(0).getKey().toStringUtf8());
+        assertEquals(server.getRevision() + 1, server.getCreateRequests().get(0).getStartRevision());
+        assertEquals(1, server.getRanges(ROOT));
+
+        // served by the snapshot, including the keys without listeners or value
+        assertEquals("1", configuration.getConfig("a", "dubbo"));
+        assertEquals("1", configuration.getConfig("b", "test"));
+        assertNull(configuration.getConfig("c", "dubbo"));
+        assertEquals(0, server.getRanges(ROOT + "dubbo/a"));
+        assertEquals(0, server.getRanges(ROOT + "test/b"));
+        assertEquals(0, server.getRanges(ROOT + "dubbo/c"));
+        assertEquals(1, server.getRanges(ROOT));
+    }
+
+    @Test
+    public void testNotifyTheChangedKeys() throws Exception {
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("b", "test", listener);
+
+        server.put(ROOT + "dubbo/a", "2");
+        assertEvent("a", "dubbo", "2", ConfigChangeType.MODIFIED);
+        assertEquals("2", configuration.getConfig("a", "dubbo"));
+
+        // a key without listeners isn't notified, but is read from the snapshot
+        server.put(ROOT + "dubbo/c", "1");
+        server.delete(ROOT + "test/b");
+        assertEvent("b", "test", "", ConfigChangeType.DELETED);
+        assertNull(configuration.getConfig("b", "test"));
+        assertEquals("1", configuration.getConfig("c", "dubbo"));
+        assertEquals(0, server.getRanges(ROOT + "dubbo/c"));
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testResumeFromTheRevisionOfTheSnapshot() throws Exception {
+        configuration.addListener("a", "dubbo", listener);
+        await().until(() -> server.getWatchStreams() == 1);
+        long revision = server.getRevision();
+
+        server.failWatchStreams();
+        // changed while not watched
+        server.put(ROOT + "dubbo/a", "2");
+        awaitWatches(2);
+        assertEvent("a", "dubbo", "2", ConfigChangeType.MODIFIED);
+
+        // the watch resumed after the last change seen, without loading the snapshot again
+        assertEquals(revision + 1, server.getCreateRequests().get(1).getStartRevision());
+        assertEquals(1, server.getRanges(ROOT));
+        assertEquals("2", configuration.getConfig("a", "dubbo"));
+    }
+
+    @Test
+    public void testReloadAfterCompaction() throws Exception {
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("b", "test", listener);
+        await().until(() -> server.getWatchStreams() == 1);
+
+        server.failWatchStreams();
+        server.put(ROOT + "dubbo/a", "2");
+        server.delete(ROOT + "test/b");
+        // the revision to resume from is gone
+        server.compact();
+        awaitWatches(3);
+
+        // the changes are found by loading the snapshot again
+        assertEvent("a", "dubbo", "2", ConfigChangeType.MODIFIED);
+        assertEvent("b", "test", "", ConfigChangeType.DELETED);
+        assertEquals(2, server.getRanges(ROOT));
+        assertEquals(server.getRevision() + 1, server.getCreateRequests().get(2).getStartRevision());
+        assertNull(configuration.getConfig("b", "test"));
+
+        // and watched from it
+        server.put(ROOT + "dubbo/a", "3");
+        assertEvent("a", "dubbo", "3", ConfigChangeType.MODIFIED);
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRemoveListener() throws Exception {
+        ConfigurationListener other = event -> {};
+        configuration.addListener("a", "dubbo", listener);
+        configuration.addListener("a", "dubbo", other);
+
+        configuration.removeListener("a", "dubbo", listener);
+        assertTrue(getWatchListenerMap().containsKey(ROOT + "dubbo/a"));
+        server.put(ROOT + "dubbo/a", "2");
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+
+        // the key is dropped with its last listener
+        configuration.removeListener("a", "dubbo", other);
+        assertFalse(getWatchListenerMap().containsKey(ROOT + "dubbo/a"));
+
+        configuration.addListener("a", "dubbo", listener);
+        server.put(ROOT + "dubbo/a", "3");
+        assertEvent("a", "dubbo", "3", ConfigChangeType.MODIFIED);
+    }
+
+    @Test
+    public void testCloseEndsTheWatch() throws Exception {
+        configuration.addListener("a", "dubbo", listener);
+        await().until(() -> server.getWatchStreams() == 1);
+
+        configuration.close();
+        await().until(() -> server.getWatchStreams() == 0);
+        server.put(ROOT + "dubbo/a", "2");
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals(1, server.getCreateRequests().size());
+    }
+
+    /**
+     * Reads until the watch is created again, the reads start the watch once it failed.
+     */
+    private void awaitWatches(int watches) {
+        await().until(() -> {
+            configuration.getConfig("a", "dubbo");
+            return server.getCreateRequests().size() >= watches;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> getWatchListenerMap() throws Exception {
+        Field field = EtcdDynamicConfiguration.class.getDeclaredField("watchListenerMap");
+        field.setAccessible(true);
+        return (Map<String, ?>) field.get(configuration);
+    }
+
+    private void assertEvent(String key, String group, String content, ConfigChangeType type)
+            throws InterruptedException {
+        ConfigChangedEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(key, event.getKey());
+        assertEquals(group, event.getGroup());
+        assertEquals(content, event.getContent());
+        assertEquals(type, event.getChangeType());
+    }
+}
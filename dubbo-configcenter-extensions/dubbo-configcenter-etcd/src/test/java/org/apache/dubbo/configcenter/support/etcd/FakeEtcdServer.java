@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.configcenter.support.etcd;
+
+import com.google.protobuf.ByteString;
+import io.etcd.jetcd.api.Event;
+import io.etcd.jetcd.api.KVGrpc;
+import io.etcd.jetcd.api.KeyValue;
+import io.etcd.jetcd.api.RangeRequest;
+import io.etcd.jetcd.api.RangeResponse;
+import io.etcd.jetcd.api.ResponseHeader;
+import io.etcd.jetcd.api.WatchCreateRequest;
+import io.etcd.jetcd.api.WatchGrpc;
+import io.etcd.jetcd.api.WatchRequest;
+import io.etcd.jetcd.api.WatchResponse;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The key/value and watch services of etcd on a local port, with revisions and compaction, recording the ranges
+ * read and the watches created.
+ */
+public class FakeEtcdServer {
+
+    private final Server server;
+
+    // guarded by this
+    private final TreeMap<ByteString, KeyValue> kvs = new TreeMap<>(ByteString.unsignedLexicographicalComparator());
+
+    // guarded by this
+    private final List<Event> history = new ArrayList<>();
+
+    private long revision = 1;
+
+    private long compactRevision;
+
+    private long nextWatchId;
+
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, AtomicInteger> ranges = new ConcurrentHashMap<>();
+
+    private final List<WatchCreateRequest> createRequests = new CopyOnWriteArrayList<>();
+
+    public FakeEtcdServer() throws IOException {
+        this.server = NettyServerBuilder.forPort(0).addService(new KV()).addService(new Watch()).build().start();
+    }
+
+    public String getAddress() {
+        return "127.0.0.1:" + server.getPort();
+    }
+
+    public synchronized long getRevision() {
+        return revision;
+    }
+
+    public void put(String key, String value) {
+        ByteString k = ByteString.copyFromUtf8(key);
+        synchronized (this) {
+            KeyValue old = kvs.get(k);
+            revision++;
+            KeyValue kv = KeyValue.newBuilder()
+                    .setKey(k)
+                    .setValue(ByteString.copyFromUtf8(value))
+                    .setCreateRevision(old == null ? revision : old.getCreateRevision())
+                    .setModRevision(revision)
+                    .setVersion(old == null ? 1 : old.getVersion() + 1)
+                    .build();
+            kvs.put(k, kv);
+            publish(Event.newBuilder().setType(Event.EventType.PUT).setKv(kv).build());
+        }
+    }
+
+    public void delete(String key) {
+        ByteString k = ByteString.copyFromUtf8(key);
+        synchronized (this) {
+            if (kvs.remove(k) != null) {
+                revision++;
+                publish(Event.newBuilder().setType(Event.EventType.DELETE)
+                        .setKv(KeyValue.newBuilder().setKey(k).setModRevision(revision)).build());
+            }
+        }
+    }
+
+    /**
+     * Compacts the history up to the current revision, the watches from an older revision are canceled.
+     */
+    public synchronized void compact() {
+        compactRevision = revision;
+        history.clear();
+    }
+
+    /**
+     * Fails the open watch streams, as a restarted member would.
+     */
+    public synchronized void failWatchStreams() {
+        for (Stream stream : streams) {
+            streams.remove(stream);
+            stream.responses.onError(Status.UNAVAILABLE.withDescription("watch stream failed").asRuntimeException());
+        }
+    }
+
+    /**
+     * The number of the watch streams open.
+     */
+    public int getWatchStreams() {
+        return streams.size();
+    }
+
+    /**
+     * The create requests of the watches, in order.
+     */
+    public List<WatchCreateRequest> getCreateRequests() {
+        return createRequests;
+    }
+
+    /**
+     * The number of range requests starting at the key, whether or not they read a single key.
+     */
+    public int getRanges(String key) {
+        AtomicInteger count = ranges.get(key);
+        return count == null ? 0 : count.get();
+    }
+
+    public void shutdown() throws InterruptedException {
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void publish(Event event) {
+        history.add(event);
+        for (Stream stream : streams) {
+            stream.send(event);
+        }
+    }
+
+    private static boolean inRange(ByteString key, ByteString start, ByteString end) {
+        if (end.isEmpty()) {
+            return key.equals(start);
+        }
+        return ByteString.unsignedLexicographicalComparator().compare(key, start) >= 0
+                && ByteString.unsignedLexicographicalComparator().compare(key, end) < 0;
+    }
+
+    private ResponseHeader header() {
+        return ResponseHeader.newBuilder().setRevision(revision).build();
+    }
+
+    private class KV extends KVGrpc.KVImplBase {
+
+        @Override
+        public void range(RangeRequest request, StreamObserver<RangeResponse> observer) {
+            ranges.computeIfAbsent(request.getKey().toString(UTF_8), k -> new AtomicInteger()).incrementAndGet();
+            RangeResponse.Builder response = RangeResponse.newBuilder();
+            synchronized (FakeEtcdServer.this) {
+                for (KeyValue kv : kvs.tailMap(request.getKey()).values()) {
+                    if (!inRange(kv.getKey(), request.getKey(), request.getRangeEnd())) {
+                        break;
+                    }
+                    response.addKvs(kv);
+                }
+                response.setCount(response.getKvsCount()).setHeader(header());
+            }
+            observer.onNext(response.build());
+            observer.onCompleted();
+        }
+    }
+
+    private class Watch extends WatchGrpc.WatchImplBase {
+
+        @Override
+        public StreamObserver<WatchRequest> watch(StreamObserver<WatchResponse> responses) {
+            Stream stream = new Stream(responses);
+            streams.add(stream);
+            return stream;
+        }
+    }
+
+    private class Stream implements StreamObserver<WatchRequest> {
+
+        private final StreamObserver<WatchResponse> responses;
+
+        private final Map<Long, WatchCreateRequest> watches = new ConcurrentHashMap<>();
+
+        Stream(StreamObserver<WatchResponse> responses) {
+            this.responses = responses;
+        }
+
+        @Override
+        public void onNext(WatchRequest request) {
+            synchronized (FakeEtcdServer.this) {
+                if (request.hasCreateRequest()) {
+                    create(request.getCreateRequest());
+                } else if (request.hasCancelRequest()) {
+                    long watchId = request.getCancelRequest().getWatchId();
+                    if (watches.remove(watchId) != null) {
+                        responses.onNext(WatchResponse.newBuilder().setHeader(header())
+                                .setWatchId(watchId).setCanceled(true).build());
+                    }
+                }
+            }
+        }
+
+        private void create(WatchCreateRequest request) {
+            createRequests.add(request);
+            long watchId = nextWatchId++;
+            responses.onNext(WatchResponse.newBuilder().setHeader(header())
+                    .setWatchId(watchId).setCreated(true).build());
+            if (request.getStartRevision() > 0 && request.getStartRevision() <= compactRevision) {
+                responses.onNext(WatchResponse.newBuilder().setHeader(header()).setWatchId(watchId)
+                        .setCanceled(true).setCompactRevision(compactRevision).build());
+                return;
+            }
+            watches.put(watchId, request);
+            WatchResponse.Builder missed = WatchResponse.newBuilder().setHeader(header()).setWatchId(watchId);
+            for (Event event : history) {
+                if (event.getKv().getModRevision() >= request.getStartRevision()
+                        && inRange(event.getKv().getKey(), request.getKey(), request.getRangeEnd())) {
+                    missed.addEvents(event);
+                }
+            }
+            if (request.getStartRevision() > 0 && missed.getEventsCount() > 0) {
+                responses.onNext(missed.build());
+            }
+        }
+
+        private void send(Event event) {
+            for (Map.Entry<Long, WatchCreateRequest> watch : watches.entrySet()) {
+                if (inRange(event.getKv().getKey(), watch.getValue().getKey(), watch.getValue().getRangeEnd())) {
+                    responses.onNext(WatchResponse.newBuilder().setHeader(header())
+                            .setWatchId(watch.getKey()).addEvents(event).build());
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            streams.remove(this);
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (FakeEtcdServer.this) {
+                if (streams.remove(this)) {
+                    responses.onCompleted();
+                }
+            }
+        }
+    }
+}
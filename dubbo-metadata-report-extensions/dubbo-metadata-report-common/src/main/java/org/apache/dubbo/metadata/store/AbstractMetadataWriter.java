@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.metadata.store;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the metadata behind a report: the changes are coalesced per key and committed in transactions of at most
+ * {@code write-batch-size} operations, {@code write-in-flight} transactions at a time. The subclasses only build and
+ * send the transactions, see {@link #commit(Map)}.
+ * <p>
+ * A key keeps its newest change pending while a transaction writes it, so the changes of a key are applied in order.
+ * The changes of a transaction failing with a retryable error are retried unless they were superseded. A transaction
+ * rejected for good is split in halves until the rejected key is committed alone, its change is then dropped.
+ * {@link #close()} commits the pending changes before returning.
+ */
+public abstract class AbstractMetadataWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractMetadataWriter.class);
+
+    public static final String WRITE_BATCH_SIZE_KEY = "write-batch-size";
+
+    public static final String WRITE_IN_FLIGHT_KEY = "write-in-flight";
+
+    public static final String WRITE_DELAY_KEY = "write-delay";
+
+    public static final String WRITE_TIMEOUT_KEY = "write-timeout";
+
+    public static final String WRITE_CLOSE_TIMEOUT_KEY = "write-close-timeout";
+
+    private static final int DEFAULT_WRITE_IN_FLIGHT = 4;
+
+    private static final int DEFAULT_WRITE_DELAY = 20;
+
+    private static final int DEFAULT_WRITE_TIMEOUT = 10000;
+
+    private static final int DEFAULT_WRITE_CLOSE_TIMEOUT = 10000;
+
+    private static final int RETRY_DELAY = 3000;
+
+    private final String name;
+
+    private final long maxTxnBytes;
+
+    private final int batchSize;
+
+    private final int maxInFlight;
+
+    private final int delay;
+
+    private final int timeout;
+
+    private final int closeTimeout;
+
+    private final ScheduledExecutorService executor;
+
+    // a null value deletes the key
+    private final Map<String, String> pending = new LinkedHashMap<>();
+
+    private final Map<String, String> writing = new HashMap<>();
+
+    // the halves of the rejected transactions, committed before the pending changes
+    private final Deque<Map<String, String>> splits = new ArrayDeque<>();
+
+    private int inFlight;
+
+    private ScheduledFuture<?> flushFuture;
+
+    private boolean closed;
+
+    /**
+     * @param name             the name of the store, in the logs and the names of the threads
+     * @param maxTxnOperations the limit of the store on the operations of a transaction
+     * @param maxTxnBytes      the limit on the size of a transaction, see {@link #sizeOf(String, String)}
+     */
+    protected AbstractMetadataWriter(String name, URL url, int maxTxnOperations, long maxTxnBytes) {
+        this.name = name;
+        this.maxTxnBytes = maxTxnBytes;
+        this.batchSize =
+                Math.max(1, Math.min(maxTxnOperations, url.getParameter(WRITE_BATCH_SIZE_KEY, maxTxnOperations)));
+        this.maxInFlight = Math.max(1, url.getParameter(WRITE_IN_FLIGHT_KEY, DEFAULT_WRITE_IN_FLIGHT));
+        this.delay = Math.max(0, url.getParameter(WRITE_DELAY_KEY, DEFAULT_WRITE_DELAY));
+        this.timeout = url.getParameter(WRITE_TIMEOUT_KEY, DEFAULT_WRITE_TIMEOUT);
+        this.closeTimeout = url.getParameter(WRITE_CLOSE_TIMEOUT_KEY, DEFAULT_WRITE_CLOSE_TIMEOUT);
+        this.executor = new ScheduledThreadPoolExecutor(
+                maxInFlight, new NamedThreadFactory("dubbo-" + name + "-metadata-writer", true));
+    }
+
+    /**
+     * Commits the changes in one transaction, called by a writer thread.
+     *
+     * @param changes the values of the keys, {@code null} for a deletion
+     * @return completed once the transaction is committed, exceptionally if it failed
+     */
+    protected abstract CompletableFuture<?> commit(Map<String, String> changes);
+
+    /**
+     * Whether a transaction failing with the error may succeed later, e.g. on a timeout or an unavailable store,
+     * rather than being rejected for its content, e.g. a value over the size limit.
+     */
+    protected abstract boolean isRetryable(Throwable t);
+
+    /**
+     * The size of the change in a transaction, compared to the {@code maxTxnBytes} of the writer.
+     */
+    protected long sizeOf(String key, String value) {
+        // chars, close enough to the bytes of the metadata
+        return key.length() + (value == null ? 0 : value.length());
+    }
+
+    public void put(String key, String value) {
+        change(key, value);
+    }
+
+    public void delete(String key) {
+        change(key, null);
+    }
+
+    /**
+     * The change of the key not committed yet, with a {@code null} value for a deletion, or {@code null}.
+     */
+    public synchronized Map.Entry<String, String> getChange(String key) {
+        if (pending.containsKey(key)) {
+            return new AbstractMap.SimpleImmutableEntry<>(key, pending.get(key));
+        }
+        if (writing.containsKey(key)) {
+            return new AbstractMap.SimpleImmutableEntry<>(key, writing.get(key));
+        }
+        return null;
+    }
+
+    private void change(String key, String value) {
+        synchronized (this) {
+            if (!closed) {
+                pending.remove(key);
+                pending.put(key, value);
+                scheduleFlush(pending.size() >= batchSize ? 0 : delay);
+                return;
+            }
+        }
+        // too late to be written behind
+        try {
+            commit(Collections.singletonMap(key, value)).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Failed to commit " + key + " to " + name + ", cause: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Commits the pending changes, waiting for them at most {@code write-close-timeout} milliseconds.
+     */
+    public void close() {
+        long deadline = System.currentTimeMillis() + closeTimeout;
+        synchronized (this) {
+            closed = true;
+            scheduleFlush(0);
+            long remaining;
+            while ((!pending.isEmpty() || !splits.isEmpty() || inFlight > 0)
+                    && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!pending.isEmpty() || !writing.isEmpty()) {
+                logger.warn("Closed the " + name + " metadata writer before committing " + pending.keySet()
+                        + writing.keySet());
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (flushFuture != null) {
+            // a retry waits longer than a close or a full batch
+            if (flushFuture.getDelay(TimeUnit.MILLISECONDS) <= delayMillis || !flushFuture.cancel(false)) {
+                return;
+            }
+        }
+        flushFuture = executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        synchronized (this) {
+            flushFuture = null;
+        }
+        Map<String, String> batch;
+        while ((batch = takeBatch()) != null) {
+            Map<String, String> changes = batch;
+            executor.execute(() -> commitBatch(changes));
+        }
+    }
+
+    private synchronized Map<String, String> takeBatch() {
+        if (inFlight >= maxInFlight) {
+            return null;
+        }
+        Map<String, String> batch = splits.pollFirst();
+        if (batch == null) {
+            batch = new LinkedHashMap<>();
+            long bytes = 0;
+            Iterator<Map.Entry<String, String>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, String> change = iterator.next();
+                if (writing.containsKey(change.getKey())) {
+                    continue;
+                }
+                bytes += sizeOf(change.getKey(), change.getValue());
+                if (bytes > maxTxnBytes && !batch.isEmpty()) {
+                    break;
+                }
+                batch.put(change.getKey(), change.getValue());
+                writing.put(change.getKey(), change.getValue());
+                iterator.remove();
+            }
+            if (batch.isEmpty()) {
+                return null;
+            }
+        }
+        inFlight++;
+        return batch;
+    }
+
+    private void commitBatch(Map<String, String> batch) {
+        CompletableFuture<?> future;
+        try {
+            future = commit(batch);
+        } catch (Throwable t) {
+            future = CompletableFuture.failedFuture(t);
+        }
+        future.orTimeout(timeout, TimeUnit.MILLISECONDS).whenComplete((result, t) -> {
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            if (cause != null) {
+                logger.error(
+                        "Failed to commit " + batch.keySet() + " to " + name + ", cause: " + cause.getMessage(), cause);
+            }
+            done(batch, cause);
+        });
+    }
+
+    private synchronized void done(Map<String, String> batch, Throwable failure) {
+        inFlight--;
+        boolean retry = false;
+        if (failure == null) {
+            writing.keySet().removeAll(batch.keySet());
+        } else if (isRetryable(failure)) {
+            retry = true;
+            for (Map.Entry<String, String> change : batch.entrySet()) {
+                writing.remove(change.getKey());
+                if (!pending.containsKey(change.getKey())) {
+                    pending.put(change.getKey(), change.getValue());
+                }
+            }
+        } else {
+            split(batch, failure);
+        }
+        if (!pending.isEmpty() || !splits.isEmpty()) {
+            scheduleFlush(retry ? RETRY_DELAY : 0);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Commits the halves of a rejected transaction on their own, the keys stay written meanwhile. A rejected change
+     * of a single key is dropped.
+     */
+    private void split(Map<String, String> batch, Throwable failure) {
+        List<Map.Entry<String, String>> changes = new ArrayList<>(batch.size());
+        for (Map.Entry<String, String> change : batch.entrySet()) {
+            if (pending.containsKey(change.getKey())) {
+                // superseded
+                writing.remove(change.getKey());
+            } else {
+                changes.add(change);
+            }
+        }
+        if (batch.size() == 1) {
+            for (Map.Entry<String, String> change : changes) {
+                writing.remove(change.getKey());
+                logger.error("Dropped the change of " + change.getKey() + " rejected by " + name + ", cause: "
+                        + failure.getMessage());
+            }
+            return;
+        }
+        int half = (changes.size() + 1) / 2;
+        if (half < changes.size()) {
+            splits.addFirst(toMap(changes.subList(half, changes.size())));
+        }
+        if (half > 0) {
+            splits.addFirst(toMap(changes.subList(0, half)));
+        }
+    }
+
+    private static Map<String, String> toMap(List<Map.Entry<String, String>> changes) {
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, String> change : changes) {
+            batch.put(change.getKey(), change.getValue());
+        }
+        return batch;
+    }
+}
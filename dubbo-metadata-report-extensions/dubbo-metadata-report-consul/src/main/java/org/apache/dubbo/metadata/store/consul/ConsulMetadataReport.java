@@ -29,6 +29,7 @@ import org.apache.dubbo.metadata.report.support.AbstractMetadataReport;
 import org.apache.dubbo.rpc.RpcException;
 
 import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.ConsulRawClient;
 import com.ecwid.consul.v1.Response;
 import com.ecwid.consul.v1.kv.model.GetValue;
 
@@ -36,21 +37,31 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import static org.apache.dubbo.common.constants.CommonConstants.SYNC_REPORT_KEY;
 
 /**
  * metadata report impl for consul
+ * <p>
+ * Unless {@code sync.report} is set, the metadata is written behind the report in batches, see {@link ConsulMetadataWriter}.
  */
 public class ConsulMetadataReport extends AbstractMetadataReport {
 
     private ConsulClient client;
 
+    private ConsulMetadataWriter writer;
+
     public ConsulMetadataReport(URL url) {
         super(url);
 
         String host = url.getHost();
         int port = ConsulConstants.INVALID_PORT != url.getPort() ? url.getPort() : ConsulConstants.DEFAULT_PORT;
-        client = new ConsulClient(host, port);
+        ConsulRawClient rawClient = new ConsulRawClient(host, port);
+        client = new ConsulClient(rawClient);
+        if (!url.getParameter(SYNC_REPORT_KEY, false)) {
+            writer = new ConsulMetadataWriter(rawClient, url);
+        }
     }
 
     @Override
@@ -94,6 +105,10 @@ public class ConsulMetadataReport extends AbstractMetadataReport {
     }
 
     private void storeMetadata(BaseMetadataIdentifier identifier, String v) {
+        if (writer != null) {
+            writer.put(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY), v);
+            return;
+        }
         try {
             client.setKVValue(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY), v);
         } catch (Throwable t) {
@@ -103,6 +118,10 @@ public class ConsulMetadataReport extends AbstractMetadataReport {
     }
 
     private void deleteMetadata(BaseMetadataIdentifier identifier) {
+        if (writer != null) {
+            writer.delete(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
+            return;
+        }
         try {
             client.deleteKVValue(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
         } catch (Throwable t) {
@@ -112,8 +131,14 @@ public class ConsulMetadataReport extends AbstractMetadataReport {
     }
 
     private String getMetadata(BaseMetadataIdentifier identifier) {
+        String key = identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+        Map.Entry<String, String> change = writer != null ? writer.getChange(key) : null;
+        if (change != null) {
+            // not committed yet
+            return change.getValue();
+        }
         try {
-            Response<GetValue> value = client.getKVValue(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
+            Response<GetValue> value = client.getKVValue(key);
             //FIXME CHECK
             if (value != null && value.getValue() != null) {
                 //todo check decode value and value diff
@@ -130,4 +155,12 @@ public class ConsulMetadataReport extends AbstractMetadataReport {
     public String getServiceDefinition(MetadataIdentifier metadataIdentifier) {
         return getMetadata(metadataIdentifier);
     }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (writer != null) {
+            writer.close();
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.metadata.store.consul;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.JsonUtils;
+import org.apache.dubbo.metadata.store.AbstractMetadataWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.ecwid.consul.transport.HttpResponse;
+import com.ecwid.consul.v1.ConsulRawClient;
+import com.ecwid.consul.v1.OperationException;
+
+/**
+ * Writes the metadata behind the report in {@code /v1/txn} transactions.
+ */
+class ConsulMetadataWriter extends AbstractMetadataWriter {
+
+    /**
+     * the limit of consul on the operations of a transaction
+     */
+    static final int MAX_TXN_OPERATIONS = 64;
+
+    /**
+     * below the limit of consul on the size of a transaction, 512 KiB
+     */
+    static final int MAX_TXN_BYTES = 384 * 1024;
+
+    private final ConsulRawClient rawClient;
+
+    ConsulMetadataWriter(ConsulRawClient rawClient, URL url) {
+        super("consul", url, MAX_TXN_OPERATIONS, MAX_TXN_BYTES);
+        this.rawClient = rawClient;
+    }
+
+    @Override
+    protected CompletableFuture<?> commit(Map<String, String> changes) {
+        List<Map<String, Object>> operations = new ArrayList<>(changes.size());
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            Map<String, Object> kv = new LinkedHashMap<>();
+            kv.put("Verb", change.getValue() == null ? "delete" : "set");
+            kv.put("Key", change.getKey());
+            if (change.getValue() != null) {
+                kv.put("Value", Base64.getEncoder().encodeToString(change.getValue().getBytes(StandardCharsets.UTF_8)));
+            }
+            operations.add(Collections.singletonMap("KV", kv));
+        }
+        HttpResponse response = rawClient.makePutRequest("/v1/txn", JsonUtils.toJson(operations));
+        if (response.getStatusCode() != 200) {
+            throw new OperationException(response);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * A transaction consul rolled back (409), found too large (413) or malformed (400) fails the same way again.
+     */
+    @Override
+    protected boolean isRetryable(Throwable t) {
+        if (t instanceof OperationException) {
+            int status = ((OperationException) t).getStatusCode();
+            return status < 400 || status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    @Override
+    protected long sizeOf(String key, String value) {
+        // chars, with the values in base64
+        return key.length() + (value == null ? 0 : value.length() * 4L / 3);
+    }
+}
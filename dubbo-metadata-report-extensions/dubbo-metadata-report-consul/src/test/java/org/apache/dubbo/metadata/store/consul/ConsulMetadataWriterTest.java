@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.metadata.store.consul;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.JsonUtils;
+
+import com.ecwid.consul.transport.HttpResponse;
+import com.ecwid.consul.v1.ConsulRawClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsulMetadataWriterTest {
+
+    private final List<Map<String, String>> commits = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger answered = new AtomicInteger();
+
+    private volatile int status = 200;
+
+    private volatile boolean blocking;
+
+    private volatile String rejected;
+
+    private ConsulRawClient rawClient;
+
+    private ConsulMetadataWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        rawClient = mock(ConsulRawClient.class);
+        when(rawClient.makePutRequest(anyString(), anyString())).thenAnswer(invocation -> {
+            Map<String, String> changes = decode(invocation.getArgument(1));
+            // too large
+            int code = changes.containsKey(rejected) ? 413 : status;
+            commits.add(changes);
+            if (blocking) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            answered.incrementAndGet();
+            return new HttpResponse(code, "", "[]", null, null, null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void testCoalescePerKey() {
+        writer = newWriter("write-delay=60000");
+
+        writer.put("a", "1");
+        writer.put("a", "2");
+        writer.put("b", "1");
+        writer.delete("b");
+        writer.put("c", "1");
+        Assertions.assertEquals("2", writer.getChange("a").getValue());
+        Assertions.assertNull(writer.getChange("b").getValue());
+
+        writer.close();
+        Assertions.assertEquals(1, commits.size());
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "2");
+        expected.put("b", null);
+        expected.put("c", "1");
+        Assertions.assertEquals(expected, commits.get(0));
+        Assertions.assertNull(writer.getChange("a"));
+    }
+
+    @Test
+    void testInFlightWindow() {
+        blocking = true;
+        writer = newWriter("write-in-flight=2&write-batch-size=1&write-delay=0");
+
+        writer.put("a", "1");
+        await().until(() -> commits.size() == 1);
+        writer.put("a", "2");
+        writer.put("b", "1");
+        writer.put("c", "1");
+
+        // c waits for the window, a=2 for the transaction writing a
+        verify(rawClient, after(200).times(2)).makePutRequest(anyString(), anyString());
+        Assertions.assertEquals(Collections.singletonMap("a", "1"), commits.get(0));
+        Assertions.assertEquals(Collections.singletonMap("b", "1"), commits.get(1));
+        Assertions.assertEquals("2", writer.getChange("a").getValue());
+
+        release.countDown();
+        await().until(() -> commits.size() == 4);
+        Assertions.assertEquals(
+                new HashSet<>(List.of(Collections.singletonMap("a", "2"), Collections.singletonMap("c", "1"))),
+                new HashSet<>(commits.subList(2, 4)));
+        await().until(() -> writer.getChange("a") == null && writer.getChange("c") == null);
+    }
+
+    @Test
+    void testRequeueFailedTransaction() {
+        status = 500;
+        blocking = true;
+        writer = newWriter("write-batch-size=2&write-delay=60000");
+
+        writer.put("a", "1");
+        writer.put("b", "1");
+        await().until(() -> commits.size() == 1);
+        // supersedes the change in the failing transaction
+        writer.put("a", "2");
+
+        status = 200;
+        release.countDown();
+        await().until(() -> answered.get() == 1);
+        Assertions.assertEquals("1", writer.getChange("b").getValue());
+
+        writer.close();
+        Map<String, String> retried = new LinkedHashMap<>();
+        retried.put("a", "2");
+        retried.put("b", "1");
+        Assertions.assertEquals(retried, commits.get(commits.size() - 1));
+        Assertions.assertNull(writer.getChange("b"));
+    }
+
+    @Test
+    void testSplitRejectedTransaction() {
+        rejected = "c";
+        writer = newWriter("write-in-flight=1&write-delay=60000");
+
+        writer.put("a", "1");
+        writer.put("b", "1");
+        writer.put("c", "1");
+        writer.put("d", "1");
+
+        writer.close();
+        // the halves are committed on their own until c is alone, then c is dropped
+        Assertions.assertEquals(
+                List.of(batch("a", "b", "c", "d"), batch("a", "b"), batch("c", "d"), batch("c"), batch("d")), commits);
+        Assertions.assertNull(writer.getChange("c"));
+        Assertions.assertNull(writer.getChange("d"));
+    }
+
+    @Test
+    void testCloseFlushesPendingChanges() {
+        writer = newWriter("write-delay=60000");
+
+        writer.put("a", "1");
+        writer.delete("b");
+        verify(rawClient, times(0)).makePutRequest(anyString(), anyString());
+
+        writer.close();
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "1");
+        expected.put("b", null);
+        Assertions.assertEquals(List.of(expected), commits);
+
+        // committed right away once closed
+        writer.put("c", "1");
+        Assertions.assertEquals(Collections.singletonMap("c", "1"), commits.get(1));
+    }
+
+    private ConsulMetadataWriter newWriter(String parameters) {
+        return new ConsulMetadataWriter(rawClient, URL.valueOf("consul://127.0.0.1:8500?" + parameters));
+    }
+
+    private static Map<String, String> batch(String... keys) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (String key : keys) {
+            changes.put(key, "1");
+        }
+        return changes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> decode(String body) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (Map<?, ?> operation : JsonUtils.toJavaList(body, Map.class)) {
+            Map<String, Object> kv = (Map<String, Object>) operation.get("KV");
+            Object value = kv.get("Value");
+            Assertions.assertEquals(value == null ? "delete" : "set", kv.get("Verb"));
+            changes.put((String) kv.get("Key"),
+                    value == null ? null : new String(Base64.getDecoder().decode((String) value), StandardCharsets.UTF_8));
+        }
+        return changes;
+    }
+}
@@ -47,12 +47,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.dubbo.common.constants.CommonConstants.GROUP_KEY;
 import static org.apache.dubbo.common.constants.CommonConstants.PATH_SEPARATOR;
+import static org.apache.dubbo.common.constants.CommonConstants.SYNC_REPORT_KEY;
 
 /**
  * Report Metadata to Etcd
+ * <p>
+ * Unless {@code sync.report} is set, the metadata is written behind the report in batches, see {@link EtcdMetadataWriter}.
  */
 public class EtcdMetadataReport extends AbstractMetadataReport {
 
@@ -63,6 +67,8 @@ public class EtcdMetadataReport extends AbstractMetadataReport {
      */
     private final JEtcdClient etcdClient;
 
+    private EtcdMetadataWriter writer;
+
     public EtcdMetadataReport(URL url) {
         super(url);
         if (url.isAnyHost()) {
@@ -74,6 +80,9 @@ public class EtcdMetadataReport extends AbstractMetadataReport {
         }
         this.root = group;
         etcdClient = new JEtcdClient(url);
+        if (!url.getParameter(SYNC_REPORT_KEY, false)) {
+            writer = new EtcdMetadataWriter(etcdClient, url);
+        }
     }
 
     @Override
@@ -88,20 +97,22 @@ public class EtcdMetadataReport extends AbstractMetadataReport {
 
     @Override
     protected void doSaveMetadata(ServiceMetadataIdentifier serviceMetadataIdentifier, URL url) {
-        String key = getNodeKey(serviceMetadataIdentifier);
-        if (!etcdClient.put(key, URL.encode(url.toFullString()))) {
-            logger.error("Failed to put " + serviceMetadataIdentifier + " to etcd, value: " + url);
-        }
+        storeMetadata(serviceMetadataIdentifier, URL.encode(url.toFullString()));
     }
 
     @Override
     protected void doRemoveMetadata(ServiceMetadataIdentifier serviceMetadataIdentifier) {
-        etcdClient.delete(getNodeKey(serviceMetadataIdentifier));
+        String key = getNodeKey(serviceMetadataIdentifier);
+        if (writer != null) {
+            writer.delete(key);
+        } else {
+            etcdClient.delete(key);
+        }
     }
 
     @Override
     protected List<String> doGetExportedURLs(ServiceMetadataIdentifier metadataIdentifier) {
-        String content = etcdClient.getKVValue(getNodeKey(metadataIdentifier));
+        String content = getMetadata(metadataIdentifier);
         if (StringUtils.isEmpty(content)) {
             return Collections.emptyList();
         }
@@ -110,29 +121,46 @@ public class EtcdMetadataReport extends AbstractMetadataReport {
 
     @Override
     protected void doSaveSubscriberData(SubscriberMetadataIdentifier subscriberMetadataIdentifier, String urlListStr) {
-        String key = getNodeKey(subscriberMetadataIdentifier);
-        if (!etcdClient.put(key, urlListStr)) {
-            logger.error("Failed to put " + subscriberMetadataIdentifier + " to etcd, value: " + urlListStr);
-        }
+        storeMetadata(subscriberMetadataIdentifier, urlListStr);
     }
 
     @Override
     protected String doGetSubscribedURLs(SubscriberMetadataIdentifier subscriberMetadataIdentifier) {
-        return etcdClient.getKVValue(getNodeKey(subscriberMetadataIdentifier));
+        return getMetadata(subscriberMetadataIdentifier);
     }
 
     @Override
     public String getServiceDefinition(MetadataIdentifier metadataIdentifier) {
-        return etcdClient.getKVValue(getNodeKey(metadataIdentifier));
+        return getMetadata(metadataIdentifier);
     }
 
-    private void storeMetadata(MetadataIdentifier identifier, String v) {
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void storeMetadata(BaseMetadataIdentifier identifier, String v) {
         String key = getNodeKey(identifier);
-        if (!etcdClient.put(key, v)) {
+        if (writer != null) {
+            writer.put(key, v);
+        } else if (!etcdClient.put(key, v)) {
             logger.error("Failed to put " + identifier + " to etcd, value: " + v);
         }
     }
 
+    private String getMetadata(BaseMetadataIdentifier identifier) {
+        String key = getNodeKey(identifier);
+        Map.Entry<String, String> change = writer != null ? writer.getChange(key) : null;
+        if (change != null) {
+            // not committed yet
+            return change.getValue();
+        }
+        return etcdClient.getKVValue(key);
+    }
+
     String getNodeKey(BaseMetadataIdentifier identifier) {
         return toRootDir() + identifier.getUniqueKey(KeyTypeEnum.PATH);
     }
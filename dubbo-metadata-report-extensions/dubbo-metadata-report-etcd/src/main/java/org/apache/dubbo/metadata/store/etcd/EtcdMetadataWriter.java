@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.metadata.store.etcd;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.metadata.store.AbstractMetadataWriter;
+import org.apache.dubbo.remoting.etcd.jetcd.JEtcdClient;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.etcd.jetcd.common.exception.EtcdException;
+
+/**
+ * Writes the metadata behind the report in etcd transactions. A key is written once per transaction anyway, as
+ * etcd rejects a key twice in a transaction.
+ */
+class EtcdMetadataWriter extends AbstractMetadataWriter {
+
+    /**
+     * the default of the {@code --max-txn-ops} of etcd
+     */
+    static final int MAX_TXN_OPERATIONS = 128;
+
+    /**
+     * below the default {@code --max-request-bytes} of etcd, 1.5 MiB
+     */
+    static final int MAX_TXN_BYTES = 1024 * 1024;
+
+    private final JEtcdClient etcdClient;
+
+    EtcdMetadataWriter(JEtcdClient etcdClient, URL url) {
+        super("etcd", url, MAX_TXN_OPERATIONS, MAX_TXN_BYTES);
+        this.etcdClient = etcdClient;
+    }
+
+    @Override
+    protected CompletableFuture<?> commit(Map<String, String> changes) {
+        return etcdClient.txn(changes);
+    }
+
+    /**
+     * A transaction etcd finds too large, with too many operations or a duplicate key (invalid argument) fails the
+     * same way again.
+     */
+    @Override
+    protected boolean isRetryable(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof EtcdException) {
+                switch (((EtcdException) cause).getErrorCode()) {
+                    case INVALID_ARGUMENT:
+                    case FAILED_PRECONDITION:
+                    case OUT_OF_RANGE:
+                        return false;
+                    default:
+                        return true;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.metadata.store.etcd;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.etcd.jetcd.JEtcdClient;
+
+import io.etcd.jetcd.common.exception.ErrorCode;
+import io.etcd.jetcd.kv.TxnResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.etcd.jetcd.common.exception.EtcdExceptionFactory.newEtcdException;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EtcdMetadataWriterTest {
+
+    private final List<Map<String, String>> commits = new CopyOnWriteArrayList<>();
+
+    private final List<CompletableFuture<TxnResponse>> transactions = new CopyOnWriteArrayList<>();
+
+    private volatile boolean completing = true;
+
+    private volatile String rejected;
+
+    private JEtcdClient etcdClient;
+
+    private EtcdMetadataWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        etcdClient = mock(JEtcdClient.class);
+        when(etcdClient.txn(anyMap())).thenAnswer(invocation -> {
+            Map<String, String> changes = new LinkedHashMap<>(invocation.<Map<String, String>>getArgument(0));
+            commits.add(changes);
+            CompletableFuture<TxnResponse> transaction = new CompletableFuture<>();
+            transactions.add(transaction);
+            if (changes.containsKey(rejected)) {
+                transaction.completeExceptionally(
+                        newEtcdException(ErrorCode.INVALID_ARGUMENT, "etcdserver: request is too large"));
+            } else if (completing) {
+                transaction.complete(null);
+            }
+            return transaction;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactions.forEach(transaction -> transaction.complete(null));
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void testCoalescePerKey() {
+        writer = newWriter("write-delay=60000");
+
+        writer.put("a", "1");
+        writer.put("a", "2");
+        writer.put("b", "1");
+        writer.delete("b");
+        writer.put("c", "1");
+        Assertions.assertEquals("2", writer.getChange("a").getValue());
+        Assertions.assertNull(writer.getChange("b").getValue());
+
+        writer.close();
+        Assertions.assertEquals(1, commits.size());
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "2");
+        expected.put("b", null);
+        expected.put("c", "1");
+        Assertions.assertEquals(expected, commits.get(0));
+        Assertions.assertNull(writer.getChange("a"));
+    }
+
+    @Test
+    void testInFlightWindow() {
+        completing = false;
+        writer = newWriter("write-in-flight=2&write-batch-size=1&write-delay=0");
+
+        writer.put("a", "1");
+        await().until(() -> commits.size() == 1);
+        writer.put("a", "2");
+        writer.put("b", "1");
+        writer.put("c", "1");
+
+        // c waits for the window, a=2 for the transaction writing a
+        verify(etcdClient, after(200).times(2)).txn(anyMap());
+        Assertions.assertEquals(Collections.singletonMap("a", "1"), commits.get(0));
+        Assertions.assertEquals(Collections.singletonMap("b", "1"), commits.get(1));
+        Assertions.assertEquals("2", writer.getChange("a").getValue());
+
+        completing = true;
+        transactions.get(0).complete(null);
+        transactions.get(1).complete(null);
+        await().until(() -> commits.size() == 4);
+        Assertions.assertEquals(
+                new HashSet<>(List.of(Collections.singletonMap("a", "2"), Collections.singletonMap("c", "1"))),
+                new HashSet<>(commits.subList(2, 4)));
+        await().until(() -> writer.getChange("a") == null && writer.getChange("c") == null);
+    }
+
+    @Test
+    void testRequeueFailedTransaction() {
+        completing = false;
+        writer = newWriter("write-batch-size=2&write-delay=60000");
+
+        writer.put("a", "1");
+        writer.put("b", "1");
+        await().until(() -> commits.size() == 1);
+        // supersedes the change in the failing transaction
+        writer.put("a", "2");
+
+        completing = true;
+        transactions.get(0).completeExceptionally(new IllegalStateException("etcdserver: request timed out"));
+        Assertions.assertEquals("1", writer.getChange("b").getValue());
+
+        writer.close();
+        Map<String, String> retried = new LinkedHashMap<>();
+        retried.put("a", "2");
+        retried.put("b", "1");
+        Assertions.assertEquals(List.of(retried), commits.subList(1, commits.size()));
+        Assertions.assertNull(writer.getChange("b"));
+    }
+
+    @Test
+    void testSplitRejectedTransaction() {
+        rejected = "c";
+        writer = newWriter("write-in-flight=1&write-delay=60000");
+
+        writer.put("a", "1");
+        writer.put("b", "1");
+        writer.put("c", "1");
+        writer.put("d", "1");
+
+        writer.close();
+        // the halves are committed on their own until c is alone, then c is dropped
+        Assertions.assertEquals(
+                List.of(batch("a", "b", "c", "d"), batch("a", "b"), batch("c", "d"), batch("c"), batch("d")), commits);
+        Assertions.assertNull(writer.getChange("c"));
+        Assertions.assertNull(writer.getChange("d"));
+    }
+
+    @Test
+    void testRetryTimedOutTransaction() {
+        completing = false;
+        writer = newWriter("write-timeout=100&write-delay=0");
+
+        writer.put("a", "1");
+        await().until(() -> commits.size() == 1);
+        completing = true;
+
+        // retried once the transaction times out
+        await().until(() -> commits.size() == 2);
+        Assertions.assertEquals(Collections.singletonMap("a", "1"), commits.get(1));
+        await().until(() -> writer.getChange("a") == null);
+    }
+
+    @Test
+    void testCloseFlushesPendingChanges() {
+        writer = newWriter("write-delay=60000");
+
+        writer.put("a", "1");
+        writer.delete("b");
+        verify(etcdClient, times(0)).txn(anyMap());
+
+        writer.close();
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "1");
+        expected.put("b", null);
+        Assertions.assertEquals(List.of(expected), commits);
+
+        // committed right away once closed
+        writer.put("c", "1");
+        Assertions.assertEquals(Collections.singletonMap("c", "1"), commits.get(1));
+    }
+
+    private static Map<String, String> batch(String... keys) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (String key : keys) {
+            changes.put(key, "1");
+        }
+        return changes;
+    }
+
+    private EtcdMetadataWriter newWriter(String parameters) {
+        return new EtcdMetadataWriter(etcdClient, URL.valueOf("etcd://127.0.0.1:2379?" + parameters));
+    }
+}
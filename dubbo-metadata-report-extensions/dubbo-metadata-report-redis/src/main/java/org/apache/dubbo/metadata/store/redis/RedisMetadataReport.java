@@ -71,12 +71,30 @@ import static org.apache.dubbo.metadata.report.support.Constants.DEFAULT_METADAT
 
 /**
  * RedisMetadataReport
+ * <p>
+ * In cluster mode one {@link JedisCluster} is shared by all the operations of the report and closed by
+ * {@link #destroy()}. The service definitions and exported urls read are cached for {@code metadata.cache.ttl}
+ * milliseconds. The writes of the metadata are announced on a channel of their own, {@code <root>:metadata:queues},
+ * that every report subscribes to once it caches a read, so that the others drop their cached copy right away. A
+ * change announced while that subscription isn't up, e.g. right after the first read or while redis is unreachable,
+ * is served from the cache until the copy expires.
  */
 public class RedisMetadataReport extends AbstractMetadataReport {
 
     private static final int ONE_DAY_IN_MILLISECONDS = 86400000;
 
     private static final String REDIS_DATABASE_KEY = "database";
+
+    private static final String METADATA_CACHE_TTL_KEY = "metadata.cache.ttl";
+
+    private static final long DEFAULT_METADATA_CACHE_TTL = 60 * 1000;
+
+    /**
+     * group of the channel announcing the changed metadata keys, kept apart from the mapping channel whose messages
+     * are read as service names
+     */
+    private static final String METADATA_CHANGED_GROUP = "metadata";
+
     private static final ErrorTypeAwareLogger logger = LoggerFactory.getErrorTypeAwareLogger(RedisMetadataReport.class);
 
     // protected , for test
@@ -87,12 +105,16 @@ public class RedisMetadataReport extends AbstractMetadataReport {
     private final String root;
     private final ConcurrentHashMap<String, MappingDataListener> mappingDataListenerMap = new ConcurrentHashMap<>();
     private SetParams jedisParams = SetParams.setParams();
+    private volatile JedisCluster jedisCluster;
+    private final long metadataCacheTtl;
+    private final ConcurrentHashMap<String, CachedMetadata> metadataCache = new ConcurrentHashMap<>();
 
     public RedisMetadataReport(URL url) {
         super(url);
         timeout = url.getParameter(TIMEOUT_KEY, DEFAULT_TIMEOUT);
         password = url.getPassword();
         this.root = url.getGroup(DEFAULT_ROOT);
+        this.metadataCacheTtl = url.getParameter(METADATA_CACHE_TTL_KEY, DEFAULT_METADATA_CACHE_TTL);
         if (url.getParameter(CYCLE_REPORT_KEY, DEFAULT_METADATA_REPORT_CYCLE_REPORT)) {
             // ttl default is twice the cycle-report time
             jedisParams.px(ONE_DAY_IN_MILLISECONDS * 2);
@@ -131,7 +153,7 @@ public class RedisMetadataReport extends AbstractMetadataReport {
 
     @Override
     protected List<String> doGetExportedURLs(ServiceMetadataIdentifier metadataIdentifier) {
-        String content = getMetadata(metadataIdentifier);
+        String content = getCachedMetadata(metadataIdentifier);
         if (StringUtils.isEmpty(content)) {
             return Collections.emptyList();
         }
@@ -150,7 +172,7 @@ public class RedisMetadataReport extends AbstractMetadataReport {
 
     @Override
     public String getServiceDefinition(MetadataIdentifier metadataIdentifier) {
-        return this.getMetadata(metadataIdentifier);
+        return this.getCachedMetadata(metadataIdentifier);
     }
 
     private void storeMetadata(BaseMetadataIdentifier metadataIdentifier, String v) {
@@ -159,12 +181,14 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         } else {
             storeMetadataInCluster(metadataIdentifier, v);
         }
+        if (isCached(metadataIdentifier)) {
+            metadataChanged(getMetadataKey(metadataIdentifier));
+        }
     }
 
     private void storeMetadataInCluster(BaseMetadataIdentifier metadataIdentifier, String v) {
-        try (JedisCluster jedisCluster =
-                new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>())) {
-            jedisCluster.set(metadataIdentifier.getIdentifierKey() + META_DATA_STORE_TAG, v, jedisParams);
+        try {
+            getJedisCluster().set(getMetadataKey(metadataIdentifier), v, jedisParams);
         } catch (Throwable e) {
             String msg =
                     "Failed to put " + metadataIdentifier + " to redis cluster " + v + ", cause: " + e.getMessage();
@@ -175,7 +199,7 @@ public class RedisMetadataReport extends AbstractMetadataReport {
 
     private void storeMetadataStandalone(BaseMetadataIdentifier metadataIdentifier, String v) {
         try (Jedis jedis = pool.getResource()) {
-            jedis.set(metadataIdentifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY), v, jedisParams);
+            jedis.set(getMetadataKey(metadataIdentifier), v, jedisParams);
         } catch (Throwable e) {
             String msg = "Failed to put " + metadataIdentifier + " to redis " + v + ", cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -189,12 +213,14 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         } else {
             deleteMetadataInCluster(metadataIdentifier);
         }
+        if (isCached(metadataIdentifier)) {
+            metadataChanged(getMetadataKey(metadataIdentifier));
+        }
     }
 
     private void deleteMetadataInCluster(BaseMetadataIdentifier metadataIdentifier) {
-        try (JedisCluster jedisCluster =
-                new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>())) {
-            jedisCluster.del(metadataIdentifier.getIdentifierKey() + META_DATA_STORE_TAG);
+        try {
+            getJedisCluster().del(getMetadataKey(metadataIdentifier));
         } catch (Throwable e) {
             String msg = "Failed to delete " + metadataIdentifier + " from redis cluster , cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -204,7 +230,7 @@ public class RedisMetadataReport extends AbstractMetadataReport {
 
     private void deleteMetadataStandalone(BaseMetadataIdentifier metadataIdentifier) {
         try (Jedis jedis = pool.getResource()) {
-            jedis.del(metadataIdentifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
+            jedis.del(getMetadataKey(metadataIdentifier));
         } catch (Throwable e) {
             String msg = "Failed to delete " + metadataIdentifier + " from redis , cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -212,6 +238,117 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         }
     }
 
+    /**
+     * Reads through the cache, empty metadata isn't cached as it is about to be stored.
+     */
+    private String getCachedMetadata(BaseMetadataIdentifier metadataIdentifier) {
+        if (metadataCacheTtl <= 0) {
+            return getMetadata(metadataIdentifier);
+        }
+        subscribeMetadataChanged();
+        String key = getMetadataKey(metadataIdentifier);
+        CachedMetadata cached = metadataCache.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expireTime > now) {
+            return cached.value;
+        }
+        String value = getMetadata(metadataIdentifier);
+        if (StringUtils.isEmpty(value)) {
+            metadataCache.remove(key);
+        } else {
+            metadataCache.put(key, new CachedMetadata(value, now + metadataCacheTtl));
+        }
+        return value;
+    }
+
+    /**
+     * Drops the cached copy of the key, here and in the reports subscribed to the metadata channel.
+     */
+    private void metadataChanged(String key) {
+        metadataCache.remove(key);
+        try {
+            if (pool != null) {
+                try (Jedis jedis = pool.getResource()) {
+                    jedis.publish(buildMetadataChangedKey(), key);
+                }
+            } else {
+                getJedisCluster().publish(buildMetadataChangedKey(), key);
+            }
+        } catch (Throwable e) {
+            // the metadata is stored, the other reports catch up once their copies expire
+            logger.warn(TRANSPORT_FAILED_RESPONSE, "", "", "Failed to publish the change of " + key, e);
+        }
+    }
+
+    private static boolean isCached(BaseMetadataIdentifier metadataIdentifier) {
+        return metadataIdentifier instanceof MetadataIdentifier
+                || metadataIdentifier instanceof ServiceMetadataIdentifier;
+    }
+
+    /**
+     * Starts the thread listening to the metadata channel, again if it died on a failed subscription.
+     */
+    private void subscribeMetadataChanged() {
+        String key = buildMetadataChangedKey();
+        MappingDataListener listener = mappingDataListenerMap.get(key);
+        if (listener != null && listener.isAlive()) {
+            return;
+        }
+        mappingDataListenerMap.compute(key, (k, current) -> {
+            if (current != null && current.isAlive()) {
+                return current;
+            }
+            MappingDataListener dataListener = new MappingDataListener(k, new MetadataChangedSub());
+            dataListener.start();
+            return dataListener;
+        });
+    }
+
+    private String getMetadataKey(BaseMetadataIdentifier metadataIdentifier) {
+        if (pool != null) {
+            return metadataIdentifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+        }
+        return metadataIdentifier.getIdentifierKey() + META_DATA_STORE_TAG;
+    }
+
+    /**
+     * The cluster client discovers the slots of the cluster once and keeps its connection pools until the report
+     * is destroyed.
+     */
+    private JedisCluster getJedisCluster() {
+        JedisCluster cluster = jedisCluster;
+        if (cluster == null) {
+            synchronized (this) {
+                cluster = jedisCluster;
+                if (cluster == null) {
+                    cluster = new JedisCluster(
+                            jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>());
+                    jedisCluster = cluster;
+                }
+            }
+        }
+        return cluster;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        for (MappingDataListener mappingDataListener : mappingDataListenerMap.values()) {
+            mappingDataListener.shutdown();
+        }
+        mappingDataListenerMap.clear();
+        metadataCache.clear();
+        if (pool != null) {
+            pool.close();
+        }
+        synchronized (this) {
+            if (jedisCluster != null) {
+                jedisCluster.close();
+                jedisCluster = null;
+            }
+        }
+    }
+
     private String getMetadata(BaseMetadataIdentifier metadataIdentifier) {
         if (pool != null) {
             return getMetadataStandalone(metadataIdentifier);
@@ -221,9 +358,8 @@ public class RedisMetadataReport extends AbstractMetadataReport {
     }
 
     private String getMetadataInCluster(BaseMetadataIdentifier metadataIdentifier) {
-        try (JedisCluster jedisCluster =
-                new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>())) {
-            return jedisCluster.get(metadataIdentifier.getIdentifierKey() + META_DATA_STORE_TAG);
+        try {
+            return getJedisCluster().get(getMetadataKey(metadataIdentifier));
         } catch (Throwable e) {
             String msg = "Failed to get " + metadataIdentifier + " from redis cluster , cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -233,7 +369,7 @@ public class RedisMetadataReport extends AbstractMetadataReport {
 
     private String getMetadataStandalone(BaseMetadataIdentifier metadataIdentifier) {
         try (Jedis jedis = pool.getResource()) {
-            return jedis.get(metadataIdentifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
+            return jedis.get(getMetadataKey(metadataIdentifier));
         } catch (Throwable e) {
             String msg = "Failed to get " + metadataIdentifier + " from redis , cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -281,9 +417,8 @@ public class RedisMetadataReport extends AbstractMetadataReport {
      * Find information about slot distribution by key.
      */
     private boolean storeMappingInCluster(String key, String field, String value, String ticket) {
-        try (JedisCluster jedisCluster =
-                new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>())) {
-            Jedis jedis = new Jedis(jedisCluster.getConnectionFromSlot(JedisClusterCRC16.getSlot(key)));
+        JedisCluster jedisCluster = getJedisCluster();
+        try (Jedis jedis = new Jedis(jedisCluster.getConnectionFromSlot(JedisClusterCRC16.getSlot(key)))) {
             jedis.watch(key);
             String oldValue = jedis.hget(key, field);
             if (null == oldValue || null == ticket || oldValue.equals(ticket)) {
@@ -297,7 +432,6 @@ public class RedisMetadataReport extends AbstractMetadataReport {
             } else {
                 jedis.unwatch();
             }
-            jedis.close();
         } catch (Throwable e) {
             String msg = "Failed to put " + key + ":" + field + " to redis " + value + ", cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -348,6 +482,13 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         return buildMappingKey(DEFAULT_MAPPING_GROUP) + GROUP_CHAR_SEPARATOR + QUEUES_KEY;
     }
 
+    /**
+     * build the key of the channel announcing the changed metadata
+     */
+    private String buildMetadataChangedKey() {
+        return this.root + GROUP_CHAR_SEPARATOR + METADATA_CHANGED_GROUP + GROUP_CHAR_SEPARATOR + QUEUES_KEY;
+    }
+
     /**
      * get content and use content to complete cas
      * @param serviceKey class
@@ -373,9 +514,8 @@ public class RedisMetadataReport extends AbstractMetadataReport {
     }
 
     private String getMappingDataInCluster(String key, String field) {
-        try (JedisCluster jedisCluster =
-                new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>())) {
-            return jedisCluster.hget(key, field);
+        try {
+            return getJedisCluster().hget(key, field);
         } catch (Throwable e) {
             String msg = "Failed to get " + key + ":" + field + " from redis cluster , cause: " + e.getMessage();
             logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
@@ -446,6 +586,18 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         this.deleteMetadata(identifier);
     }
 
+    private static class CachedMetadata {
+
+        private final String value;
+
+        private final long expireTime;
+
+        CachedMetadata(String value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+
     // for test
     public MappingDataListener getMappingDataListener() {
         return mappingDataListenerMap.get(buildPubSubKey());
@@ -500,6 +652,17 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         }
     }
 
+    /**
+     * Drops the cached copy of the metadata keys announced on the metadata channel.
+     */
+    class MetadataChangedSub extends JedisPubSub {
+
+        @Override
+        public void onMessage(String key, String msg) {
+            metadataCache.remove(msg);
+        }
+    }
+
     /**
      * Subscribe application names change message.
      */
@@ -507,16 +670,21 @@ public class RedisMetadataReport extends AbstractMetadataReport {
 
         private String path;
 
-        private final NotifySub notifySub = new NotifySub();
+        private final JedisPubSub notifySub;
         // for test
         protected volatile boolean running = true;
 
         public MappingDataListener(String path) {
+            this(path, new NotifySub());
+        }
+
+        MappingDataListener(String path, JedisPubSub notifySub) {
             this.path = path;
+            this.notifySub = notifySub;
         }
 
         public NotifySub getNotifySub() {
-            return notifySub;
+            return (NotifySub) notifySub;
         }
 
         @Override
@@ -531,9 +699,8 @@ public class RedisMetadataReport extends AbstractMetadataReport {
                         throw new RpcException(msg, e);
                     }
                 } else {
-                    try (JedisCluster jedisCluster = new JedisCluster(
-                            jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig<>())) {
-                        jedisCluster.subscribe(notifySub, path);
+                    try {
+                        getJedisCluster().subscribe(notifySub, path);
                     } catch (Throwable e) {
                         String msg = "Failed to subscribe " + path + ", cause: " + e.getMessage();
                         logger.error(TRANSPORT_FAILED_RESPONSE, "", "", msg, e);
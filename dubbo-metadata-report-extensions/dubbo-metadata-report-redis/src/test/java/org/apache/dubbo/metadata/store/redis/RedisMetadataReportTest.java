@@ -55,6 +55,7 @@ import static org.apache.dubbo.common.constants.CommonConstants.CONSUMER_SIDE;
 import static org.apache.dubbo.common.constants.CommonConstants.PROVIDER_SIDE;
 import static org.apache.dubbo.common.constants.CommonConstants.SYNC_REPORT_KEY;
 import static org.apache.dubbo.metadata.ServiceNameMapping.DEFAULT_MAPPING_GROUP;
+import static org.awaitility.Awaitility.await;
 import static redis.embedded.RedisServer.newRedisServer;
 
 class RedisMetadataReportTest {
@@ -340,6 +341,40 @@ class RedisMetadataReportTest {
         Assertions.assertTrue(mappingDataListener.getNotifySub().isEmpty());
     }
 
+    @Test
+    void testServiceDefinitionCache() throws ClassNotFoundException {
+        String interfaceName = "org.apache.dubbo.metadata.store.redis.RedisMetadata4TstService";
+        MetadataIdentifier providerMetadataIdentifier =
+                new MetadataIdentifier(interfaceName, "1.0.0.redis.md.c3", null, PROVIDER_SIDE, "vic.redis.md");
+        String key = providerMetadataIdentifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+        RedisMetadataReport readingReport = (RedisMetadataReport) new RedisMetadataReportFactory()
+                .createMetadataReport(registryUrl.addParameter(SYNC_REPORT_KEY, "true"));
+        try {
+            Assertions.assertNull(readingReport.getServiceDefinition(providerMetadataIdentifier));
+
+            storePrivider(syncRedisMetadataReport, interfaceName, "1.0.0.redis.md.c3", null, "vic.redis.md");
+            String definition = readingReport.getServiceDefinition(providerMetadataIdentifier);
+            Assertions.assertTrue(definition.contains("redisTest"));
+
+            try (Jedis jedis = syncRedisMetadataReport.pool.getResource()) {
+                jedis.set(key, "{}");
+            }
+            // served from the cache
+            Assertions.assertEquals(definition, readingReport.getServiceDefinition(providerMetadataIdentifier));
+
+            // the store is announced on the metadata channel and drops the copy of the other report
+            syncRedisMetadataReport.storeProviderMetadata(
+                    providerMetadataIdentifier,
+                    ServiceDefinitionBuilder.buildFullDefinition(
+                            Class.forName(interfaceName), Collections.singletonMap("paramTest", "redisTest2")));
+            await().until(() -> readingReport
+                    .getServiceDefinition(providerMetadataIdentifier)
+                    .contains("redisTest2"));
+        } finally {
+            readingReport.destroy();
+        }
+    }
+
     @Test
     void testAppMetadata() {
         String serviceKey = "org.apache.dubbo.metadata.store.redis.RedisMetadata4TstService";
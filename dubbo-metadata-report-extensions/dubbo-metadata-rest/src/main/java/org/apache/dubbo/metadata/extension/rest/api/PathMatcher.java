@@ -122,6 +122,18 @@ public class PathMatcher {
         return hasPathVariable;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
     public Integer getPort() {
         return port;
     }
@@ -28,6 +28,12 @@ public interface ConsulConstants {
 
     String WATCH_TIMEOUT = "consul-watch-timeout";
 
+    /**
+     * the first delay in milliseconds before retrying a failed blocking query, doubled on each failure up to the
+     * watch timeout
+     */
+    int DEFAULT_WATCH_RETRY_DELAY = 1000;
+
     int INVALID_PORT = 0;
 
     String TOKEN = "token";
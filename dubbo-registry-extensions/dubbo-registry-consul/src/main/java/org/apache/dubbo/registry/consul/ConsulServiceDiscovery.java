@@ -42,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -49,14 +50,15 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.apache.dubbo.common.constants.CommonConstants.COMMA_SEPARATOR_CHAR;
 import static org.apache.dubbo.common.constants.CommonConstants.SEMICOLON_SPLIT_PATTERN;
 import static org.apache.dubbo.registry.consul.AbstractConsulRegistry.CHECK_PASS_INTERVAL;
@@ -65,6 +67,7 @@ import static org.apache.dubbo.registry.consul.AbstractConsulRegistry.DEFAULT_DE
 import static org.apache.dubbo.registry.consul.AbstractConsulRegistry.DEREGISTER_AFTER;
 import static org.apache.dubbo.registry.consul.AbstractConsulRegistry.ONE_THOUSAND;
 import static org.apache.dubbo.registry.consul.AbstractConsulRegistry.PERIOD_DENOMINATOR;
+import static org.apache.dubbo.registry.consul.ConsulConstants.DEFAULT_WATCH_RETRY_DELAY;
 import static org.apache.dubbo.registry.consul.ConsulConstants.DEFAULT_WATCH_TIMEOUT;
 import static org.apache.dubbo.registry.consul.ConsulConstants.WATCH_TIMEOUT;
 import static org.apache.dubbo.registry.consul.ConsulParameter.ACL_TOKEN;
@@ -76,14 +79,20 @@ import static org.apache.dubbo.registry.consul.ConsulParameter.TAGS;
 
 public class ConsulServiceDiscovery extends AbstractServiceDiscovery {
 
+    private static final Logger logger = LoggerFactory.getLogger(ConsulServiceDiscovery.class);
+
     private static final String QUERY_TAG = "consul_query_tag";
     private static final String REGISTER_TAG = "consul_register_tag";
 
     private List<String> registeringTags = new ArrayList<>();
     private String tag;
     private ConsulClient client;
-    private ExecutorService notifierExecutor = newCachedThreadPool(
-        new NamedThreadFactory("dubbo-service-discovery-consul-notifier", true));
+    /**
+     * runs the blocking queries of all the watched services, each notifier reschedules itself after its query. A
+     * blocking query holds its thread until consul answers, so there is a thread per watched service.
+     */
+    private ScheduledThreadPoolExecutor notifierExecutor;
+    private final ConsulWatchStats watchStats = new ConsulWatchStats();
     private Map<String, ConsulNotifier> notifiers = new ConcurrentHashMap<>();
     private TtlScheduler ttlScheduler;
     private long checkPassInterval;
@@ -115,6 +124,8 @@ public class ConsulServiceDiscovery extends AbstractServiceDiscovery {
         checkPassInterval = url.getParameter(CHECK_PASS_INTERVAL, DEFAULT_CHECK_PASS_INTERVAL);
         client = new ConsulClient(host, port);
         ttlScheduler = new TtlScheduler(checkPassInterval, client);
+        notifierExecutor = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("dubbo-service-discovery-consul-notifier", true));
         this.tag = registryURL.getParameter(QUERY_TAG);
         this.registeringTags.addAll(getRegisteringTags(url));
         this.aclToken = ACL_TOKEN.getValue(registryURL);
@@ -196,14 +207,22 @@ public class ConsulServiceDiscovery extends AbstractServiceDiscovery {
             if (notifier == null) {
                 Response<List<HealthService>> response = getHealthServices(serviceName, -1, buildWatchTimeout());
                 Long consulIndex = response.getConsulIndex();
-                notifier = new ConsulNotifier(serviceName, consulIndex);
+                notifier = new ConsulNotifier(serviceName, consulIndex, convert(response.getValue()));
                 notifiers.put(serviceName, notifier);
+                resizeNotifierExecutor();
+                notifier.addListener(listener);
+                // one watch per service, whatever the number of its listeners
+                notifier.start();
+            } else {
+                notifier.addListener(listener);
             }
-            notifier.addListener(listener);
-            notifierExecutor.execute(notifier);
         }
     }
 
+    private void resizeNotifierExecutor() {
+        notifierExecutor.setCorePoolSize(Math.max(1, notifiers.size()));
+    }
+
     @Override
     public synchronized void removeServiceInstancesChangedListener(ServiceInstancesChangedListener listener) throws IllegalArgumentException {
         Set<String> serviceNames = listener.getServiceNames();
@@ -214,11 +233,16 @@ public class ConsulServiceDiscovery extends AbstractServiceDiscovery {
                 if (notifier.getListenerCount() == 0) {
                     notifier.stop();
                     notifiers.remove(serviceName);
+                    resizeNotifierExecutor();
                 }
             }
         }
     }
 
+    public ConsulWatchStats getWatchStats() {
+        return watchStats;
+    }
+
     @Override
     public Set<String> getServices() {
         CatalogServicesRequest request = CatalogServicesRequest.newBuilder()
@@ -349,34 +373,85 @@ public class ConsulServiceDiscovery extends AbstractServiceDiscovery {
         return url.getParameter(WATCH_TIMEOUT, DEFAULT_WATCH_TIMEOUT) / ONE_THOUSAND;
     }
 
+    /**
+     * Exponential backoff with jitter between half and all of the delay, to spread the retries of the watches.
+     */
+    private long buildRetryDelay(int failures) {
+        long maxDelay = Math.max(DEFAULT_WATCH_RETRY_DELAY, url.getParameter(WATCH_TIMEOUT, DEFAULT_WATCH_TIMEOUT));
+        long delay = Math.min(maxDelay, (long) DEFAULT_WATCH_RETRY_DELAY << Math.min(failures - 1, 16));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
     private class ConsulNotifier implements Runnable {
         private final String serviceName;
         private long consulIndex;
-        private boolean running;
+        private volatile boolean running;
+        private int failures;
+
+        /**
+         * the instances of the last result, the listeners are only notified when they change
+         */
+        private Set<ServiceInstance> instances;
 
         private final List<ServiceInstancesChangedListener> listener;
 
-        ConsulNotifier(String serviceName, long consulIndex) {
+        ConsulNotifier(String serviceName, long consulIndex, List<ServiceInstance> instances) {
             this.serviceName = serviceName;
             this.consulIndex = consulIndex;
-            this.running = true;
+            this.instances = new HashSet<>(instances);
             this.listener = new CopyOnWriteArrayList<>();
         }
 
+        void start() {
+            this.running = true;
+            watchStats.watchStarted();
+            notifierExecutor.execute(this);
+        }
+
         @Override
         public void run() {
-            while (this.running) {
+            if (!this.running) {
+                return;
+            }
+            long delay = 0;
+            try {
                 processService();
+                failures = 0;
+            } catch (Throwable t) {
+                watchStats.recordFailedQuery();
+                delay = buildRetryDelay(++failures);
+                logger.warn("Failed to watch service " + serviceName + " from consul, retry in " + delay + "ms, cause: " + t.getMessage());
+            }
+            if (this.running) {
+                try {
+                    notifierExecutor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // destroyed
+                }
             }
         }
 
         private void processService() {
-            Response<List<HealthService>> response = getHealthServices(serviceName, consulIndex, Integer.MAX_VALUE);
+            long start = System.nanoTime();
+            Response<List<HealthService>> response = getHealthServices(serviceName, consulIndex, buildWatchTimeout());
+            watchStats.recordQuery(System.nanoTime() - start);
             Long currentIndex = response.getConsulIndex();
-            if (currentIndex != null && currentIndex > consulIndex) {
-                consulIndex = currentIndex;
-                List<HealthService> services = response.getValue();
-                List<ServiceInstance> serviceInstances = convert(services);
+            if (currentIndex == null || currentIndex == consulIndex) {
+                return;
+            }
+            if (currentIndex < consulIndex) {
+                // the index went backwards, e.g. after a restore of consul, start over from the first index
+                watchStats.recordIndexReset();
+                consulIndex = 0;
+                return;
+            }
+            consulIndex = currentIndex;
+            List<ServiceInstance> serviceInstances = convert(response.getValue());
+            Set<ServiceInstance> currentInstances = new HashSet<>(serviceInstances);
+            boolean changed = !currentInstances.equals(instances);
+            watchStats.recordIndexChange(changed);
+            if (changed) {
+                instances = currentInstances;
                 listener.forEach(l -> l.onEvent(new ServiceInstancesChangedEvent(serviceName, serviceInstances)));
             }
         }
@@ -394,7 +469,10 @@ public class ConsulServiceDiscovery extends AbstractServiceDiscovery {
         }
 
         void stop() {
-            this.running = false;
+            if (this.running) {
+                this.running = false;
+                watchStats.watchStopped();
+            }
         }
     }
 
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.consul;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the blocking queries the {@link ConsulServiceDiscovery} watches the services with.
+ */
+public class ConsulWatchStats {
+
+    private final AtomicInteger liveWatches = new AtomicInteger();
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder failedQueryCount = new LongAdder();
+    private final LongAdder totalQueryNanos = new LongAdder();
+    private final LongAccumulator maxQueryNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastQueryNanos = new AtomicLong();
+    private final LongAdder indexChanges = new LongAdder();
+    private final LongAdder unchangedIndexChanges = new LongAdder();
+    private final LongAdder indexResets = new LongAdder();
+
+    void watchStarted() {
+        liveWatches.incrementAndGet();
+    }
+
+    void watchStopped() {
+        liveWatches.decrementAndGet();
+    }
+
+    void recordQuery(long queryNanos) {
+        queryCount.increment();
+        totalQueryNanos.add(queryNanos);
+        maxQueryNanos.accumulate(queryNanos);
+        lastQueryNanos.set(queryNanos);
+    }
+
+    void recordFailedQuery() {
+        failedQueryCount.increment();
+    }
+
+    void recordIndexChange(boolean instancesChanged) {
+        indexChanges.increment();
+        if (!instancesChanged) {
+            unchangedIndexChanges.increment();
+        }
+    }
+
+    void recordIndexReset() {
+        indexResets.increment();
+    }
+
+    public int getLiveWatches() {
+        return liveWatches.get();
+    }
+
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    public long getFailedQueryCount() {
+        return failedQueryCount.sum();
+    }
+
+    public long getTotalQueryNanos() {
+        return totalQueryNanos.sum();
+    }
+
+    public long getMaxQueryNanos() {
+        return maxQueryNanos.get();
+    }
+
+    public long getLastQueryNanos() {
+        return lastQueryNanos.get();
+    }
+
+    /**
+     * Times the index of a watched service advanced.
+     */
+    public long getIndexChanges() {
+        return indexChanges.sum();
+    }
+
+    /**
+     * Times the index of a watched service advanced without a change of its instances, the listeners were not notified.
+     */
+    public long getUnchangedIndexChanges() {
+        return unchangedIndexChanges.sum();
+    }
+
+    /**
+     * Times the index of a watched service went backwards and the watch started over.
+     */
+    public long getIndexResets() {
+        return indexResets.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsulWatchStats{" + "liveWatches=" + getLiveWatches()
+                + ", queryCount=" + getQueryCount()
+                + ", failedQueryCount=" + getFailedQueryCount()
+                + ", totalQueryNanos=" + getTotalQueryNanos()
+                + ", maxQueryNanos=" + getMaxQueryNanos()
+                + ", lastQueryNanos=" + getLastQueryNanos()
+                + ", indexChanges=" + getIndexChanges()
+                + ", unchangedIndexChanges=" + getUnchangedIndexChanges()
+                + ", indexResets=" + getIndexResets()
+                + '}';
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.consul;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.config.ApplicationConfig;
+import org.apache.dubbo.registry.client.event.listener.ServiceInstancesChangedListener;
+import org.apache.dubbo.rpc.model.ApplicationModel;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The wait times of the blocking queries of the watched services, against a local fake of consul.
+ */
+public class ConsulServiceDiscoveryWatchTest {
+
+    /**
+     * more than a handful of services, each blocking a watch thread of its own
+     */
+    private static final List<String> SERVICES = IntStream.range(0, 12)
+        .mapToObj(i -> "service-" + i)
+        .collect(Collectors.toList());
+
+    private FakeConsulServer server;
+
+    private FrameworkModel frameworkModel;
+
+    private ConsulServiceDiscovery discovery;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeConsulServer();
+        frameworkModel = new FrameworkModel();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (discovery != null) {
+            discovery.destroy();
+        }
+        frameworkModel.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testFullWaitForEveryService() {
+        watch();
+
+        // all blocked at once, well before the first query returns
+        await().atMost(3, TimeUnit.SECONDS)
+            .until(() -> SERVICES.stream().noneMatch(service -> server.getWaits(service).isEmpty()));
+        for (String service : SERVICES) {
+            Assertions.assertEquals("4s", server.getWaits(service).get(0));
+        }
+    }
+
+    private void watch() {
+        ApplicationModel applicationModel = frameworkModel.newApplication();
+        applicationModel.getApplicationConfigManager().setApplication(new ApplicationConfig("consul-watch-test"));
+        URL registryURL = URL.valueOf("consul://127.0.0.1:" + server.getPort())
+            .addParameter(ConsulConstants.WATCH_TIMEOUT, 4000)
+            .setScopeModel(applicationModel);
+        discovery = new ConsulServiceDiscovery(applicationModel, registryURL);
+        for (String service : SERVICES) {
+            discovery.addServiceInstancesChangedListener(
+                new ServiceInstancesChangedListener(Collections.singleton(service), null));
+        }
+    }
+}
@@ -30,17 +30,22 @@ import org.apache.dubbo.registry.dns.util.ResolveResult;
 import org.apache.dubbo.rpc.model.ApplicationModel;
 import org.apache.dubbo.rpc.model.ScopeModelUtil;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import static org.apache.dubbo.rpc.cluster.Constants.WEIGHT_KEY;
+
 public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
 
     private static final Logger logger = LoggerFactory.getLogger(DNSServiceDiscovery.class);
@@ -52,12 +57,13 @@ public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
     private final String addressPrefix;
     private final String addressSuffix;
     private final long pollingCycle;
+    private final long minPollingCycle;
     private DNSResolver dnsResolver;
 
     /**
-     * Polling task ScheduledFuture, used to stop task when destroy
+     * Polling task of each service, used to stop task when destroy
      */
-    private final ConcurrentHashMap<String, ScheduledFuture<?>> pollingExecutorMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DNSPoller> pollingExecutorMap = new ConcurrentHashMap<>();
 
     /**
      * Polling check provider ExecutorService
@@ -69,6 +75,8 @@ public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
         this.addressPrefix = registryURL.getParameter(DNSClientConst.ADDRESS_PREFIX, "");
         this.addressSuffix = registryURL.getParameter(DNSClientConst.ADDRESS_SUFFIX, "");
         this.pollingCycle = registryURL.getParameter(DNSClientConst.DNS_POLLING_CYCLE, DNSClientConst.DEFAULT_DNS_POLLING_CYCLE);
+        this.minPollingCycle = Math.min(pollingCycle,
+            registryURL.getParameter(DNSClientConst.DNS_MIN_POLLING_CYCLE, DNSClientConst.DEFAULT_DNS_MIN_POLLING_CYCLE));
 
         String nameserver = registryURL.getHost();
         int port = registryURL.getPort();
@@ -78,7 +86,7 @@ public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
 
         int scheduledThreadPoolSize = registryURL.getParameter(DNSClientConst.DNS_POLLING_POOL_SIZE_KEY, DNSClientConst.DEFAULT_DNS_POLLING_POOL_SIZE);
 
-        // polling task may take a lot of time, create a new ScheduledThreadPool
+        // polling tasks only start the async resolves, the pool schedules them and notifies the listeners
         pollingExecutorService = Executors.newScheduledThreadPool(scheduledThreadPoolSize, new NamedThreadFactory("Dubbo-DNS-Poll"));
 
     }
@@ -87,7 +95,7 @@ public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
     public void doDestroy() throws Exception {
         super.doDestroy();
         dnsResolver.destroy();
-        pollingExecutorMap.forEach((serviceName, scheduledFuture) -> scheduledFuture.cancel(true));
+        pollingExecutorMap.forEach((serviceName, poller) -> poller.stop());
         pollingExecutorMap.clear();
         pollingExecutorService.shutdown();
     }
@@ -110,22 +118,26 @@ public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
 
     @Override
     public void addServiceInstancesChangedListener(ServiceInstancesChangedListener listener) throws NullPointerException, IllegalArgumentException {
-        listener.getServiceNames().forEach(serviceName -> {
-            ScheduledFuture<?> scheduledFuture = pollingExecutorService.scheduleAtFixedRate(() -> {
-                    List<ServiceInstance> instances;
-                    try {
-                        instances = getInstances(serviceName);
-                    } catch (Throwable throwable) {
-                        logger.error("Failed to get instances for " + serviceName, throwable);
-                        return;
-                    }
-                    instances.sort(Comparator.comparingInt(ServiceInstance::hashCode));
-                    notifyListener(serviceName, listener, instances);
-                },
-                pollingCycle, pollingCycle, TimeUnit.MILLISECONDS);
+        listener.getServiceNames().forEach(serviceName -> pollingExecutorMap.compute(serviceName, (name, poller) -> {
+            if (poller == null) {
+                poller = new DNSPoller(name);
+            }
+            poller.addListener(listener);
+            return poller;
+        }));
+    }
 
-            pollingExecutorMap.put(serviceName, scheduledFuture);
-        });
+    @Override
+    public void removeServiceInstancesChangedListener(ServiceInstancesChangedListener listener) throws IllegalArgumentException {
+        // a service nobody listens to anymore is no longer polled
+        listener.getServiceNames().forEach(serviceName -> pollingExecutorMap.computeIfPresent(serviceName, (name, poller) -> {
+            poller.removeListener(listener);
+            if (poller.hasListeners()) {
+                return poller;
+            }
+            poller.stop();
+            return null;
+        }));
     }
 
     /**
@@ -137,25 +149,136 @@ public class DNSServiceDiscovery extends ReflectionBasedServiceDiscovery {
     }
 
     private List<ServiceInstance> toServiceInstance(String serviceName, ResolveResult resolveResult) {
+        return toServiceInstance(serviceName, toEndpoints(resolveResult));
+    }
 
-        int port;
+    private List<ServiceInstance> toServiceInstance(String serviceName, List<ResolveResult.Endpoint> endpoints) {
 
-        if (!resolveResult.getPort().isEmpty()) {
-            // use first as default
-            port = resolveResult.getPort().get(0);
-        } else {
-            // not support SRV record
-            port = 20880;
-        }
+        // weights are only meaningful relative to each other, equal weights keep the default weight
+        boolean weighted = endpoints.stream().mapToInt(ResolveResult.Endpoint::getWeight).distinct().count() > 1;
 
         List<ServiceInstance> instanceList = new LinkedList<>();
 
-        for (String host : resolveResult.getHostnameList()) {
-            DefaultServiceInstance serviceInstance = new DefaultServiceInstance(serviceName, host, port, ScopeModelUtil.getApplicationModel(getUrl().getScopeModel()));
+        for (ResolveResult.Endpoint endpoint : endpoints) {
+            DefaultServiceInstance serviceInstance = new DefaultServiceInstance(serviceName, endpoint.getHost(), endpoint.getPort(), ScopeModelUtil.getApplicationModel(getUrl().getScopeModel()));
             fillServiceInstance(serviceInstance);
+            if (weighted) {
+                serviceInstance.getMetadata().put(WEIGHT_KEY, String.valueOf(Math.max(1, endpoint.getWeight())));
+            }
             instanceList.add(serviceInstance);
         }
 
         return instanceList;
     }
+
+    /**
+     * The endpoints of the most preferred SRV records, or the addresses of the service with the port of its most
+     * preferred SRV record if their targets don't resolve. Sorted to compare the endpoints of two resolves.
+     */
+    private List<ResolveResult.Endpoint> toEndpoints(ResolveResult resolveResult) {
+        List<ResolveResult.Endpoint> endpoints = new ArrayList<>(resolveResult.getEndpoints());
+
+        if (endpoints.isEmpty()) {
+            int port;
+
+            if (!resolveResult.getPort().isEmpty()) {
+                // use first as default
+                port = resolveResult.getPort().get(0);
+            } else {
+                // not support SRV record
+                port = 20880;
+            }
+
+            for (String host : resolveResult.getHostnameList()) {
+                endpoints.add(new ResolveResult.Endpoint(host, port, 0));
+            }
+        }
+
+        endpoints.sort(Comparator.comparing(ResolveResult.Endpoint::getHost).thenComparingInt(ResolveResult.Endpoint::getPort));
+        return endpoints;
+    }
+
+    /**
+     * Resolves a service again when its records expire, within the polling cycles, and notifies the listeners when
+     * its endpoints changed.
+     */
+    private class DNSPoller {
+
+        private final String serviceName;
+
+        private final List<ServiceInstancesChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+        private volatile List<ResolveResult.Endpoint> endpoints;
+
+        private volatile boolean running = true;
+
+        private volatile ScheduledFuture<?> scheduledFuture;
+
+        DNSPoller(String serviceName) {
+            this.serviceName = serviceName;
+            schedule(pollingCycle);
+        }
+
+        void addListener(ServiceInstancesChangedListener listener) {
+            listeners.add(listener);
+        }
+
+        void removeListener(ServiceInstancesChangedListener listener) {
+            listeners.remove(listener);
+        }
+
+        boolean hasListeners() {
+            return !listeners.isEmpty();
+        }
+
+        void stop() {
+            running = false;
+            ScheduledFuture<?> future = scheduledFuture;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        private void schedule(long delay) {
+            if (!running) {
+                return;
+            }
+            try {
+                scheduledFuture = pollingExecutorService.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // destroyed
+            }
+        }
+
+        private void poll() {
+            dnsResolver.resolveAsync(addressPrefix + serviceName + addressSuffix).whenCompleteAsync((resolveResult, t) -> {
+                if (t != null) {
+                    // keep the last endpoints until the service resolves again
+                    logger.error("Failed to get instances for " + serviceName, t);
+                    schedule(pollingCycle);
+                    return;
+                }
+                try {
+                    List<ResolveResult.Endpoint> current = toEndpoints(resolveResult);
+                    if (!current.equals(endpoints)) {
+                        endpoints = current;
+                        List<ServiceInstance> instances = toServiceInstance(serviceName, current);
+                        for (ServiceInstancesChangedListener listener : listeners) {
+                            notifyListener(serviceName, listener, instances);
+                        }
+                    }
+                } catch (Throwable throwable) {
+                    logger.error("Failed to get instances for " + serviceName, throwable);
+                }
+                schedule(nextDelay(resolveResult.getTtl()));
+            }, pollingExecutorService);
+        }
+
+        private long nextDelay(long ttl) {
+            if (ttl < 0) {
+                return pollingCycle;
+            }
+            return Math.max(minPollingCycle, Math.min(pollingCycle, TimeUnit.SECONDS.toMillis(ttl)));
+        }
+    }
 }
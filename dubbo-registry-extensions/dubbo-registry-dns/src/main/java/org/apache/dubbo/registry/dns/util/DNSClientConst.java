@@ -34,6 +34,16 @@ public class DNSClientConst {
      */
     public final static int DEFAULT_DNS_POLLING_CYCLE = 60000;
 
+    /**
+     * The shortest delay before resolving a service again (in ms), for records with a TTL below it
+     */
+    public final static String DNS_MIN_POLLING_CYCLE = "dnsMinPollingCycle";
+
+    /**
+     * Default value for the shortest delay: 1000 (ms)
+     */
+    public final static int DEFAULT_DNS_MIN_POLLING_CYCLE = 1000;
+
     /**
      * To decide how many threads used to execute DNS poll
      */
@@ -20,28 +20,38 @@ import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.AddressedEnvelope;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.handler.codec.dns.DefaultDnsQuestion;
 import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
 import io.netty.handler.codec.dns.DnsRecordType;
-import io.netty.handler.codec.dns.DnsResponse;
-import io.netty.handler.codec.dns.DnsSection;
 import io.netty.resolver.ResolvedAddressTypes;
 import io.netty.resolver.dns.DnsNameResolver;
 import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 import static io.netty.resolver.dns.DnsServerAddresses.sequential;
 
+/**
+ * Resolves the A/AAAA and SRV records of a name without blocking, see {@link #resolveAsync(String)}.
+ */
 public class DNSResolver {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
@@ -50,59 +60,216 @@ public class DNSResolver {
 
     private static final EventLoopGroup GROUP = new NioEventLoopGroup(1);
 
+    /**
+     * lookups in progress by query, concurrent lookups of the same query share one
+     */
+    private final ConcurrentMap<String, CompletableFuture<?>> lookups = new ConcurrentHashMap<>();
+
     public DNSResolver(String nameserver, int port, int maxQueriesPerResolve) {
         this.resolver = newResolver(nameserver, port, maxQueriesPerResolve);
     }
 
     public ResolveResult resolve(String path) {
-        ResolveResult recordList = new ResolveResult();
-
         try {
-            Future<List<InetAddress>> hostFuture = resolver.resolveAll(path);
-            Future<AddressedEnvelope<DnsResponse, InetSocketAddress>> srvFuture =
-                resolver.query(new DefaultDnsQuestion(path, DnsRecordType.SRV));
+            return resolveAsync(path).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Waiting DNS resolve interrupted. " + e.getLocalizedMessage());
+        } catch (ExecutionException e) {
+            logger.error(e.getCause().getLocalizedMessage());
+        }
+        return new ResolveResult();
+    }
 
-            try {
-                recordList.getHostnameList()
-                    .addAll(hostFuture
-                        .sync().getNow()
-                        .stream()
-                        .map(InetAddress::getHostAddress)
-                        .collect(Collectors.toList()));
-
-                DnsResponse srvResponse = srvFuture.sync().getNow().content();
-                for (int i = 0; i < srvResponse.count(DnsSection.ANSWER); i++) {
-                    DnsRawRecord record = srvResponse.recordAt(DnsSection.ANSWER, i);
-                    ByteBuf buf = record.content();
-                    // Priority
-                    buf.readUnsignedShort();
-                    // Weight
-                    buf.readUnsignedShort();
-                    // Port
-                    int port = buf.readUnsignedShort();
-                    recordList.getPort().add(port);
-                    buf.release();
+    /**
+     * Resolves the addresses and the SRV records of the name. The targets of the SRV records of the most preferred
+     * priority are resolved as well, giving the endpoints of the result. A name without records gives an empty
+     * result, the future fails on other errors, e.g. timeouts.
+     */
+    public CompletableFuture<ResolveResult> resolveAsync(String path) {
+        return lookup("result:" + path, () -> {
+            CompletableFuture<List<Address>> addresses = resolveAddresses(path);
+            CompletableFuture<List<Srv>> srvs = lookup("srv:" + path, () -> query(path, DnsRecordType.SRV, DNSResolver::toSrv));
+            return addresses.thenCombine(srvs, (a, s) -> {
+                ResolveResult result = new ResolveResult();
+                long ttl = -1;
+                for (Address address : a) {
+                    result.getHostnameList().add(address.host);
+                    ttl = minTtl(ttl, address.ttl);
+                }
+                List<Srv> sorted = new ArrayList<>(s);
+                sorted.sort(Comparator.comparingInt((Srv srv) -> srv.priority).thenComparing(srv -> -srv.weight));
+                for (Srv srv : sorted) {
+                    result.getPort().add(srv.port);
+                    ttl = minTtl(ttl, srv.ttl);
                 }
+                result.setTtl(ttl);
+                return result;
+            }).thenCompose(result -> resolveEndpoints(result, srvs.join()));
+        });
+    }
 
-            } catch (InterruptedException e) {
-                logger.warn("Waiting DNS resolve interrupted. " + e.getLocalizedMessage());
+    public void destroy() {
+        resolver.close();
+    }
+
+    private CompletableFuture<ResolveResult> resolveEndpoints(ResolveResult result, List<Srv> srvs) {
+        if (srvs.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        int priority = srvs.stream().mapToInt(srv -> srv.priority).min().getAsInt();
+        List<Srv> preferred = new ArrayList<>();
+        List<CompletableFuture<List<Address>>> targets = new ArrayList<>();
+        for (Srv srv : srvs) {
+            // a malformed target or "." (no service) has no endpoints
+            if (srv.priority == priority && srv.target != null && !".".equals(srv.target)) {
+                preferred.add(srv);
+                targets.add(resolveAddresses(srv.target));
             }
-        } catch (Throwable t) {
-            if (t instanceof UnknownHostException) {
-                if (logger.isInfoEnabled()) {
-                    logger.info(t.getLocalizedMessage());
+        }
+        return CompletableFuture.allOf(targets.toArray(new CompletableFuture[0])).thenApply(v -> {
+            long ttl = result.getTtl();
+            for (int i = 0; i < preferred.size(); i++) {
+                Srv srv = preferred.get(i);
+                for (Address address : targets.get(i).join()) {
+                    result.getEndpoints().add(new ResolveResult.Endpoint(address.host, srv.port, srv.weight));
+                    ttl = minTtl(ttl, address.ttl);
                 }
-            } else {
-                logger.error(t.getLocalizedMessage());
             }
+            result.setTtl(ttl);
+            return result;
+        });
+    }
+
+    /**
+     * The IPv4 addresses of the name followed by its IPv6 addresses.
+     */
+    private CompletableFuture<List<Address>> resolveAddresses(String name) {
+        return lookup("address:" + name, () -> {
+            CompletableFuture<List<Address>> v4 = query(name, DnsRecordType.A, DNSResolver::toAddress);
+            CompletableFuture<List<Address>> v6 = query(name, DnsRecordType.AAAA, DNSResolver::toAddress);
+            return v4.thenCombine(v6, (a, b) -> {
+                List<Address> addresses = new ArrayList<>(a.size() + b.size());
+                addresses.addAll(a);
+                addresses.addAll(b);
+                return addresses;
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> lookup(String key, Supplier<CompletableFuture<T>> lookup) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) lookups.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
         }
+        try {
+            lookup.get().whenComplete((value, t) -> {
+                lookups.remove(key, future);
+                if (t != null) {
+                    future.completeExceptionally(t);
+                } else {
+                    future.complete(value);
+                }
+            });
+        } catch (Throwable t) {
+            lookups.remove(key, future);
+            future.completeExceptionally(t);
+        }
+        return future;
+    }
 
+    private <T> CompletableFuture<List<T>> query(String name, DnsRecordType type, RecordParser<T> parser) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        resolver.resolveAll(new DefaultDnsQuestion(name, type)).addListener((Future<List<DnsRecord>> f) -> {
+            if (!f.isSuccess()) {
+                if (f.cause() instanceof UnknownHostException) {
+                    // no record of the type
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(f.cause().getLocalizedMessage());
+                    }
+                    future.complete(Collections.emptyList());
+                } else {
+                    future.completeExceptionally(f.cause());
+                }
+                return;
+            }
+            List<T> values = new ArrayList<>();
+            try {
+                for (DnsRecord record : f.getNow()) {
+                    if (record instanceof DnsRawRecord && record.type() == type) {
+                        T value = parser.parse((DnsRawRecord) record);
+                        if (value != null) {
+                            values.add(value);
+                        }
+                    }
+                }
+                future.complete(values);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                for (DnsRecord record : f.getNow()) {
+                    ReferenceCountUtil.release(record);
+                }
+            }
+        });
+        return future;
+    }
 
-        return recordList;
+    private static Address toAddress(DnsRawRecord record) throws UnknownHostException {
+        ByteBuf content = record.content();
+        byte[] bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+        return new Address(InetAddress.getByAddress(bytes).getHostAddress(), record.timeToLive());
     }
 
-    public void destroy() {
-        resolver.close();
+    private static Srv toSrv(DnsRawRecord record) {
+        ByteBuf content = record.content();
+        int index = content.readerIndex();
+        int priority = content.getUnsignedShort(index);
+        int weight = content.getUnsignedShort(index + 2);
+        int port = content.getUnsignedShort(index + 4);
+        return new Srv(priority, weight, port, readName(content, index + 6), record.timeToLive());
+    }
+
+    /**
+     * Reads a domain name, following its compression pointers. The content of a raw record is a view of the whole
+     * response, so the pointers, offsets from the start of the response, are read from the underlying buffer.
+     * Null if the name is malformed.
+     */
+    private static String readName(ByteBuf buf, int index) {
+        StringBuilder name = new StringBuilder();
+        int end = buf.writerIndex();
+        while (index < end) {
+            int length = buf.getUnsignedByte(index++);
+            if (length == 0) {
+                return name.length() == 0 ? "." : name.toString();
+            }
+            if ((length & 0xC0) == 0xC0) {
+                if (index >= buf.capacity()) {
+                    return null;
+                }
+                int pointer = ((length & 0x3F) << 8) | buf.getUnsignedByte(index);
+                // a pointer refers to a prior occurrence of the name, which also rules out loops
+                if (pointer >= index - 1) {
+                    return null;
+                }
+                index = pointer;
+                end = buf.capacity();
+                continue;
+            }
+            if ((length & 0xC0) != 0 || index + length > end) {
+                return null;
+            }
+            name.append(buf.toString(index, length, StandardCharsets.US_ASCII)).append('.');
+            index += length;
+        }
+        return null;
+    }
+
+    private static long minTtl(long ttl, long recordTtl) {
+        return ttl < 0 ? recordTtl : Math.min(ttl, recordTtl);
     }
 
     private static DnsNameResolver newResolver(String nameserver, int port, int maxQueriesPerResolve) {
@@ -113,9 +280,39 @@ public class DNSResolver {
             .optResourceEnabled(false)
             .ndots(1)
             .resolvedAddressTypes(ResolvedAddressTypes.IPV4_PREFERRED)
-            // ignore cache
+            // ignore cache, the records are resolved again when their TTL expires
             .ttl(0, 1)
             .nameServerProvider((hostname) -> sequential(new InetSocketAddress(nameserver, port)).stream())
             .build();
     }
+
+    private interface RecordParser<T> {
+        T parse(DnsRawRecord record) throws Exception;
+    }
+
+    private static class Address {
+        private final String host;
+        private final long ttl;
+
+        Address(String host, long ttl) {
+            this.host = host;
+            this.ttl = ttl;
+        }
+    }
+
+    private static class Srv {
+        private final int priority;
+        private final int weight;
+        private final int port;
+        private final String target;
+        private final long ttl;
+
+        Srv(int priority, int weight, int port, String target, long ttl) {
+            this.priority = priority;
+            this.weight = weight;
+            this.port = port;
+            this.target = target;
+            this.ttl = ttl;
+        }
+    }
 }
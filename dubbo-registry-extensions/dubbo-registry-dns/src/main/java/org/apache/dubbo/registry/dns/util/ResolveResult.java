@@ -26,6 +26,16 @@ public class ResolveResult {
 
     private List<Integer> port = new LinkedList<>();
 
+    /**
+     * addresses of the targets of the most preferred SRV records, with the port and weight of their record
+     */
+    private List<Endpoint> endpoints = new LinkedList<>();
+
+    /**
+     * the lowest TTL of the records of the result in seconds, -1 if no record was found
+     */
+    private long ttl = -1;
+
     public List<String> getHostnameList() {
         return hostnameList;
     }
@@ -34,6 +44,9 @@ public class ResolveResult {
         this.hostnameList = hostnameList;
     }
 
+    /**
+     * Ports of the SRV records, by priority and then weight.
+     */
     public List<Integer> getPort() {
         return port;
     }
@@ -42,18 +55,35 @@ public class ResolveResult {
         this.port = port;
     }
 
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ResolveResult that = (ResolveResult) o;
         return Objects.equals(hostnameList, that.hostnameList) &&
-            Objects.equals(port, that.port);
+            Objects.equals(port, that.port) &&
+            Objects.equals(endpoints, that.endpoints);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(hostnameList, port);
+        return Objects.hash(hostnameList, port, endpoints);
     }
 
     @Override
@@ -61,6 +91,53 @@ public class ResolveResult {
         return "ResolveResult{" +
             "hostnameList=" + hostnameList +
             ", port=" + port +
+            ", endpoints=" + endpoints +
+            ", ttl=" + ttl +
             '}';
     }
+
+    public static class Endpoint {
+
+        private final String host;
+
+        private final int port;
+
+        private final int weight;
+
+        public Endpoint(String host, int port, int weight) {
+            this.host = host;
+            this.port = port;
+            this.weight = weight;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Endpoint that = (Endpoint) o;
+            return port == that.port && weight == that.weight && Objects.equals(host, that.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, weight);
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + port + "(" + weight + ")";
+        }
+    }
 }
@@ -18,15 +18,75 @@ package org.apache.dubbo.registry.dns;
 
 import org.apache.dubbo.registry.dns.util.DNSResolver;
 import org.apache.dubbo.registry.dns.util.ResolveResult;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class DNSResolverTest {
 
+    private FakeDnsServer server;
+
+    private DNSResolver dnsResolver;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeDnsServer();
+        dnsResolver = new DNSResolver("127.0.0.1", server.getPort(), 4);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        dnsResolver.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testResolve() throws Exception {
+        server.addA("dubbo.apache.org.", "10.0.0.1", 60);
+        ResolveResult resolve = dnsResolver.resolve("dubbo.apache.org.");
+        Assertions.assertEquals(Collections.singletonList("10.0.0.1"), resolve.getHostnameList());
+        Assertions.assertEquals(60, resolve.getTtl());
+
+        Assertions.assertTrue(dnsResolver.resolve("unknown.apache.org.").getHostnameList().isEmpty());
+    }
+
     @Test
-    public void testResolve() {
-        DNSResolver dnsResolver = new DNSResolver("8.8.8.8", 53, 1);
-        ResolveResult resolve = dnsResolver.resolve("dubbo.apache.org");
+    public void testResolveAsync() throws Exception {
+        server.addA("dubbo.apache.org.", "10.0.0.1", 60);
+        CompletableFuture<ResolveResult> first = dnsResolver.resolveAsync("dubbo.apache.org.");
+        CompletableFuture<ResolveResult> second = dnsResolver.resolveAsync("dubbo.apache.org.");
+        // concurrent lookups of the same name share one
+        Assertions.assertSame(first, second);
+
+        ResolveResult resolve = first.get(10, TimeUnit.SECONDS);
         Assertions.assertFalse(resolve.getHostnameList().isEmpty());
+        Assertions.assertTrue(resolve.getTtl() >= 0);
+    }
+
+    @Test
+    public void testCompressedSrvTargets() throws Exception {
+        // the targets share the suffix of the question, the server compresses them
+        server.addSrv("_dubbo._tcp.svc.test.", 10, 5, 20880, "node1.svc.test.", 30);
+        server.addSrv("_dubbo._tcp.svc.test.", 10, 1, 20881, "svc.test.", 30);
+        server.addSrv("_dubbo._tcp.svc.test.", 20, 1, 20882, "backup.svc.test.", 30);
+        server.addA("node1.svc.test.", "10.0.0.1", 20);
+        server.addA("svc.test.", "10.0.0.2", 40);
+        server.addA("backup.svc.test.", "10.0.0.3", 40);
+
+        ResolveResult resolve = dnsResolver.resolveAsync("_dubbo._tcp.svc.test.").get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(Arrays.asList(20880, 20881, 20882), resolve.getPort());
+        // the backup of lower priority is left out
+        Assertions.assertEquals(Arrays.asList(
+                new ResolveResult.Endpoint("10.0.0.1", 20880, 5),
+                new ResolveResult.Endpoint("10.0.0.2", 20881, 1)),
+            resolve.getEndpoints());
+        // the lowest TTL of the records and of the targets
+        Assertions.assertEquals(20, resolve.getTtl());
     }
 }
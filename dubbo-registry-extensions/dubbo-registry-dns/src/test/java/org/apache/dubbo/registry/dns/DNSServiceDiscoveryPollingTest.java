@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.dns;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.config.ApplicationConfig;
+import org.apache.dubbo.registry.client.ServiceInstance;
+import org.apache.dubbo.registry.client.event.listener.ServiceInstancesChangedListener;
+import org.apache.dubbo.registry.dns.util.DNSClientConst;
+import org.apache.dubbo.rpc.model.ApplicationModel;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Polls services of a local DNS server, the metadata of the instances isn't fetched.
+ */
+public class DNSServiceDiscoveryPollingTest {
+
+    private FakeDnsServer server;
+
+    private FrameworkModel frameworkModel;
+
+    private DNSServiceDiscovery dnsServiceDiscovery;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeDnsServer();
+        frameworkModel = new FrameworkModel();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (dnsServiceDiscovery != null) {
+            dnsServiceDiscovery.destroy();
+        }
+        frameworkModel.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testPollWithinTheTtlOfTheRecords() throws Exception {
+        server.addA("short.test.", "10.0.0.1", 0);
+        server.addA("long.test.", "10.0.0.2", 3600);
+        DNSServiceDiscovery discovery = newDiscovery(600, 100);
+
+        discovery.addServiceInstancesChangedListener(listener("short"));
+        discovery.addServiceInstancesChangedListener(listener("long"));
+
+        // resolved again after the shortest cycle when the records expire, after the polling cycle otherwise
+        await().until(() -> server.getSrvQueries("short.test.") >= 8);
+        Assertions.assertTrue(server.getSrvQueries("long.test.") <= 3);
+        Assertions.assertTrue(server.getSrvQueries("long.test.") >= 1);
+    }
+
+    @Test
+    public void testNotifyWhenTheEndpointsChange() throws Exception {
+        server.addA("svc.test.", "10.0.0.1", 0);
+        DNSServiceDiscovery discovery = newDiscovery(300, 50);
+        ServiceInstancesChangedListener listener = listener("svc");
+
+        discovery.addServiceInstancesChangedListener(listener);
+        List<ServiceInstance> instances = awaitNotification(discovery, listener, 1);
+        Assertions.assertEquals("10.0.0.1", instances.get(0).getHost());
+        Assertions.assertEquals(20880, instances.get(0).getPort());
+
+        // the same endpoints again
+        int queries = server.getSrvQueries("svc.test.");
+        await().until(() -> server.getSrvQueries("svc.test.") >= queries + 3);
+        Mockito.verify(discovery, Mockito.times(1)).notifyListener(Mockito.eq("svc"), Mockito.same(listener), Mockito.anyList());
+
+        server.clear();
+        server.addA("svc.test.", "10.0.0.2", 0);
+        server.addSrv("svc.test.", 0, 0, 20881, "svc.test.", 0);
+        instances = awaitNotification(discovery, listener, 2);
+        Assertions.assertEquals(1, instances.size());
+        Assertions.assertEquals("10.0.0.2", instances.get(0).getHost());
+        Assertions.assertEquals(20881, instances.get(0).getPort());
+    }
+
+    @Test
+    public void testStopPollingWithoutListeners() throws Exception {
+        server.addA("svc.test.", "10.0.0.1", 0);
+        DNSServiceDiscovery discovery = newDiscovery(100, 50);
+        ServiceInstancesChangedListener first = listener("svc");
+        ServiceInstancesChangedListener second = listener("svc");
+
+        discovery.addServiceInstancesChangedListener(first);
+        discovery.addServiceInstancesChangedListener(second);
+        await().until(() -> server.getSrvQueries("svc.test.") >= 2);
+
+        // still listened to
+        discovery.removeServiceInstancesChangedListener(first);
+        int queries = server.getSrvQueries("svc.test.");
+        await().until(() -> server.getSrvQueries("svc.test.") >= queries + 2);
+
+        discovery.removeServiceInstancesChangedListener(second);
+        // a poll in progress completes
+        Thread.sleep(200);
+        int stopped = server.getSrvQueries("svc.test.");
+        Thread.sleep(500);
+        Assertions.assertEquals(stopped, server.getSrvQueries("svc.test."));
+
+        // polled again once listened to
+        discovery.addServiceInstancesChangedListener(first);
+        await().until(() -> server.getSrvQueries("svc.test.") > stopped);
+    }
+
+    private DNSServiceDiscovery newDiscovery(int pollingCycle, int minPollingCycle) {
+        ApplicationModel applicationModel = frameworkModel.newApplication();
+        applicationModel.getApplicationConfigManager().setApplication(new ApplicationConfig("dns-polling-test"));
+        URL registryURL = URL.valueOf("dns://127.0.0.1:" + server.getPort())
+            .addParameter(DNSClientConst.ADDRESS_SUFFIX, ".test.")
+            .addParameter(DNSClientConst.DNS_POLLING_CYCLE, pollingCycle)
+            .addParameter(DNSClientConst.DNS_MIN_POLLING_CYCLE, minPollingCycle)
+            .setScopeModel(applicationModel);
+        dnsServiceDiscovery = Mockito.spy(new DNSServiceDiscovery(applicationModel, registryURL));
+        Mockito.doNothing().when(dnsServiceDiscovery).fillServiceInstance(Mockito.any());
+        Mockito.doNothing().when(dnsServiceDiscovery).notifyListener(Mockito.anyString(), Mockito.any(), Mockito.anyList());
+        return dnsServiceDiscovery;
+    }
+
+    private static ServiceInstancesChangedListener listener(String serviceName) {
+        return new ServiceInstancesChangedListener(Collections.singleton(serviceName), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ServiceInstance> awaitNotification(DNSServiceDiscovery discovery,
+                                                           ServiceInstancesChangedListener listener, int times) {
+        ArgumentCaptor<List<ServiceInstance>> instances = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(discovery, Mockito.timeout(5000).times(times))
+            .notifyListener(Mockito.anyString(), Mockito.same(listener), instances.capture());
+        return instances.getValue();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.dns;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DNS server on a local UDP port answering A and SRV queries from the records the test adds. The names of the
+ * answers are compressed like real servers do, an SRV target sharing a suffix with the question points to it.
+ */
+public class FakeDnsServer {
+
+    private static final int TYPE_A = 1;
+
+    private static final int TYPE_SRV = 33;
+
+    private final Map<String, List<Record>> records = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+
+    private final DatagramSocket socket;
+
+    private final Thread thread;
+
+    public FakeDnsServer() throws IOException {
+        this.socket = new DatagramSocket(new InetSocketAddress("127.0.0.1", 0));
+        this.thread = new Thread(this::serve, "fake-dns-server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public void addA(String name, String address, long ttl) throws IOException {
+        byte[] bytes = InetAddress.getByName(address).getAddress();
+        records(name, TYPE_A).add(new Record(ttl, (out, names) -> out.writeBytes(bytes)));
+    }
+
+    public void addSrv(String name, int priority, int weight, int port, String target, long ttl) {
+        records(name, TYPE_SRV).add(new Record(ttl, (out, names) -> {
+            out.writeShort(priority);
+            out.writeShort(weight);
+            out.writeShort(port);
+            writeName(out, target, names);
+        }));
+    }
+
+    public void clear() {
+        records.clear();
+    }
+
+    /**
+     * The number of queries of the SRV records of the name.
+     */
+    public int getSrvQueries(String name) {
+        AtomicInteger count = queries.get(key(name, TYPE_SRV));
+        return count == null ? 0 : count.get();
+    }
+
+    public void close() throws InterruptedException {
+        socket.close();
+        thread.join(5000);
+    }
+
+    private List<Record> records(String name, int type) {
+        return records.computeIfAbsent(key(name, type), key -> new CopyOnWriteArrayList<>());
+    }
+
+    private void serve() {
+        byte[] buffer = new byte[512];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                byte[] response = answer(Unpooled.wrappedBuffer(packet.getData(), 0, packet.getLength()));
+                socket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private byte[] answer(ByteBuf query) {
+        int id = query.getUnsignedShort(0);
+        Map<String, Integer> names = new HashMap<>();
+        // the question starts after the header
+        int index = 12;
+        List<String> labels = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        int length;
+        while ((length = query.getUnsignedByte(index)) != 0) {
+            offsets.add(index);
+            labels.add(query.toString(index + 1, length, StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT));
+            index += length + 1;
+        }
+        for (int i = 0; i < labels.size(); i++) {
+            names.put(String.join(".", labels.subList(i, labels.size())) + ".", offsets.get(i));
+        }
+        String name = String.join(".", labels) + ".";
+        int type = query.getUnsignedShort(index + 1);
+        int questionEnd = index + 5;
+        queries.computeIfAbsent(key(name, type), key -> new AtomicInteger()).incrementAndGet();
+
+        List<Record> answers = records.getOrDefault(key(name, type), new ArrayList<>());
+        boolean exists = records.keySet().stream().anyMatch(key -> key.startsWith(name + "/"));
+
+        ByteBuf out = Unpooled.buffer();
+        out.writeShort(id);
+        // a recursive response, NXDOMAIN for an unknown name
+        out.writeShort(0x8180 | (exists ? 0 : 3));
+        out.writeShort(1);
+        out.writeShort(answers.size());
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeBytes(query, 12, questionEnd - 12);
+        for (Record record : answers) {
+            writeName(out, name, names);
+            out.writeShort(type);
+            // IN
+            out.writeShort(1);
+            out.writeInt((int) record.ttl);
+            int lengthIndex = out.writerIndex();
+            out.writeShort(0);
+            record.data.write(out, names);
+            out.setShort(lengthIndex, out.writerIndex() - lengthIndex - 2);
+        }
+        byte[] bytes = new byte[out.readableBytes()];
+        out.readBytes(bytes);
+        return bytes;
+    }
+
+    private static void writeName(ByteBuf out, String name, Map<String, Integer> names) {
+        String rest = name.toLowerCase(Locale.ROOT);
+        while (!rest.isEmpty() && !".".equals(rest)) {
+            Integer pointer = names.get(rest);
+            if (pointer != null) {
+                out.writeShort(0xC000 | pointer);
+                return;
+            }
+            names.put(rest, out.writerIndex());
+            int dot = rest.indexOf('.');
+            byte[] label = rest.substring(0, dot).getBytes(StandardCharsets.US_ASCII);
+            out.writeByte(label.length);
+            out.writeBytes(label);
+            rest = rest.substring(dot + 1);
+        }
+        out.writeByte(0);
+    }
+
+    private static String key(String name, int type) {
+        return name.toLowerCase(Locale.ROOT) + "/" + type;
+    }
+
+    private interface RecordData {
+        void write(ByteBuf out, Map<String, Integer> names);
+    }
+
+    private static class Record {
+        private final long ttl;
+        private final RecordData data;
+
+        Record(long ttl, RecordData data) {
+            this.ttl = ttl;
+            this.data = data;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.polaris.task.FetchTask;
 import org.apache.dubbo.registry.polaris.task.InstancesHandler;
 import org.apache.dubbo.registry.polaris.task.TaskScheduler;
+import org.apache.dubbo.registry.polaris.task.TaskSchedulerStats;
 import org.apache.dubbo.registry.polaris.task.WatchTask;
 import org.apache.dubbo.registry.support.FailbackRegistry;
 import org.apache.dubbo.rpc.Filter;
@@ -54,7 +55,7 @@ public class PolarisRegistry extends FailbackRegistry {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PolarisRegistry.class);
 
-    private static final TaskScheduler taskScheduler = new TaskScheduler();
+    private final TaskScheduler taskScheduler;
 
     private final Set<URL> registeredInstances = new ConcurrentHashSet<>();
 
@@ -75,6 +76,7 @@ public class PolarisRegistry extends FailbackRegistry {
         hasRouter = routerExtensionLoader.hasExtension(ExtensionConsts.PLUGIN_ROUTER_NAME);
         ExtensionLoader<Filter> filterExtensionLoader = ExtensionLoader.getExtensionLoader(Filter.class);
         hasCircuitBreaker = filterExtensionLoader.hasExtension(ExtensionConsts.PLUGIN_CIRCUITBREAKER_NAME);
+        taskScheduler = new TaskScheduler(url.getParameter(TaskScheduler.FETCH_THREADS_KEY, TaskScheduler.DEFAULT_FETCH_THREADS));
     }
 
     private URL buildRouterURL(URL consumerUrl) {
@@ -234,6 +236,10 @@ public class PolarisRegistry extends FailbackRegistry {
         return polarisOperator;
     }
 
+    public TaskSchedulerStats getTaskSchedulerStats() {
+        return taskScheduler.getStats();
+    }
+
     @Override
     public boolean isAvailable() {
         return true;
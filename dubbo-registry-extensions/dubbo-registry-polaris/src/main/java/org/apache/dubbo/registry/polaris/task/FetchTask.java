@@ -23,6 +23,8 @@ import com.tencent.polaris.common.registry.PolarisOperator;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class FetchTask implements Runnable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FetchTask.class);
@@ -35,6 +37,19 @@ public class FetchTask implements Runnable {
 
     private final boolean includeCircuitBreak;
 
+    private static final int IDLE = 0;
+
+    private static final int PENDING = 1;
+
+    private static final int RUNNING = 2;
+
+    private static final int RUNNING_DIRTY = 3;
+
+    /**
+     * Scheduling state kept by the {@link TaskScheduler}, so that a fetch is queued at most once.
+     */
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+
     public FetchTask(String service, InstancesHandler handler, PolarisOperator polarisOperator, boolean includeCircuitBreak) {
         this.service = service;
         this.handler = handler;
@@ -50,6 +65,41 @@ public class FetchTask implements Runnable {
         return handler;
     }
 
+    /**
+     * @return true if the task must be queued, false if the submission is merged into a queued or running fetch
+     */
+    boolean markPending() {
+        for (; ; ) {
+            int current = state.get();
+            if (current == IDLE) {
+                if (state.compareAndSet(IDLE, PENDING)) {
+                    return true;
+                }
+            } else if (current == RUNNING) {
+                if (state.compareAndSet(RUNNING, RUNNING_DIRTY)) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
+
+    void markRunning() {
+        state.set(RUNNING);
+    }
+
+    /**
+     * @return true if submissions arrived while running and the task must be queued again
+     */
+    boolean markDone() {
+        if (state.compareAndSet(RUNNING, IDLE)) {
+            return false;
+        }
+        state.set(PENDING);
+        return true;
+    }
+
     @Override
     public void run() {
         Instance[] instances;
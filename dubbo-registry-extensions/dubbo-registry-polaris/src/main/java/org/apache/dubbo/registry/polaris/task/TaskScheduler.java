@@ -14,39 +14,93 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.dubbo.registry.polaris.task;
 
 import com.tencent.polaris.client.util.NamedThreadFactory;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Runs the fetch tasks on a pool of {@code polaris.fetch.threads} threads and the watch tasks on a single thread.
+ * <p>
+ * A fetch task is queued at most once: submitting it again while it is queued is a no-op, and submitting it
+ * while it runs makes it run once more afterwards, so a burst of change events costs at most two fetches.
+ */
 public class TaskScheduler {
 
-    private final ExecutorService fetchExecutor = Executors
-        .newSingleThreadExecutor(new NamedThreadFactory("agent-fetch"));
+    public static final String FETCH_THREADS_KEY = "polaris.fetch.threads";
+
+    public static final int DEFAULT_FETCH_THREADS = 4;
 
-    private final ExecutorService watchExecutor = Executors
-        .newSingleThreadExecutor(new NamedThreadFactory("agent-retry-watch"));
+    private final ExecutorService fetchExecutor;
+
+    private final ScheduledExecutorService watchExecutor = Executors
+        .newSingleThreadScheduledExecutor(new NamedThreadFactory("agent-retry-watch"));
+
+    private final TaskSchedulerStats stats = new TaskSchedulerStats();
 
     private final AtomicBoolean executorDestroyed = new AtomicBoolean(false);
 
     private final Object lock = new Object();
 
-    public void submitFetchTask(Runnable fetchTask) {
+    public TaskScheduler() {
+        this(DEFAULT_FETCH_THREADS);
+    }
+
+    public TaskScheduler(int fetchThreads) {
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchThreads), new NamedThreadFactory("agent-fetch"));
+    }
+
+    public void submitFetchTask(FetchTask fetchTask) {
         if (executorDestroyed.get()) {
             return;
         }
+        if (!fetchTask.markPending()) {
+            stats.recordCoalesced();
+            return;
+        }
+        stats.recordQueued();
+        execute(fetchTask);
+    }
+
+    private void execute(FetchTask fetchTask) {
         synchronized (lock) {
             if (executorDestroyed.get()) {
                 return;
             }
-            fetchExecutor.submit(fetchTask);
+            try {
+                fetchExecutor.execute(() -> runFetchTask(fetchTask));
+            } catch (RejectedExecutionException e) {
+                // destroyed concurrently, nothing to fetch for anymore
+            }
+        }
+    }
+
+    private void runFetchTask(FetchTask fetchTask) {
+        stats.recordDequeued();
+        fetchTask.markRunning();
+        long start = System.nanoTime();
+        try {
+            fetchTask.run();
+        } finally {
+            stats.recordFetch(System.nanoTime() - start);
+            if (fetchTask.markDone()) {
+                // events arrived during the fetch, the instances read may predate them
+                stats.recordQueued();
+                execute(fetchTask);
+            }
         }
     }
 
     public void submitWatchTask(Runnable watchTask) {
+        submitWatchTask(watchTask, 0);
+    }
+
+    public void submitWatchTask(Runnable watchTask, long delayMillis) {
         if (executorDestroyed.get()) {
             return;
         }
@@ -54,10 +108,14 @@ public class TaskScheduler {
             if (executorDestroyed.get()) {
                 return;
             }
-            watchExecutor.submit(watchTask);
+            watchExecutor.schedule(watchTask, delayMillis, TimeUnit.MILLISECONDS);
         }
     }
 
+    public TaskSchedulerStats getStats() {
+        return stats;
+    }
+
     public boolean isDestroyed() {
         return executorDestroyed.get();
     }
@@ -65,8 +123,9 @@ public class TaskScheduler {
     public void destroy() {
         synchronized (lock) {
             if (executorDestroyed.compareAndSet(false, true)) {
-                fetchExecutor.shutdown();
-                watchExecutor.shutdown();
+                // drops the queued fetches and the delayed watches, which would keep the threads alive until due
+                fetchExecutor.shutdownNow();
+                watchExecutor.shutdownNow();
             }
         }
     }
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.polaris.task;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fetch metrics of one {@link TaskScheduler}.
+ */
+public class TaskSchedulerStats {
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder fetchCount = new LongAdder();
+    private final LongAdder totalFetchNanos = new LongAdder();
+    private final LongAccumulator maxFetchNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastFetchNanos = new AtomicLong();
+
+    void recordQueued() {
+        maxQueueDepth.accumulate(queueDepth.incrementAndGet());
+    }
+
+    void recordDequeued() {
+        queueDepth.decrementAndGet();
+    }
+
+    void recordCoalesced() {
+        coalescedCount.increment();
+    }
+
+    void recordFetch(long fetchNanos) {
+        fetchCount.increment();
+        totalFetchNanos.add(fetchNanos);
+        maxFetchNanos.accumulate(fetchNanos);
+        lastFetchNanos.set(fetchNanos);
+    }
+
+    /**
+     * Fetches waiting for a thread of the pool.
+     */
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Fetch submissions merged into a fetch that was already queued or running.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getFetchCount() {
+        return fetchCount.sum();
+    }
+
+    public long getTotalFetchNanos() {
+        return totalFetchNanos.sum();
+    }
+
+    public long getMaxFetchNanos() {
+        return maxFetchNanos.get();
+    }
+
+    public long getLastFetchNanos() {
+        return lastFetchNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskSchedulerStats{" + "queueDepth=" + getQueueDepth()
+                + ", maxQueueDepth=" + getMaxQueueDepth()
+                + ", coalescedCount=" + getCoalescedCount()
+                + ", fetchCount=" + getFetchCount()
+                + ", totalFetchNanos=" + getTotalFetchNanos()
+                + ", maxFetchNanos=" + getMaxFetchNanos()
+                + ", lastFetchNanos=" + getLastFetchNanos()
+                + '}';
+    }
+}
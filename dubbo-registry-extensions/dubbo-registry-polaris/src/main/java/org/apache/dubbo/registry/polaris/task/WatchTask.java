@@ -20,8 +20,14 @@ package org.apache.dubbo.registry.polaris.task;
 import com.tencent.polaris.api.listener.ServiceListener;
 import com.tencent.polaris.api.pojo.ServiceChangeEvent;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 public class WatchTask implements Runnable {
 
+    private static final long MIN_RETRY_DELAY_MILLIS = 500;
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 30 * 1000;
+
     private final String service;
 
     private final FetchTask fetchTask;
@@ -30,6 +36,8 @@ public class WatchTask implements Runnable {
 
     private final TaskScheduler taskScheduler;
 
+    private int failures;
+
     public WatchTask(String service, FetchTask fetchTask, TaskScheduler taskScheduler) {
         this.service = service;
         this.fetchTask = fetchTask;
@@ -48,8 +56,18 @@ public class WatchTask implements Runnable {
         if (result) {
             fetchTask.getHandler().onWatchSuccess(service, serviceListener);
             taskScheduler.submitFetchTask(fetchTask);
+            failures = 0;
             return;
         }
-        taskScheduler.submitWatchTask(this);
+        taskScheduler.submitWatchTask(this, nextRetryDelay());
+    }
+
+    /**
+     * Exponential backoff with jitter, so that consumers retrying against a restarted server spread out.
+     */
+    private long nextRetryDelay() {
+        long delay = MIN_RETRY_DELAY_MILLIS << Math.min(failures++, 6);
+        delay = Math.min(delay, MAX_RETRY_DELAY_MILLIS);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.polaris.task;
+
+import com.tencent.polaris.api.pojo.Instance;
+import com.tencent.polaris.common.registry.PolarisOperator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskSchedulerTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private final AtomicInteger interrupted = new AtomicInteger();
+
+    private TaskScheduler taskScheduler;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (taskScheduler != null) {
+            taskScheduler.destroy();
+        }
+    }
+
+    @Test
+    public void testCoalesceWhileRunning() {
+        taskScheduler = new TaskScheduler(1);
+        FetchTask fetchTask = newFetchTask("a");
+
+        taskScheduler.submitFetchTask(fetchTask);
+        await().until(() -> fetches.get() == 1);
+        // a burst of events during the fetch
+        taskScheduler.submitFetchTask(fetchTask);
+        taskScheduler.submitFetchTask(fetchTask);
+        taskScheduler.submitFetchTask(fetchTask);
+
+        release.countDown();
+        // fetches once more, the instances read by the first fetch may predate the events
+        await().until(() -> taskScheduler.getStats().getFetchCount() == 2);
+        await().during(Duration.ofMillis(200)).atMost(Duration.ofSeconds(1)).until(() -> fetches.get() == 2);
+        Assertions.assertEquals(3, taskScheduler.getStats().getCoalescedCount());
+        Assertions.assertEquals(0, taskScheduler.getStats().getQueueDepth());
+    }
+
+    @Test
+    public void testCoalesceWhileQueued() {
+        taskScheduler = new TaskScheduler(1);
+        FetchTask busy = newFetchTask("a");
+        FetchTask queued = newFetchTask("b");
+
+        taskScheduler.submitFetchTask(busy);
+        await().until(() -> fetches.get() == 1);
+        taskScheduler.submitFetchTask(queued);
+        taskScheduler.submitFetchTask(queued);
+        Assertions.assertEquals(1, taskScheduler.getStats().getQueueDepth());
+        Assertions.assertEquals(1, taskScheduler.getStats().getCoalescedCount());
+
+        release.countDown();
+        await().until(() -> taskScheduler.getStats().getFetchCount() == 2);
+        await().during(Duration.ofMillis(200)).atMost(Duration.ofSeconds(1)).until(() -> fetches.get() == 2);
+    }
+
+    @Test
+    public void testDestroy() {
+        taskScheduler = new TaskScheduler(1);
+        AtomicBoolean watched = new AtomicBoolean();
+        taskScheduler.submitWatchTask(() -> watched.set(true), 300);
+        taskScheduler.submitFetchTask(newFetchTask("a"));
+        await().until(() -> fetches.get() == 1);
+        FetchTask queued = newFetchTask("b");
+        taskScheduler.submitFetchTask(queued);
+
+        taskScheduler.destroy();
+        Assertions.assertTrue(taskScheduler.isDestroyed());
+        // the running fetch is interrupted, the queued fetch and the delayed watch are dropped
+        await().until(() -> interrupted.get() == 1);
+        taskScheduler.submitFetchTask(newFetchTask("c"));
+        taskScheduler.submitWatchTask(() -> watched.set(true));
+        await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(1))
+            .until(() -> !watched.get() && fetches.get() == 1);
+    }
+
+    private FetchTask newFetchTask(String service) {
+        PolarisOperator polarisOperator = mock(PolarisOperator.class);
+        when(polarisOperator.getAvailableInstances(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            fetches.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+            return new Instance[0];
+        });
+        return new FetchTask(service, mock(InstancesHandler.class), polarisOperator, false);
+    }
+}
@@ -98,6 +98,18 @@ public class RedisRegistry extends FailbackRegistry {
 
     private final Map<URL, Long> expireCache = new ConcurrentHashMap<>();
 
+    /**
+     * parsed urls by their full string, by category path. Each read of a category path replaces its urls, so the
+     * cache only holds the urls currently stored in redis. The paths no subscriber reads any more are dropped on
+     * unsubscribe and, for the admin, on clean.
+     */
+    private final ConcurrentMap<String, Map<String, URL>> urlCache = new ConcurrentHashMap<>();
+
+    /**
+     * the urls last notified to the subscribers, by category path, by subscribed url
+     */
+    private final ConcurrentMap<URL, ConcurrentMap<String, Set<URL>>> notified = new ConcurrentHashMap<>();
+
     // just for unit test
     private volatile boolean doExpire = true;
 
@@ -137,11 +149,18 @@ public class RedisRegistry extends FailbackRegistry {
     }
 
     private void deferExpired() {
+        String expire = String.valueOf(System.currentTimeMillis() + expirePeriod);
+        Map<String, Map<String, String>> hashes = new HashMap<>();
         for (URL url : new HashSet<>(getRegistered())) {
             if (url.getParameter(DYNAMIC_KEY, true)) {
-                String key = toCategoryPath(url);
-                if (redisClient.hset(key, url.toFullString(), String.valueOf(System.currentTimeMillis() + expirePeriod)) == 1) {
-                    redisClient.publish(key, REGISTER);
+                hashes.computeIfAbsent(toCategoryPath(url), k -> new HashMap<>()).put(url.toFullString(), expire);
+            }
+        }
+        if (!hashes.isEmpty()) {
+            // one batch for all the registered urls, new fields mean the urls had been cleaned as expired
+            for (Map.Entry<String, Long> entry : redisClient.hset(hashes).entrySet()) {
+                if (entry.getValue() != null && entry.getValue() > 0) {
+                    redisClient.publish(entry.getKey(), REGISTER);
                 }
             }
         }
@@ -161,14 +180,16 @@ public class RedisRegistry extends FailbackRegistry {
 
     private void clean() {
         Set<String> keys = redisClient.scan(root + ANY_VALUE);
+        urlCache.keySet().retainAll(keys == null ? Collections.emptySet() : keys);
         if (CollectionUtils.isNotEmpty(keys)) {
             for (String key : keys) {
                 Map<String, String> values = redisClient.hgetAll(key);
                 if (CollectionUtils.isNotEmptyMap(values)) {
+                    Map<String, URL> urls = toUrls(key, values);
                     boolean delete = false;
                     long now = System.currentTimeMillis();
                     for (Map.Entry<String, String> entry : values.entrySet()) {
-                        URL url = URL.valueOf(entry.getKey());
+                        URL url = urls.get(entry.getKey());
                         if (url.getParameter(DYNAMIC_KEY, true)) {
                             long expire = Long.parseLong(entry.getValue());
                             if (expire < now) {
@@ -278,15 +299,34 @@ public class RedisRegistry extends FailbackRegistry {
 
     @Override
     public void doUnsubscribe(URL url, NotifyListener listener) {
+        Set<NotifyListener> listeners = getSubscribed().get(url);
+        if (CollectionUtils.isEmpty(listeners)) {
+            Map<String, Set<URL>> lastNotified = notified.remove(url);
+            if (lastNotified != null) {
+                for (String key : lastNotified.keySet()) {
+                    if (notified.values().stream().noneMatch(it -> it.containsKey(key))) {
+                        urlCache.remove(key);
+                    }
+                }
+            }
+        }
     }
 
     private void doNotify(String key) {
         for (Map.Entry<URL, Set<NotifyListener>> entry : new HashMap<>(getSubscribed()).entrySet()) {
-            doNotify(Collections.singletonList(key), entry.getKey(), new HashSet<>(entry.getValue()));
+            doNotify(Collections.singletonList(key), entry.getKey(), new HashSet<>(entry.getValue()), false);
         }
     }
 
     private void doNotify(Collection<String> keys, URL url, Collection<NotifyListener> listeners) {
+        doNotify(keys, url, listeners, true);
+    }
+
+    /**
+     * @param force whether to notify the listeners even if the urls of the keys are the ones last notified, true for
+     *              new listeners
+     */
+    private void doNotify(Collection<String> keys, URL url, Collection<NotifyListener> listeners, boolean force) {
         if (keys == null || keys.isEmpty()
                 || listeners == null || listeners.isEmpty()) {
             return;
@@ -295,6 +335,9 @@ public class RedisRegistry extends FailbackRegistry {
         List<URL> result = new ArrayList<>();
         List<String> categories = Arrays.asList(url.getParameter(CATEGORY_KEY, new String[0]));
         String consumerService = url.getServiceInterface();
+        ConcurrentMap<String, Set<URL>> lastNotified = notified.computeIfAbsent(url, k -> new ConcurrentHashMap<>());
+        Map<String, Set<URL>> notifying = new HashMap<>();
+        boolean changed = force;
         for (String key : keys) {
             if (!ANY_VALUE.equals(consumerService)) {
                 String providerService = toServiceName(key);
@@ -310,8 +353,9 @@ public class RedisRegistry extends FailbackRegistry {
             Set<URL> toDeleteExpireKeys = new HashSet<>(expireCache.keySet());
             Map<String, String> values = redisClient.hgetAll(key);
             if (CollectionUtils.isNotEmptyMap(values)) {
+                Map<String, URL> parsed = toUrls(key, values);
                 for (Map.Entry<String, String> entry : values.entrySet()) {
-                    URL u = URL.valueOf(entry.getKey());
+                    URL u = parsed.get(entry.getKey());
                     long expire = Long.parseLong(entry.getValue());
                     if (!u.getParameter(DYNAMIC_KEY, true)
                             || expire >= now) {
@@ -322,6 +366,8 @@ public class RedisRegistry extends FailbackRegistry {
                         }
                     }
                 }
+            } else {
+                urlCache.remove(key);
             }
 
             if (!toDeleteExpireKeys.isEmpty()) {
@@ -329,6 +375,11 @@ public class RedisRegistry extends FailbackRegistry {
                     expireCache.remove(u);
                 }
             }
+            Set<URL> current = new HashSet<>(urls);
+            notifying.put(key, current);
+            if (!current.equals(lastNotified.get(key))) {
+                changed = true;
+            }
             if (urls.isEmpty()) {
                 urls.add(URLBuilder.from(url)
                         .setProtocol(EMPTY_PROTOCOL)
@@ -343,14 +394,38 @@ public class RedisRegistry extends FailbackRegistry {
                 logger.info("redis notify: " + key + " = " + urls);
             }
         }
-        if (CollectionUtils.isEmpty(result)) {
+        if (CollectionUtils.isEmpty(result) || !changed) {
             return;
         }
+        boolean delivered = true;
         for (NotifyListener listener : listeners) {
-            notify(url, listener, result);
+            try {
+                doNotify(url, listener, result);
+            } catch (Throwable t) {
+                delivered = false;
+                logger.error("Failed to notify the urls of " + keys + " to the subscriber of " + url + ", cause: " + t.getMessage(), t);
+            }
+        }
+        // a failed delivery is repeated by the next event even if the urls stay the same
+        if (delivered) {
+            lastNotified.putAll(notifying);
         }
     }
 
+    /**
+     * Parses the fields of a category path as urls, reusing the urls parsed by the last read of the path.
+     */
+    private Map<String, URL> toUrls(String key, Map<String, String> values) {
+        Map<String, URL> cached = urlCache.getOrDefault(key, Collections.emptyMap());
+        Map<String, URL> urls = new HashMap<>(values.size() * 4 / 3 + 1);
+        for (String value : values.keySet()) {
+            URL url = cached.get(value);
+            urls.put(value, url != null ? url : URL.valueOf(value));
+        }
+        urlCache.put(key, urls);
+        return urls;
+    }
+
     private String toServiceName(String categoryPath) {
         String servicePath = toServicePath(categoryPath);
         return servicePath.startsWith(root) ? servicePath.substring(root.length()) : servicePath;
@@ -27,6 +27,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
 import redis.embedded.RedisServer;
@@ -38,8 +39,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.dubbo.common.constants.RemotingConstants.BACKUP_KEY;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -208,7 +214,68 @@ public class RedisRegistryTest {
     }
 
     @Test
-    public void testSubscribeAndUnsubscribe() {
+    public void testNotifyOnlyChangedUrls() {
+        redisRegistry.register(PROVIDER_URL_A);
+
+        Set<URL> notifiedUrls = new CopyOnWriteArraySet<>();
+        AtomicInteger notifications = new AtomicInteger();
+        NotifyListener listener = urls -> {
+            notifiedUrls.clear();
+            notifiedUrls.addAll(urls);
+            notifications.incrementAndGet();
+        };
+        redisRegistry.subscribe(SERVICE_URL, listener);
+        await().until(() -> notifiedUrls.contains(PROVIDER_URL_A));
+        awaitNotifierSubscribed();
+        int settled = notifications.get();
+
+        // publishes a register event without changing the providers
+        redisRegistry.register(PROVIDER_URL_A);
+        redisRegistry.register(PROVIDER_URL_B);
+
+        // the events are handled in order, the first one didn't notify
+        await().until(() -> notifiedUrls.contains(PROVIDER_URL_B));
+        assertThat(notifications.get(), is(settled + 1));
+    }
+
+    @Test
+    public void testRenotifyAfterFailedDelivery() {
+        redisRegistry.register(PROVIDER_URL_A);
+
+        Set<URL> notifiedUrls = new CopyOnWriteArraySet<>();
+        AtomicBoolean fail = new AtomicBoolean();
+        CountDownLatch failed = new CountDownLatch(1);
+        NotifyListener listener = urls -> {
+            if (fail.compareAndSet(true, false)) {
+                failed.countDown();
+                throw new IllegalStateException("mocked notify failure");
+            }
+            notifiedUrls.clear();
+            notifiedUrls.addAll(urls);
+        };
+        redisRegistry.subscribe(SERVICE_URL, listener);
+        await().until(() -> notifiedUrls.contains(PROVIDER_URL_A));
+        awaitNotifierSubscribed();
+
+        fail.set(true);
+        redisRegistry.register(PROVIDER_URL_B);
+        await().until(() -> failed.getCount() == 0);
+        assertThat(notifiedUrls.contains(PROVIDER_URL_B), is(false));
+
+        // the same providers again, delivered as the last delivery failed
+        redisRegistry.register(PROVIDER_URL_B);
+        await().until(() -> notifiedUrls.contains(PROVIDER_URL_B));
+    }
+
+    private void awaitNotifierSubscribed() {
+        try (Jedis jedis = new Jedis("localhost", registryUrl.getPort())) {
+            await().until(() -> jedis.pubsubNumPat() > 0);
+        }
+    }
+
+    @Test
+    public void testSubscribeAndUnsubscribe() throws Exception {
+        redisRegistry.register(PROVIDER_URL_A);
         NotifyListener listener = new NotifyListener() {
             @Override
             public void notify(List<URL> urls) {
@@ -217,6 +284,11 @@ public class RedisRegistryTest {
         };
         redisRegistry.subscribe(SERVICE_URL, listener);
 
+        Field urlCacheField = RedisRegistry.class.getDeclaredField("urlCache");
+        urlCacheField.setAccessible(true);
+        Map<String, Map<String, URL>> urlCache = (Map<String, Map<String, URL>>) urlCacheField.get(redisRegistry);
+        assertThat(urlCache.isEmpty(), is(false));
+
         Map<URL, Set<NotifyListener>> subscribed = redisRegistry.getSubscribed();
         assertThat(subscribed.size(), is(1));
         assertThat(subscribed.get(SERVICE_URL).size(), is(1));
@@ -224,6 +296,8 @@ public class RedisRegistryTest {
         redisRegistry.unsubscribe(SERVICE_URL, listener);
         subscribed = redisRegistry.getSubscribed();
         assertThat(subscribed.get(SERVICE_URL).size(), is(0));
+        // no subscriber reads the paths any more
+        assertThat(urlCache.isEmpty(), is(true));
     }
 
     @Test
@@ -26,6 +26,13 @@ public interface Constants {
 
     int DEFAULT_GRPC_QUEUES = 300_0000;
 
+    /**
+     * the delay in milliseconds a watcher waits for more changes before notifying its listener
+     */
+    String ETCD3_NOTIFY_DELAY_KEY = "etcd3.notify.delay";
+
+    int DEFAULT_ETCD3_NOTIFY_DELAY = 100;
+
     String RETRY_PERIOD_KEY = "retry.period";
 
     int DEFAULT_RETRY_PERIOD = 5 * 1000;
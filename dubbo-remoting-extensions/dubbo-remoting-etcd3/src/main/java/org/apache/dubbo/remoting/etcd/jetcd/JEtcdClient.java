@@ -37,17 +37,22 @@ import io.etcd.jetcd.api.WatchGrpc;
 import io.etcd.jetcd.api.WatchRequest;
 import io.etcd.jetcd.api.WatchResponse;
 import io.etcd.jetcd.common.exception.ClosedClientException;
+import io.etcd.jetcd.kv.TxnResponse;
 import io.grpc.ManagedChannel;
-import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import io.netty.util.internal.ConcurrentSet;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -56,15 +61,18 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static java.util.stream.Collectors.toList;
 import static org.apache.dubbo.common.constants.CommonConstants.PATH_SEPARATOR;
+import static org.apache.dubbo.remoting.etcd.Constants.DEFAULT_ETCD3_NOTIFY_DELAY;
 import static org.apache.dubbo.remoting.etcd.Constants.DEFAULT_ETCD3_NOTIFY_QUEUES_KEY;
 import static org.apache.dubbo.remoting.etcd.Constants.DEFAULT_ETCD3_NOTIFY_THREADS;
 import static org.apache.dubbo.remoting.etcd.Constants.DEFAULT_GRPC_QUEUES;
 import static org.apache.dubbo.remoting.etcd.Constants.DEFAULT_RETRY_PERIOD;
 import static org.apache.dubbo.remoting.etcd.Constants.DEFAULT_SESSION_TIMEOUT;
+import static org.apache.dubbo.remoting.etcd.Constants.ETCD3_NOTIFY_DELAY_KEY;
 import static org.apache.dubbo.remoting.etcd.Constants.ETCD3_NOTIFY_MAXTHREADS_KEYS;
 import static org.apache.dubbo.remoting.etcd.Constants.RETRY_PERIOD_KEY;
 import static org.apache.dubbo.remoting.etcd.jetcd.JEtcdClientWrapper.UTF_8;
@@ -80,6 +88,10 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
     private ExecutorService notifyExecutor;
 
     private int delayPeriod;
+
+    private int notifyDelay;
+
+    private final WatchStream watchStream = new WatchStream();
     private Logger logger = LoggerFactory.getLogger(JEtcdClient.class);
 
     public JEtcdClient(URL url) {
@@ -94,6 +106,7 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
                 }
             });
             delayPeriod = getUrl().getParameter(RETRY_PERIOD_KEY, DEFAULT_RETRY_PERIOD);
+            notifyDelay = getUrl().getParameter(ETCD3_NOTIFY_DELAY_KEY, DEFAULT_ETCD3_NOTIFY_DELAY);
             reconnectSchedule = Executors.newScheduledThreadPool(1,
                     new NamedThreadFactory("etcd3-watch-auto-reconnect"));
 
@@ -174,6 +187,12 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
 
     @Override
     public void doClose() {
+        try {
+            watchStream.close();
+        } catch (Exception e) {
+            logger.warn(e.getMessage(), e);
+        }
+
         try {
             if (notifyExecutor != null) {
                 ExecutorUtil.shutdownNow(notifyExecutor, 100);
@@ -208,20 +227,37 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
         return clientWrapper.putEphemeral(key, value);
     }
 
+    /**
+     * Applies the changes in one transaction, a {@code null} value deletes its key.
+     */
+    public CompletableFuture<TxnResponse> txn(Map<String, String> changes) {
+        return clientWrapper.txn(changes);
+    }
+
     public ManagedChannel getChannel() {
         return clientWrapper.getChannel();
     }
 
+    /**
+     * A watcher of the direct children of a path. The watches of all the watchers of the client are multiplexed on
+     * one {@link WatchStream}.
+     */
     public class EtcdWatcher implements StreamObserver<WatchResponse> {
 
-        protected WatchGrpc.WatchStub watchStub;
         protected StreamObserver<WatchRequest> watchRequest;
-        protected long watchId;
+        protected volatile long watchId = -1;
         protected String path;
         protected Throwable throwable;
         protected volatile Set<String> urls = new ConcurrentSet<>();
         private ChildListener listener;
 
+        /**
+         * the revision of the last change seen, a recreated watch resumes after it.
+         */
+        protected volatile long revision;
+        private volatile boolean watching;
+        private final AtomicBoolean notifying = new AtomicBoolean();
+
         protected ReentrantLock lock = new ReentrantLock(true);
 
         public EtcdWatcher(ChildListener listener) {
@@ -232,41 +268,41 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
         public void onNext(WatchResponse response) {
 
             // prevents grpc on sending watchResponse to a closed watch client.
-            if (!isConnected()) {
+            if (isClosed()) {
                 return;
             }
 
-            watchId = response.getWatchId();
-
-            if (listener != null) {
-                int modified = 0;
-                String service = null;
-                Iterator<Event> iterator = response.getEventsList().iterator();
-                while (iterator.hasNext()) {
-                    Event event = iterator.next();
-                    switch (event.getType()) {
-                        case PUT: {
-                            if (((service = find(event)) != null)
-                                    && safeUpdate(service, true)) {
-                                modified++;
-                            }
-                            break;
+            long lastRevision = revision;
+            int modified = 0;
+            String service = null;
+            for (Event event : response.getEventsList()) {
+                lastRevision = Math.max(lastRevision, event.getKv().getModRevision());
+                switch (event.getType()) {
+                    case PUT: {
+                        if (((service = find(event)) != null)
+                                && safeUpdate(service, true)) {
+                            modified++;
                         }
-                        case DELETE: {
-                            if (((service = find(event)) != null)
-                                    && safeUpdate(service, false)) {
-                                modified++;
-                            }
-                            break;
+                        break;
+                    }
+                    case DELETE: {
+                        if (((service = find(event)) != null)
+                                && safeUpdate(service, false)) {
+                            modified++;
                         }
-                        default:
-                            break;
+                        break;
                     }
+                    default:
+                        break;
                 }
-                if (modified > 0) {
-                    notifyExecutor.execute(() -> listener.childChanged(path, new ArrayList<>(urls)));
-                }
-
+            }
+            if (response.getEventsCount() == 0) {
+                // progress notification, every change up to the revision of the header has been sent
+                lastRevision = Math.max(lastRevision, response.getHeader().getRevision());
+            }
+            revision = lastRevision;
+            if (modified > 0) {
+                notifyListener();
             }
         }
 
@@ -291,13 +327,8 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
                  */
                 // this.listener = null;
 
-                if (watchRequest != null) {
-                    WatchCancelRequest watchCancelRequest =
-                            WatchCancelRequest.newBuilder().setWatchId(watchId).build();
-                    WatchRequest cancelRequest = WatchRequest.newBuilder()
-                            .setCancelRequest(watchCancelRequest).build();
-                    this.watchRequest.onNext(cancelRequest);
-                }
+                watching = false;
+                watchStream.cancel(this);
             } catch (Exception ignored) {
                 logger.warn("Failed to cancel watch for path '" + path + "'", ignored);
             }
@@ -308,26 +339,29 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
             if (!isConnected()) {
                 throw new ClosedClientException("watch client has been closed, path '" + path + "'");
             }
-            if (this.path != null) {
-                unwatch();
-            }
-
-            this.path = path;
 
             lock.lock();
             try {
+                if (watching && path.equals(this.path)) {
+                    // the watch stream resumes the watch itself after a reconnection, no need to list the children again
+                    return new ArrayList<>(urls);
+                }
+                if (this.path != null) {
+                    unwatch();
+                }
 
-                this.watchStub = WatchGrpc.newStub(clientWrapper.getChannel());
-                this.watchRequest = watchStub.watch(this);
-                this.watchRequest.onNext(nextRequest());
+                this.path = path;
 
-                List<String> children = clientWrapper.getChildren(path);
+                List<String> children = new ArrayList<>();
+                this.revision = clientWrapper.getChildren(path, children);
                 /**
                  * caching the current service
                  */
-                if (!children.isEmpty()) {
-                    this.urls.addAll(filterChildren(children));
-                }
+                this.urls.clear();
+                this.urls.addAll(filterChildren(children));
+
+                this.watching = true;
+                watchStream.watch(this);
 
                 return new ArrayList<>(urls);
             } finally {
@@ -335,6 +369,52 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
             }
         }
 
+        /**
+         * Lists the children again and recreates the watch from the revision they were read at, for the watches
+         * canceled by etcd, e.g. when the revision to resume from has been compacted.
+         */
+        protected void resync() {
+            lock.lock();
+            try {
+                if (!watching || isClosed()) {
+                    return;
+                }
+                List<String> children = new ArrayList<>();
+                this.revision = clientWrapper.getChildren(path, children);
+                Set<String> current = new HashSet<>(filterChildren(children));
+                boolean changed = !current.equals(urls);
+                urls.retainAll(current);
+                urls.addAll(current);
+                watchStream.watch(this);
+                if (changed) {
+                    notifyListener();
+                }
+            } catch (Throwable t) {
+                logger.warn("Failed to resync watch for path '" + path + "', waiting for again, cause: " + t.getMessage(), t);
+                reconnectSchedule.schedule(this::resync, new Random().nextInt(delayPeriod), TimeUnit.MILLISECONDS);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Notifies the listener after the notify delay, coalescing the changes made meanwhile into one notification.
+         */
+        private void notifyListener() {
+            if (listener == null || !notifying.compareAndSet(false, true)) {
+                return;
+            }
+            Runnable notify = () -> {
+                notifying.set(false);
+                notifyExecutor.execute(() -> listener.childChanged(path, new ArrayList<>(urls)));
+            };
+            if (notifyDelay > 0) {
+                reconnectSchedule.schedule(notify, notifyDelay, TimeUnit.MILLISECONDS);
+            } else {
+                notify.run();
+            }
+        }
+
         private boolean safeUpdate(String service, boolean add) {
             lock.lock();
             try {
@@ -398,7 +478,7 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
         }
 
         /**
-         * create new watching request for current path.
+         * create new watching request for current path, starting after the last revision seen.
          */
         protected WatchRequest nextRequest() {
 
@@ -407,67 +487,212 @@ public class JEtcdClient extends AbstractEtcdClient<JEtcdClient.EtcdWatcher> {
                     .setRangeEnd(ByteString.copyFrom(
                             OptionUtil.prefixEndOf(ByteSequence.from(path, UTF_8)).getBytes()))
                     .setProgressNotify(true);
+            if (revision > 0) {
+                builder.setStartRevision(revision + 1);
+            }
 
             return WatchRequest.newBuilder().setCreateRequest(builder).build();
         }
 
         public void tryReconnect(Throwable e) {
-
             this.throwable = e;
-
             logger.error("watcher client has error occurred, current path '" + path + "'", e);
+            watchStream.reset();
+        }
 
-            // prevents grpc on sending error to a closed watch client.
-            if (!isConnected()) {
-                return;
+        @Override
+        public void onCompleted() {
+            // do not touch this method, if you want terminate this stream.
+        }
+    }
+
+    /**
+     * The bidirectional watch stream shared by all the watchers of the client, etcd multiplexes their watches on it
+     * by watch id. After a stream error the stream is reopened and every watch is recreated from the last revision
+     * its watcher has seen, so no change is lost and no children are listed again.
+     */
+    private class WatchStream {
+
+        /**
+         * the watchers to watch, including the ones waiting for the stream to be reopened
+         */
+        private final Set<EtcdWatcher> watchers = new LinkedHashSet<>();
+
+        /**
+         * the watchers waiting for their created response, etcd answers the create requests of a stream in order.
+         * Canceled watchers are replaced by null, their watches are canceled once created.
+         */
+        private final LinkedList<EtcdWatcher> creating = new LinkedList<>();
+
+        private final Map<Long, EtcdWatcher> watching = new ConcurrentHashMap<>();
+
+        private StreamObserver<WatchRequest> requests;
+
+        private ResponseObserver responses;
+
+        private boolean reconnecting;
+
+        synchronized void watch(EtcdWatcher watcher) {
+            if (watcher.watchId >= 0) {
+                watching.remove(watcher.watchId, watcher);
+                watcher.watchId = -1;
+            }
+            watchers.add(watcher);
+            if (requests != null) {
+                create(watcher);
+            } else if (!reconnecting) {
+                open();
             }
+        }
 
+        synchronized void cancel(EtcdWatcher watcher) {
+            watchers.remove(watcher);
+            creating.replaceAll(w -> w == watcher ? null : w);
+            long id = watcher.watchId;
+            watcher.watchId = -1;
+            if (id >= 0 && watching.remove(id, watcher)) {
+                cancel(id);
+            }
+        }
 
-            Status status = Status.fromThrowable(e);
-            // system may be recover later, current connect won't be lost
-            if (OptionUtil.isHaltError(status) || OptionUtil.isNoLeaderError(status)) {
-                reconnectSchedule.schedule(this::reconnect, new Random().nextInt(delayPeriod), TimeUnit.MILLISECONDS);
+        /**
+         * Drops the current stream and reopens it after a random delay.
+         */
+        synchronized void reset() {
+            if (requests != null) {
+                try {
+                    requests.onCompleted();
+                } catch (Throwable t) {
+                    logger.debug("Failed to complete the watch stream, cause: " + t.getMessage());
+                }
+            }
+            requests = null;
+            responses = null;
+            creating.clear();
+            watching.clear();
+            for (EtcdWatcher watcher : watchers) {
+                watcher.watchId = -1;
+            }
+            if (isClosed() || reconnecting) {
                 return;
             }
-            // reconnect with a delay; avoiding immediate retry on a long connection downtime.
+            reconnecting = true;
+            // reconnect with a delay on any error, avoiding immediate retry on a long connection downtime.
             reconnectSchedule.schedule(this::reconnect, new Random().nextInt(delayPeriod), TimeUnit.MILLISECONDS);
         }
 
-        protected synchronized void reconnect() {
-            this.closeWatchRequest();
-            this.recreateWatchRequest();
+        synchronized void close() {
+            if (requests != null) {
+                try {
+                    requests.onCompleted();
+                } catch (Throwable t) {
+                    logger.debug("Failed to complete the watch stream, cause: " + t.getMessage());
+                }
+                requests = null;
+            }
         }
 
-        protected void recreateWatchRequest() {
-            if (watchRequest == null) {
-                this.watchStub = WatchGrpc.newStub(clientWrapper.getChannel());
-                this.watchRequest = watchStub.watch(this);
+        private synchronized void reconnect() {
+            reconnecting = false;
+            if (isClosed() || requests != null) {
+                return;
             }
-            this.watchRequest.onNext(nextRequest());
-            this.throwable = null;
-            logger.warn("watch client retried connect for path '" + path + "', connection status : " + isConnected());
+            open();
+            logger.warn("watch client reopened the watch stream for " + watchers.size()
+                    + " watchers, connection status : " + isConnected());
+        }
+
+        private void open() {
+            responses = new ResponseObserver();
+            requests = WatchGrpc.newStub(clientWrapper.getChannel()).watch(responses);
+            for (EtcdWatcher watcher : watchers) {
+                create(watcher);
+            }
+        }
+
+        private void create(EtcdWatcher watcher) {
+            creating.add(watcher);
+            watcher.watchRequest = requests;
+            watcher.throwable = null;
+            requests.onNext(watcher.nextRequest());
         }
 
-        protected void closeWatchRequest() {
-            if (this.watchRequest == null) {
+        private void cancel(long watchId) {
+            if (requests == null) {
                 return;
             }
+            WatchCancelRequest watchCancelRequest = WatchCancelRequest.newBuilder().setWatchId(watchId).build();
+            requests.onNext(WatchRequest.newBuilder().setCancelRequest(watchCancelRequest).build());
+        }
 
-            try {
-                WatchCancelRequest watchCancelRequest =
-                        WatchCancelRequest.newBuilder().setWatchId(watchId).build();
-                WatchRequest cancelRequest = WatchRequest.newBuilder()
-                        .setCancelRequest(watchCancelRequest).build();
-                watchRequest.onNext(cancelRequest);
-            } finally {
-                this.watchRequest.onCompleted();
-                this.watchRequest = null;
+        private synchronized void onCreated(ResponseObserver source, WatchResponse response) {
+            if (source != responses) {
+                return;
             }
+            EtcdWatcher watcher = creating.poll();
+            if (response.getCanceled()) {
+                // the revision to resume from has been compacted
+                if (watcher != null && watchers.remove(watcher)) {
+                    reconnectSchedule.execute(watcher::resync);
+                }
+                return;
+            }
+            if (watcher == null || !watchers.contains(watcher)) {
+                cancel(response.getWatchId());
+                return;
+            }
+            watcher.watchId = response.getWatchId();
+            watching.put(response.getWatchId(), watcher);
         }
 
-        @Override
-        public void onCompleted() {
-            // do not touch this method, if you want terminate this stream.
+        private synchronized void onCanceled(ResponseObserver source, WatchResponse response) {
+            if (source != responses) {
+                return;
+            }
+            EtcdWatcher watcher = watching.remove(response.getWatchId());
+            if (watcher != null && watchers.remove(watcher)) {
+                watcher.watchId = -1;
+                if (response.getCompactRevision() > 0) {
+                    logger.warn("watch for path '" + watcher.path + "' was canceled, revision "
+                            + response.getCompactRevision() + " has been compacted");
+                }
+                reconnectSchedule.execute(watcher::resync);
+            }
+        }
+
+        private synchronized void onError(ResponseObserver source, Throwable e) {
+            if (source != responses) {
+                return;
+            }
+            logger.error("watch stream has error occurred, watchers: " + watchers.size(), e);
+            reset();
+        }
+
+        private class ResponseObserver implements StreamObserver<WatchResponse> {
+
+            @Override
+            public void onNext(WatchResponse response) {
+                if (response.getCreated()) {
+                    onCreated(this, response);
+                } else if (response.getCanceled()) {
+                    onCanceled(this, response);
+                } else if (this == responses) {
+                    EtcdWatcher watcher = watching.get(response.getWatchId());
+                    if (watcher != null) {
+                        watcher.onNext(response);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                WatchStream.this.onError(this, e);
+            }
+
+            @Override
+            public void onCompleted() {
+                // do not touch this method, if you want terminate this stream.
+            }
         }
     }
 }
@@ -35,7 +35,10 @@ import io.etcd.jetcd.common.exception.ErrorCode;
 import io.etcd.jetcd.common.exception.EtcdException;
 import io.etcd.jetcd.kv.GetResponse;
 import io.etcd.jetcd.kv.PutResponse;
+import io.etcd.jetcd.kv.TxnResponse;
 import io.etcd.jetcd.lease.LeaseKeepAliveResponse;
+import io.etcd.jetcd.op.Op;
+import io.etcd.jetcd.options.DeleteOption;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
 import io.etcd.jetcd.support.CloseableClient;
@@ -49,10 +52,13 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
@@ -180,31 +186,45 @@ public class JEtcdClientWrapper {
      * list if children directory not exists.
      */
     public List<String> getChildren(String path) {
+        List<String> children = new ArrayList<>();
+        getChildren(path, children);
+        return children;
+    }
+
+    /**
+     * find direct children directory like {@link #getChildren(String)}, adding them to the given collection.
+     *
+     * @param path     the path to be found direct children.
+     * @param children the collection the direct children are added to.
+     * @return the revision of the store the children were read at.
+     */
+    public long getChildren(String path, Collection<String> children) {
         try {
-            return RetryLoops.invokeWithRetry(
+            GetResponse response = RetryLoops.invokeWithRetry(
                     () -> {
                         requiredNotNull(client, failed);
-                        int len = path.length();
                         return client.getKVClient()
                                 .get(ByteSequence.from(path, UTF_8),
                                         GetOption.newBuilder().withPrefix(ByteSequence.from(path, UTF_8)).build())
-                                .get(DEFAULT_REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
-                                .getKvs().stream().parallel()
-                                .filter(pair -> {
-                                    String key = pair.getKey().toString(UTF_8);
-                                    int index = len, count = 0;
-                                    if (key.length() > len) {
-                                        for (; (index = key.indexOf(PATH_SEPARATOR, index)) != -1; ++index) {
-                                            if (count++ > 1) {
-                                                break;
-                                            }
-                                        }
-                                    }
-                                    return count == 1;
-                                })
-                                .map(pair -> pair.getKey().toString(UTF_8))
-                                .collect(toList());
+                                .get(DEFAULT_REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
                     }, retryPolicy);
+            int len = path.length();
+            children.addAll(response.getKvs().stream().parallel()
+                    .filter(pair -> {
+                        String key = pair.getKey().toString(UTF_8);
+                        int index = len, count = 0;
+                        if (key.length() > len) {
+                            for (; (index = key.indexOf(PATH_SEPARATOR, index)) != -1; ++index) {
+                                if (count++ > 1) {
+                                    break;
+                                }
+                            }
+                        }
+                        return count == 1;
+                    })
+                    .map(pair -> pair.getKey().toString(UTF_8))
+                    .collect(toList()));
+            return response.getHeader().getRevision();
         } catch (Exception e) {
             throw new IllegalStateException(e.getMessage(), e);
         }
@@ -665,6 +685,21 @@ public class JEtcdClientWrapper {
         return false;
     }
 
+    /**
+     * Applies the changes in one transaction, a {@code null} value deletes its key.
+     */
+    public CompletableFuture<TxnResponse> txn(Map<String, String> changes) {
+        Op[] ops = new Op[changes.size()];
+        int i = 0;
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            ByteSequence key = ByteSequence.from(change.getKey(), UTF_8);
+            ops[i++] = change.getValue() == null
+                    ? Op.delete(key, DeleteOption.DEFAULT)
+                    : Op.put(key, ByteSequence.from(change.getValue(), UTF_8), PutOption.DEFAULT);
+        }
+        return this.client.getKVClient().txn().Then(ops).commit();
+    }
+
     public boolean putEphemeral(final String key, String value) {
         try {
             return RetryLoops.invokeWithRetry(
@@ -174,6 +174,10 @@ public abstract class AbstractEtcdClient<WatcherListener> implements EtcdClient
         }
     }
 
+    protected boolean isClosed() {
+        return closed;
+    }
+
     public abstract void doClose();
 
     public abstract void doCreatePersistent(String path);
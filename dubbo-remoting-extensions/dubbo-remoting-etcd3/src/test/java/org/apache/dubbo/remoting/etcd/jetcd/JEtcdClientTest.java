@@ -66,6 +66,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.dubbo.remoting.etcd.Constants.SESSION_TIMEOUT_KEY;
+import static org.awaitility.Awaitility.await;
 
 @Disabled
 public class JEtcdClientTest {
@@ -316,19 +317,16 @@ public class JEtcdClientTest {
 
         String path = "/dubbo/com.alibaba.dubbo.demo.DemoService/providers";
 
-        JEtcdClient.EtcdWatcher watcher = null;
-        try {
-            ChildListener childListener = (parent, children) -> {
-                Assertions.assertEquals(path, parent);
-            };
-            client.addChildListener(path, childListener);
-            watcher = client.getChildListener(path, childListener);
-            watcher.watchRequest.onError(Status.ABORTED.withDescription("connection error").asRuntimeException());
+        ChildListener childListener = (parent, children) -> {
+            Assertions.assertEquals(path, parent);
+        };
+        client.addChildListener(path, childListener);
+        JEtcdClient.EtcdWatcher watcher = client.getChildListener(path, childListener);
+        StreamObserver<WatchRequest> requests = watcher.watchRequest;
 
-            watcher.watchRequest.onNext(watcher.nextRequest());
-        } catch (Exception e) {
-            Assertions.assertTrue(e.getMessage().contains("calls are allowed"));
-        }
+        // the request stream is shared by the watchers of the client, the error resets it instead of failing it
+        watcher.onError(Status.ABORTED.withDescription("connection error").asRuntimeException());
+        await().atMost(15, TimeUnit.SECONDS).until(() -> watcher.watchRequest != requests && watcher.watchId >= 0);
     }
 
     @Test
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.etcd.jetcd;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.etcd.ChildListener;
+
+import io.etcd.jetcd.api.WatchCreateRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.dubbo.remoting.etcd.Constants.ETCD3_NOTIFY_DELAY_KEY;
+import static org.apache.dubbo.remoting.etcd.Constants.RETRY_PERIOD_KEY;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The watches of the children, multiplexed on one stream, against a local fake of etcd.
+ */
+public class JEtcdClientWatchTest {
+
+    private static final String PROVIDERS = "/dubbo/org.apache.dubbo.demo.DemoService/providers";
+
+    private static final String CONSUMERS = "/dubbo/org.apache.dubbo.demo.DemoService/consumers";
+
+    private FakeEtcdServer server;
+
+    private JEtcdClient client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeEtcdServer();
+        server.put(PROVIDERS + "/a", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    public void testWatchesShareOneStream() throws Exception {
+        newClient(0);
+        RecordingListener providers = new RecordingListener();
+        RecordingListener consumers = new RecordingListener();
+
+        Assertions.assertEquals(Collections.singletonList("a"), client.addChildListener(PROVIDERS, providers));
+        Assertions.assertEquals(Collections.emptyList(), client.addChildListener(CONSUMERS, consumers));
+        await().until(() -> server.getWatches() == 2);
+        Assertions.assertEquals(1, server.getWatchStreams());
+
+        // the changes go to the watcher of their path
+        server.put(PROVIDERS + "/b", "");
+        providers.assertNotified("a", "b");
+        server.put(CONSUMERS + "/a", "");
+        consumers.assertNotified("a");
+        providers.assertNotNotified();
+
+        // the other watches of the stream are kept
+        client.removeChildListener(PROVIDERS, providers);
+        await().until(() -> server.getWatches() == 1);
+        Assertions.assertEquals(1, server.getWatchStreams());
+        server.put(PROVIDERS + "/c", "");
+        server.put(CONSUMERS + "/b", "");
+        consumers.assertNotified("a", "b");
+        providers.assertNotNotified();
+    }
+
+    @Test
+    public void testResumeAfterStreamError() throws Exception {
+        newClient(0);
+        RecordingListener listener = new RecordingListener();
+        client.addChildListener(PROVIDERS, listener);
+        await().until(() -> server.getWatches() == 1);
+        long revision = server.getRevision();
+
+        server.failWatchStreams();
+        // changed while not watched
+        server.put(PROVIDERS + "/b", "");
+        listener.assertNotified("a", "b");
+
+        // the watch is recreated after the last revision seen, without listing the children again
+        List<WatchCreateRequest> creates = server.getCreateRequests();
+        Assertions.assertEquals(2, creates.size());
+        Assertions.assertEquals(revision + 1, creates.get(1).getStartRevision());
+        Assertions.assertEquals(1, server.getRanges(PROVIDERS));
+        Assertions.assertEquals(1, server.getWatchStreams());
+
+        server.delete(PROVIDERS + "/a");
+        listener.assertNotified("b");
+    }
+
+    @Test
+    public void testResyncAfterCompaction() throws Exception {
+        newClient(0);
+        RecordingListener listener = new RecordingListener();
+        client.addChildListener(PROVIDERS, listener);
+        await().until(() -> server.getWatches() == 1);
+
+        server.failWatchStreams();
+        server.put(PROVIDERS + "/b", "");
+        server.delete(PROVIDERS + "/a");
+        // the revision to resume from is gone
+        server.compact();
+
+        // the children are listed again, and watched from the revision they were read at
+        listener.assertNotified("b");
+        Assertions.assertEquals(2, server.getRanges(PROVIDERS));
+        await().until(() -> server.getWatches() == 1);
+        List<WatchCreateRequest> creates = server.getCreateRequests();
+        Assertions.assertEquals(server.getRevision() + 1, creates.get(creates.size() - 1).getStartRevision());
+
+        server.put(PROVIDERS + "/c", "");
+        listener.assertNotified("b", "c");
+        listener.assertNotNotified();
+    }
+
+    @Test
+    public void testNotificationsAreDebounced() throws Exception {
+        newClient(300);
+        RecordingListener listener = new RecordingListener();
+        client.addChildListener(PROVIDERS, listener);
+        await().until(() -> server.getWatches() == 1);
+
+        // the changes within the notify delay make one notification
+        for (String child : Arrays.asList("b", "c", "d", "e")) {
+            server.put(PROVIDERS + "/" + child, "");
+        }
+        server.delete(PROVIDERS + "/a");
+        listener.assertNotified("b", "c", "d", "e");
+        listener.assertNotNotified();
+
+        server.put(PROVIDERS + "/f", "");
+        listener.assertNotified("b", "c", "d", "e", "f");
+    }
+
+    private void newClient(int notifyDelay) {
+        URL url = URL.valueOf("etcd3://" + server.getAddress() + "/org.apache.dubbo.registry.RegistryService")
+                .addParameter(RETRY_PERIOD_KEY, 200)
+                .addParameter(ETCD3_NOTIFY_DELAY_KEY, notifyDelay);
+        client = new JEtcdClient(url);
+    }
+
+    private static class RecordingListener implements ChildListener {
+
+        private final BlockingQueue<List<String>> notifications = new LinkedBlockingQueue<>();
+
+        @Override
+        public void childChanged(String path, List<String> children) {
+            notifications.add(children);
+        }
+
+        void assertNotified(String... children) throws InterruptedException {
+            List<String> notified = notifications.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(notified);
+            Assertions.assertEquals(new HashSet<>(Arrays.asList(children)), new HashSet<>(notified));
+        }
+
+        void assertNotNotified() throws InterruptedException {
+            Assertions.assertNull(notifications.poll(500, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.grizzly;
+
+import org.apache.dubbo.common.utils.Assert;
+import org.apache.dubbo.remoting.buffer.AbstractChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBufferFactory;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.buffer.HeapChannelBufferFactory;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ChannelBuffer over a grizzly {@link Buffer}, which may be a composite of several read buffers.
+ * <p>
+ * The indexes of the channel buffer are the absolute indexes of the grizzly buffer. A buffer created for writing
+ * grows through the {@link MemoryManager} of the connection, {@link #toGrizzlyBuffer()} hands the written bytes
+ * over without copying them.
+ */
+public class GrizzlyBackedChannelBuffer extends AbstractChannelBuffer {
+
+    private static final int COPY_CHUNK_SIZE = 8192;
+
+    private final MemoryManager memoryManager;
+
+    private Buffer buffer;
+
+    /**
+     * Wraps the readable bytes of a received buffer, from its position to its limit.
+     */
+    public GrizzlyBackedChannelBuffer(Buffer buffer) {
+        Assert.notNull(buffer, "buffer == null");
+        this.memoryManager = null;
+        this.buffer = buffer;
+        setIndex(buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Allocates an empty buffer to write to, growing as needed.
+     */
+    public GrizzlyBackedChannelBuffer(MemoryManager memoryManager, int initialCapacity) {
+        Assert.notNull(memoryManager, "memoryManager == null");
+        this.memoryManager = memoryManager;
+        this.buffer = memoryManager.allocate(initialCapacity);
+        this.buffer.limit(buffer.capacity());
+        setIndex(0, 0);
+    }
+
+    /**
+     * @return the grizzly buffer with its position and limit set to the readable bytes
+     */
+    public Buffer toGrizzlyBuffer() {
+        buffer.position(readerIndex());
+        buffer.limit(writerIndex());
+        return buffer;
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.limit();
+    }
+
+    @Override
+    public void ensureWritableBytes(int writableBytes) {
+        if (writableBytes <= writableBytes()) {
+            return;
+        }
+        if (memoryManager == null) {
+            throw new IndexOutOfBoundsException("Writable bytes exceeded: Got " + writableBytes + ", maximum is " + writableBytes());
+        }
+        int newCapacity = Math.max(capacity() << 1, writerIndex() + writableBytes);
+        // the memory manager copies the bytes before the position, the indexes of this buffer don't move it
+        buffer.position(writerIndex());
+        buffer = memoryManager.reallocate(buffer, newCapacity);
+        buffer.limit(buffer.capacity());
+    }
+
+    @Override
+    public ChannelBuffer copy(int index, int length) {
+        byte[] data = new byte[length];
+        getBytes(index, data, 0, length);
+        return ChannelBuffers.wrappedBuffer(data);
+    }
+
+    @Override
+    public ChannelBufferFactory factory() {
+        return HeapChannelBufferFactory.getInstance();
+    }
+
+    @Override
+    public byte getByte(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public void getBytes(int index, byte[] dst, int dstIndex, int length) {
+        int position = buffer.position();
+        try {
+            buffer.position(index);
+            buffer.get(dst, dstIndex, length);
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    @Override
+    public void getBytes(int index, ByteBuffer dst) {
+        int position = buffer.position();
+        try {
+            buffer.position(index);
+            buffer.get(dst);
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    @Override
+    public void getBytes(int index, ChannelBuffer dst, int dstIndex, int length) {
+        if (dst.hasArray()) {
+            getBytes(index, dst.array(), dst.arrayOffset() + dstIndex, length);
+        } else {
+            byte[] data = new byte[length];
+            getBytes(index, data, 0, length);
+            dst.setBytes(dstIndex, data, 0, length);
+        }
+    }
+
+    @Override
+    public void getBytes(int index, OutputStream dst, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (buffer.hasArray()) {
+            dst.write(buffer.array(), buffer.arrayOffset() + index, length);
+            return;
+        }
+        byte[] chunk = new byte[Math.min(length, COPY_CHUNK_SIZE)];
+        while (length > 0) {
+            int n = Math.min(length, chunk.length);
+            getBytes(index, chunk, 0, n);
+            dst.write(chunk, 0, n);
+            index += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public boolean isDirect() {
+        return buffer.isDirect();
+    }
+
+    @Override
+    public void setByte(int index, int value) {
+        buffer.put(index, (byte) value);
+    }
+
+    @Override
+    public void setBytes(int index, byte[] src, int srcIndex, int length) {
+        int position = buffer.position();
+        try {
+            buffer.position(index);
+            buffer.put(src, srcIndex, length);
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    @Override
+    public void setBytes(int index, ByteBuffer src) {
+        int position = buffer.position();
+        try {
+            buffer.position(index);
+            buffer.put(src);
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    @Override
+    public void setBytes(int index, ChannelBuffer src, int srcIndex, int length) {
+        if (src.hasArray()) {
+            setBytes(index, src.array(), src.arrayOffset() + srcIndex, length);
+        } else {
+            byte[] data = new byte[length];
+            src.getBytes(srcIndex, data, 0, length);
+            setBytes(index, data, 0, length);
+        }
+    }
+
+    @Override
+    public int setBytes(int index, InputStream src, int length) throws IOException {
+        if (buffer.hasArray()) {
+            return src.read(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        byte[] data = new byte[length];
+        int n = src.read(data);
+        if (n > 0) {
+            setBytes(index, data, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    public ByteBuffer toByteBuffer(int index, int length) {
+        return buffer.toByteBuffer(index, index + length);
+    }
+
+    @Override
+    public byte[] array() {
+        return buffer.array();
+    }
+
+    @Override
+    public boolean hasArray() {
+        return buffer.hasArray();
+    }
+
+    @Override
+    public int arrayOffset() {
+        return buffer.arrayOffset();
+    }
+
+    @Override
+    public void writeByte(int value) {
+        ensureWritableBytes(1);
+        super.writeByte(value);
+    }
+
+    @Override
+    public void writeBytes(byte[] src, int srcIndex, int length) {
+        ensureWritableBytes(length);
+        super.writeBytes(src, srcIndex, length);
+    }
+
+    @Override
+    public void writeBytes(ChannelBuffer src, int srcIndex, int length) {
+        ensureWritableBytes(length);
+        super.writeBytes(src, srcIndex, length);
+    }
+
+    @Override
+    public void writeBytes(ByteBuffer src) {
+        ensureWritableBytes(src.remaining());
+        super.writeBytes(src);
+    }
+
+    @Override
+    public int writeBytes(InputStream src, int length) throws IOException {
+        ensureWritableBytes(length);
+        return super.writeBytes(src, length);
+    }
+}
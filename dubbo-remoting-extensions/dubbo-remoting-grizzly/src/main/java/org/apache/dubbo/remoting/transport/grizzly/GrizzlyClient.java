@@ -62,13 +62,15 @@ public class GrizzlyClient extends AbstractClient {
         filterChainBuilder.add(new GrizzlyCodecAdapter(getCodec(), getUrl(), this));
         filterChainBuilder.add(new GrizzlyHandler(getUrl(), this));
         TCPNIOTransportBuilder builder = TCPNIOTransportBuilder.newInstance();
-        ThreadPoolConfig config = builder.getWorkerThreadPoolConfig();
+        // the builder has no worker pool config with the same thread strategy
+        ThreadPoolConfig config = ThreadPoolConfig.defaultConfig();
         config.setPoolName(CLIENT_THREAD_POOL_NAME)
                 .setQueueLimit(-1)
                 .setCorePoolSize(0)
                 .setMaxPoolSize(Integer.MAX_VALUE)
                 .setKeepAliveTime(60L, TimeUnit.SECONDS);
-        builder.setTcpNoDelay(true).setKeepAlive(true)
+        builder.setWorkerThreadPoolConfig(config)
+                .setTcpNoDelay(true).setKeepAlive(true)
                 .setConnectionTimeout(getConnectTimeout())
                 .setIOStrategy(SameThreadIOStrategy.getInstance());
         transport = builder.build();
@@ -20,44 +20,41 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.Codec2;
-import org.apache.dubbo.remoting.buffer.ChannelBuffer;
-import org.apache.dubbo.remoting.buffer.ChannelBuffers;
-import org.apache.dubbo.remoting.buffer.DynamicChannelBuffer;
+import org.apache.dubbo.remoting.exchange.support.MultiMessage;
 
 import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.memory.Buffers;
 
 import java.io.IOException;
 
-import static org.apache.dubbo.remoting.Constants.BUFFER_KEY;
-import static org.apache.dubbo.remoting.Constants.DEFAULT_BUFFER_SIZE;
-import static org.apache.dubbo.remoting.Constants.MAX_BUFFER_SIZE;
-import static org.apache.dubbo.remoting.Constants.MIN_BUFFER_SIZE;
-
 /**
  * GrizzlyCodecAdapter
+ * <p>
+ * The filter is shared by all connections of a stateless filter chain, so the bytes of an incomplete frame are kept
+ * in an attribute of their connection. Every complete frame of a read is decoded, several messages are passed on as
+ * a {@link MultiMessage}, which {@link GrizzlyHandler} unpacks.
  */
 public class GrizzlyCodecAdapter extends BaseFilter {
 
+    private static final Attribute<Buffer> REMAINDER = Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
+        GrizzlyCodecAdapter.class.getName() + ".remainder");
+
     private final Codec2 codec;
 
     private final URL url;
 
     private final ChannelHandler handler;
 
-    private final int bufferSize;
-
-    private ChannelBuffer previousData = ChannelBuffers.EMPTY_BUFFER;
-
     public GrizzlyCodecAdapter(Codec2 codec, URL url, ChannelHandler handler) {
         this.codec = codec;
         this.url = url;
         this.handler = handler;
-        int b = url.getPositiveParameter(BUFFER_KEY, DEFAULT_BUFFER_SIZE);
-        this.bufferSize = b >= MIN_BUFFER_SIZE && b <= MAX_BUFFER_SIZE ? b : DEFAULT_BUFFER_SIZE;
     }
 
     @Override
@@ -65,15 +62,13 @@ public class GrizzlyCodecAdapter extends BaseFilter {
         Connection<?> connection = context.getConnection();
         GrizzlyChannel channel = GrizzlyChannel.getOrAddChannel(connection, url, handler);
         try {
-            ChannelBuffer channelBuffer = ChannelBuffers.dynamicBuffer(1024); // Do not need to close
+            GrizzlyBackedChannelBuffer channelBuffer = new GrizzlyBackedChannelBuffer(connection.getMemoryManager(), 1024);
 
             Object msg = context.getMessage();
             codec.encode(channel, channelBuffer, msg);
 
             GrizzlyChannel.removeChannelIfDisconnected(connection);
-            Buffer buffer = connection.getTransport().getMemoryManager().allocate(channelBuffer.readableBytes());
-            buffer.put(channelBuffer.toByteBuffer());
-            buffer.flip();
+            Buffer buffer = channelBuffer.toGrizzlyBuffer();
             buffer.allowBufferDispose(true);
             context.setMessage(buffer);
         } finally {
@@ -85,59 +80,70 @@ public class GrizzlyCodecAdapter extends BaseFilter {
     @Override
     public NextAction handleRead(FilterChainContext context) throws IOException {
         Object message = context.getMessage();
+        if (!(message instanceof Buffer)) { // Other events are passed down directly
+            return context.getInvokeAction();
+        }
         Connection<?> connection = context.getConnection();
         Channel channel = GrizzlyChannel.getOrAddChannel(connection, url, handler);
         try {
-            if (message instanceof Buffer) { // receive a new packet
-                Buffer grizzlyBuffer = (Buffer) message; // buffer
-
-                ChannelBuffer frame;
-
-                if (previousData.readable()) {
-                    if (previousData instanceof DynamicChannelBuffer) {
-                        previousData.writeBytes(grizzlyBuffer.toByteBuffer());
-                        frame = previousData;
-                    } else {
-                        int size = previousData.readableBytes() + grizzlyBuffer.remaining();
-                        frame = ChannelBuffers.dynamicBuffer(size > bufferSize ? size : bufferSize);
-                        frame.writeBytes(previousData, previousData.readableBytes());
-                        frame.writeBytes(grizzlyBuffer.toByteBuffer());
-                    }
-                } else {
-                    frame = ChannelBuffers.wrappedBuffer(grizzlyBuffer.toByteBuffer());
-                }
+            Buffer input = (Buffer) message; // buffer
+            Buffer remainder = REMAINDER.remove(connection);
+            if (remainder != null) {
+                input = Buffers.appendBuffers(connection.getMemoryManager(), remainder, input);
+            }
+            GrizzlyBackedChannelBuffer frame = new GrizzlyBackedChannelBuffer(input);
+            MultiMessage messages = MultiMessage.create();
 
+            do {
+                int savedReadIndex = frame.readerIndex();
                 Object msg;
-                int savedReadIndex;
-
-                do {
-                    savedReadIndex = frame.readerIndex();
-                    try {
-                        msg = codec.decode(channel, frame);
-                    } catch (Exception e) {
-                        previousData = ChannelBuffers.EMPTY_BUFFER;
-                        throw new IOException(e.getMessage(), e);
-                    }
-                    if (msg == Codec2.DecodeResult.NEED_MORE_INPUT) {
-                        frame.readerIndex(savedReadIndex);
-                        return context.getStopAction();
-                    } else {
-                        if (savedReadIndex == frame.readerIndex()) {
-                            previousData = ChannelBuffers.EMPTY_BUFFER;
-                            throw new IOException("Decode without read data.");
-                        }
-                        if (msg != null) {
-                            context.setMessage(msg);
-                        }
-                        return context.getInvokeAction();
-                    }
-                } while (frame.readable());
-            } else { // Other events are passed down directly
-                return context.getInvokeAction();
+                try {
+                    msg = codec.decode(channel, frame);
+                } catch (Exception e) {
+                    input.tryDispose();
+                    throw new IOException(e.getMessage(), e);
+                }
+                if (msg == Codec2.DecodeResult.NEED_MORE_INPUT) {
+                    frame.readerIndex(savedReadIndex);
+                    break;
+                }
+                if (savedReadIndex == frame.readerIndex()) {
+                    input.tryDispose();
+                    throw new IOException("Decode without read data.");
+                }
+                if (msg != null) {
+                    messages.addMessage(msg);
+                }
+            } while (frame.readable());
+
+            if (frame.readable()) {
+                // keep the incomplete frame for the next read, releasing the consumed parts of a composite
+                input.position(frame.readerIndex());
+                if (input.isComposite()) {
+                    input.shrink();
+                }
+                REMAINDER.set(connection, input);
+            } else {
+                input.tryDispose();
+            }
+
+            if (messages.isEmpty()) {
+                return context.getStopAction();
             }
+            context.setMessage(messages.size() == 1 ? messages.get(0) : messages);
+            return context.getInvokeAction();
         } finally {
             GrizzlyChannel.removeChannelIfDisconnected(connection);
         }
     }
 
+    @Override
+    public NextAction handleClose(FilterChainContext context) throws IOException {
+        Buffer remainder = REMAINDER.remove(context.getConnection());
+        if (remainder != null) {
+            remainder.tryDispose();
+        }
+        return context.getInvokeAction();
+    }
+
 }
@@ -22,6 +22,7 @@ import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.exchange.support.MultiMessage;
 
 import org.glassfish.grizzly.Connection;
 import org.glassfish.grizzly.filterchain.BaseFilter;
@@ -79,7 +80,15 @@ public class GrizzlyHandler extends BaseFilter {
         Connection<?> connection = ctx.getConnection();
         GrizzlyChannel channel = GrizzlyChannel.getOrAddChannel(connection, url, handler);
         try {
-            handler.received(channel, ctx.getMessage());
+            Object message = ctx.getMessage();
+            if (message instanceof MultiMessage) {
+                // the handler isn't wrapped by a MultiMessageHandler, the frames of one read are passed on one by one
+                for (Object msg : (MultiMessage) message) {
+                    handler.received(channel, msg);
+                }
+            } else {
+                handler.received(channel, message);
+            }
         } catch (RemotingException e) {
             throw new IOException(StringUtils.toString(e));
         } finally {
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.grizzly;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.Client;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.RemotingServer;
+import org.apache.dubbo.remoting.transport.ChannelHandlerAdapter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Several clients pipeline echo messages of mixed sizes, so that frames are split over reads and several frames
+ * arrive in one read. Every client must get back exactly its own messages.
+ */
+public class GrizzlyPipeliningTest {
+
+    private static final int CLIENTS = 4;
+
+    private static final int MESSAGES = 500;
+
+    private RemotingServer server;
+
+    private final List<Client> clients = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        for (Client client : clients) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testPipelinedMessages() throws Exception {
+        int port = NetUtils.getAvailablePort();
+        URL url = URL.valueOf("grizzly://127.0.0.1:" + port + "?codec=grizzly-length-field&timeout=10000");
+
+        server = new GrizzlyTransporter().bind(url, new ChannelHandlerAdapter() {
+            @Override
+            public void received(Channel channel, Object message) throws RemotingException {
+                channel.send(message);
+            }
+        });
+
+        CountDownLatch latch = new CountDownLatch(CLIENTS * MESSAGES);
+        List<Set<String>> received = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            Set<String> messages = ConcurrentHashMap.newKeySet();
+            received.add(messages);
+            clients.add(new GrizzlyTransporter().connect(url, new ChannelHandlerAdapter() {
+                @Override
+                public void received(Channel channel, Object message) {
+                    if (messages.add((String) message)) {
+                        latch.countDown();
+                    }
+                }
+            }));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<Set<String>>> sent = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                int clientIndex = i;
+                sent.add(executor.submit(() -> {
+                    Set<String> messages = new HashSet<>();
+                    for (int j = 0; j < MESSAGES; j++) {
+                        String message = message(clientIndex, j);
+                        clients.get(clientIndex).send(message, false);
+                        messages.add(message);
+                    }
+                    return messages;
+                }));
+            }
+
+            assertThat(latch.await(60, TimeUnit.SECONDS), is(true));
+            for (int i = 0; i < CLIENTS; i++) {
+                assertThat(received.get(i), is(sent.get(i).get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String message(int client, int index) {
+        StringBuilder builder = new StringBuilder("client-" + client + "-message-" + index + ":");
+        // from a few bytes to frames larger than a read
+        int size = index % 10 == 0 ? 20000 + index : index % 97;
+        for (int i = 0; i < size; i++) {
+            builder.append((char) ('a' + (i + index) % 26));
+        }
+        return builder.toString();
+    }
+}
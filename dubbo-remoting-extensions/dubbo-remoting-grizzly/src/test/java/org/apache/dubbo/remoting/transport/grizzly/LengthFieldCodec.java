@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.grizzly;
+
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.Codec2;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frames strings as a 4 byte big-endian length followed by their UTF-8 bytes.
+ */
+public class LengthFieldCodec implements Codec2 {
+
+    @Override
+    public void encode(Channel channel, ChannelBuffer buffer, Object message) {
+        byte[] bytes = ((String) message).getBytes(StandardCharsets.UTF_8);
+        buffer.writeByte(bytes.length >>> 24);
+        buffer.writeByte(bytes.length >>> 16);
+        buffer.writeByte(bytes.length >>> 8);
+        buffer.writeByte(bytes.length);
+        buffer.writeBytes(bytes);
+    }
+
+    @Override
+    public Object decode(Channel channel, ChannelBuffer buffer) {
+        if (buffer.readableBytes() < 4) {
+            return DecodeResult.NEED_MORE_INPUT;
+        }
+        int index = buffer.readerIndex();
+        int length = ((buffer.getByte(index) & 0xFF) << 24) | ((buffer.getByte(index + 1) & 0xFF) << 16)
+            | ((buffer.getByte(index + 2) & 0xFF) << 8) | (buffer.getByte(index + 3) & 0xFF);
+        if (buffer.readableBytes() < 4 + length) {
+            return DecodeResult.NEED_MORE_INPUT;
+        }
+        buffer.skipBytes(4);
+        byte[] bytes = new byte[length];
+        buffer.readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.mina;
+
+import org.apache.dubbo.remoting.buffer.AbstractChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBufferFactory;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.buffer.HeapChannelBufferFactory;
+
+import org.apache.mina.common.ByteBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * ChannelBuffer writing into a mina {@link ByteBuffer} taken from the mina allocator, which pools them by default.
+ * The buffer grows through {@link ByteBuffer#expand(int, int)} and {@link #toMinaBuffer()} hands it to the session
+ * without copying, mina releases it once written.
+ */
+final class MinaBackedChannelBuffer extends AbstractChannelBuffer {
+
+    private final ByteBuffer buffer;
+
+    MinaBackedChannelBuffer(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+        this.buffer.limit(buffer.capacity());
+        setIndex(0, 0);
+    }
+
+    /**
+     * @return the mina buffer with its position and limit set to the readable bytes
+     */
+    ByteBuffer toMinaBuffer() {
+        buffer.position(readerIndex());
+        buffer.limit(writerIndex());
+        return buffer;
+    }
+
+    @Override
+    public void release() {
+        buffer.release();
+    }
+
+    /**
+     * @return a view of the nio buffer over {@code [index, index + length)}, the nio buffer changes when mina expands
+     */
+    private java.nio.ByteBuffer nioBuffer(int index, int length) {
+        java.nio.ByteBuffer view = buffer.buf().duplicate();
+        view.clear().position(index).limit(index + length);
+        return view;
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.limit();
+    }
+
+    @Override
+    public void ensureWritableBytes(int writableBytes) {
+        if (writableBytes <= writableBytes()) {
+            return;
+        }
+        int position = buffer.position();
+        buffer.expand(writerIndex(), writableBytes);
+        buffer.limit(buffer.capacity());
+        buffer.position(position);
+    }
+
+    @Override
+    public ChannelBuffer copy(int index, int length) {
+        byte[] data = new byte[length];
+        getBytes(index, data, 0, length);
+        return ChannelBuffers.wrappedBuffer(data);
+    }
+
+    @Override
+    public ChannelBufferFactory factory() {
+        return HeapChannelBufferFactory.getInstance();
+    }
+
+    @Override
+    public byte getByte(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public void getBytes(int index, byte[] dst, int dstIndex, int length) {
+        nioBuffer(index, length).get(dst, dstIndex, length);
+    }
+
+    @Override
+    public void getBytes(int index, java.nio.ByteBuffer dst) {
+        dst.put(nioBuffer(index, Math.min(capacity() - index, dst.remaining())));
+    }
+
+    @Override
+    public void getBytes(int index, ChannelBuffer dst, int dstIndex, int length) {
+        dst.setBytes(dstIndex, nioBuffer(index, length));
+    }
+
+    @Override
+    public void getBytes(int index, OutputStream dst, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        java.nio.ByteBuffer nio = buffer.buf();
+        if (nio.hasArray()) {
+            dst.write(nio.array(), nio.arrayOffset() + index, length);
+        } else {
+            byte[] data = new byte[length];
+            getBytes(index, data, 0, length);
+            dst.write(data);
+        }
+    }
+
+    @Override
+    public boolean isDirect() {
+        return buffer.isDirect();
+    }
+
+    @Override
+    public void setByte(int index, int value) {
+        buffer.put(index, (byte) value);
+    }
+
+    @Override
+    public void setBytes(int index, byte[] src, int srcIndex, int length) {
+        nioBuffer(index, length).put(src, srcIndex, length);
+    }
+
+    @Override
+    public void setBytes(int index, java.nio.ByteBuffer src) {
+        nioBuffer(index, src.remaining()).put(src);
+    }
+
+    @Override
+    public void setBytes(int index, ChannelBuffer src, int srcIndex, int length) {
+        src.getBytes(srcIndex, nioBuffer(index, length));
+    }
+
+    @Override
+    public int setBytes(int index, InputStream src, int length) throws IOException {
+        java.nio.ByteBuffer nio = buffer.buf();
+        if (nio.hasArray()) {
+            return src.read(nio.array(), nio.arrayOffset() + index, length);
+        }
+        byte[] data = new byte[length];
+        int n = src.read(data);
+        if (n > 0) {
+            setBytes(index, data, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    public java.nio.ByteBuffer toByteBuffer(int index, int length) {
+        return nioBuffer(index, length).slice();
+    }
+
+    @Override
+    public byte[] array() {
+        return buffer.buf().array();
+    }
+
+    @Override
+    public boolean hasArray() {
+        return buffer.buf().hasArray();
+    }
+
+    @Override
+    public int arrayOffset() {
+        return buffer.buf().arrayOffset();
+    }
+
+    @Override
+    public void writeByte(int value) {
+        ensureWritableBytes(1);
+        super.writeByte(value);
+    }
+
+    @Override
+    public void writeBytes(byte[] src, int srcIndex, int length) {
+        ensureWritableBytes(length);
+        super.writeBytes(src, srcIndex, length);
+    }
+
+    @Override
+    public void writeBytes(ChannelBuffer src, int srcIndex, int length) {
+        ensureWritableBytes(length);
+        super.writeBytes(src, srcIndex, length);
+    }
+
+    @Override
+    public void writeBytes(java.nio.ByteBuffer src) {
+        ensureWritableBytes(src.remaining());
+        super.writeBytes(src);
+    }
+
+    @Override
+    public int writeBytes(InputStream src, int length) throws IOException {
+        ensureWritableBytes(length);
+        return super.writeBytes(src, length);
+    }
+}
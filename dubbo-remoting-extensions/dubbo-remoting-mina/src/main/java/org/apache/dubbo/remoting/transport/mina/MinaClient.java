@@ -70,9 +70,9 @@ public class MinaClient extends AbstractClient {
         if (c != null) {
             connector = c;
         } else {
-            // set thread pool.
+            // set thread pool, one thread for each io processor and one for the connector.
             connector = new SocketConnector(Constants.DEFAULT_IO_THREADS,
-                    Executors.newCachedThreadPool(new NamedThreadFactory("MinaClientWorker", true)));
+                    Executors.newFixedThreadPool(Constants.DEFAULT_IO_THREADS + 1, new NamedThreadFactory("MinaClientWorker", true)));
             // config
             SocketConnectorConfig cfg = (SocketConnectorConfig) connector.getDefaultConfig();
             cfg.setThreadModel(ThreadModel.MANUAL);
@@ -39,13 +39,14 @@ import static org.apache.dubbo.remoting.Constants.MIN_BUFFER_SIZE;
 
 /**
  * MinaCodecAdapter.
+ * <p>
+ * Messages are encoded straight into a pooled mina buffer. Mina asks the factory once per session for the
+ * decoder, which keeps the incomplete frame of its session.
  */
 final class MinaCodecAdapter implements ProtocolCodecFactory {
 
     private final ProtocolEncoder encoder = new InternalEncoder();
 
-    private final ProtocolDecoder decoder = new InternalDecoder();
-
     private final Codec2 codec;
 
     private final URL url;
@@ -69,7 +70,7 @@ final class MinaCodecAdapter implements ProtocolCodecFactory {
 
     @Override
     public ProtocolDecoder getDecoder() {
-        return decoder;
+        return new InternalDecoder();
     }
 
     private class InternalEncoder implements ProtocolEncoder {
@@ -80,14 +81,17 @@ final class MinaCodecAdapter implements ProtocolCodecFactory {
 
         @Override
         public void encode(IoSession session, Object msg, ProtocolEncoderOutput out) throws Exception {
-            ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+            MinaBackedChannelBuffer buffer = new MinaBackedChannelBuffer(1024);
             MinaChannel channel = MinaChannel.getOrAddChannel(session, url, handler);
             try {
                 codec.encode(channel, buffer, msg);
+            } catch (Exception e) {
+                buffer.release();
+                throw e;
             } finally {
                 MinaChannel.removeChannelIfDisconnected(session);
             }
-            out.write(ByteBuffer.wrap(buffer.toByteBuffer()));
+            out.write(buffer.toMinaBuffer());
             out.flush();
         }
     }
@@ -17,16 +17,28 @@
 package org.apache.dubbo.remoting.transport.mina;
 
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
 
 import org.apache.mina.common.IoHandlerAdapter;
 import org.apache.mina.common.IoSession;
 
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * MinaHandler
  */
 public class MinaHandler extends IoHandlerAdapter {
 
+    /**
+     * the cache for alive channels.
+     * <ip:port, dubbo channel>
+     */
+    private final Map<String, Channel> channels = new ConcurrentHashMap<String, Channel>();
+
     private final URL url;
 
     private final ChannelHandler handler;
@@ -42,9 +54,14 @@ public class MinaHandler extends IoHandlerAdapter {
         this.handler = handler;
     }
 
+    public Map<String, Channel> getChannels() {
+        return channels;
+    }
+
     @Override
     public void sessionOpened(IoSession session) throws Exception {
         MinaChannel channel = MinaChannel.getOrAddChannel(session, url, handler);
+        channels.put(NetUtils.toAddressString((InetSocketAddress) session.getRemoteAddress()), channel);
         try {
             handler.connected(channel);
         } finally {
@@ -55,6 +72,7 @@ public class MinaHandler extends IoHandlerAdapter {
     @Override
     public void sessionClosed(IoSession session) throws Exception {
         MinaChannel channel = MinaChannel.getOrAddChannel(session, url, handler);
+        channels.remove(NetUtils.toAddressString((InetSocketAddress) session.getRemoteAddress()));
         try {
             handler.disconnected(channel);
         } finally {
@@ -21,13 +21,13 @@ import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.ExecutorUtil;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.transport.AbstractServer;
 import org.apache.dubbo.remoting.transport.dispatcher.ChannelHandlers;
 
-import org.apache.mina.common.IoSession;
 import org.apache.mina.common.ThreadModel;
 import org.apache.mina.filter.codec.ProtocolCodecFilter;
 import org.apache.mina.transport.socket.nio.SocketAcceptor;
@@ -35,8 +35,9 @@ import org.apache.mina.transport.socket.nio.SocketAcceptorConfig;
 
 import java.net.InetSocketAddress;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import static org.apache.dubbo.common.constants.CommonConstants.IO_THREADS_KEY;
@@ -52,23 +53,33 @@ public class MinaServer extends AbstractServer {
 
     private SocketAcceptor acceptor;
 
+    private ExecutorService workers;
+
+    /**
+     * the cache for alive worker channel, maintained by the {@link MinaHandler} on session open and close.
+     * <ip:port, dubbo channel>
+     */
+    private Map<String, Channel> channels;
+
     public MinaServer(URL url, ChannelHandler handler) throws RemotingException {
         super(url, ChannelHandlers.wrap(handler, ExecutorUtil.setThreadName(url, SERVER_THREAD_POOL_NAME)));
     }
 
     @Override
     protected void doOpen() throws Throwable {
-        // set thread pool.
-        acceptor = new SocketAcceptor(getUrl().getPositiveParameter(IO_THREADS_KEY, DEFAULT_IO_THREADS),
-                Executors.newCachedThreadPool(new NamedThreadFactory("MinaServerWorker",
-                        true)));
+        // set thread pool, one thread for each io processor and one for the acceptor.
+        int ioThreads = getUrl().getPositiveParameter(IO_THREADS_KEY, DEFAULT_IO_THREADS);
+        workers = Executors.newFixedThreadPool(ioThreads + 1, new NamedThreadFactory("MinaServerWorker", true));
+        acceptor = new SocketAcceptor(ioThreads, workers);
         // config
         SocketAcceptorConfig cfg = acceptor.getDefaultConfig();
         cfg.setThreadModel(ThreadModel.MANUAL);
         // set codec.
         acceptor.getFilterChain().addLast("codec", new ProtocolCodecFilter(new MinaCodecAdapter(getCodec(), getUrl(), this)));
 
-        acceptor.bind(getBindAddress(), new MinaHandler(getUrl(), this));
+        MinaHandler minaHandler = new MinaHandler(getUrl(), this);
+        channels = minaHandler.getChannels();
+        acceptor.bind(getBindAddress(), minaHandler);
     }
 
     @Override
@@ -80,34 +91,28 @@ public class MinaServer extends AbstractServer {
         } catch (Throwable e) {
             logger.warn(e.getMessage(), e);
         }
+        try {
+            if (workers != null) {
+                workers.shutdown();
+            }
+        } catch (Throwable e) {
+            logger.warn(e.getMessage(), e);
+        }
     }
 
     @Override
     protected int getChannelsSize() {
-        return getChannels().size();
+        return channels == null ? 0 : channels.size();
     }
 
     @Override
     public Collection<Channel> getChannels() {
-        Set<IoSession> sessions = acceptor.getManagedSessions(getBindAddress());
-        Collection<Channel> channels = new HashSet<Channel>();
-        for (IoSession session : sessions) {
-            if (session.isConnected()) {
-                channels.add(MinaChannel.getOrAddChannel(session, getUrl(), this));
-            }
-        }
-        return channels;
+        return channels == null ? Collections.emptyList() : Collections.unmodifiableCollection(channels.values());
     }
 
     @Override
     public Channel getChannel(InetSocketAddress remoteAddress) {
-        Set<IoSession> sessions = acceptor.getManagedSessions(getBindAddress());
-        for (IoSession session : sessions) {
-            if (session.getRemoteAddress().equals(remoteAddress)) {
-                return MinaChannel.getOrAddChannel(session, getUrl(), this);
-            }
-        }
-        return null;
+        return channels == null ? null : channels.get(NetUtils.toAddressString(remoteAddress));
     }
 
     @Override
@@ -71,6 +71,24 @@ public abstract class ClientToServerTest {
         Assertions.assertEquals("hello,world", result.getName());
     }
 
+    @Test
+    public void testLargeMessage() throws Exception {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            name.append((char) ('a' + i % 26));
+        }
+        CompletableFuture<Object> future = client.request(new World(name.toString()));
+        Hello result = (Hello) future.get();
+        Assertions.assertEquals("hello," + name, result.getName());
+    }
+
+    @Test
+    public void testServerChannels() throws Exception {
+        client.request(new World("world")).get();
+        Assertions.assertEquals(1, server.getChannels().size());
+        Assertions.assertNotNull(server.getChannel(client.getLocalAddress()));
+    }
+
 //    @Test
 //    public void testCallback() throws Exception {
 //        final Object waitter = new Object();
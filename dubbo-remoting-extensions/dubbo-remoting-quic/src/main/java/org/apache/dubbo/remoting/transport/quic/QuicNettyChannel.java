@@ -28,8 +28,8 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.incubator.codec.quic.QuicChannel;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.util.AttributeKey;
 
-import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +49,10 @@ final class QuicNettyChannel extends AbstractChannel {
      * the cache for netty channel and dubbo channel
      */
     private static final ConcurrentMap<Channel, QuicNettyChannel> CHANNEL_MAP = new ConcurrentHashMap<Channel, QuicNettyChannel>();
+    /**
+     * the remote socket address of a quic connection, shared by all its streams
+     */
+    private static final AttributeKey<InetSocketAddress> REMOTE_ADDRESS = AttributeKey.valueOf("dubbo.quic.remoteAddress");
     /**
      * netty channel
      */
@@ -89,24 +93,10 @@ final class QuicNettyChannel extends AbstractChannel {
             return null;
         }
 
-        //FIXME
-        InetSocketAddress v = null;
-        if (ch instanceof QuicStreamChannel) {
-            QuicStreamChannel qsc = (QuicStreamChannel) ch;
-            QuicChannel qqc = qsc.parent();
-            try {
-                Field f = qqc.getClass().getDeclaredField("remote");
-                f.setAccessible(true);
-                v = (InetSocketAddress) f.get(qqc);
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                logger.error(e.getMessage());
-            }
-        }
-
         QuicNettyChannel ret = CHANNEL_MAP.get(ch);
         if (ret == null) {
             QuicNettyChannel nettyChannel = new QuicNettyChannel(ch, url, handler);
-            nettyChannel.setRemoteAddress(v);
+            nettyChannel.setRemoteAddress(getRemoteAddress(ch));
             if (ch.isActive()) {
                 nettyChannel.markActive(true);
                 ret = CHANNEL_MAP.putIfAbsent(ch, nettyChannel);
@@ -118,6 +108,21 @@ final class QuicNettyChannel extends AbstractChannel {
         return ret;
     }
 
+    /**
+     * Records the remote address of the connection, the quic channel itself only knows the ids of the connection.
+     * The client records the address it connects to, the server the address of the peer announced by the codec.
+     */
+    static void setRemoteAddress(QuicChannel connection, InetSocketAddress address) {
+        connection.attr(REMOTE_ADDRESS).set(address);
+    }
+
+    private static InetSocketAddress getRemoteAddress(Channel ch) {
+        if (!(ch instanceof QuicStreamChannel)) {
+            return null;
+        }
+        return ((QuicStreamChannel) ch).parent().attr(REMOTE_ADDRESS).get();
+    }
+
     /**
      * Remove the inactive channel.
      *
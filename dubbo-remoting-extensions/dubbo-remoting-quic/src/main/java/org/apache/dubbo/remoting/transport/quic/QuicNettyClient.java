@@ -22,7 +22,9 @@ import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.Constants;
 import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.transport.AbstractClient;
+import org.apache.dubbo.remoting.utils.PayloadDropper;
 import org.apache.dubbo.remoting.utils.UrlUtils;
 
 import io.netty.bootstrap.Bootstrap;
@@ -31,9 +33,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.ChannelInputShutdownReadComplete;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.incubator.codec.quic.QuicChannel;
@@ -42,18 +42,27 @@ import io.netty.incubator.codec.quic.QuicSslContext;
 import io.netty.incubator.codec.quic.QuicSslContextBuilder;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
 import io.netty.incubator.codec.quic.QuicStreamType;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.Promise;
 
 import java.net.InetSocketAddress;
 import java.util.concurrent.TimeUnit;
 
+import static org.apache.dubbo.common.constants.CommonConstants.DEFAULT_TIMEOUT;
+import static org.apache.dubbo.common.constants.CommonConstants.TIMEOUT_KEY;
+
 /**
  * NettyClient.
+ * <p>
+ * Every client keeps one long-lived stream on its connection for the connection events and heartbeats. With
+ * {@code quic.stream.mode="request"} each request is sent on a stream of its own, see {@link QuicNettyOptions}.
  */
 public class QuicNettyClient extends AbstractClient {
 
     private static final Logger logger = LoggerFactory.getLogger(QuicNettyClient.class);
     /**
-     * netty client bootstrap
+     * shared by the datagram channels of all clients
      */
     private static final EventLoopGroup EVENT_LOOP_GROUP = QuicNettyEventLoopFactory.eventLoopGroup(Constants.DEFAULT_IO_THREADS, "QuicNettyClientWorker");
 
@@ -67,10 +76,14 @@ public class QuicNettyClient extends AbstractClient {
      */
     private volatile Channel qchannel;
 
-    private volatile Channel channel;
-
     private volatile Channel schannel;
 
+    private volatile QuicChannel quicChannel;
+
+    private boolean streamPerRequest;
+
+    private ChannelInitializer<QuicStreamChannel> requestStreamInitializer;
+
     /**
      * The constructor of NettyClient.
      * It wil init and start netty.
@@ -90,17 +103,27 @@ public class QuicNettyClient extends AbstractClient {
     protected void doOpen() throws Throwable {
         QuicSslContext context = QuicSslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).
             applicationProtocols("http/0.9").build();
-        NioEventLoopGroup group = new NioEventLoopGroup(1);
-        io.netty.channel.ChannelHandler codec = new QuicClientCodecBuilder()
+        io.netty.channel.ChannelHandler codec = QuicNettyOptions.configure(new QuicClientCodecBuilder(), getUrl())
             .sslContext(context)
-            .maxIdleTimeout(5000, TimeUnit.MILLISECONDS)
-            .initialMaxData(10000000)
-            .initialMaxStreamDataBidirectionalLocal(1000000)
             .build();
 
+        streamPerRequest = QuicNettyOptions.isStreamPerRequest(getUrl());
+        final QuicNettyClientHandler requestStreamHandler = new QuicNettyClientHandler(getUrl(), this, true);
+        requestStreamInitializer = new ChannelInitializer<QuicStreamChannel>() {
+            @Override
+            protected void initChannel(QuicStreamChannel quicStreamChannel) {
+                NettyCodecAdapter adapter = new NettyCodecAdapter(getCodec(), getUrl(), QuicNettyClient.this);
+                quicStreamChannel.config().setAllowHalfClosure(true);
+                quicStreamChannel.pipeline()
+                    .addLast("decoder", adapter.getDecoder())
+                    .addLast("encoder", adapter.getEncoder())
+                    .addLast("handler", requestStreamHandler);
+            }
+        };
+
         Bootstrap bs = new Bootstrap();
-        qchannel = bs.group(group)
-            .channel(NioDatagramChannel.class)
+        qchannel = bs.group(EVENT_LOOP_GROUP)
+            .channel(QuicNettyEventLoopFactory.datagramChannelClass())
             .handler(codec)
             .bind(0).sync().channel();
         logger.info("quic client do open finish");
@@ -122,6 +145,13 @@ public class QuicNettyClient extends AbstractClient {
             .remoteAddress(address)
             .connect()
             .get(5, TimeUnit.SECONDS);
+        QuicNettyChannel.setRemoteAddress(quicChannel, address);
+
+        QuicChannel oldQuicChannel = this.quicChannel;
+        this.quicChannel = quicChannel;
+        if (oldQuicChannel != null) {
+            oldQuicChannel.close();
+        }
 
         this.schannel = quicChannel.createStream(QuicStreamType.BIDIRECTIONAL,
             new ChannelInitializer<QuicStreamChannel>() {
@@ -153,6 +183,71 @@ public class QuicNettyClient extends AbstractClient {
         ).sync().getNow();
     }
 
+    /**
+     * Sends the message on a new stream in the request stream mode. The long-lived stream takes the message if the
+     * server doesn't allow more streams for now.
+     * <p>
+     * The message is written once the stream is open, the caller only waits for it if {@code sent} is set.
+     */
+    @Override
+    public void send(Object message, boolean sent) throws RemotingException {
+        QuicChannel connection = this.quicChannel;
+        if (!streamPerRequest || connection == null || !isConnected()
+            || connection.peerAllowedStreams(QuicStreamType.BIDIRECTIONAL) <= 0) {
+            super.send(message, sent);
+            return;
+        }
+        Promise<Void> written = connection.eventLoop().newPromise();
+        connection.createStream(QuicStreamType.BIDIRECTIONAL, requestStreamInitializer)
+            .addListener((GenericFutureListener<Future<QuicStreamChannel>>) stream -> write(stream, message, written));
+        if (!sent) {
+            return;
+        }
+        int timeout = getUrl().getPositiveParameter(TIMEOUT_KEY, DEFAULT_TIMEOUT);
+        boolean success;
+        try {
+            success = written.await(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemotingException(this, "Interrupted while sending a message to " + getRemoteAddress(), e);
+        }
+        if (written.cause() != null) {
+            throw new RemotingException(this, "Failed to send message " + PayloadDropper.getRequestWithoutData(message)
+                + " to " + getRemoteAddress() + ", cause: " + written.cause().getMessage(), written.cause());
+        }
+        if (!success) {
+            throw new RemotingException(this, "Failed to send message " + PayloadDropper.getRequestWithoutData(message)
+                + " to " + getRemoteAddress() + " in timeout(" + timeout + "ms) limit");
+        }
+    }
+
+    private void write(Future<QuicStreamChannel> stream, Object message, Promise<Void> written) {
+        if (!stream.isSuccess()) {
+            written.tryFailure(stream.cause());
+            if (message instanceof Request) {
+                // answer the request now instead of letting it time out
+                try {
+                    received(getChannel(), QuicNettyClientHandler.buildErrorResponse((Request) message, stream.cause()));
+                } catch (RemotingException e) {
+                    logger.warn(e.getMessage(), e);
+                }
+            }
+            return;
+        }
+        QuicStreamChannel streamChannel = stream.getNow();
+        // a failed write is answered by the handler of the stream
+        streamChannel.writeAndFlush(message).addListener(future -> {
+            if (future.isSuccess()) {
+                // the server finishes the stream once it has answered
+                streamChannel.shutdownOutput();
+                written.trySuccess(null);
+            } else {
+                streamChannel.close();
+                written.tryFailure(future.cause());
+            }
+        });
+    }
+
     @Override
     public boolean isConnected() {
         if (this.schannel == null) {
@@ -165,7 +260,7 @@ public class QuicNettyClient extends AbstractClient {
     @Override
     protected void doDisConnect() throws Throwable {
         try {
-            QuicNettyChannel.removeChannelIfDisconnected(channel);
+            QuicNettyChannel.removeChannelIfDisconnected(schannel);
         } catch (Throwable t) {
             logger.warn(t.getMessage());
         }
@@ -173,9 +268,17 @@ public class QuicNettyClient extends AbstractClient {
 
     @Override
     protected void doClose() throws Throwable {
-        // can't shutdown nioEventLoopGroup because the method will be invoked when closing one channel but not a client,
-        // but when and how to close the nioEventLoopGroup ?
-        // nioEventLoopGroup.shutdownGracefully();
+        // the event loop group is shared by all clients, only the connection and the datagram channel are closed
+        try {
+            if (quicChannel != null) {
+                quicChannel.close();
+            }
+        } catch (Throwable t) {
+            logger.warn(t.getMessage());
+        }
+        if (qchannel != null) {
+            qchannel.close();
+        }
     }
 
     @Override
@@ -28,12 +28,16 @@ import org.apache.dubbo.remoting.exchange.Response;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.ChannelInputShutdownReadComplete;
 import io.netty.handler.timeout.IdleStateEvent;
 
 import static org.apache.dubbo.common.constants.CommonConstants.HEARTBEAT_EVENT;
 
 /**
  * NettyClientHandler
+ * <p>
+ * The handler of a request stream only carries messages, the connection events belong to the long-lived stream of
+ * the client. A request stream is closed once the server has finished its side.
  */
 @io.netty.channel.ChannelHandler.Sharable
 public class QuicNettyClientHandler extends ChannelDuplexHandler {
@@ -43,7 +47,13 @@ public class QuicNettyClientHandler extends ChannelDuplexHandler {
 
     private final ChannelHandler handler;
 
+    private final boolean requestStream;
+
     public QuicNettyClientHandler(URL url, ChannelHandler handler) {
+        this(url, handler, false);
+    }
+
+    public QuicNettyClientHandler(URL url, ChannelHandler handler, boolean requestStream) {
         if (url == null) {
             throw new IllegalArgumentException("url == null");
         }
@@ -52,11 +62,15 @@ public class QuicNettyClientHandler extends ChannelDuplexHandler {
         }
         this.url = url;
         this.handler = handler;
+        this.requestStream = requestStream;
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
+        if (requestStream) {
+            return;
+        }
         handler.connected(channel);
         if (logger.isInfoEnabled()) {
             logger.info("The connection of " + channel.getLocalAddress() + " -> " + channel.getRemoteAddress() + " is established.");
@@ -65,6 +79,10 @@ public class QuicNettyClientHandler extends ChannelDuplexHandler {
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (requestStream) {
+            QuicNettyChannel.removeChannel(ctx.channel());
+            return;
+        }
         QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
         try {
             handler.disconnected(channel);
@@ -110,6 +128,11 @@ public class QuicNettyClientHandler extends ChannelDuplexHandler {
 
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (requestStream && evt == ChannelInputShutdownReadComplete.INSTANCE) {
+            // the server has answered the request, or has nothing to answer
+            ctx.close();
+            return;
+        }
         // send heartbeat when read idle.
         if (evt instanceof IdleStateEvent) {
             try {
@@ -148,7 +171,7 @@ public class QuicNettyClientHandler extends ChannelDuplexHandler {
      * @param t       the throwable. In most cases, serialization fails.
      * @return the response
      */
-    private static Response buildErrorResponse(Request request, Throwable t) {
+    static Response buildErrorResponse(Request request, Throwable t) {
         Response response = new Response(request.getId(), request.getVersion());
         response.setStatus(Response.BAD_REQUEST);
         response.setErrorMessage(StringUtils.toString(t));
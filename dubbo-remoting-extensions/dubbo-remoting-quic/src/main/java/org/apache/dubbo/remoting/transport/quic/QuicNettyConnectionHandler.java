@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.quic;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicConnectionEvent;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Records the socket address of the peer on a server side quic connection. The codec announces it when the
+ * connection is accepted, before any stream is opened, and again when the peer migrates.
+ */
+@ChannelHandler.Sharable
+class QuicNettyConnectionHandler extends ChannelInboundHandlerAdapter {
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof QuicConnectionEvent) {
+            QuicNettyChannel.setRemoteAddress(
+                (QuicChannel) ctx.channel(), (InetSocketAddress) ((QuicConnectionEvent) evt).newAddress());
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+}
@@ -18,12 +18,15 @@ package org.apache.dubbo.remoting.transport.quic;
 
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
@@ -45,6 +48,10 @@ public class QuicNettyEventLoopFactory {
         return shouldEpoll() ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
     }
 
+    public static Class<? extends DatagramChannel> datagramChannelClass() {
+        return shouldEpoll() ? EpollDatagramChannel.class : NioDatagramChannel.class;
+    }
+
     private static boolean shouldEpoll() {
         if (Boolean.parseBoolean(System.getProperty("netty.epoll.enable", "false"))) {
             String osName = System.getProperty("os.name");
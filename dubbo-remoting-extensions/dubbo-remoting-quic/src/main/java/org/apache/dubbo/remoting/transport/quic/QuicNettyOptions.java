@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.quic;
+
+import org.apache.dubbo.common.URL;
+
+import io.netty.incubator.codec.quic.QuicCodecBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The url parameters of the quic transport, e.g.
+ * <pre>
+ *     &lt;dubbo:protocol transporter="quic" quic.stream.mode="request" quic.initial.max.data="33554432" /&gt;
+ * </pre>
+ */
+final class QuicNettyOptions {
+
+    /**
+     * {@code single} sends every message on the one stream of the connection, {@code request} opens a stream per
+     * request so that a lost packet only blocks its own request.
+     */
+    static final String STREAM_MODE_KEY = "quic.stream.mode";
+
+    static final String STREAM_MODE_SINGLE = "single";
+
+    static final String STREAM_MODE_REQUEST = "request";
+
+    static final String INITIAL_MAX_DATA_KEY = "quic.initial.max.data";
+
+    static final long DEFAULT_INITIAL_MAX_DATA = 10000000;
+
+    static final String INITIAL_MAX_STREAM_DATA_KEY = "quic.initial.max.stream.data";
+
+    static final long DEFAULT_INITIAL_MAX_STREAM_DATA = 1000000;
+
+    static final String INITIAL_MAX_STREAMS_BIDIRECTIONAL_KEY = "quic.initial.max.streams.bidirectional";
+
+    static final long DEFAULT_INITIAL_MAX_STREAMS_BIDIRECTIONAL = 100;
+
+    static final String INITIAL_MAX_STREAMS_UNIDIRECTIONAL_KEY = "quic.initial.max.streams.unidirectional";
+
+    static final long DEFAULT_INITIAL_MAX_STREAMS_UNIDIRECTIONAL = 100;
+
+    static final String MAX_IDLE_TIMEOUT_KEY = "quic.max.idle.timeout";
+
+    static final long DEFAULT_MAX_IDLE_TIMEOUT = 5000;
+
+    private QuicNettyOptions() {
+    }
+
+    static boolean isStreamPerRequest(URL url) {
+        String mode = url.getParameter(STREAM_MODE_KEY, STREAM_MODE_SINGLE);
+        if (STREAM_MODE_REQUEST.equalsIgnoreCase(mode)) {
+            return true;
+        }
+        if (STREAM_MODE_SINGLE.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unknown " + STREAM_MODE_KEY + " " + mode + ", expected "
+            + STREAM_MODE_SINGLE + " or " + STREAM_MODE_REQUEST);
+    }
+
+    /**
+     * Applies the flow control and idle timeout of the url, the stream data limits apply to both directions.
+     */
+    static <B extends QuicCodecBuilder<B>> B configure(B builder, URL url) {
+        long maxStreamData = url.getPositiveParameter(INITIAL_MAX_STREAM_DATA_KEY, DEFAULT_INITIAL_MAX_STREAM_DATA);
+        return builder
+            .maxIdleTimeout(url.getPositiveParameter(MAX_IDLE_TIMEOUT_KEY, DEFAULT_MAX_IDLE_TIMEOUT), TimeUnit.MILLISECONDS)
+            .initialMaxData(url.getPositiveParameter(INITIAL_MAX_DATA_KEY, DEFAULT_INITIAL_MAX_DATA))
+            .initialMaxStreamDataBidirectionalLocal(maxStreamData)
+            .initialMaxStreamDataBidirectionalRemote(maxStreamData)
+            .initialMaxStreamsBidirectional(url.getPositiveParameter(INITIAL_MAX_STREAMS_BIDIRECTIONAL_KEY,
+                DEFAULT_INITIAL_MAX_STREAMS_BIDIRECTIONAL))
+            .initialMaxStreamsUnidirectional(url.getPositiveParameter(INITIAL_MAX_STREAMS_UNIDIRECTIONAL_KEY,
+                DEFAULT_INITIAL_MAX_STREAMS_UNIDIRECTIONAL));
+    }
+}
@@ -34,7 +34,6 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.handler.ssl.util.SelfSignedCertificate;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.incubator.codec.quic.InsecureQuicTokenHandler;
@@ -101,20 +100,17 @@ public class QuicNettyServer extends AbstractServer implements RemotingServer {
 
 
         bootstrap = new Bootstrap();
-        io.netty.channel.ChannelHandler codec = new QuicServerCodecBuilder()
+        io.netty.channel.ChannelHandler codec = QuicNettyOptions.configure(new QuicServerCodecBuilder(), getUrl())
             .sslContext(context)
-            .maxIdleTimeout(5000, TimeUnit.MILLISECONDS)
-            .initialMaxData(10000000)
-            .initialMaxStreamDataBidirectionalLocal(1000000)
-            .initialMaxStreamDataBidirectionalRemote(1000000)
-            .initialMaxStreamsBidirectional(100)
-            .initialMaxStreamsUnidirectional(100)
             .tokenHandler(InsecureQuicTokenHandler.INSTANCE)
+            .handler(new QuicNettyConnectionHandler())
             .streamHandler(new ChannelInitializer<QuicStreamChannel>() {
                 @Override
                 protected void initChannel(QuicStreamChannel ch) {
                     int idleTimeout = UrlUtils.getIdleTimeout(getUrl());
                     NettyCodecAdapter adapter = new NettyCodecAdapter(getCodec(), getUrl(), QuicNettyServer.this);
+                    // a client sending a stream per request finishes its side before the response
+                    ch.config().setAllowHalfClosure(true);
                     ch.pipeline()
                         .addLast("decoder", adapter.getDecoder())
                         .addLast("encoder", adapter.getEncoder())
@@ -126,9 +122,10 @@ public class QuicNettyServer extends AbstractServer implements RemotingServer {
         InetSocketAddress address = getBindAddress();
         logger.info("bind address:" + address);
         ChannelFuture channelFuture = bootstrap.group(bossGroup)
-            .channel(NioDatagramChannel.class)
+            .channel(QuicNettyEventLoopFactory.datagramChannelClass())
             .handler(codec)
             .bind(address);
+        channel = channelFuture.channel();
         channelFuture.addListener((ChannelFutureListener) channelFuture1 -> logger.info("bind finish:" + channelFuture1));
     }
 
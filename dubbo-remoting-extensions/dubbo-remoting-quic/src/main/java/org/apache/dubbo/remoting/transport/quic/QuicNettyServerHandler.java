@@ -22,22 +22,32 @@ import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
 
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.ChannelInputShutdownReadComplete;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.util.AttributeKey;
 
-import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * NettyServerHandler.
+ * <p>
+ * A client may send every request on a stream of its own and finish its side after the request. The server then
+ * finishes the stream as soon as the responses of the stream are written.
  */
 @io.netty.channel.ChannelHandler.Sharable
 public class QuicNettyServerHandler extends ChannelDuplexHandler {
     private static final Logger logger = LoggerFactory.getLogger(QuicNettyServerHandler.class);
+
+    private static final AttributeKey<AtomicInteger> PENDING_RESPONSES = AttributeKey.valueOf("dubbo.quic.pendingResponses");
     /**
      * the cache for alive worker channel.
      * <ip:port, dubbo channel>
@@ -66,8 +76,9 @@ public class QuicNettyServerHandler extends ChannelDuplexHandler {
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
-        if (channel != null) {
-            channels.put(NetUtils.toAddressString((InetSocketAddress) ctx.channel().remoteAddress()), channel);
+        // the first stream of a connection stands for the connection, further streams only carry requests
+        if (channels.putIfAbsent(NetUtils.toAddressString(channel.getRemoteAddress()), channel) != null) {
+            return;
         }
         handler.connected(channel);
 
@@ -80,7 +91,9 @@ public class QuicNettyServerHandler extends ChannelDuplexHandler {
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
         try {
-            channels.remove(NetUtils.toAddressString((InetSocketAddress) ctx.channel().remoteAddress()));
+            if (!channels.remove(NetUtils.toAddressString(channel.getRemoteAddress()), channel)) {
+                return;
+            }
             handler.disconnected(channel);
         } finally {
             QuicNettyChannel.removeChannel(ctx.channel());
@@ -94,6 +107,10 @@ public class QuicNettyServerHandler extends ChannelDuplexHandler {
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
+        if (msg instanceof Request && ((Request) msg).isTwoWay()) {
+            ctx.channel().attr(PENDING_RESPONSES).setIfAbsent(new AtomicInteger());
+            ctx.channel().attr(PENDING_RESPONSES).get().incrementAndGet();
+        }
         handler.received(channel, msg);
     }
 
@@ -103,10 +120,17 @@ public class QuicNettyServerHandler extends ChannelDuplexHandler {
         super.write(ctx, msg, promise);
         QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
         handler.sent(channel, msg);
+        AtomicInteger pending = ctx.channel().attr(PENDING_RESPONSES).get();
+        if (msg instanceof Response && pending != null && pending.decrementAndGet() <= 0) {
+            promise.addListener(future -> finishIfDone(ctx));
+        }
     }
 
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt == ChannelInputShutdownReadComplete.INSTANCE) {
+            finishIfDone(ctx);
+        }
         // server will close channel when server don't receive any heartbeat from client util timeout.
         if (evt instanceof IdleStateEvent) {
             QuicNettyChannel channel = QuicNettyChannel.getOrAddChannel(ctx.channel(), url, handler);
@@ -131,4 +155,16 @@ public class QuicNettyServerHandler extends ChannelDuplexHandler {
         }
     }
 
+    /**
+     * Closes a stream whose client has finished sending once every request of it is answered.
+     */
+    private static void finishIfDone(ChannelHandlerContext ctx) {
+        if (!(ctx.channel() instanceof QuicStreamChannel) || !((QuicStreamChannel) ctx.channel()).isInputShutdown()) {
+            return;
+        }
+        AtomicInteger pending = ctx.channel().attr(PENDING_RESPONSES).get();
+        if (pending == null || pending.get() <= 0) {
+            ((QuicStreamChannel) ctx.channel()).shutdownOutput().addListener(future -> ctx.close());
+        }
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.quic;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Loopback proxy simulating packet loss between a client and a server.
+ * <p>
+ * Datagrams are dropped with the given probability, a quic peer retransmits them. A tcp stream can't lose bytes in
+ * user space, so a segment is held back for the minimal retransmission timeout of linux instead, which stalls the
+ * whole connection the way a lost segment does.
+ */
+final class LossyProxy implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LossyProxy.class);
+
+    static final int TCP_SEGMENT_SIZE = 1460;
+
+    static final long TCP_RETRANSMISSION_TIMEOUT_MILLIS = 200;
+
+    private final double loss;
+
+    private final List<Closeable> resources = new CopyOnWriteArrayList<>();
+
+    private final int port;
+
+    private volatile boolean closed;
+
+    private LossyProxy(double loss, Closeable socket, int port) {
+        this.loss = loss;
+        this.port = port;
+        resources.add(socket);
+    }
+
+    static LossyProxy udp(int targetPort, double loss) throws IOException {
+        DatagramSocket front = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        DatagramSocket back = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        LossyProxy proxy = new LossyProxy(loss, front, front.getLocalPort());
+        proxy.resources.add(back);
+        SocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), targetPort);
+        SocketAddress[] client = new SocketAddress[1];
+        proxy.start("lossy-udp-up", () -> {
+            DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+            while (!proxy.closed) {
+                front.receive(packet);
+                client[0] = packet.getSocketAddress();
+                if (!proxy.drop()) {
+                    back.send(new DatagramPacket(packet.getData(), packet.getLength(), target));
+                }
+            }
+        });
+        proxy.start("lossy-udp-down", () -> {
+            DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+            while (!proxy.closed) {
+                back.receive(packet);
+                if (client[0] != null && !proxy.drop()) {
+                    front.send(new DatagramPacket(packet.getData(), packet.getLength(), client[0]));
+                }
+            }
+        });
+        return proxy;
+    }
+
+    static LossyProxy tcp(int targetPort, double loss) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        LossyProxy proxy = new LossyProxy(loss, serverSocket, serverSocket.getLocalPort());
+        proxy.start("lossy-tcp-accept", () -> {
+            while (!proxy.closed) {
+                Socket front = serverSocket.accept();
+                Socket back = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                front.setTcpNoDelay(true);
+                back.setTcpNoDelay(true);
+                proxy.resources.add(front);
+                proxy.resources.add(back);
+                proxy.start("lossy-tcp-up", () -> proxy.pump(front.getInputStream(), back.getOutputStream()));
+                proxy.start("lossy-tcp-down", () -> proxy.pump(back.getInputStream(), front.getOutputStream()));
+            }
+        });
+        return proxy;
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    private void pump(InputStream in, OutputStream out) throws IOException, InterruptedException {
+        byte[] segment = new byte[TCP_SEGMENT_SIZE];
+        int n;
+        while (!closed && (n = in.read(segment)) >= 0) {
+            if (drop()) {
+                Thread.sleep(TCP_RETRANSMISSION_TIMEOUT_MILLIS);
+            }
+            out.write(segment, 0, n);
+            out.flush();
+        }
+    }
+
+    private boolean drop() {
+        return loss > 0 && ThreadLocalRandom.current().nextDouble() < loss;
+    }
+
+    private void start(String name, Loop loop) {
+        Thread thread = new Thread(() -> {
+            try {
+                loop.run();
+            } catch (Exception e) {
+                if (!closed) {
+                    logger.warn("The " + name + " thread of the proxy failed", e);
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+    }
+
+    private interface Loop {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.quic;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.exchange.ExchangeChannel;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ExchangeServer;
+import org.apache.dubbo.remoting.exchange.Exchangers;
+import org.apache.dubbo.remoting.exchange.support.ExchangeHandlerAdapter;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+
+import io.netty.incubator.codec.quic.Quic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Requests over quic with a stream per request, needs the native quic codec of the platform.
+ */
+class QuicNettyClientTest {
+
+    private ExchangeServer server;
+
+    private ExchangeClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(Quic.isAvailable(), "the native quic codec isn't available");
+        URL url = URL.valueOf("exchange://127.0.0.1:" + NetUtils.getAvailablePort())
+            .addParameter("codec", "exchange")
+            .addParameter("timeout", 10000)
+            .addParameter("transporter", QuicNettyTransporter.NAME)
+            .addParameter(QuicNettyOptions.STREAM_MODE_KEY, QuicNettyOptions.STREAM_MODE_REQUEST);
+        server = Exchangers.bind(url, new ExchangeHandlerAdapter(FrameworkModel.defaultModel()) {
+            @Override
+            public CompletableFuture<Object> reply(ExchangeChannel channel, Object request) {
+                return CompletableFuture.completedFuture("re:" + request);
+            }
+        });
+        client = Exchangers.connect(url, new ExchangeHandlerAdapter(FrameworkModel.defaultModel()) {
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testRequestStreams() throws Exception {
+        List<CompletableFuture<Object>> responses = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            responses.add(client.request("hello" + i));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            Assertions.assertEquals("re:hello" + i, responses.get(i).get(10, TimeUnit.SECONDS));
+        }
+
+        // the request streams don't count as connections
+        Collection<Channel> channels = server.getChannels();
+        Assertions.assertEquals(1, channels.size());
+        Channel channel = channels.iterator().next();
+        Assertions.assertNotNull(channel.getRemoteAddress());
+        Assertions.assertEquals("127.0.0.1", channel.getRemoteAddress().getAddress().getHostAddress());
+        Assertions.assertSame(channel, server.getChannel(channel.getRemoteAddress()));
+    }
+
+    @Test
+    void testSentWaitsForTheWrite() throws Exception {
+        client.send("hello", true);
+        CompletableFuture<Object> response = client.request("world");
+        Assertions.assertEquals("re:world", response.get(10, TimeUnit.SECONDS));
+    }
+}
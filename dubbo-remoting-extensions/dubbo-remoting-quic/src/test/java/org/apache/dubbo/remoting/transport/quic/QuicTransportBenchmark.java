@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.quic;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.exchange.ExchangeChannel;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ExchangeServer;
+import org.apache.dubbo.remoting.exchange.Exchangers;
+import org.apache.dubbo.remoting.exchange.support.ExchangeHandlerAdapter;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput of concurrent callers over one client, for tcp netty4 and for quic with a single stream or a
+ * stream per request. The client talks to the server through a {@link LossyProxy} on the loopback, which simulates
+ * the packet loss of the {@code loss} parameter.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.apache.dubbo.remoting.transport.quic.QuicTransportBenchmark},
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class QuicTransportBenchmark {
+
+    @Param({"netty4", "quic-single", "quic-request"})
+    private String transport;
+
+    @Param({"0", "0.01"})
+    private double loss;
+
+    @Param({"1024"})
+    private int payloadSize;
+
+    private ExchangeServer server;
+
+    private LossyProxy proxy;
+
+    private ExchangeClient client;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, RemotingException {
+        int port = NetUtils.getAvailablePort();
+        URL url = URL.valueOf("exchange://127.0.0.1:" + port)
+            .addParameter("codec", "exchange")
+            .addParameter("timeout", 30000)
+            .addParameter("transporter", "netty4".equals(transport) ? "netty4" : QuicNettyTransporter.NAME)
+            .addParameter(QuicNettyOptions.STREAM_MODE_KEY,
+                "quic-request".equals(transport) ? QuicNettyOptions.STREAM_MODE_REQUEST : QuicNettyOptions.STREAM_MODE_SINGLE);
+        server = Exchangers.bind(url, new ExchangeHandlerAdapter(FrameworkModel.defaultModel()) {
+            @Override
+            public CompletableFuture<Object> reply(ExchangeChannel channel, Object request) {
+                return CompletableFuture.completedFuture(request);
+            }
+        });
+        proxy = "netty4".equals(transport) ? LossyProxy.tcp(port, loss) : LossyProxy.udp(port, loss);
+        client = Exchangers.connect(url.setPort(proxy.getPort()), new ExchangeHandlerAdapter(FrameworkModel.defaultModel()) {
+        });
+        payload = new byte[payloadSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (proxy != null) {
+            proxy.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    public Object request() throws Exception {
+        return client.request(payload).get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QuicTransportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -24,6 +24,14 @@ import java.util.Set;
 public interface RedisClient {
     Long hset(String key, String field, String value);
 
+    /**
+     * Sets the fields of several hashes in one batch.
+     *
+     * @param hashes the fields to set by the key of their hash
+     * @return the number of newly created fields by the key of their hash
+     */
+    Map<String, Long> hset(Map<String, Map<String, String>> hashes);
+
     Long publish(String channel, String message);
 
 //    void clean(String pattern);
@@ -24,14 +24,18 @@ import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.remoting.redis.RedisClient;
 import org.apache.dubbo.remoting.redis.support.AbstractRedisClient;
 
+import redis.clients.jedis.ClusterPipeline;
 import redis.clients.jedis.Connection;
 import redis.clients.jedis.ConnectionPool;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.resps.ScanResult;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +74,48 @@ public class ClusterRedisClient extends AbstractRedisClient implements RedisClie
         return jedisCluster.hset(key, field, value);
     }
 
+    /**
+     * The cluster pipeline sends the commands of each slot to the node serving it, one pipeline per node. Its commands
+     * are not redirected, so the hashes without a reply are set one by one after a failure, e.g. while slots are
+     * migrating.
+     */
+    @Override
+    public Map<String, Long> hset(Map<String, Map<String, String>> hashes) {
+        Map<String, Response<Long>> responses = new HashMap<>();
+        try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+            for (Map.Entry<String, Map<String, String>> entry : hashes.entrySet()) {
+                responses.put(entry.getKey(), pipeline.hset(entry.getKey(), entry.getValue()));
+            }
+            pipeline.sync();
+            return toResult(responses);
+        } catch (JedisException e) {
+            logger.warn("Failed to set hashes by cluster pipeline, retry them one by one, cause: " + e.getMessage());
+            Map<String, Long> result = new HashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : hashes.entrySet()) {
+                Long created = getReply(responses.get(entry.getKey()));
+                if (created == null) {
+                    jedisCluster.hset(entry.getKey(), entry.getValue());
+                    // the pipeline may have created the fields before failing, count them all as created
+                    created = (long) entry.getValue().size();
+                }
+                result.put(entry.getKey(), created);
+            }
+            return result;
+        }
+    }
+
+    private static Long getReply(Response<Long> response) {
+        if (response == null) {
+            return null;
+        }
+        try {
+            return response.get();
+        } catch (JedisException | IllegalStateException e) {
+            // failed, or not sent before the pipeline failed
+            return null;
+        }
+    }
+
     @Override
     public Long publish(String channel, String message) {
         return jedisCluster.publish(channel, message);
@@ -51,6 +51,13 @@ public class MonoRedisClient extends AbstractRedisClient implements RedisClient
         return result;
     }
 
+    @Override
+    public Map<String, Long> hset(Map<String, Map<String, String>> hashes) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return hset(jedis, hashes);
+        }
+    }
+
     @Override
     public Long publish(String channel, String message) {
         Jedis jedis = jedisPool.getResource();
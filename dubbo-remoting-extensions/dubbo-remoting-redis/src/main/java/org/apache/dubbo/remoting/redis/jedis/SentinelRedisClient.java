@@ -62,6 +62,13 @@ public class SentinelRedisClient extends AbstractRedisClient implements RedisCli
         return result;
     }
 
+    @Override
+    public Map<String, Long> hset(Map<String, Map<String, String>> hashes) {
+        try (Jedis jedis = sentinelPool.getResource()) {
+            return hset(jedis, hashes);
+        }
+    }
+
     @Override
     public Long publish(String channel, String message) {
         Jedis jedis = sentinelPool.getResource();
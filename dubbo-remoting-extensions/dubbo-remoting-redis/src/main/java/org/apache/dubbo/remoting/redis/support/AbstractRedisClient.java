@@ -24,12 +24,16 @@ import org.apache.dubbo.remoting.redis.RedisClient;
 import redis.clients.jedis.Connection;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.resps.ScanResult;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public abstract class AbstractRedisClient implements RedisClient {
@@ -106,6 +110,24 @@ public abstract class AbstractRedisClient implements RedisClient {
         return result;
     }
 
+    protected Map<String, Long> hset(Jedis jedis, Map<String, Map<String, String>> hashes) {
+        Pipeline pipeline = jedis.pipelined();
+        Map<String, Response<Long>> responses = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : hashes.entrySet()) {
+            responses.put(entry.getKey(), pipeline.hset(entry.getKey(), entry.getValue()));
+        }
+        pipeline.sync();
+        return toResult(responses);
+    }
+
+    protected static Map<String, Long> toResult(Map<String, Response<Long>> responses) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, Response<Long>> entry : responses.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+
     public URL getUrl() {
         return url;
     }
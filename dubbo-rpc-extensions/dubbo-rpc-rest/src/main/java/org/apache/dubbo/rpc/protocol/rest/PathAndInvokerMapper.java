@@ -45,6 +45,9 @@ public class PathAndInvokerMapper {
     // for http method compare 405
     private final Map<PathMatcher, Set<String>> pathMatcherToHttpMethodMap = new HashMap<>();
 
+    // for request path lookup, the maps above hash all paths of a service to the same bucket
+    private final RestRouteTrie routeTrie = new RestRouteTrie();
+
     /**
      * deploy path metadata
      *
@@ -82,6 +85,19 @@ public class PathAndInvokerMapper {
         return pair;
     }
 
+    /**
+     * match request path, the request carries no port like {@link RestRPCInvocationUtil#createPathMatcher}
+     *
+     * @param path
+     * @param version
+     * @param group
+     * @param httpMethod
+     * @return null when the path is not found
+     */
+    public RestRouteMatch match(String path, String version, String group, String httpMethod) {
+        return routeTrie.match(path, version, group, null, httpMethod);
+    }
+
     /**
      * undeploy path metadata
      *
@@ -93,6 +109,8 @@ public class PathAndInvokerMapper {
                 pathToServiceMapContainPathVariable.remove(pathMatcher);
 
         InvokerAndRestMethodMetadataPair unContainPathVariablePair = pathToServiceMapNoPathVariable.remove(pathMatcher);
+
+        routeTrie.removeRoute(pathMatcher);
         logger.info("dubbo rest undeploy pathMatcher:" + pathMatcher
                 + ", and path variable method is :"
                 + (containPathVariablePair == null
@@ -127,6 +145,8 @@ public class PathAndInvokerMapper {
 
         pathMatcherPairMap.put(pathMatcher, invokerRestMethodMetadataPair);
 
+        routeTrie.addRoute(pathMatcher, invokerRestMethodMetadataPair);
+
         addPathMatcherToHttpMethodsMap(pathMatcher);
 
         logger.info("dubbo rest deploy pathMatcher:" + pathMatcher + ", and service method is :"
@@ -56,10 +56,31 @@ public class RestRPCInvocationUtil {
             Object servletRequest,
             Object servletResponse,
             RestMethodMetadata restMethodMetadata) {
+        parseMethodArgs(rpcInvocation, request, servletRequest, servletResponse, restMethodMetadata, null);
+    }
+
+    /**
+     * service method real args parse
+     *
+     * @param rpcInvocation
+     * @param request
+     * @param servletRequest
+     * @param servletResponse
+     * @param restMethodMetadata
+     * @param pathVariables path variables of the matched route, see {@link RestRouteMatch#getPathVariables()}
+     */
+    public static void parseMethodArgs(
+            RpcInvocation rpcInvocation,
+            RequestFacade request,
+            Object servletRequest,
+            Object servletResponse,
+            RestMethodMetadata restMethodMetadata,
+            String[] pathVariables) {
 
         try {
             ProviderParseContext parseContext =
                     createParseContext(request, servletRequest, servletResponse, restMethodMetadata);
+            parseContext.setPathVariables(pathVariables);
             Object[] args = ParamParserManager.providerParamParse(parseContext);
 
             List<ArgInfo> argInfos = parseContext.getArgInfos();
@@ -150,9 +171,9 @@ public class RestRPCInvocationUtil {
      */
     public static InvokerAndRestMethodMetadataPair getRestMethodMetadataAndInvokerPair(RequestFacade request) {
 
-        PathMatcher pathMather = createPathMatcher(request);
+        RestRouteMatch routeMatch = matchRoute(request);
 
-        return getRestMethodMetadataAndInvokerPair(pathMather, request.getServiceDeployer());
+        return routeMatch == null ? null : routeMatch.getPair();
     }
 
     /**
@@ -163,9 +184,13 @@ public class RestRPCInvocationUtil {
      */
     public static Invoker getInvokerByRequest(RequestFacade request) {
 
-        PathMatcher pathMatcher = createPathMatcher(request);
+        InvokerAndRestMethodMetadataPair pair = getRestMethodMetadataAndInvokerPair(request);
 
-        return getInvoker(pathMatcher, request.getServiceDeployer());
+        if (pair == null) {
+            return null;
+        }
+
+        return pair.getInvoker();
     }
 
     /**
@@ -223,4 +248,20 @@ public class RestRPCInvocationUtil {
 
         return PathMatcher.getInvokeCreatePathMatcher(path, version, group, null, method);
     }
+
+    /**
+     * match request path against the deployed routes
+     *
+     * @param request
+     * @return null when the path is not found
+     */
+    public static RestRouteMatch matchRoute(RequestFacade request) {
+        return request.getServiceDeployer()
+                .getPathAndInvokerMapper()
+                .match(
+                        request.getPath(),
+                        request.getHeader(RestHeaderEnum.VERSION.getHeader()),
+                        request.getHeader(RestHeaderEnum.GROUP.getHeader()),
+                        request.getMethod());
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.rest;
+
+import org.apache.dubbo.rpc.protocol.rest.pair.InvokerAndRestMethodMetadataPair;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * route of a request path, see {@link RestRouteTrie}
+ */
+public class RestRouteMatch {
+
+    private final InvokerAndRestMethodMetadataPair pair;
+
+    private final boolean httpMethodAllowed;
+
+    private final Set<String> allowedHttpMethods;
+
+    private final String[] pathVariables;
+
+    RestRouteMatch(
+            InvokerAndRestMethodMetadataPair pair,
+            boolean httpMethodAllowed,
+            Set<String> allowedHttpMethods,
+            String[] pathVariables) {
+        this.pair = pair;
+        this.httpMethodAllowed = httpMethodAllowed;
+        this.allowedHttpMethods = allowedHttpMethods;
+        this.pathVariables = pathVariables;
+    }
+
+    /**
+     * the route of the request http method, or any route of the path if the http method is not allowed
+     */
+    public InvokerAndRestMethodMetadataPair getPair() {
+        return pair;
+    }
+
+    public boolean isHttpMethodAllowed() {
+        return httpMethodAllowed;
+    }
+
+    /**
+     * for http method compare 405, empty when the http method is allowed
+     */
+    public Set<String> getAllowedHttpMethods() {
+        return allowedHttpMethods == null ? Collections.emptySet() : allowedHttpMethods;
+    }
+
+    /**
+     * path variable values indexed like {@code path.split("/")}, null for the static segments
+     */
+    public String[] getPathVariables() {
+        return pathVariables;
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.rest;
+
+import org.apache.dubbo.metadata.extension.rest.api.PathMatcher;
+import org.apache.dubbo.rpc.protocol.rest.pair.InvokerAndRestMethodMetadataPair;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Segment trie of the deployed rest paths, a request segment is matched against the static segments first and
+ * then against the {@code {var}} segment of the node.
+ * <p>
+ * Lookups walk the request path in place, without splitting it, and take no lock: routes are only changed on
+ * (un)deploy, which copies the arrays it touches under the trie lock.
+ */
+public class RestRouteTrie {
+
+    private static final char SEPARATOR = '/';
+
+    private static final Node[] NO_NODES = new Node[0];
+
+    private static final Route[] NO_ROUTES = new Route[0];
+
+    private final Node root = new Node(null);
+
+    private volatile int maxDepth;
+
+    public synchronized void addRoute(PathMatcher pathMatcher, InvokerAndRestMethodMetadataPair pair) {
+        String path = pathMatcher.getPath();
+        if (path == null) {
+            return;
+        }
+        Node node = root;
+        int depth = 0;
+        for (int start = firstSegment(path); start >= 0; start = nextSegment(path, start)) {
+            int end = segmentEnd(path, start);
+            node = isVariable(path, start, end)
+                    ? node.getOrAddVariable()
+                    : node.getOrAddStatic(path.substring(start, end));
+            depth++;
+        }
+        node.addRoute(new Route(pathMatcher, pair));
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    public synchronized void removeRoute(PathMatcher pathMatcher) {
+        String path = pathMatcher.getPath();
+        if (path == null) {
+            return;
+        }
+        Node node = root;
+        for (int start = firstSegment(path); start >= 0 && node != null; start = nextSegment(path, start)) {
+            int end = segmentEnd(path, start);
+            node = isVariable(path, start, end) ? node.variable : node.getStatic(path, start, end);
+        }
+        if (node != null) {
+            node.removeRoute(new Route(pathMatcher, null));
+        }
+    }
+
+    /**
+     * @return null if no route has the path, else the route of the http method, or any route of the path with
+     * {@link RestRouteMatch#isHttpMethodAllowed()} false
+     */
+    public RestRouteMatch match(String path, String version, String group, Integer port, String httpMethod) {
+        if (path == null) {
+            return null;
+        }
+        Matcher matcher = new Matcher(path, version, group, port, httpMethod, maxDepth);
+        matcher.match(root, firstSegment(path), 0);
+        return matcher.result();
+    }
+
+    private static int firstSegment(String path) {
+        int start = !path.isEmpty() && path.charAt(0) == SEPARATOR ? 1 : 0;
+        return start < path.length() ? start : -1;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf(SEPARATOR, start);
+        return end < 0 ? path.length() : end;
+    }
+
+    /**
+     * a trailing separator starts a last empty segment, like the path matcher "/a/" does not match "/a"
+     */
+    private static int nextSegment(String path, int start) {
+        int end = segmentEnd(path, start);
+        return end == path.length() ? -1 : end + 1;
+    }
+
+    private static boolean isVariable(String path, int start, int end) {
+        // exclude {}
+        return end - start >= 3 && path.charAt(start) == '{' && path.charAt(end - 1) == '}';
+    }
+
+    private static int hash(String path, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + path.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Node {
+
+        private final String segment;
+
+        private final int hash;
+
+        /**
+         * open addressing table of the static children, replaced on every change
+         */
+        private volatile Node[] statics = NO_NODES;
+
+        private int staticCount;
+
+        private volatile Node variable;
+
+        private volatile Route[] routes = NO_ROUTES;
+
+        Node(String segment) {
+            this.segment = segment;
+            this.hash = segment == null ? 0 : hash(segment, 0, segment.length());
+        }
+
+        Node getStatic(String path, int start, int end) {
+            Node[] table = statics;
+            if (table.length == 0) {
+                return null;
+            }
+            int h = hash(path, start, end);
+            int mask = table.length - 1;
+            for (int i = h & mask; ; i = (i + 1) & mask) {
+                Node node = table[i];
+                if (node == null) {
+                    return null;
+                }
+                if (node.hash == h
+                        && node.segment.length() == end - start
+                        && path.regionMatches(start, node.segment, 0, end - start)) {
+                    return node;
+                }
+            }
+        }
+
+        Node getOrAddStatic(String segment) {
+            Node node = getStatic(segment, 0, segment.length());
+            if (node != null) {
+                return node;
+            }
+            node = new Node(segment);
+            Node[] old = statics;
+            int capacity = Math.max(4, old.length);
+            while ((staticCount + 1) * 2 > capacity) {
+                capacity <<= 1;
+            }
+            Node[] table = new Node[capacity];
+            for (Node child : old) {
+                if (child != null) {
+                    insert(table, child);
+                }
+            }
+            insert(table, node);
+            staticCount++;
+            statics = table;
+            return node;
+        }
+
+        private static void insert(Node[] table, Node node) {
+            int mask = table.length - 1;
+            int i = node.hash & mask;
+            while (table[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table[i] = node;
+        }
+
+        Node getOrAddVariable() {
+            Node node = variable;
+            if (node == null) {
+                node = new Node(null);
+                variable = node;
+            }
+            return node;
+        }
+
+        void addRoute(Route route) {
+            Route[] old = routes;
+            for (int i = 0; i < old.length; i++) {
+                if (old[i].sameRoute(route)) {
+                    // re-export
+                    Route[] replaced = old.clone();
+                    replaced[i] = route;
+                    routes = replaced;
+                    return;
+                }
+            }
+            Route[] added = new Route[old.length + 1];
+            System.arraycopy(old, 0, added, 0, old.length);
+            added[old.length] = route;
+            routes = added;
+        }
+
+        void removeRoute(Route route) {
+            Route[] old = routes;
+            for (int i = 0; i < old.length; i++) {
+                if (old[i].sameRoute(route)) {
+                    Route[] removed = new Route[old.length - 1];
+                    System.arraycopy(old, 0, removed, 0, i);
+                    System.arraycopy(old, i + 1, removed, i, old.length - i - 1);
+                    routes = removed;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Route {
+
+        private final String version;
+
+        private final String group;
+
+        private final Integer port;
+
+        private final String httpMethod;
+
+        private final InvokerAndRestMethodMetadataPair pair;
+
+        Route(PathMatcher pathMatcher, InvokerAndRestMethodMetadataPair pair) {
+            this.version = pathMatcher.getVersion();
+            this.group = pathMatcher.getGroup();
+            this.port = pathMatcher.getPort();
+            this.httpMethod = pathMatcher.getHttpMethod();
+            this.pair = pair;
+        }
+
+        boolean accept(String version, String group, Integer port) {
+            return Objects.equals(this.version, version)
+                    && Objects.equals(this.group, group)
+                    && Objects.equals(this.port, port);
+        }
+
+        boolean sameRoute(Route route) {
+            return accept(route.version, route.group, route.port) && Objects.equals(httpMethod, route.httpMethod);
+        }
+    }
+
+    /**
+     * State of one lookup, backtracks to the {@code {var}} segment when the static segments lead to no route.
+     */
+    private static final class Matcher {
+
+        private final String path;
+
+        private final String version;
+
+        private final String group;
+
+        private final Integer port;
+
+        private final String httpMethod;
+
+        /**
+         * start and end of the segment at each depth, start is -1 for a static segment
+         */
+        private final int[] bounds;
+
+        private Route matched;
+
+        private String[] matchedVariables;
+
+        /**
+         * first routes of the path for another http method, for the 405 answer
+         */
+        private Route[] pathRoutes;
+
+        private Route pathRoute;
+
+        private String[] pathVariables;
+
+        Matcher(String path, String version, String group, Integer port, String httpMethod, int maxDepth) {
+            this.path = path;
+            this.version = version;
+            this.group = group;
+            this.port = port;
+            this.httpMethod = httpMethod;
+            this.bounds = new int[maxDepth * 2];
+        }
+
+        boolean match(Node node, int start, int depth) {
+            if (start < 0) {
+                return visit(node, depth);
+            }
+            if (depth * 2 >= bounds.length) {
+                return false;
+            }
+            int end = segmentEnd(path, start);
+            int next = end == path.length() ? -1 : end + 1;
+            Node child = node.getStatic(path, start, end);
+            if (child != null) {
+                bounds[depth * 2] = -1;
+                if (match(child, next, depth + 1)) {
+                    return true;
+                }
+            }
+            Node variable = node.variable;
+            if (variable != null && end > start) {
+                bounds[depth * 2] = start;
+                bounds[depth * 2 + 1] = end;
+                return match(variable, next, depth + 1);
+            }
+            return false;
+        }
+
+        private boolean visit(Node node, int depth) {
+            Route[] routes = node.routes;
+            Route other = null;
+            for (Route route : routes) {
+                if (!route.accept(version, group, port)) {
+                    continue;
+                }
+                if (Objects.equals(route.httpMethod, httpMethod)) {
+                    matched = route;
+                    matchedVariables = variables(depth);
+                    return true;
+                }
+                if (other == null) {
+                    other = route;
+                }
+            }
+            if (other != null && pathRoute == null) {
+                pathRoutes = routes;
+                pathRoute = other;
+                pathVariables = variables(depth);
+            }
+            return false;
+        }
+
+        /**
+         * indexed like the split path, which starts with the empty string before the first separator
+         */
+        private String[] variables(int depth) {
+            String[] variables = new String[depth + 1];
+            for (int i = 0; i < depth; i++) {
+                int start = bounds[i * 2];
+                if (start >= 0) {
+                    variables[i + 1] = path.substring(start, bounds[i * 2 + 1]);
+                }
+            }
+            return variables;
+        }
+
+        RestRouteMatch result() {
+            if (matched != null) {
+                return new RestRouteMatch(matched.pair, true, null, matchedVariables);
+            }
+            if (pathRoute == null) {
+                return null;
+            }
+            Set<String> allowedHttpMethods = new LinkedHashSet<>();
+            for (Route route : pathRoutes) {
+                if (route.accept(version, group, port)) {
+                    allowedHttpMethods.add(route.httpMethod);
+                }
+            }
+            return new RestRouteMatch(pathRoute.pair, false, allowedHttpMethods, pathVariables);
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class ProviderParseContext extends BaseParseContext {
     private RequestFacade requestFacade;
     private Object response;
     private Object request;
+    private String[] pathVariables;
 
     public ProviderParseContext(RequestFacade request) {
         this.requestFacade = request;
@@ -54,8 +55,17 @@ public class ProviderParseContext extends BaseParseContext {
         this.request = request;
     }
 
+    public void setPathVariables(String[] pathVariables) {
+        this.pathVariables = pathVariables;
+    }
+
     public String getPathVariable(int urlSplitIndex) {
 
+        // extracted while matching the route
+        if (pathVariables != null && urlSplitIndex < pathVariables.length && pathVariables[urlSplitIndex] != null) {
+            return pathVariables[urlSplitIndex];
+        }
+
         String[] split = getRequestFacade().getRequestURI().split("/");
 
         return split[urlSplitIndex];
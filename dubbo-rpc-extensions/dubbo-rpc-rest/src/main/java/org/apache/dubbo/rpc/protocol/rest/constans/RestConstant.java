@@ -56,6 +56,7 @@ public interface RestConstant {
     String MAX_REQUEST_SIZE_PARAM = "max.request.size";
     String IDLE_TIMEOUT_PARAM = "idle.timeout";
     String KEEP_ALIVE_TIMEOUT_PARAM = "keep.alive.timeout";
+    String RESPONSE_CHUNK_SIZE_PARAM = "response.chunk.size";
     String DEFAULT_CHARSET = "UTF-8";
 
     int MAX_REQUEST_SIZE = 1024 * 1024 * 10;
@@ -64,6 +65,7 @@ public interface RestConstant {
     int MAX_CHUNK_SIZE = 8192;
     int IDLE_TIMEOUT = -1;
     int KEEP_ALIVE_TIMEOUT = 60;
+    int RESPONSE_CHUNK_SIZE = 1024 * 64;
 
     /**
      * ServerAttachment  pathAndInvokerMapper key
@@ -23,7 +23,6 @@ import org.apache.dubbo.common.extension.Activate;
 import org.apache.dubbo.common.logger.ErrorTypeAwareLogger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.metadata.extension.rest.api.media.MediaType;
-import org.apache.dubbo.metadata.extension.rest.api.PathMatcher;
 import org.apache.dubbo.metadata.extension.rest.api.RestMethodMetadata;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
@@ -31,6 +30,7 @@ import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.model.FrameworkModel;
 import org.apache.dubbo.rpc.protocol.rest.RestHeaderEnum;
 import org.apache.dubbo.rpc.protocol.rest.RestRPCInvocationUtil;
+import org.apache.dubbo.rpc.protocol.rest.RestRouteMatch;
 import org.apache.dubbo.rpc.protocol.rest.deploy.ServiceDeployer;
 import org.apache.dubbo.rpc.protocol.rest.exception.PathNoFoundException;
 import org.apache.dubbo.rpc.protocol.rest.exception.UnSupportContentTypeException;
@@ -82,26 +82,25 @@ public class ServiceInvokeRestFilter implements RestRequestFilter {
             Object originRequest, // resteasy  request
             ServiceDeployer serviceDeployer)
             throws Exception {
-        PathMatcher pathMatcher = RestRPCInvocationUtil.createPathMatcher(request);
+        RestRouteMatch routeMatch = RestRPCInvocationUtil.matchRoute(request);
 
         // path NoFound 404
-        if (!serviceDeployer.hashRestMethod(pathMatcher)) {
-            throw new PathNoFoundException("rest service Path no found, current path info:" + pathMatcher);
+        if (routeMatch == null) {
+            throw new PathNoFoundException(
+                    "rest service Path no found, current path info:" + RestRPCInvocationUtil.createPathMatcher(request));
         }
 
         // method disallowed
-        if (!serviceDeployer.isMethodAllowed(pathMatcher)) {
+        if (!routeMatch.isHttpMethodAllowed()) {
             nettyHttpResponse.sendError(
                     405,
                     "service require request method is : "
-                            + serviceDeployer.pathHttpMethods(pathMatcher)
+                            + routeMatch.getAllowedHttpMethods()
                             + ", but current request method is: " + request.getMethod());
             return;
         }
-        // compare http method and  acquire metadata by request
-        InvokerAndRestMethodMetadataPair restMethodMetadataPair =
-                RestRPCInvocationUtil.getRestMethodMetadataAndInvokerPair(
-                        pathMatcher.compareHttpMethod(true), serviceDeployer);
+        // metadata of the request http method
+        InvokerAndRestMethodMetadataPair restMethodMetadataPair = routeMatch.getPair();
 
         Invoker invoker = restMethodMetadataPair.getInvoker();
 
@@ -115,7 +114,12 @@ public class ServiceInvokeRestFilter implements RestRequestFilter {
 
         // parse method real args
         RestRPCInvocationUtil.parseMethodArgs(
-                rpcInvocation, request, nettyHttpRequest, nettyHttpResponse, restMethodMetadata);
+                rpcInvocation,
+                request,
+                nettyHttpRequest,
+                nettyHttpResponse,
+                restMethodMetadata,
+                routeMatch.getPathVariables());
 
         // execute business  method invoke
         Result result = invoker.invoke(rpcInvocation);
@@ -21,51 +21,93 @@ import org.apache.dubbo.metadata.extension.rest.api.media.MediaType;
 import org.apache.dubbo.rpc.model.FrameworkModel;
 import org.apache.dubbo.rpc.protocol.rest.exception.UnSupportContentTypeException;
 import org.apache.dubbo.rpc.protocol.rest.pair.MessageCodecResultPair;
+import org.apache.dubbo.rpc.protocol.rest.request.RequestFacade;
 
 import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class HttpMessageCodecManager {
     private static final Set<HttpMessageCodec> httpMessageCodecs = FrameworkModel.defaultModel()
             .getExtensionLoader(HttpMessageCodec.class)
             .getSupportedExtensionInstances();
 
+    // selected codec by media type and body type, instead of probing every codec per message
+    private static final Map<MediaType, Map<Class<?>, HttpMessageCodec>> mediaTypeCodecs = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, HttpMessageCodec> noMediaTypeCodecs = new ConcurrentHashMap<>();
+
     public static Object httpMessageDecode(byte[] body, Class<?> type, Type actualType, MediaType mediaType)
             throws Exception {
         if (body == null || body.length == 0) {
             return null;
         }
 
-        for (HttpMessageCodec httpMessageCodec : httpMessageCodecs) {
-            if (httpMessageCodec.contentTypeSupport(mediaType, type) || typeJudge(mediaType, type, httpMessageCodec)) {
-                return httpMessageCodec.decode(body, type, actualType);
-            }
+        return getCodec(mediaType, type).decode(body, type, actualType);
+    }
+
+    /**
+     * decode the request body, the text codecs read it from the request buffer
+     *
+     * @param request
+     * @param type
+     * @param actualType
+     * @param mediaType
+     * @return
+     * @throws Exception
+     */
+    public static Object httpMessageDecode(RequestFacade request, Class<?> type, Type actualType, MediaType mediaType)
+            throws Exception {
+        if (!request.hasBody()) {
+            return null;
         }
-        throw new UnSupportContentTypeException("UnSupport content-type :" + mediaType.value);
+
+        HttpMessageCodec httpMessageCodec = getCodec(mediaType, type);
+        if (httpMessageCodec instanceof HttpMessageTextDecode) {
+            return ((HttpMessageTextDecode) httpMessageCodec)
+                    .decodeText(request.getBodyString(StandardCharsets.UTF_8), type, actualType);
+        }
+        return httpMessageCodec.decode(request.getInputStream(), type, actualType);
     }
 
     public static MessageCodecResultPair httpMessageEncode(
         OutputStream outputStream, Object unSerializedBody, URL url, MediaType mediaType, Class<?> bodyType)
             throws Exception {
 
+        HttpMessageCodec httpMessageCodec = getCodec(mediaType, bodyType);
+
         if (unSerializedBody == null) {
-            for (HttpMessageCodec httpMessageCodec : httpMessageCodecs) {
-                if (httpMessageCodec.contentTypeSupport(mediaType, bodyType)
-                        || typeJudge(mediaType, bodyType, httpMessageCodec)) {
-                    return MessageCodecResultPair.pair(false, httpMessageCodec.contentType());
-                }
-            }
+            return MessageCodecResultPair.pair(false, httpMessageCodec.contentType());
         }
 
+        httpMessageCodec.encode(outputStream, unSerializedBody, url);
+        return MessageCodecResultPair.pair(true, httpMessageCodec.contentType());
+    }
+
+    private static HttpMessageCodec getCodec(MediaType mediaType, Class<?> type) throws UnSupportContentTypeException {
+        if (type == null) {
+            return findCodec(mediaType, type);
+        }
+
+        Map<Class<?>, HttpMessageCodec> typeCodecs = mediaType == null
+                ? noMediaTypeCodecs
+                : mediaTypeCodecs.computeIfAbsent(mediaType, k -> new ConcurrentHashMap<>());
+        HttpMessageCodec httpMessageCodec = typeCodecs.get(type);
+        if (httpMessageCodec == null) {
+            httpMessageCodec = findCodec(mediaType, type);
+            typeCodecs.put(type, httpMessageCodec);
+        }
+        return httpMessageCodec;
+    }
+
+    private static HttpMessageCodec findCodec(MediaType mediaType, Class<?> type) throws UnSupportContentTypeException {
         for (HttpMessageCodec httpMessageCodec : httpMessageCodecs) {
-            if (httpMessageCodec.contentTypeSupport(mediaType, bodyType)
-                    || typeJudge(mediaType, bodyType, httpMessageCodec)) {
-                httpMessageCodec.encode(outputStream, unSerializedBody, url);
-                return MessageCodecResultPair.pair(true, httpMessageCodec.contentType());
+            if (httpMessageCodec.contentTypeSupport(mediaType, type) || typeJudge(mediaType, type, httpMessageCodec)) {
+                return httpMessageCodec;
             }
         }
-
         throw new UnSupportContentTypeException("UnSupport content-type :" + mediaType.value);
     }
 
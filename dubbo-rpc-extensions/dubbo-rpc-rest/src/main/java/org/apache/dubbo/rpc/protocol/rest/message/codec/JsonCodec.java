@@ -21,7 +21,9 @@ import org.apache.dubbo.common.extension.Activate;
 import org.apache.dubbo.common.utils.JsonUtils;
 import org.apache.dubbo.metadata.extension.rest.api.media.MediaType;
 import org.apache.dubbo.rpc.protocol.rest.message.HttpMessageCodec;
+import org.apache.dubbo.rpc.protocol.rest.message.HttpMessageTextDecode;
 import org.apache.dubbo.rpc.protocol.rest.message.MediaTypeMatcher;
+import org.apache.dubbo.rpc.protocol.rest.netty.ChunkOutputStream;
 import org.apache.dubbo.rpc.protocol.rest.util.DataParseUtils;
 
 import java.io.OutputStream;
@@ -34,13 +36,17 @@ import java.util.Set;
  * body is json
  */
 @Activate(value = "json", order = 100)
-public class JsonCodec implements HttpMessageCodec<byte[], OutputStream> {
+public class JsonCodec implements HttpMessageCodec<byte[], OutputStream>, HttpMessageTextDecode {
     private static final Set<Class> unSupportClasses = new HashSet<>();
 
     static {
         unSupportClasses.add(byte[].class);
     }
 
+    /**
+     * called while the codec extensions are loaded, before {@link org.apache.dubbo.rpc.protocol.rest.message.HttpMessageCodecManager}
+     * memoizes its codec selections
+     */
     public static void addUnSupportClass(Class<?> unSupportClass) {
         unSupportClasses.add(unSupportClass);
     }
@@ -50,6 +56,11 @@ public class JsonCodec implements HttpMessageCodec<byte[], OutputStream> {
         return DataParseUtils.jsonConvert(actualType, body);
     }
 
+    @Override
+    public Object decodeText(String body, Class<?> targetType, Type actualType) throws Exception {
+        return DataParseUtils.jsonConvert(actualType, body);
+    }
+
     @Override
     public boolean contentTypeSupport(MediaType mediaType, Class<?> targetType) {
         return MediaTypeMatcher.APPLICATION_JSON.mediaSupport(mediaType) && !unSupportClasses.contains(targetType);
@@ -67,6 +78,12 @@ public class JsonCodec implements HttpMessageCodec<byte[], OutputStream> {
 
     @Override
     public void encode(OutputStream outputStream, Object unSerializedBody, URL url) throws Exception {
-        outputStream.write(JsonUtils.toJson(unSerializedBody).getBytes(StandardCharsets.UTF_8));
+        String json = JsonUtils.toJson(unSerializedBody);
+        if (outputStream instanceof ChunkOutputStream) {
+            // encode into the response buffer, without the intermediate byte array
+            ((ChunkOutputStream) outputStream).write(json, StandardCharsets.UTF_8);
+        } else {
+            outputStream.write(json.getBytes(StandardCharsets.UTF_8));
+        }
     }
 }
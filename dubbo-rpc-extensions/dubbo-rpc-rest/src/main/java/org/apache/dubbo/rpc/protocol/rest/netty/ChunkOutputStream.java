@@ -17,45 +17,83 @@
 package org.apache.dubbo.rpc.protocol.rest.netty;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import org.apache.dubbo.remoting.transport.ExceedPayloadLimitException;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
+/**
+ * Response body, kept in pooled buffers of the channel of at most {@code response.chunk.size} bytes until the
+ * response is finished, as the response filters may still reset it or add headers.
+ * <p>
+ * A body of one buffer is written with the headers as a fixed length response, see {@link NettyHttpResponse#finish()}.
+ * Otherwise the buffers are handed over to the channel as http chunks without being copied, waiting for the
+ * channel to drain whenever it is not writable. Once {@link #flush()} has committed the response, every full
+ * buffer is sent right away, so only one buffer of a streamed body is held at a time.
+ */
 public class ChunkOutputStream extends OutputStream {
-    final ByteBuf buffer;
+    private static final int INITIAL_CAPACITY = 256;
+
     final ChannelHandlerContext ctx;
     final NettyHttpResponse response;
+    // payload limit of the body held in memory
     int chunkSize = 0;
+    private final int bufferSize;
+    // full buffers, not written yet
+    private final Deque<ByteBuf> chunks = new ArrayDeque<>();
+    private ByteBuf buffer;
+    private long pending;
+    private boolean written;
 
-    ChunkOutputStream(final NettyHttpResponse response, final ChannelHandlerContext ctx, final int chunkSize) {
+    ChunkOutputStream(
+            final NettyHttpResponse response, final ChannelHandlerContext ctx, final int chunkSize, final int bufferSize) {
         this.response = response;
         if (chunkSize < 1) {
             throw new IllegalArgumentException();
         }
-        this.buffer = Unpooled.buffer(0, chunkSize);
         this.chunkSize = chunkSize;
+        // the text writes take up to a third of a buffer
+        this.bufferSize = Math.max(INITIAL_CAPACITY, Math.min(bufferSize, chunkSize));
         this.ctx = ctx;
     }
 
     @Override
     public void write(int b) throws IOException {
-        if (buffer.maxWritableBytes() < 1) {
-            throwExceedPayloadLimitException(buffer.readableBytes() + 1);
-        }
-        buffer.writeByte(b);
+        reserve(1);
+        buffer(1).writeByte(b);
     }
 
-    private void throwExceedPayloadLimitException(int dataSize) throws ExceedPayloadLimitException {
+    private void throwExceedPayloadLimitException(long dataSize) throws ExceedPayloadLimitException {
         throw new ExceedPayloadLimitException("Data length too large: " + dataSize + ", max payload: " + chunkSize);
     }
 
     public void reset() {
         if (response.isCommitted()) throw new IllegalStateException();
-        buffer.clear();
+        release();
+    }
+
+    /**
+     * releases the buffers not handed over to the channel, e.g. once the response failed
+     */
+    void release() {
+        ByteBuf chunk;
+        while ((chunk = chunks.poll()) != null) {
+            chunk.release();
+        }
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+        pending = 0;
     }
 
     @Override
@@ -66,19 +104,133 @@ public class ChunkOutputStream extends OutputStream {
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        if (buffer.maxWritableBytes() < len) {
-            throwExceedPayloadLimitException(buffer.readableBytes() + len);
+        reserve(len);
+        while (len > 0) {
+            ByteBuf chunk = buffer(1);
+            int n = Math.min(len, chunk.maxWritableBytes());
+            chunk.writeBytes(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Encodes the chars straight into the buffers, without an intermediate byte array of the whole text.
+     */
+    public void write(CharSequence chars, Charset charset) throws IOException {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            byte[] bytes = chars.toString().getBytes(charset);
+            write(bytes, 0, bytes.length);
+            return;
+        }
+        // a text over the limit fails before any of it is written
+        int total = ByteBufUtil.utf8Bytes(chars);
+        reserve(total);
+        // at most 3 bytes per char, so that a piece always fits an empty buffer
+        int step = bufferSize / 3;
+        int length = chars.length();
+        for (int start = 0; start < length; ) {
+            int end = Math.min(length, start + step);
+            if (end < length && Character.isHighSurrogate(chars.charAt(end - 1))) {
+                end--;
+            }
+            boolean whole = start == 0 && end == length;
+            CharSequence piece = whole ? chars : chars.subSequence(start, end);
+            int len = whole ? total : ByteBufUtil.utf8Bytes(piece);
+            ByteBufUtil.reserveAndWriteUtf8(buffer(len), piece, len);
+            start = end;
         }
-        buffer.writeBytes(b, off, len);
     }
 
     @Override
     public void flush() throws IOException {
-        int readable = buffer.readableBytes();
-        if (readable == 0) return;
+        if (pending == 0) {
+            // nothing to send, an empty buffer left over by the writes is dropped
+            if (buffer != null && !buffer.isReadable()) {
+                buffer.release();
+                buffer = null;
+            }
+            return;
+        }
         if (!response.isCommitted()) response.prepareChunkStream();
-        ctx.write(new DefaultHttpContent(buffer.copy()));
-        buffer.clear();
+        try {
+            ByteBuf chunk;
+            while ((chunk = chunks.poll()) != null) {
+                writeChunk(chunk);
+            }
+            chunk = buffer;
+            buffer = null;
+            if (chunk != null) {
+                writeChunk(chunk);
+            }
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
         super.flush();
     }
+
+    /**
+     * whether the body fits one buffer, to be written with {@link #drain()}
+     */
+    boolean isSingleChunk() {
+        return chunks.isEmpty();
+    }
+
+    /**
+     * takes the only buffer of the body, the caller is in charge of releasing it
+     */
+    ByteBuf drain() {
+        ByteBuf content = buffer == null ? Unpooled.EMPTY_BUFFER : buffer;
+        buffer = null;
+        pending = 0;
+        return content;
+    }
+
+    private void reserve(int len) throws ExceedPayloadLimitException {
+        if (pending + len > chunkSize) {
+            throwExceedPayloadLimitException(pending + len);
+        }
+        pending += len;
+    }
+
+    private ByteBuf buffer(int minWritable) throws IOException {
+        ByteBuf chunk = buffer;
+        if (chunk != null && chunk.maxWritableBytes() >= minWritable) {
+            return chunk;
+        }
+        if (chunk != null) {
+            buffer = null;
+            completeChunk(chunk);
+        }
+        // the first buffer grows with a small body, the next ones are for a large body
+        int initialCapacity = written ? bufferSize : Math.max(minWritable, INITIAL_CAPACITY);
+        written = true;
+        buffer = ctx.alloc().buffer(initialCapacity, bufferSize);
+        return buffer;
+    }
+
+    private void completeChunk(ByteBuf chunk) throws IOException {
+        if (response.isCommitted()) {
+            writeChunk(chunk);
+        } else {
+            chunks.add(chunk);
+        }
+    }
+
+    private void writeChunk(ByteBuf chunk) throws IOException {
+        if (!chunk.isReadable()) {
+            chunk.release();
+            return;
+        }
+        pending -= chunk.readableBytes();
+        ChannelFuture future = ctx.writeAndFlush(new DefaultHttpContent(chunk));
+        if (!ctx.channel().isWritable() && !ctx.executor().inEventLoop()) {
+            // back-pressure, the chunk written last leaves the outbound buffer once the channel has drained
+            future.awaitUninterruptibly();
+            if (!future.isSuccess()) {
+                throw new IOException("Failed to write the response chunk", future.cause());
+            }
+        }
+    }
 }
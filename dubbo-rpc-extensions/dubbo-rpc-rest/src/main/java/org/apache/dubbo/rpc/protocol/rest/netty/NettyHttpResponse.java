@@ -16,20 +16,24 @@
  */
 package org.apache.dubbo.rpc.protocol.rest.netty;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpResponse;
-import io.netty.handler.codec.http.HttpHeaders;
-import io.netty.handler.codec.http.HttpHeaders.Names;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.metadata.extension.rest.api.media.MediaType;
 import org.apache.dubbo.remoting.Constants;
 import org.apache.dubbo.rpc.protocol.rest.RestHeaderEnum;
+import org.apache.dubbo.rpc.protocol.rest.constans.RestConstant;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -45,9 +49,9 @@ import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
  * netty http response
  */
 public class NettyHttpResponse implements HttpResponse {
-    private static final int EMPTY_CONTENT_LENGTH = 0;
     private int status = 200;
     private OutputStream os;
+    private final ChunkOutputStream chunkOutputStream;
     private Map<String, List<String>> outputHeaders;
     private final ChannelHandlerContext ctx;
     private boolean committed;
@@ -65,7 +69,12 @@ public class NettyHttpResponse implements HttpResponse {
     public NettyHttpResponse(final ChannelHandlerContext ctx, final boolean keepAlive, HttpMethod method, URL url) {
         outputHeaders = new HashMap<>();
         this.method = method;
-        os = new ChunkOutputStream(this, ctx, url.getParameter(Constants.PAYLOAD_KEY, Constants.DEFAULT_PAYLOAD));
+        chunkOutputStream = new ChunkOutputStream(
+                this,
+                ctx,
+                url.getParameter(Constants.PAYLOAD_KEY, Constants.DEFAULT_PAYLOAD),
+                url.getParameter(RestConstant.RESPONSE_CHUNK_SIZE_PARAM, RestConstant.RESPONSE_CHUNK_SIZE));
+        os = chunkOutputStream;
         this.ctx = ctx;
         this.keepAlive = keepAlive;
     }
@@ -136,9 +145,14 @@ public class NettyHttpResponse implements HttpResponse {
     }
 
     public DefaultHttpResponse getEmptyHttpResponse() {
-        DefaultFullHttpResponse res = new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.valueOf(getStatus()));
+        return getFullHttpResponse(Unpooled.EMPTY_BUFFER);
+    }
+
+    private DefaultFullHttpResponse getFullHttpResponse(ByteBuf content) {
+        DefaultFullHttpResponse res =
+                new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.valueOf(getStatus()), content);
         if (method == null || !method.equals(HttpMethod.HEAD)) {
-            res.headers().add(Names.CONTENT_LENGTH, EMPTY_CONTENT_LENGTH);
+            res.headers().add(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
         }
         transformResponseHeaders(res);
 
@@ -152,18 +166,26 @@ public class NettyHttpResponse implements HttpResponse {
     public void prepareChunkStream() {
         committed = true;
         DefaultHttpResponse response = getDefaultHttpResponse();
-        HttpHeaders.setTransferEncodingChunked(response);
+        HttpUtil.setTransferEncodingChunked(response, true);
         ctx.write(response);
     }
 
     public void finish() throws IOException {
-        if (os != null) os.flush();
         ChannelFuture future;
-        if (isCommitted()) {
-            // if committed this means the output stream was used.
-            future = ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
-        } else {
-            future = ctx.writeAndFlush(getEmptyHttpResponse());
+        try {
+            if (os != null && os != chunkOutputStream) os.flush();
+            if (!isCommitted() && chunkOutputStream.isSingleChunk()) {
+                // small body, one write with its length
+                future = ctx.writeAndFlush(getFullHttpResponse(chunkOutputStream.drain()));
+            } else {
+                // if committed this means the output stream was used.
+                chunkOutputStream.flush();
+                future = ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the body won't be sent
+            chunkOutputStream.release();
+            throw e;
         }
 
         if (!isKeepAlive()) {
@@ -200,9 +222,9 @@ public class NettyHttpResponse implements HttpResponse {
     public static void transformHeaders(
             NettyHttpResponse nettyResponse, io.netty.handler.codec.http.HttpResponse response) {
         if (nettyResponse.isKeepAlive()) {
-            response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
         } else {
-            response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
         }
 
         for (Map.Entry<String, List<String>> entry :
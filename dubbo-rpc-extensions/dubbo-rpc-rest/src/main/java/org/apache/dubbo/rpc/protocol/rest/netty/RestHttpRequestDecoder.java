@@ -31,6 +31,7 @@ import org.apache.dubbo.rpc.protocol.rest.request.NettyRequestFacade;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.apache.dubbo.config.Constants.SERVER_THREAD_POOL_NAME;
 
@@ -60,8 +61,21 @@ public class RestHttpRequestDecoder extends MessageToMessageDecoder<io.netty.han
         NettyHttpResponse nettyHttpResponse = new NettyHttpResponse(ctx, keepAlive, url);
         NettyRequestFacade requestFacade = new NettyRequestFacade(request, ctx, serviceDeployer);
 
-        executor.execute(() -> {
+        // the body is read by the business thread, the decoder releases the request when this method returns
+        request.retain();
+        try {
+            executor.execute(() -> handle(requestFacade, nettyHttpResponse, request));
+        } catch (RejectedExecutionException e) {
+            request.release();
+            throw e;
+        }
+    }
 
+    private void handle(
+            NettyRequestFacade requestFacade,
+            NettyHttpResponse nettyHttpResponse,
+            io.netty.handler.codec.http.FullHttpRequest request) {
+        try {
             // business handler
             try {
                 nettyHttpHandler.handle(requestFacade, nettyHttpResponse);
@@ -82,6 +96,8 @@ public class RestHttpRequestDecoder extends MessageToMessageDecoder<io.netty.han
                             e);
                 }
             }
-        });
+        } finally {
+            request.release();
+        }
     }
 }
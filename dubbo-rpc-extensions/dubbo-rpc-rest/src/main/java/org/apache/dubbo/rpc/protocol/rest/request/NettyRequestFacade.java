@@ -17,15 +17,15 @@
 package org.apache.dubbo.rpc.protocol.rest.request;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpContent;
-import org.apache.dubbo.common.utils.IOUtils;
 import org.apache.dubbo.rpc.protocol.rest.deploy.ServiceDeployer;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -41,6 +41,12 @@ public class NettyRequestFacade extends RequestFacade<FullHttpRequest> {
 
     private ChannelHandlerContext context;
 
+    /**
+     * content of the request, retained by {@link org.apache.dubbo.rpc.protocol.rest.netty.RestHttpRequestDecoder}
+     * until the response is written
+     */
+    private ByteBuf content;
+
     public NettyRequestFacade(Object request, ChannelHandlerContext context) {
         super((FullHttpRequest) request);
         this.context = context;
@@ -231,20 +237,25 @@ public class NettyRequestFacade extends RequestFacade<FullHttpRequest> {
     @Override
     public byte[] getInputStream() throws IOException {
 
+        if (body.length == 0 && content.isReadable()) {
+            body = ByteBufUtil.getBytes(content);
+        }
         return body;
     }
 
-    protected void parseBody() {
-        ByteBuf byteBuf = ((HttpContent) request).content();
-
-        if (byteBuf.readableBytes() > 0) {
+    @Override
+    public boolean hasBody() {
+        return content.isReadable();
+    }
 
-            try {
-                body = IOUtils.toByteArray(new ByteBufInputStream(byteBuf));
-            } catch (IOException e) {
+    @Override
+    public String getBodyString(Charset charset) {
+        return content.toString(charset);
+    }
 
-            }
-        }
+    protected void parseBody() {
+        // copied lazily, the text codecs decode the content directly
+        content = ((HttpContent) request).content();
     }
 
     public ChannelHandlerContext getNettyChannelContext() {
@@ -23,6 +23,7 @@ import org.apache.dubbo.rpc.protocol.rest.util.DataParseUtils;
 
 import java.io.IOException;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -150,6 +151,21 @@ public abstract class RequestFacade<T> {
 
     public abstract byte[] getInputStream() throws IOException;
 
+    public boolean hasBody() throws IOException {
+        return getInputStream().length > 0;
+    }
+
+    /**
+     * body as text, overridden to decode it without the byte array copy
+     *
+     * @param charset
+     * @return
+     * @throws IOException
+     */
+    public String getBodyString(Charset charset) throws IOException {
+        return new String(getInputStream(), charset);
+    }
+
     protected abstract void parseBody();
 
     public ServiceDeployer getServiceDeployer() {
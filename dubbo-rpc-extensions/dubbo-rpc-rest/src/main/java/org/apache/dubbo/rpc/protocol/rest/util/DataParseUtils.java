@@ -161,7 +161,11 @@ public class DataParseUtils {
     }
 
     public static Object jsonConvert(Type targetType, byte[] body) throws Exception {
-        return JsonUtils.toJavaObject(new String(body, StandardCharsets.UTF_8), targetType);
+        return jsonConvert(targetType, new String(body, StandardCharsets.UTF_8));
+    }
+
+    public static Object jsonConvert(Type targetType, String body) throws Exception {
+        return JsonUtils.toJavaObject(body, targetType);
     }
 
     public static Object multipartFormConvert(byte[] body, Charset charset, Class<?> targetType) throws Exception {
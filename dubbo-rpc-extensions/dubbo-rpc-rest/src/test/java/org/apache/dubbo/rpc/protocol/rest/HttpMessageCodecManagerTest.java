@@ -16,15 +16,22 @@
  */
 package org.apache.dubbo.rpc.protocol.rest;
 
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.dubbo.common.utils.JsonUtils;
 import org.apache.dubbo.metadata.extension.rest.api.media.MediaType;
 import org.apache.dubbo.rpc.protocol.rest.message.HttpMessageCodecManager;
 import org.apache.dubbo.rpc.protocol.rest.message.codec.XMLCodec;
 import org.apache.dubbo.rpc.protocol.rest.pair.MessageCodecResultPair;
+import org.apache.dubbo.rpc.protocol.rest.request.NettyRequestFacade;
 import org.apache.dubbo.rpc.protocol.rest.rest.RegistrationResult;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
 public class HttpMessageCodecManagerTest {
 
@@ -57,4 +64,28 @@ public class HttpMessageCodecManagerTest {
 
         Assertions.assertEquals(false, xmlCodec.typeSupport(null));
     }
+
+    @Test
+    void testDecodeRequestBody() throws Exception {
+        RegistrationResult registrationResult = new RegistrationResult();
+        registrationResult.setId(1l);
+
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1,
+                HttpMethod.POST,
+                "/a",
+                Unpooled.copiedBuffer(JsonUtils.toJson(registrationResult), StandardCharsets.UTF_8));
+        NettyRequestFacade requestFacade = new NettyRequestFacade(request, null);
+
+        Object o = HttpMessageCodecManager.httpMessageDecode(
+                requestFacade, RegistrationResult.class, RegistrationResult.class, MediaType.APPLICATION_JSON_VALUE);
+        Assertions.assertEquals(registrationResult, o);
+
+        // the content is not consumed
+        Assertions.assertEquals(
+                JsonUtils.toJson(registrationResult),
+                new String(requestFacade.getInputStream(), StandardCharsets.UTF_8));
+
+        request.release();
+    }
 }
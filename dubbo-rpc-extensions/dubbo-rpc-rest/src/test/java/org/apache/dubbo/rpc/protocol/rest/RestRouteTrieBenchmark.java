@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.rest;
+
+import org.apache.dubbo.metadata.extension.rest.api.PathMatcher;
+import org.apache.dubbo.rpc.protocol.rest.pair.InvokerAndRestMethodMetadataPair;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link RestRouteTrie} lookup of a request path with the {@link PathMatcher} map lookup it replaces.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.apache.dubbo.rpc.protocol.rest.RestRouteTrieBenchmark},
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestRouteTrieBenchmark {
+
+    @Param({"10", "100", "2000"})
+    private int routeCount;
+
+    private RestRouteTrie trie;
+
+    private Map<PathMatcher, InvokerAndRestMethodMetadataPair> pathMatchers;
+
+    private String[] paths;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        trie = new RestRouteTrie();
+        pathMatchers = new HashMap<>();
+        paths = new String[routeCount];
+        for (int i = 0; i < routeCount; i++) {
+            // half of the routes have a path variable
+            PathMatcher pathMatcher = new PathMatcher(
+                    i % 2 == 0 ? "/service" + i + "/items/{id}" : "/service" + i + "/items", "1.0", "g", null, "GET");
+            InvokerAndRestMethodMetadataPair pair = InvokerAndRestMethodMetadataPair.pair(null, null);
+            trie.addRoute(pathMatcher, pair);
+            pathMatchers.put(pathMatcher, pair);
+            paths[i] = i % 2 == 0 ? "/service" + i + "/items/" + i : "/service" + i + "/items";
+        }
+    }
+
+    @Benchmark
+    public RestRouteMatch trie() {
+        return trie.match(nextPath(), "1.0", "g", null, "GET");
+    }
+
+    @Benchmark
+    public InvokerAndRestMethodMetadataPair pathMatcher() {
+        return pathMatchers.get(PathMatcher.getInvokeCreatePathMatcher(nextPath(), "1.0", "g", null, "GET"));
+    }
+
+    private String nextPath() {
+        String path = paths[next];
+        next = next + 1 == paths.length ? 0 : next + 1;
+        return path;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RestRouteTrieBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
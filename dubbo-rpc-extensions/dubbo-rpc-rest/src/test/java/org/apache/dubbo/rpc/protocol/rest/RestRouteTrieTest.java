@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.rest;
+
+import org.apache.dubbo.metadata.extension.rest.api.PathMatcher;
+import org.apache.dubbo.rpc.protocol.rest.pair.InvokerAndRestMethodMetadataPair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RestRouteTrieTest {
+
+    private static InvokerAndRestMethodMetadataPair pair() {
+        return InvokerAndRestMethodMetadataPair.pair(null, null);
+    }
+
+    @Test
+    void testStaticBeforeVariable() {
+        RestRouteTrie trie = new RestRouteTrie();
+        InvokerAndRestMethodMetadataPair byId = pair();
+        InvokerAndRestMethodMetadataPair me = pair();
+        InvokerAndRestMethodMetadataPair orders = pair();
+        trie.addRoute(new PathMatcher("/users/{id}", "1.0", "g", null, "GET"), byId);
+        trie.addRoute(new PathMatcher("/users/me", "1.0", "g", null, "GET"), me);
+        trie.addRoute(new PathMatcher("/users/me/orders/{orderId}", "1.0", "g", null, "GET"), orders);
+
+        Assertions.assertSame(me, trie.match("/users/me", "1.0", "g", null, "GET").getPair());
+
+        RestRouteMatch match = trie.match("/users/42", "1.0", "g", null, "GET");
+        Assertions.assertSame(byId, match.getPair());
+        Assertions.assertArrayEquals(new String[] {null, null, "42"}, match.getPathVariables());
+
+        match = trie.match("/users/me/orders/7", "1.0", "g", null, "GET");
+        Assertions.assertSame(orders, match.getPair());
+        Assertions.assertEquals("7", match.getPathVariables()[4]);
+
+        Assertions.assertNull(trie.match("/users", "1.0", "g", null, "GET"));
+        Assertions.assertNull(trie.match("/users/me/", "1.0", "g", null, "GET"));
+        Assertions.assertNull(trie.match("/users/42", "2.0", "g", null, "GET"));
+    }
+
+    @Test
+    void testBacktrackToVariable() {
+        RestRouteTrie trie = new RestRouteTrie();
+        InvokerAndRestMethodMetadataPair detail = pair();
+        trie.addRoute(new PathMatcher("/a/b", null, null, null, "GET"), pair());
+        trie.addRoute(new PathMatcher("/a/{x}/c", null, null, null, "GET"), detail);
+
+        RestRouteMatch match = trie.match("/a/b/c", null, null, null, "GET");
+        Assertions.assertSame(detail, match.getPair());
+        Assertions.assertEquals("b", match.getPathVariables()[2]);
+    }
+
+    @Test
+    void testMethodNotAllowed() {
+        RestRouteTrie trie = new RestRouteTrie();
+        trie.addRoute(new PathMatcher("/users/{id}", null, null, null, "GET"), pair());
+        trie.addRoute(new PathMatcher("/users/{id}", null, null, null, "DELETE"), pair());
+
+        RestRouteMatch match = trie.match("/users/1", null, null, null, "POST");
+        Assertions.assertFalse(match.isHttpMethodAllowed());
+        Assertions.assertEquals(2, match.getAllowedHttpMethods().size());
+        Assertions.assertTrue(match.getAllowedHttpMethods().contains("DELETE"));
+
+        Assertions.assertTrue(trie.match("/users/1", null, null, null, "DELETE").isHttpMethodAllowed());
+        Assertions.assertEquals(Collections.emptySet(), trie.match("/users/1", null, null, null, "GET").getAllowedHttpMethods());
+    }
+
+    @Test
+    void testRemoveRoute() {
+        RestRouteTrie trie = new RestRouteTrie();
+        PathMatcher pathMatcher = new PathMatcher("/users/{id}", null, null, null, "GET");
+        trie.addRoute(pathMatcher, pair());
+        InvokerAndRestMethodMetadataPair reExported = pair();
+        trie.addRoute(new PathMatcher("/users/{uid}", null, null, null, "GET"), reExported);
+
+        Assertions.assertSame(reExported, trie.match("/users/1", null, null, null, "GET").getPair());
+
+        trie.removeRoute(pathMatcher);
+        Assertions.assertNull(trie.match("/users/1", null, null, null, "GET"));
+    }
+
+    @Test
+    void testManyRoutes() {
+        int routes = 2000;
+        RestRouteTrie trie = new RestRouteTrie();
+        Map<PathMatcher, InvokerAndRestMethodMetadataPair> pathMatchers = new HashMap<>();
+        InvokerAndRestMethodMetadataPair[] pairs = new InvokerAndRestMethodMetadataPair[routes];
+        for (int i = 0; i < routes; i++) {
+            pairs[i] = pair();
+            PathMatcher pathMatcher = new PathMatcher(
+                    i % 2 == 0 ? "/service" + i + "/items/{id}" : "/service" + i + "/items", "1.0", "g", null, "GET");
+            trie.addRoute(pathMatcher, pairs[i]);
+            pathMatchers.put(pathMatcher, pairs[i]);
+        }
+        String[] paths = new String[routes];
+        for (int i = 0; i < routes; i++) {
+            paths[i] = i % 2 == 0 ? "/service" + i + "/items/" + i : "/service" + i + "/items";
+        }
+
+        for (int i = 0; i < routes; i++) {
+            Assertions.assertSame(pairs[i], trie.match(paths[i], "1.0", "g", null, "GET").getPair());
+            // agrees with the exact path matcher lookup it replaces
+            Assertions.assertSame(
+                    pairs[i],
+                    pathMatchers.get(PathMatcher.getInvokeCreatePathMatcher(paths[i], "1.0", "g", null, "GET")));
+        }
+        Assertions.assertNull(trie.match("/service1/items/1", "1.0", "g", null, "GET"));
+        Assertions.assertNull(trie.match("/service" + routes + "/items", "1.0", "g", null, "GET"));
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.rest.netty;
+
+import io.netty.buffer.AbstractByteBufAllocator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledHeapByteBuf;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.Constants;
+import org.apache.dubbo.remoting.transport.ExceedPayloadLimitException;
+import org.apache.dubbo.rpc.protocol.rest.constans.RestConstant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ChunkOutputStreamTest {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final List<ByteBuf> allocated = new CopyOnWriteArrayList<>();
+
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    public void setUp() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        // records the buffers of the response body
+        channel.config().setAllocator(new AbstractByteBufAllocator(false) {
+            @Override
+            protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+                ByteBuf buffer = new UnpooledHeapByteBuf(this, initialCapacity, maxCapacity);
+                allocated.add(buffer);
+                return buffer;
+            }
+
+            @Override
+            protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+                return newHeapBuffer(initialCapacity, maxCapacity);
+            }
+
+            @Override
+            public boolean isDirectBufferPooled() {
+                return false;
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testSingleBufferFixedLength() throws Exception {
+        NettyHttpResponse response = newResponse(1024);
+        response.getOutputStream().write("hello".getBytes(StandardCharsets.UTF_8));
+        response.finish();
+
+        FullHttpResponse fullResponse = channel.readOutbound();
+        Assertions.assertEquals("5", fullResponse.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        Assertions.assertEquals("hello", fullResponse.content().toString(StandardCharsets.UTF_8));
+        Assertions.assertNull(channel.readOutbound());
+        fullResponse.release();
+        assertReleased();
+    }
+
+    @Test
+    public void testMultiBufferChunked() throws Exception {
+        NettyHttpResponse response = newResponse(4096);
+        byte[] body = body(1000);
+        response.getOutputStream().write(body);
+        // not committed, nothing is sent before the response is finished
+        Assertions.assertNull(channel.readOutbound());
+        response.finish();
+
+        HttpResponse head = channel.readOutbound();
+        Assertions.assertFalse(head instanceof FullHttpResponse);
+        Assertions.assertTrue(HttpUtil.isTransferEncodingChunked(head));
+        Assertions.assertArrayEquals(body, readChunks());
+        assertReleased();
+    }
+
+    @Test
+    public void testFlushStreamsTheBody() throws Exception {
+        NettyHttpResponse response = newResponse(4096);
+        ChunkOutputStream outputStream = (ChunkOutputStream) response.getOutputStream();
+        outputStream.write(body(10));
+        outputStream.flush();
+        Assertions.assertTrue(response.isCommitted());
+        Assertions.assertTrue(HttpUtil.isTransferEncodingChunked(channel.readOutbound()));
+        Assertions.assertEquals(10, readChunk());
+
+        // a full buffer is sent right away once committed
+        outputStream.write(body(CHUNK_SIZE + 1));
+        Assertions.assertEquals(CHUNK_SIZE, readChunk());
+        Assertions.assertThrows(IllegalStateException.class, outputStream::reset);
+
+        response.finish();
+        Assertions.assertEquals(1, readChunk());
+        Assertions.assertSame(LastHttpContent.EMPTY_LAST_CONTENT, channel.readOutbound());
+        assertReleased();
+    }
+
+    @Test
+    public void testResetBeforeCommit() throws Exception {
+        NettyHttpResponse response = newResponse(4096);
+        ChunkOutputStream outputStream = (ChunkOutputStream) response.getOutputStream();
+        outputStream.write(body(1000));
+        outputStream.reset();
+        Assertions.assertFalse(allocated.isEmpty());
+        assertReleased();
+
+        outputStream.write("ok".getBytes(StandardCharsets.UTF_8));
+        response.finish();
+        FullHttpResponse fullResponse = channel.readOutbound();
+        Assertions.assertEquals("ok", fullResponse.content().toString(StandardCharsets.UTF_8));
+        fullResponse.release();
+        assertReleased();
+    }
+
+    @Test
+    public void testPayloadLimit() throws Exception {
+        NettyHttpResponse response = newResponse(600);
+        ChunkOutputStream outputStream = (ChunkOutputStream) response.getOutputStream();
+        outputStream.write(body(400));
+        Assertions.assertThrows(ExceedPayloadLimitException.class, () -> outputStream.write(body(201)));
+        Assertions.assertThrows(
+                ExceedPayloadLimitException.class, () -> outputStream.write(new String(body(201)), StandardCharsets.UTF_8));
+        outputStream.write(body(200));
+
+        // the limit applies to the bytes not sent yet
+        outputStream.flush();
+        outputStream.write(body(600));
+        response.finish();
+
+        Assertions.assertTrue(HttpUtil.isTransferEncodingChunked(channel.readOutbound()));
+        Assertions.assertEquals(1200, readChunks().length);
+        assertReleased();
+    }
+
+    @Test
+    public void testReleasedOnFailure() throws Exception {
+        NettyHttpResponse response = newResponse(4096);
+        response.getOutputStream().write(body(1000));
+        channel.close();
+
+        // the writes to the closed channel fail
+        response.finish();
+        Assertions.assertNull(channel.readOutbound());
+        assertReleased();
+    }
+
+    @Test
+    public void testReleasedWhenFinishFails() throws Exception {
+        NettyHttpResponse response = newResponse(4096);
+        OutputStream body = response.getOutputStream();
+        body.write(body(1000));
+        // e.g. a compressing stream failing to write its remaining bytes
+        response.setOutputStream(new FilterOutputStream(body) {
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("broken");
+            }
+        });
+
+        Assertions.assertThrows(IOException.class, response::finish);
+        Assertions.assertNull(channel.readOutbound());
+        assertReleased();
+    }
+
+    private NettyHttpResponse newResponse(int payload) {
+        URL url = URL.valueOf("rest://127.0.0.1:8080")
+                .addParameter(Constants.PAYLOAD_KEY, payload)
+                .addParameter(RestConstant.RESPONSE_CHUNK_SIZE_PARAM, CHUNK_SIZE);
+        return new NettyHttpResponse(channel.pipeline().firstContext(), true, url);
+    }
+
+    private byte[] readChunks() {
+        ByteBuf body = channel.alloc().buffer();
+        try {
+            Object message;
+            while (!((message = channel.readOutbound()) instanceof LastHttpContent)) {
+                ByteBuf content = ((HttpContent) message).content();
+                Assertions.assertTrue(content.readableBytes() <= CHUNK_SIZE);
+                body.writeBytes(content);
+                ReferenceCountUtil.release(message);
+            }
+            byte[] bytes = new byte[body.readableBytes()];
+            body.readBytes(bytes);
+            return bytes;
+        } finally {
+            allocated.remove(body);
+            body.release();
+        }
+    }
+
+    private int readChunk() {
+        HttpContent chunk = channel.readOutbound();
+        try {
+            return chunk.content().readableBytes();
+        } finally {
+            chunk.release();
+        }
+    }
+
+    private void assertReleased() {
+        for (ByteBuf buffer : allocated) {
+            Assertions.assertEquals(0, buffer.refCnt());
+        }
+    }
+
+    private static byte[] body(int length) {
+        byte[] body = new byte[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        return body;
+    }
+}
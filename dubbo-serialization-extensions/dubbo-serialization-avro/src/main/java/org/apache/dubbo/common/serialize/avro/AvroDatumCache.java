@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.avro;
+
+import org.apache.dubbo.common.utils.LRUCache;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The reflect datum writers and readers of a framework model, so the reflect schema of a class is derived once
+ * instead of for every object.
+ * <p>
+ * Writers are stateless and shared, readers keep per-schema state and are cached per thread. Both caches are bounded
+ * and evict the least recently used classes.
+ */
+public class AvroDatumCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final AvroDatumCache DEFAULT = new AvroDatumCache();
+
+    private final AvroSchemaRegistry schemaRegistry = new AvroSchemaRegistry();
+
+    private final Map<Class<?>, AvroWriter> writers;
+
+    private final ThreadLocal<Map<Object, DatumReader<?>>> readers;
+
+    public AvroDatumCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AvroDatumCache(int capacity) {
+        this.writers = new LRUCache<>(capacity);
+        this.readers = ThreadLocal.withInitial(() -> new LRUCache<>(capacity));
+    }
+
+    /**
+     * The cache of the object inputs and outputs created without an {@link AvroDatumCache}.
+     */
+    public static AvroDatumCache getDefault() {
+        return DEFAULT;
+    }
+
+    public AvroSchemaRegistry getSchemaRegistry() {
+        return schemaRegistry;
+    }
+
+    public AvroWriter getWriter(Class<?> cls) {
+        AvroWriter writer = writers.get(cls);
+        if (writer == null) {
+            Schema schema = ReflectData.get().getSchema(cls);
+            writer = new AvroWriter(new ReflectDatumWriter<>(schema), schemaRegistry.register(schema));
+            writers.put(cls, writer);
+        }
+        return writer;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> DatumReader<T> getReader(Class<T> cls) {
+        Map<Object, DatumReader<?>> cache = readers.get();
+        DatumReader<T> reader = (DatumReader<T>) cache.get(cls);
+        if (reader == null) {
+            reader = new ReflectDatumReader<>(cls);
+            cache.put(cls, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * The reader resolving the registered writer schema of the fingerprint to the schema of the class,
+     * or reading with the writer schema only if the class is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> DatumReader<T> getReader(long fingerprint, Class<T> cls) throws IOException {
+        Map<Object, DatumReader<?>> cache = readers.get();
+        ResolvingKey key = new ResolvingKey(fingerprint, cls);
+        DatumReader<T> reader = (DatumReader<T>) cache.get(key);
+        if (reader == null) {
+            Schema readerSchema = cls == null ? null : ReflectData.get().getSchema(cls);
+            if (readerSchema != null) {
+                // same class version on both sides
+                schemaRegistry.register(readerSchema);
+            }
+            Schema writerSchema = schemaRegistry.getSchema(fingerprint);
+            if (writerSchema == null) {
+                throw new IOException("Unknown avro schema fingerprint " + Long.toHexString(fingerprint)
+                    + (cls == null ? "" : " for " + cls.getName()) + ", register the writer schema to the AvroSchemaRegistry");
+            }
+            reader = new ReflectDatumReader<>(writerSchema, readerSchema == null ? writerSchema : readerSchema);
+            cache.put(key, reader);
+        }
+        return reader;
+    }
+
+    public static class AvroWriter {
+
+        private final DatumWriter<Object> writer;
+
+        private final long fingerprint;
+
+        AvroWriter(DatumWriter<Object> writer, long fingerprint) {
+            this.writer = writer;
+            this.fingerprint = fingerprint;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public void write(Object obj, Encoder encoder) throws IOException {
+            writer.write(obj, encoder);
+        }
+    }
+
+    private static class ResolvingKey {
+
+        private final long fingerprint;
+
+        private final Class<?> cls;
+
+        ResolvingKey(long fingerprint, Class<?> cls) {
+            this.fingerprint = fingerprint;
+            this.cls = cls;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResolvingKey)) {
+                return false;
+            }
+            ResolvingKey that = (ResolvingKey) o;
+            return fingerprint == that.fingerprint && cls == that.cls;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, cls);
+        }
+    }
+}
@@ -16,26 +16,43 @@
  */
 package org.apache.dubbo.common.serialize.avro;
 
+import org.apache.dubbo.common.serialize.Cleanable;
 import org.apache.dubbo.common.serialize.ObjectInput;
 
 import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.reflect.ReflectDatumReader;
 import org.apache.avro.util.Utf8;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
-public class AvroObjectInput implements ObjectInput {
+/**
+ * Avro object input implementation, the decoder is reused by the next input of the thread after cleanup.
+ */
+public class AvroObjectInput implements ObjectInput, Cleanable {
     private static final DecoderFactory decoderFactory = DecoderFactory.get();
-    private final BinaryDecoder decoder;
+    private static final ThreadLocal<BinaryDecoder> DECODERS = new ThreadLocal<>();
+
+    private final AvroDatumCache datumCache;
+    private final boolean schemaFingerprint;
+    private final byte[] fixed = new byte[8];
+    private BinaryDecoder decoder;
 
     public AvroObjectInput(InputStream in) {
-        decoder = decoderFactory.binaryDecoder(in, null);
+        this(AvroDatumCache.getDefault(), false, in);
+    }
+
+    public AvroObjectInput(AvroDatumCache datumCache, boolean schemaFingerprint, InputStream in) {
+        this.datumCache = datumCache;
+        this.schemaFingerprint = schemaFingerprint;
+        BinaryDecoder reuse = DECODERS.get();
+        // not shared with another input of the thread until cleanup
+        DECODERS.remove();
+        decoder = decoderFactory.binaryDecoder(in, reuse);
     }
 
     @Override
@@ -45,9 +62,8 @@ public class AvroObjectInput implements ObjectInput {
 
     @Override
     public byte readByte() throws IOException {
-        byte[] bytes = new byte[1];
-        decoder.readFixed(bytes);
-        return bytes[0];
+        decoder.readFixed(fixed, 0, 1);
+        return fixed[0];
     }
 
     @Override
@@ -84,17 +100,25 @@ public class AvroObjectInput implements ObjectInput {
 
     @Override
     public byte[] readBytes() throws IOException {
-        String resultStr = decoder.readString();
-        return resultStr.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = decoder.readBytes(null);
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+            && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
     }
 
     /**
-     * will lost all attribute
+     * will lost all attribute, unless the schema fingerprint is written
      */
     @Override
     public Object readObject() throws IOException, ClassNotFoundException {
-        ReflectDatumReader<Object> reader = new ReflectDatumReader<>(Object.class);
-        return reader.read(null, decoder);
+        if (schemaFingerprint) {
+            return read(null);
+        }
+        return datumCache.getReader(Object.class).read(null, decoder);
     }
 
     @Override
@@ -104,15 +128,35 @@ public class AvroObjectInput implements ObjectInput {
         if (cls == Map.class) {
             cls = (Class<T>) HashMap.class;
         }
-
-        ReflectDatumReader<T> reader = new ReflectDatumReader<>(cls);
-        return reader.read(null, decoder);
+        return read(cls);
     }
 
     @Override
     public <T> T readObject(Class<T> cls, Type type) throws IOException, ClassNotFoundException {
-        ReflectDatumReader<T> reader = new ReflectDatumReader<>(cls);
-        return reader.read(null, decoder);
+        return read(cls);
+    }
+
+    private <T> T read(Class<T> cls) throws IOException {
+        if (!schemaFingerprint) {
+            return datumCache.getReader(cls).read(null, decoder);
+        }
+        decoder.readFixed(fixed, 0, 8);
+        long fingerprint = 0;
+        for (int i = 0; i < 8; i++) {
+            fingerprint = (fingerprint << 8) | (fixed[i] & 0xFF);
+        }
+        if (fingerprint == 0L) {
+            return null;
+        }
+        return datumCache.getReader(fingerprint, cls).read(null, decoder);
+    }
+
+    @Override
+    public void cleanup() {
+        if (decoder != null) {
+            DECODERS.set(decoder);
+            decoder = null;
+        }
     }
 
 }
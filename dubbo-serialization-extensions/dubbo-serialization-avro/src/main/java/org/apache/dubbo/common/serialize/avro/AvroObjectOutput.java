@@ -16,24 +16,42 @@
  */
 package org.apache.dubbo.common.serialize.avro;
 
+import org.apache.dubbo.common.serialize.Cleanable;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.EncoderFactory;
-import org.apache.avro.reflect.ReflectDatumWriter;
 import org.apache.avro.util.Utf8;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 
-public class AvroObjectOutput implements ObjectOutput {
+/**
+ * Avro object output implementation, the encoder is reused by the next output of the thread after cleanup.
+ * <p>
+ * Objects are written with the reflect schema of their class, prefixed by the schema fingerprint
+ * if {@link AvroSerialization#AVRO_SCHEMA_FINGERPRINT_KEY} is enabled.
+ */
+public class AvroObjectOutput implements ObjectOutput, Cleanable {
     private static final EncoderFactory encoderFactory = EncoderFactory.get();
-    private final BinaryEncoder encoder;
+    private static final ThreadLocal<BinaryEncoder> ENCODERS = new ThreadLocal<>();
+
+    private final AvroDatumCache datumCache;
+    private final boolean schemaFingerprint;
+    private final byte[] fixed = new byte[8];
+    private BinaryEncoder encoder;
 
     public AvroObjectOutput(OutputStream out) {
-        encoder = encoderFactory.binaryEncoder(out, null);
+        this(AvroDatumCache.getDefault(), false, out);
+    }
+
+    public AvroObjectOutput(AvroDatumCache datumCache, boolean schemaFingerprint, OutputStream out) {
+        this.datumCache = datumCache;
+        this.schemaFingerprint = schemaFingerprint;
+        BinaryEncoder reuse = ENCODERS.get();
+        // not shared with another output of the thread until cleanup
+        ENCODERS.remove();
+        encoder = encoderFactory.binaryEncoder(out, reuse);
     }
 
     @Override
@@ -43,7 +61,8 @@ public class AvroObjectOutput implements ObjectOutput {
 
     @Override
     public void writeByte(byte v) throws IOException {
-        encoder.writeFixed(new byte[]{v});
+        fixed[0] = v;
+        encoder.writeFixed(fixed, 0, 1);
     }
 
     @Override
@@ -78,13 +97,12 @@ public class AvroObjectOutput implements ObjectOutput {
 
     @Override
     public void writeBytes(byte[] v) throws IOException {
-        encoder.writeString(new String(v, StandardCharsets.UTF_8));
+        encoder.writeBytes(v);
     }
 
     @Override
     public void writeBytes(byte[] v, int off, int len) throws IOException {
-        byte[] v2 = Arrays.copyOfRange(v, off, off + len);
-        encoder.writeString(new String(v2, StandardCharsets.UTF_8));
+        encoder.writeBytes(v, off, len);
     }
 
     @Override
@@ -93,14 +111,41 @@ public class AvroObjectOutput implements ObjectOutput {
     }
 
     @Override
-    @SuppressWarnings(value = {"rawtypes", "unchecked"})
     public void writeObject(Object obj) throws IOException {
         if (obj == null) {
-            encoder.writeNull();
+            if (schemaFingerprint) {
+                writeFingerprint(0L);
+            } else {
+                encoder.writeNull();
+            }
+            return;
+        }
+        AvroDatumCache.AvroWriter writer = datumCache.getWriter(obj.getClass());
+        if (schemaFingerprint) {
+            writeFingerprint(writer.getFingerprint());
+        }
+        writer.write(obj, encoder);
+    }
+
+    private void writeFingerprint(long fingerprint) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            fixed[i] = (byte) (fingerprint >>> (56 - 8 * i));
+        }
+        encoder.writeFixed(fixed, 0, 8);
+    }
+
+    @Override
+    public void cleanup() {
+        if (encoder == null) {
             return;
         }
-        ReflectDatumWriter dd = new ReflectDatumWriter<>(obj.getClass());
-        dd.write(obj, encoder);
+        try {
+            encoder.flush();
+            ENCODERS.set(encoder);
+        } catch (IOException ignored) {
+            // leave the encoder with unflushed bytes to the gc
+        }
+        encoder = null;
     }
 
 }
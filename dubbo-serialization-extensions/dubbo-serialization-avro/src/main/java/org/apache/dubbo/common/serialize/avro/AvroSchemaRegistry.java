@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The schemas known by their 64-bit parsing fingerprint, used to resolve the writer schema of the objects
+ * written with {@link AvroSerialization#AVRO_SCHEMA_FINGERPRINT_KEY} enabled.
+ * <p>
+ * The schemas of the local classes are registered when they are first written or read. Schemas of other versions
+ * of a class, e.g. the one an older peer writes, have to be registered up front so the reader can resolve them.
+ */
+public class AvroSchemaRegistry {
+
+    private final ConcurrentMap<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * @return the fingerprint of the schema
+     */
+    public long register(Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        schemas.putIfAbsent(fingerprint, schema);
+        return fingerprint;
+    }
+
+    public Schema getSchema(long fingerprint) {
+        return schemas.get(fingerprint);
+    }
+}
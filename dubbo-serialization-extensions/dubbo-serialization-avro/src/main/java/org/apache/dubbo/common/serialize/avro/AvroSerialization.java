@@ -20,6 +20,8 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+import org.apache.dubbo.rpc.model.ScopeModelAware;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,7 +29,23 @@ import java.io.OutputStream;
 
 import static org.apache.dubbo.common.serialize.Constants.AVRO_SERIALIZATION_ID;
 
-public class AvroSerialization implements Serialization {
+/**
+ * Avro serialization implementation, the datum writers and readers are cached per framework model in
+ * {@link AvroDatumCache}.
+ * <p>
+ * With {@code avro.schema.fingerprint=true} on both sides every object is prefixed with the fingerprint of its
+ * writer schema, and the reader resolves it against its own class through the {@link AvroSchemaRegistry}.
+ */
+public class AvroSerialization implements Serialization, ScopeModelAware {
+
+    public static final String AVRO_SCHEMA_FINGERPRINT_KEY = "avro.schema.fingerprint";
+
+    private AvroDatumCache datumCache = new AvroDatumCache();
+
+    @Override
+    public void setFrameworkModel(FrameworkModel frameworkModel) {
+        this.datumCache = frameworkModel.getBeanFactory().getOrRegisterBean(AvroDatumCache.class);
+    }
 
     @Override
     public byte getContentTypeId() {
@@ -41,12 +59,16 @@ public class AvroSerialization implements Serialization {
 
     @Override
     public ObjectOutput serialize(URL url, OutputStream output) throws IOException {
-        return new AvroObjectOutput(output);
+        return new AvroObjectOutput(datumCache, isSchemaFingerprint(url), output);
     }
 
     @Override
     public ObjectInput deserialize(URL url, InputStream input) throws IOException {
-        return new AvroObjectInput(input);
+        return new AvroObjectInput(datumCache, isSchemaFingerprint(url), input);
+    }
+
+    private static boolean isSchemaFingerprint(URL url) {
+        return url != null && url.getParameter(AVRO_SCHEMA_FINGERPRINT_KEY, false);
     }
 
 }
@@ -22,14 +22,18 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 public class AvroObjectInputOutputTest {
@@ -93,6 +97,18 @@ public class AvroObjectInputOutputTest {
         assertThat(result, is("123456".getBytes()));
     }
 
+    @Test
+    public void testWriteReadBinaryBytes() throws IOException {
+        byte[] bytes = {(byte) 0xFF, 0, (byte) 0xC3, 0x28, 1, 2};
+        avroObjectOutput.writeBytes(bytes);
+        avroObjectOutput.writeBytes(bytes, 2, 3);
+        avroObjectOutput.flushBuffer();
+        pos.close();
+
+        assertThat(avroObjectInput.readBytes(), is(bytes));
+        assertThat(avroObjectInput.readBytes(), is(new byte[]{(byte) 0xC3, 0x28, 1}));
+    }
+
     @Test
     public void testWriteReadShort() throws IOException {
         avroObjectOutput.writeShort((short) 1);
@@ -193,4 +209,33 @@ public class AvroObjectInputOutputTest {
 //		assertThat(result.getName(), is("abc"));
 //		assertThat(result.getAge(), is(30));
     }
+
+    @Test
+    public void testWriteReadObjectWithSchemaFingerprint() throws IOException, ClassNotFoundException {
+        Person p = new Person();
+        p.setAge(30);
+        p.setName("abc");
+
+        AvroDatumCache datumCache = new AvroDatumCache();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AvroObjectOutput output = new AvroObjectOutput(datumCache, true, out);
+        output.writeObject(p);
+        output.writeObject(null);
+        output.writeObject(p);
+        output.flushBuffer();
+        output.cleanup();
+
+        AvroObjectInput input = new AvroObjectInput(datumCache, true, new ByteArrayInputStream(out.toByteArray()));
+        Person result = input.readObject(Person.class);
+        assertThat(result.getName(), is("abc"));
+        assertThat(result.getAge(), is(30));
+        assertThat(input.readObject(Person.class), nullValue());
+        // the writer schema names the class
+        assertThat(input.readObject(), instanceOf(Person.class));
+        input.cleanup();
+
+        AvroObjectInput unknown =
+            new AvroObjectInput(new AvroDatumCache(), true, new ByteArrayInputStream(out.toByteArray()));
+        assertThrows(IOException.class, unknown::readObject);
+    }
 }
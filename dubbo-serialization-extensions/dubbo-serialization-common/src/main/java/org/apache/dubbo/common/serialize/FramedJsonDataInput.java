@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Json input of the {@link JsonFraming#BINARY} framing, see {@link FramedJsonDataOutput} for the format.
+ * <p>
+ * Json frames are read into a buffer reused by the input and handed to the json library as UTF-8 bytes.
+ */
+public abstract class FramedJsonDataInput implements ObjectInput {
+
+    private final InputStream in;
+
+    private byte[] buffer = new byte[256];
+
+    protected FramedJsonDataInput(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Parses the UTF-8 json text in {@code bytes[offset, offset + length)}, the bytes are overwritten by the next read.
+     */
+    protected abstract <T> T readJson(byte[] bytes, int offset, int length, Class<T> cls, Type type) throws IOException;
+
+    @Override
+    public boolean readBool() throws IOException {
+        return read() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return (byte) read();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        readFully(2);
+        return (short) (((buffer[0] & 0xFF) << 8) | (buffer[1] & 0xFF));
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        readFully(4);
+        return ((buffer[0] & 0xFF) << 24) | ((buffer[1] & 0xFF) << 16) | ((buffer[2] & 0xFF) << 8) | (buffer[3] & 0xFF);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        readFully(8);
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (buffer[i] & 0xFF);
+        }
+        return v;
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        readFully(length);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] readBytes() throws IOException {
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        readFully(bytes, length);
+        return bytes;
+    }
+
+    @Override
+    public Object readObject() throws IOException, ClassNotFoundException {
+        return readObject(Object.class);
+    }
+
+    @Override
+    public <T> T readObject(Class<T> cls) throws IOException, ClassNotFoundException {
+        return readObject(cls, cls);
+    }
+
+    @Override
+    public <T> T readObject(Class<T> cls, Type type) throws IOException, ClassNotFoundException {
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        readFully(length);
+        return readJson(buffer, 0, length, cls, type == null ? cls : type);
+    }
+
+    private int read() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private int readLength() throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = read();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v - 1;
+            }
+        }
+        throw new IOException("Malformed frame length");
+    }
+
+    private void readFully(int length) throws IOException {
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        readFully(buffer, length);
+    }
+
+    private void readFully(byte[] bytes, int length) throws IOException {
+        int n = 0;
+        while (n < length) {
+            int count = in.read(bytes, n, length - n);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            n += count;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Json output of the {@link JsonFraming#BINARY} framing.
+ * <p>
+ * Primitives are written big-endian in their natural width, strings and byte arrays as a length followed by
+ * their (UTF-8) bytes, and objects as a length followed by their UTF-8 json text. A length is an unsigned varint
+ * of {@code length + 1}, so that {@code 0} stands for {@code null}.
+ */
+public abstract class FramedJsonDataOutput implements ObjectOutput {
+
+    private final OutputStream out;
+
+    private final byte[] scratch = new byte[8];
+
+    private final FrameBuffer frame = new FrameBuffer();
+
+    protected FramedJsonDataOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the json text of the object as UTF-8 to the stream, without closing it.
+     */
+    protected abstract void writeJson(Object obj, OutputStream out) throws IOException;
+
+    @Override
+    public void writeBool(boolean v) throws IOException {
+        out.write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(byte v) throws IOException {
+        out.write(v);
+    }
+
+    @Override
+    public void writeShort(short v) throws IOException {
+        scratch[0] = (byte) (v >>> 8);
+        scratch[1] = (byte) v;
+        out.write(scratch, 0, 2);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        scratch[0] = (byte) (v >>> 24);
+        scratch[1] = (byte) (v >>> 16);
+        scratch[2] = (byte) (v >>> 8);
+        scratch[3] = (byte) v;
+        out.write(scratch, 0, 4);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            scratch[i] = (byte) (v >>> (56 - 8 * i));
+        }
+        out.write(scratch, 0, 8);
+    }
+
+    @Override
+    public void writeFloat(float v) throws IOException {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) throws IOException {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeUTF(String v) throws IOException {
+        if (v == null) {
+            writeLength(-1);
+            return;
+        }
+        byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+        writeLength(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void writeBytes(byte[] v) throws IOException {
+        if (v == null) {
+            writeLength(-1);
+            return;
+        }
+        writeBytes(v, 0, v.length);
+    }
+
+    @Override
+    public void writeBytes(byte[] v, int off, int len) throws IOException {
+        writeLength(len);
+        out.write(v, off, len);
+    }
+
+    @Override
+    public void writeObject(Object obj) throws IOException {
+        frame.reset();
+        writeJson(obj, frame);
+        writeLength(frame.size());
+        frame.writeTo(out);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        out.flush();
+    }
+
+    private void writeLength(int length) throws IOException {
+        int v = length + 1;
+        int i = 0;
+        while ((v & ~0x7F) != 0) {
+            scratch[i++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        scratch[i++] = (byte) v;
+        out.write(scratch, 0, i);
+    }
+
+    /**
+     * Reused for every object, the frame length must be known before its bytes are written.
+     */
+    private static class FrameBuffer extends ByteArrayOutputStream {
+
+        FrameBuffer() {
+            super(256);
+        }
+
+        @Override
+        public void close() {
+            // the json libraries may close their target, the buffer is reused
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize;
+
+import org.apache.dubbo.common.utils.StringUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+
+/**
+ * Configures the mappers of the jackson based serializations from a url parameter listing comma separated
+ * {@link SerializationFeature}, {@link DeserializationFeature} and {@link MapperFeature} names, each enabled or
+ * disabled when prefixed with {@code -}, e.g. {@code -WRITE_DATES_AS_TIMESTAMPS,ACCEPT_CASE_INSENSITIVE_ENUMS}.
+ */
+public final class JacksonFeatures {
+
+    private JacksonFeatures() {
+    }
+
+    /**
+     * @param features the value of the url parameter, may be empty
+     * @param key      the url parameter, to report unknown feature names
+     * @throws IllegalArgumentException if a name is not a feature
+     */
+    public static void configure(MapperBuilder<?, ?> builder, String features, String key) {
+        if (StringUtils.isEmpty(features)) {
+            return;
+        }
+        for (String feature : features.split(",")) {
+            feature = feature.trim();
+            if (!feature.isEmpty()) {
+                configureFeature(builder, feature, key);
+            }
+        }
+    }
+
+    private static void configureFeature(MapperBuilder<?, ?> builder, String feature, String key) {
+        boolean state = feature.charAt(0) != '-';
+        String name = feature.charAt(0) == '-' || feature.charAt(0) == '+' ? feature.substring(1) : feature;
+        try {
+            builder.configure(SerializationFeature.valueOf(name), state);
+            return;
+        } catch (IllegalArgumentException ignored) {
+            // not a serialization feature
+        }
+        try {
+            builder.configure(DeserializationFeature.valueOf(name), state);
+            return;
+        } catch (IllegalArgumentException ignored) {
+            // not a deserialization feature
+        }
+        try {
+            builder.configure(MapperFeature.valueOf(name), state);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown feature " + name + " in " + key, e);
+        }
+    }
+}
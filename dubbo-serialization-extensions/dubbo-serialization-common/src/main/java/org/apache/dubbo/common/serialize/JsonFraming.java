@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.StringUtils;
+
+/**
+ * How the json serializations separate the values on the stream, chosen by the url parameter {@code json.framing}.
+ * <p>
+ * Both sides of a connection must use the same framing, so {@link #LINE} stays the default and peers switch to
+ * {@link #BINARY} by configuring it explicitly, e.g. {@code <dubbo:protocol serialization="jackson" json.framing="binary"/>}.
+ */
+public enum JsonFraming {
+
+    /**
+     * One json text per line, see {@link DefaultJsonDataOutput}.
+     */
+    LINE,
+
+    /**
+     * Varint length prefixed json frames with binary primitives, see {@link FramedJsonDataOutput}.
+     */
+    BINARY;
+
+    public static final String JSON_FRAMING_KEY = "json.framing";
+
+    public static JsonFraming of(URL url) {
+        String framing = url == null ? null : url.getParameter(JSON_FRAMING_KEY);
+        if (StringUtils.isEmpty(framing)) {
+            return LINE;
+        }
+        try {
+            return valueOf(framing.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + JSON_FRAMING_KEY + " " + framing + ", expected line or binary", e);
+        }
+    }
+}
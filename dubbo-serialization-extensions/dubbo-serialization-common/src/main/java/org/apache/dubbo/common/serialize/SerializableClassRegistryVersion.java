@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize;
+
+import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A modification counter of the classes registered in {@link SerializableClassRegistry}, for the caches built from
+ * them.
+ * <p>
+ * The registry keeps its registrations in a plain map without a counter of its own, so the counter moves whenever
+ * the registrations differ from the ones seen last, including a class registered again with another serializer or
+ * replaced by another class, which keep the number of registrations.
+ */
+public final class SerializableClassRegistryVersion {
+
+    private static volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), 0);
+
+    private SerializableClassRegistryVersion() {}
+
+    /**
+     * @return the modification count of the registrations, a cache built after reading it is stale once it moves
+     */
+    public static long get() {
+        Map<Class<?>, Object> registered = SerializableClassRegistry.getRegisteredClasses();
+        Snapshot current = snapshot;
+        if (current.matches(registered)) {
+            return current.version;
+        }
+        synchronized (SerializableClassRegistryVersion.class) {
+            current = snapshot;
+            if (!current.matches(registered)) {
+                current = new Snapshot(new HashMap<>(registered), current.version + 1);
+                snapshot = current;
+            }
+            return current.version;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Class<?>, Object> registrations;
+
+        private final long version;
+
+        Snapshot(Map<Class<?>, Object> registrations, long version) {
+            this.registrations = registrations;
+            this.version = version;
+        }
+
+        boolean matches(Map<Class<?>, Object> registered) {
+            if (registered.size() != registrations.size()) {
+                return false;
+            }
+            for (Map.Entry<Class<?>, Object> entry : registered.entrySet()) {
+                Object serializer = registrations.get(entry.getKey());
+                if (serializer != entry.getValue()
+                        || serializer == null && !registrations.containsKey(entry.getKey())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.common.serialize.gson;
+
+import org.apache.dubbo.common.serialize.FramedJsonDataInput;
+import org.apache.dubbo.common.utils.PojoUtils;
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gson object input of the binary json framing, decodes the frames from their UTF-8 bytes.
+ */
+public class GsonFramedJsonObjectInput extends FramedJsonDataInput {
+
+    private final Gson gson = new Gson();
+
+    public GsonFramedJsonObjectInput(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T readJson(byte[] bytes, int offset, int length, Class<T> cls, Type type) {
+        Object value = gson.fromJson(
+            new InputStreamReader(new ByteArrayInputStream(bytes, offset, length), StandardCharsets.UTF_8), cls);
+        return type == cls ? (T) value : (T) PojoUtils.realize(value, cls, type);
+    }
+
+    @Override
+    public Throwable readThrowable() throws IOException, ClassNotFoundException {
+        ExceptionWrapper obj = readObject(ExceptionWrapper.class);
+        return gson.fromJson(obj.getException().toString(), (Type) Class.forName(obj.getClazz()));
+    }
+
+}
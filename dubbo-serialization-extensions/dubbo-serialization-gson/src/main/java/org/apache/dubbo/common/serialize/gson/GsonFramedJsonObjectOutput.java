@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.common.serialize.gson;
+
+import org.apache.dubbo.common.serialize.FramedJsonDataOutput;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gson object output of the binary json framing.
+ */
+public class GsonFramedJsonObjectOutput extends FramedJsonDataOutput {
+
+    private final Gson gson = new Gson();
+
+    public GsonFramedJsonObjectOutput(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    protected void writeJson(Object obj, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        gson.toJson(obj, writer);
+        writer.flush();
+    }
+
+    @Override
+    public void writeThrowable(Throwable obj) throws IOException {
+        String clazz = obj.getClass().getName();
+        ExceptionWrapper bo = new ExceptionWrapper(obj, clazz);
+        this.writeObject(bo);
+    }
+
+}
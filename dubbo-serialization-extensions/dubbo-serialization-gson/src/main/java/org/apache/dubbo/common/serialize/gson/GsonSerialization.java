@@ -18,6 +18,7 @@
 package org.apache.dubbo.common.serialize.gson;
 
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.JsonFraming;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.serialize.Serialization;
@@ -43,11 +44,17 @@ public class GsonSerialization implements Serialization {
 
     @Override
     public ObjectOutput serialize(URL url, OutputStream output) throws IOException {
+        if (JsonFraming.of(url) == JsonFraming.BINARY) {
+            return new GsonFramedJsonObjectOutput(output);
+        }
         return new GsonJsonObjectOutput(output);
     }
 
     @Override
     public ObjectInput deserialize(URL url, InputStream input) throws IOException {
+        if (JsonFraming.of(url) == JsonFraming.BINARY) {
+            return new GsonFramedJsonObjectInput(input);
+        }
         return new GsonJsonObjectInput(input);
     }
 }
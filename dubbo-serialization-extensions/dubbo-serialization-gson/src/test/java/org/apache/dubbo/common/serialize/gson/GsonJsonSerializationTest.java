@@ -17,6 +17,8 @@
 
 package org.apache.dubbo.common.serialize.gson;
 
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.JsonFraming;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 
@@ -24,12 +26,15 @@ import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
 public class GsonJsonSerializationTest {
@@ -61,4 +66,28 @@ public class GsonJsonSerializationTest {
         ObjectInput objectInput = gsonJsonSerialization.deserialize(null, mock(InputStream.class));
         assertThat(objectInput, Matchers.<ObjectInput>instanceOf(GsonJsonObjectInput.class));
     }
+
+    @Test
+    public void testBinaryFraming() throws IOException, ClassNotFoundException {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService")
+            .addParameter(JsonFraming.JSON_FRAMING_KEY, "binary");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = gsonJsonSerialization.serialize(url, outputStream);
+        assertThat(objectOutput, Matchers.<ObjectOutput>instanceOf(GsonFramedJsonObjectOutput.class));
+
+        Image image = new Image("http://dubbo.apache.org/img/dubbo_white.png", "logo\nwith a line break", 300, 480, Image.Size.SMALL);
+        objectOutput.writeInt(7);
+        objectOutput.writeUTF("和平\n");
+        objectOutput.writeObject(image);
+        objectOutput.writeBytes(null);
+        objectOutput.flushBuffer();
+
+        ObjectInput objectInput =
+            gsonJsonSerialization.deserialize(url, new ByteArrayInputStream(outputStream.toByteArray()));
+        assertThat(objectInput, Matchers.<ObjectInput>instanceOf(GsonFramedJsonObjectInput.class));
+        assertThat(objectInput.readInt(), is(7));
+        assertThat(objectInput.readUTF(), is("和平\n"));
+        assertThat(objectInput.readObject(Image.class), is(image));
+        assertThat(objectInput.readBytes(), nullValue());
+    }
 }
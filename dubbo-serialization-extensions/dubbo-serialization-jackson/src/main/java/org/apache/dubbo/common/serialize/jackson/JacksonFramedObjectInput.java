@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.jackson;
+
+import org.apache.dubbo.common.serialize.FramedJsonDataInput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson object input of the binary json framing, parses the frames straight from their UTF-8 bytes.
+ */
+public class JacksonFramedObjectInput extends FramedJsonDataInput {
+
+    private final JacksonMapper mapper;
+
+    public JacksonFramedObjectInput(InputStream inputStream) {
+        this(JacksonMapper.getDefault(), inputStream);
+    }
+
+    public JacksonFramedObjectInput(JacksonMapper mapper, InputStream inputStream) {
+        super(inputStream);
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected <T> T readJson(byte[] bytes, int offset, int length, Class<T> cls, Type type) throws IOException {
+        return mapper.getReader(type).readValue(bytes, offset, length);
+    }
+
+}
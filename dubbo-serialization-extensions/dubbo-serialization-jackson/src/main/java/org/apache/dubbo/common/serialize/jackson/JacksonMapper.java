@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.dubbo.common.serialize.JacksonFeatures;
+import org.apache.dubbo.common.utils.StringUtils;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A configured {@link ObjectMapper} shared by all jackson object inputs and outputs of the same configuration,
+ * with the {@link ObjectReader}s and {@link ObjectWriter}s of the types seen so far.
+ * <p>
+ * The mapper is configured by the url parameters
+ * <ul>
+ *     <li>{@code jackson.features}: comma separated {@link SerializationFeature}, {@link DeserializationFeature} and
+ *     {@link MapperFeature} names, prefixed with {@code -} to disable, e.g. {@code -WRITE_DATES_AS_TIMESTAMPS}</li>
+ *     <li>{@code jackson.include}: the {@link JsonInclude.Include} of properties, {@code NON_NULL} by default</li>
+ *     <li>{@code jackson.bytes}: how the raw bytes are written, {@code text} by default, one line of text like the
+ *     earlier versions, or {@code base64}, a json string keeping any bytes, to be configured on both sides</li>
+ * </ul>
+ */
+public class JacksonMapper {
+
+    public static final String JACKSON_FEATURES_KEY = "jackson.features";
+
+    public static final String JACKSON_INCLUDE_KEY = "jackson.include";
+
+    public static final String JACKSON_BYTES_KEY = "jackson.bytes";
+
+    public static final String BYTES_TEXT = "text";
+
+    public static final String BYTES_BASE64 = "base64";
+
+    private static final JacksonMapper DEFAULT = new JacksonMapper(null, null, null);
+
+    private final ObjectMapper mapper;
+
+    private final boolean base64Bytes;
+
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JacksonMapper(String features, String include) {
+        this(features, include, null);
+    }
+
+    public JacksonMapper(String features, String include, String bytes) {
+        if (StringUtils.isEmpty(bytes) || BYTES_TEXT.equalsIgnoreCase(bytes.trim())) {
+            this.base64Bytes = false;
+        } else if (BYTES_BASE64.equalsIgnoreCase(bytes.trim())) {
+            this.base64Bytes = true;
+        } else {
+            throw new IllegalArgumentException("Unknown " + JACKSON_BYTES_KEY + ": " + bytes);
+        }
+        JsonMapper.Builder builder = JsonMapper.builder()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            // the outputs write several values to the same stream
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+            .serializationInclusion(StringUtils.isEmpty(include)
+                ? JsonInclude.Include.NON_NULL
+                : JsonInclude.Include.valueOf(include.trim().toUpperCase()))
+            .addModule(new JavaTimeModule());
+        JacksonFeatures.configure(builder, features, JACKSON_FEATURES_KEY);
+        this.mapper = builder.build();
+    }
+
+    /**
+     * The mapper of the object inputs and outputs created without a {@link JacksonMappers}.
+     */
+    public static JacksonMapper getDefault() {
+        return DEFAULT;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    /**
+     * Whether the raw bytes are written as base64 json strings rather than lines of text.
+     */
+    public boolean isBase64Bytes() {
+        return base64Bytes;
+    }
+
+    public ObjectReader getReader(Type type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
+        }
+        return reader;
+    }
+
+    public ObjectWriter getWriter(Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(type, mapper::writerFor);
+        }
+        return writer;
+    }
+}
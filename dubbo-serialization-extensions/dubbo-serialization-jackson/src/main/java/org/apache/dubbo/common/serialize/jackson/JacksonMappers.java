@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.jackson;
+
+import org.apache.dubbo.common.URL;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.dubbo.common.serialize.jackson.JacksonMapper.JACKSON_BYTES_KEY;
+import static org.apache.dubbo.common.serialize.jackson.JacksonMapper.JACKSON_FEATURES_KEY;
+import static org.apache.dubbo.common.serialize.jackson.JacksonMapper.JACKSON_INCLUDE_KEY;
+
+/**
+ * The {@link JacksonMapper}s of a framework model, one per url configuration.
+ */
+public class JacksonMappers {
+
+    private final JacksonMapper defaultMapper = new JacksonMapper(null, null, null);
+
+    private final ConcurrentMap<String, JacksonMapper> mappers = new ConcurrentHashMap<>();
+
+    public JacksonMapper getMapper(URL url) {
+        String features = url == null ? null : url.getParameter(JACKSON_FEATURES_KEY);
+        String include = url == null ? null : url.getParameter(JACKSON_INCLUDE_KEY);
+        String bytes = url == null ? null : url.getParameter(JACKSON_BYTES_KEY);
+        if (features == null && include == null && bytes == null) {
+            return defaultMapper;
+        }
+        String key = features + '|' + include + '|' + bytes;
+        JacksonMapper mapper = mappers.get(key);
+        if (mapper == null) {
+            mapper = mappers.computeIfAbsent(key, k -> new JacksonMapper(features, include, bytes));
+        }
+        return mapper;
+    }
+}
@@ -16,12 +16,6 @@
  */
 package org.apache.dubbo.common.serialize.jackson;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.dubbo.common.serialize.DefaultJsonDataInput;
 
 import java.io.BufferedReader;
@@ -31,28 +25,32 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Jackson object input implementation
  */
 public class JacksonObjectInput implements DefaultJsonDataInput {
 
-    private final ObjectMapper MAPPER;
+    private final JacksonMapper mapper;
 
-    private final BufferedReader READER;
+    private final BufferedReader reader;
 
     public JacksonObjectInput(InputStream inputStream) {
-        this(new InputStreamReader(inputStream));
+        this(JacksonMapper.getDefault(), inputStream);
     }
 
     public JacksonObjectInput(Reader reader) {
-        this.READER = new BufferedReader(reader);
-        this.MAPPER = new ObjectMapper()
-            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
-            .registerModule(new JavaTimeModule())
-        ;
+        this(JacksonMapper.getDefault(), reader);
+    }
+
+    public JacksonObjectInput(JacksonMapper mapper, InputStream inputStream) {
+        this(mapper, new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    public JacksonObjectInput(JacksonMapper mapper, Reader reader) {
+        this.mapper = mapper;
+        this.reader = new BufferedReader(reader);
     }
 
     @Override
@@ -63,27 +61,26 @@ public class JacksonObjectInput implements DefaultJsonDataInput {
     @Override
     public <T> T readObject(Class<T> cls) throws IOException {
         String json = readLine();
-        return MAPPER.readValue(json, cls);
+        return mapper.getReader(cls).readValue(json);
     }
 
     @Override
     public <T> T readObject(Class<T> cls, Type type) throws IOException, ClassNotFoundException {
         String json = readLine();
-        return MAPPER.readValue(json, new TypeReference<T>() {
-            @Override
-            public Type getType() {
-                return type;
-            }
-        });
+        return mapper.getReader(type == null ? cls : type).readValue(json);
     }
 
     @Override
     public byte[] readBytes() throws IOException {
-        return readLine().getBytes();
+        String line = readLine();
+        if (mapper.isBase64Bytes()) {
+            return mapper.getReader(byte[].class).readValue(line);
+        }
+        return line.getBytes(StandardCharsets.UTF_8);
     }
 
     private String readLine() throws IOException {
-        String line = READER.readLine();
+        String line = reader.readLine();
         if (line == null || line.trim().isEmpty()) {
             throw new EOFException();
         }
@@ -16,67 +16,92 @@
  */
 package org.apache.dubbo.common.serialize.jackson;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.apache.dubbo.common.serialize.DefaultJsonDataOutput;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
- * Jackson object output implementation
+ * Jackson object output implementation, writes one json value per line.
  */
 public class JacksonObjectOutput implements DefaultJsonDataOutput {
 
-    private final ObjectMapper MAPPER;
+    private final JacksonMapper mapper;
 
-    private final PrintWriter WRITER;
+    private final OutputStream outputStream;
+
+    private final Writer writer;
+
+    private JsonGenerator generator;
 
     public JacksonObjectOutput(OutputStream outputStream) {
-        this(new OutputStreamWriter(outputStream));
+        this(JacksonMapper.getDefault(), outputStream);
     }
 
     public JacksonObjectOutput(Writer writer) {
-        this.WRITER = new PrintWriter(writer);
-        this.MAPPER = new ObjectMapper()
-            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
-            .registerModule(new JavaTimeModule())
-        ;
+        this(JacksonMapper.getDefault(), writer);
+    }
+
+    public JacksonObjectOutput(JacksonMapper mapper, OutputStream outputStream) {
+        this.mapper = mapper;
+        this.outputStream = outputStream;
+        this.writer = null;
+    }
+
+    public JacksonObjectOutput(JacksonMapper mapper, Writer writer) {
+        this.mapper = mapper;
+        this.outputStream = null;
+        this.writer = writer;
+    }
+
+    private JsonGenerator getGenerator() throws IOException {
+        if (generator == null) {
+            generator = outputStream != null
+                ? mapper.getObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8)
+                : mapper.getObjectMapper().getFactory().createGenerator(writer);
+            // values are separated by line breaks
+            generator.setRootValueSeparator(null);
+        }
+        return generator;
     }
 
     @Override
     public void writeObject(Object obj) throws IOException {
-        char[] jsonChars = convertJsonToCharArray(MAPPER.writeValueAsString(obj));
-        WRITER.write(jsonChars, 0, jsonChars.length);
-        WRITER.println();
-        WRITER.flush();
+        JsonGenerator generator = getGenerator();
+        if (obj == null) {
+            generator.writeNull();
+        } else {
+            mapper.getWriter(obj.getClass()).writeValue(generator, obj);
+        }
+        generator.writeRaw('\n');
+        generator.flush();
     }
 
     @Override
     public void writeBytes(byte[] v) throws IOException {
-        WRITER.println(new String(v));
+        writeBytes(v, 0, v.length);
     }
 
     @Override
     public void writeBytes(byte[] v, int off, int len) throws IOException {
-        WRITER.println(new String(v, off, len));
+        JsonGenerator generator = getGenerator();
+        if (mapper.isBase64Bytes()) {
+            generator.writeBinary(v, off, len);
+        } else {
+            generator.writeRaw(new String(v, off, len, StandardCharsets.UTF_8));
+        }
+        generator.writeRaw('\n');
     }
 
     @Override
     public void flushBuffer() throws IOException {
-        WRITER.flush();
-    }
-
-    private char[] convertJsonToCharArray(String json) {
-        return json.toCharArray();
+        if (generator != null) {
+            generator.flush();
+        }
     }
 
 }
@@ -17,9 +17,12 @@
 package org.apache.dubbo.common.serialize.jackson;
 
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.JsonFraming;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+import org.apache.dubbo.rpc.model.ScopeModelAware;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,13 +34,22 @@ import java.io.OutputStream;
  * <pre>
  *     e.g. &lt;dubbo:protocol serialization="jackson" /&gt;
  * </pre>
+ * The object mappers are shared by all requests of a framework model, see {@link JacksonMapper} for their configuration.
+ * Values are framed as configured by {@link JsonFraming}.
  */
-public class JacksonSerialization implements Serialization {
+public class JacksonSerialization implements Serialization, ScopeModelAware {
 
     private static final byte JACKSON_SERIALIZATION_ID = 18;
 
     private static final String JSON_CONTENT_TYPE = "application/json";
 
+    private JacksonMappers mappers = new JacksonMappers();
+
+    @Override
+    public void setFrameworkModel(FrameworkModel frameworkModel) {
+        this.mappers = frameworkModel.getBeanFactory().getOrRegisterBean(JacksonMappers.class);
+    }
+
     @Override
     public byte getContentTypeId() {
         return JACKSON_SERIALIZATION_ID;
@@ -50,12 +62,20 @@ public class JacksonSerialization implements Serialization {
 
     @Override
     public ObjectOutput serialize(URL url, OutputStream output) throws IOException {
-        return new JacksonObjectOutput(output);
+        JacksonMapper mapper = mappers.getMapper(url);
+        if (JsonFraming.of(url) == JsonFraming.BINARY) {
+            return new JacksonFramedObjectOutput(mapper, output);
+        }
+        return new JacksonObjectOutput(mapper, output);
     }
 
     @Override
     public ObjectInput deserialize(URL url, InputStream input) throws IOException {
-        return new JacksonObjectInput(input);
+        JacksonMapper mapper = mappers.getMapper(url);
+        if (JsonFraming.of(url) == JsonFraming.BINARY) {
+            return new JacksonFramedObjectInput(mapper, input);
+        }
+        return new JacksonObjectInput(mapper, input);
     }
 
 }
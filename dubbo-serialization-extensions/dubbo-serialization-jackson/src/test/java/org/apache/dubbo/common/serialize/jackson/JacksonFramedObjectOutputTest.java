@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.jackson;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.JsonFraming;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * {@link JacksonFramedObjectOutput} Unit Test
+ */
+public class JacksonFramedObjectOutputTest {
+
+    private JacksonFramedObjectOutput jacksonObjectOutput;
+    private JacksonFramedObjectInput jacksonObjectInput;
+    private ByteArrayOutputStream byteArrayOutputStream;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.byteArrayOutputStream = new ByteArrayOutputStream();
+        this.jacksonObjectOutput = new JacksonFramedObjectOutput(byteArrayOutputStream);
+    }
+
+    @Test
+    public void testWritePrimitives() throws IOException {
+        this.jacksonObjectOutput.writeBool(true);
+        this.jacksonObjectOutput.writeByte((byte) -3);
+        this.jacksonObjectOutput.writeShort((short) -2);
+        this.jacksonObjectOutput.writeInt(Integer.MIN_VALUE);
+        this.jacksonObjectOutput.writeLong(Long.MAX_VALUE);
+        this.jacksonObjectOutput.writeFloat(1.88f);
+        this.jacksonObjectOutput.writeDouble(1.66d);
+        this.flushToInput();
+
+        assertThat(jacksonObjectInput.readBool(), is(true));
+        assertThat(jacksonObjectInput.readByte(), is((byte) -3));
+        assertThat(jacksonObjectInput.readShort(), is((short) -2));
+        assertThat(jacksonObjectInput.readInt(), is(Integer.MIN_VALUE));
+        assertThat(jacksonObjectInput.readLong(), is(Long.MAX_VALUE));
+        assertThat(jacksonObjectInput.readFloat(), is(1.88f));
+        assertThat(jacksonObjectInput.readDouble(), is(1.66d));
+    }
+
+    @Test
+    public void testWriteUTF() throws IOException {
+        this.jacksonObjectOutput.writeUTF("Pace Hasîtî 和平 Мир\nline");
+        this.jacksonObjectOutput.writeUTF("");
+        this.jacksonObjectOutput.writeUTF(null);
+        this.flushToInput();
+
+        assertThat(jacksonObjectInput.readUTF(), is("Pace Hasîtî 和平 Мир\nline"));
+        assertThat(jacksonObjectInput.readUTF(), is(""));
+        assertThat(jacksonObjectInput.readUTF(), nullValue());
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        byte[] bytes = new byte[300];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        this.jacksonObjectOutput.writeBytes(bytes);
+        this.jacksonObjectOutput.writeBytes("hello".getBytes(), 2, 2);
+        this.flushToInput();
+
+        assertThat(this.jacksonObjectInput.readBytes(), is(bytes));
+        assertThat(this.jacksonObjectInput.readBytes(), is("ll".getBytes()));
+    }
+
+    @Test
+    public void testWriteObject() throws IOException, ClassNotFoundException {
+        Image image = new Image("http://dubbo.apache.org/img/dubbo_white.png", "logo\nwith a line break", 300, 480, Image.Size.SMALL);
+        this.jacksonObjectOutput.writeObject(image);
+        this.jacksonObjectOutput.writeObject(null);
+        this.jacksonObjectOutput.writeObject(image);
+        this.flushToInput();
+
+        assertThat(jacksonObjectInput.readObject(Image.class), is(image));
+        assertThat(jacksonObjectInput.readObject(Image.class), nullValue());
+        assertThat(jacksonObjectInput.readObject(Image.class, Image.class), is(image));
+    }
+
+    @Test
+    public void testNegotiatedByUrl() throws IOException {
+        JacksonSerialization serialization = new JacksonSerialization();
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService")
+            .addParameter(JsonFraming.JSON_FRAMING_KEY, "binary");
+        ObjectOutput objectOutput = serialization.serialize(url, byteArrayOutputStream);
+        ObjectInput objectInput = serialization.deserialize(url, new ByteArrayInputStream(new byte[0]));
+        assertThat(objectOutput, instanceOf(JacksonFramedObjectOutput.class));
+        assertThat(objectInput, instanceOf(JacksonFramedObjectInput.class));
+
+        URL line = url.addParameter(JsonFraming.JSON_FRAMING_KEY, "line");
+        assertThat(serialization.serialize(line, byteArrayOutputStream), instanceOf(JacksonObjectOutput.class));
+    }
+
+    private void flushToInput() throws IOException {
+        this.jacksonObjectOutput.flushBuffer();
+        this.jacksonObjectInput =
+            new JacksonFramedObjectInput(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    }
+}
@@ -108,6 +108,8 @@ public class JacksonObjectOutputTest {
         this.flushToInput();
 
         assertThat(this.jacksonObjectInput.readBytes(), is("hello".getBytes()));
+        // the format of the earlier versions
+        assertThat(new String(byteArrayOutputStream.toByteArray()), is("hello\n"));
     }
 
     @Test
@@ -118,6 +120,23 @@ public class JacksonObjectOutputTest {
         assertThat(this.jacksonObjectInput.readBytes(), is("ll".getBytes()));
     }
 
+    @Test
+    public void testWriteBinaryBytes() throws IOException {
+        JacksonMapper mapper = new JacksonMapper(null, null, JacksonMapper.BYTES_BASE64);
+        this.jacksonObjectOutput = new JacksonObjectOutput(mapper, byteArrayOutputStream);
+        byte[] bytes = {0, '\n', (byte) 0xc3, (byte) 0xff, '"', '\r', 127};
+        this.jacksonObjectOutput.writeBytes(bytes);
+        this.jacksonObjectOutput.writeBytes(new byte[0]);
+        this.jacksonObjectOutput.writeInt(1);
+        this.jacksonObjectOutput.flushBuffer();
+        this.jacksonObjectInput =
+                new JacksonObjectInput(mapper, new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+
+        assertThat(this.jacksonObjectInput.readBytes(), is(bytes));
+        assertThat(this.jacksonObjectInput.readBytes(), is(new byte[0]));
+        assertThat(this.jacksonObjectInput.readInt(), is(1));
+    }
+
     @Test
     public void testWriteByte() throws IOException {
         this.jacksonObjectOutput.writeByte((byte) 123);
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.base.SerializationModels;
+import org.apache.dubbo.common.serialize.model.media.MediaContent;
+import org.apache.dubbo.common.serialize.model.person.BigPerson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads {@link BigPerson} and {@link MediaContent} through {@link JacksonSerialization}, and through
+ * the previous implementation which built an {@link ObjectMapper} per input and output and wrote via strings.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.apache.dubbo.common.serialize.jackson.JacksonSerializationBenchmark},
+ * or from the IDE, and add {@code -prof gc} to the options to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({"BigPerson", "MediaContent"})
+    private String model;
+
+    private final JacksonSerialization serialization = new JacksonSerialization();
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
+
+    private Object value;
+
+    private Class<?> type;
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        value = "BigPerson".equals(model) ? SerializationModels.bigPerson() : SerializationModels.mediaContent();
+        type = value.getClass();
+        bytes = write();
+    }
+
+    private static ObjectMapper legacyMapper() {
+        return new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .registerModule(new JavaTimeModule());
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        outputStream.reset();
+        ObjectOutput output = serialization.serialize(null, outputStream);
+        output.writeObject(value);
+        output.flushBuffer();
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object read() throws IOException, ClassNotFoundException {
+        ObjectInput input = serialization.deserialize(null, new ByteArrayInputStream(bytes));
+        return input.readObject(type);
+    }
+
+    @Benchmark
+    public byte[] legacyWrite() throws IOException {
+        outputStream.reset();
+        ObjectMapper mapper = legacyMapper();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        char[] json = mapper.writeValueAsString(value).toCharArray();
+        writer.write(json, 0, json.length);
+        writer.println();
+        writer.flush();
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object legacyRead() throws IOException {
+        ObjectMapper mapper = legacyMapper();
+        String json = new String(bytes, StandardCharsets.UTF_8).trim();
+        return mapper.readValue(json, type);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JacksonSerializationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
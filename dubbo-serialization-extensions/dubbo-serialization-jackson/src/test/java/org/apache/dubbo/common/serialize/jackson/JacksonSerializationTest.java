@@ -16,19 +16,29 @@
  */
 package org.apache.dubbo.common.serialize.jackson;
 
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.base.SerializationModels;
+import org.apache.dubbo.common.serialize.model.media.MediaContent;
+import org.apache.dubbo.common.serialize.model.person.BigPerson;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -65,4 +75,49 @@ public class JacksonSerializationTest {
         assertThat(objectInput, Matchers.instanceOf(JacksonObjectInput.class));
     }
 
+    @Test
+    public void testMapperShared() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+        JacksonMappers mappers = new JacksonMappers();
+        assertThat(mappers.getMapper(url), sameInstance(mappers.getMapper(null)));
+
+        URL configured = url.addParameter(JacksonMapper.JACKSON_INCLUDE_KEY, "ALWAYS");
+        assertThat(mappers.getMapper(configured), sameInstance(mappers.getMapper(configured)));
+        assertThat(mappers.getMapper(configured), not(sameInstance(mappers.getMapper(url))));
+    }
+
+    @Test
+    public void testUrlConfiguration() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService")
+            .addParameter(JacksonMapper.JACKSON_INCLUDE_KEY, "always")
+            .addParameter(JacksonMapper.JACKSON_FEATURES_KEY, "INDENT_OUTPUT, -FAIL_ON_EMPTY_BEANS");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = jacksonSerialization.serialize(url, outputStream);
+        Image image = new Image();
+        objectOutput.writeObject(image);
+        objectOutput.flushBuffer();
+        // null properties are written and the output is indented
+        assertThat(outputStream.toString("UTF-8"), containsString("\"title\" : null"));
+
+        URL unknown = url.addParameter(JacksonMapper.JACKSON_FEATURES_KEY, "NO_SUCH_FEATURE");
+        assertThrows(IllegalArgumentException.class, () -> jacksonSerialization.serialize(unknown, outputStream));
+    }
+
+    @Test
+    public void testModels() throws Exception {
+        BigPerson bigPerson = SerializationModels.bigPerson();
+        MediaContent mediaContent = SerializationModels.mediaContent();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = jacksonSerialization.serialize(null, outputStream);
+        objectOutput.writeObject(bigPerson);
+        objectOutput.writeUTF("中华人民共和国");
+        objectOutput.writeObject(mediaContent);
+        objectOutput.flushBuffer();
+
+        ObjectInput objectInput =
+            jacksonSerialization.deserialize(null, new ByteArrayInputStream(outputStream.toByteArray()));
+        assertThat(objectInput.readObject(BigPerson.class), is(bigPerson));
+        assertThat(objectInput.readUTF(), is("中华人民共和国"));
+        assertThat(objectInput.readObject(MediaContent.class, MediaContent.class), is(mediaContent));
+    }
 }
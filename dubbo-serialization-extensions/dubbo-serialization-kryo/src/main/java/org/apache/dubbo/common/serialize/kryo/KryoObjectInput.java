@@ -34,10 +34,10 @@ import java.lang.reflect.Type;
 public class KryoObjectInput implements ObjectInput, Cleanable {
 
     private Kryo kryo;
-    private final Input input;
+    private Input input;
 
     public KryoObjectInput(InputStream inputStream) {
-        input = new Input(inputStream);
+        input = KryoUtils.getInput(inputStream);
         this.kryo = KryoUtils.get();
     }
 
@@ -131,7 +131,6 @@ public class KryoObjectInput implements ObjectInput, Cleanable {
 
     @Override
     public Object readObject() throws IOException, ClassNotFoundException {
-        // TODO optimization
         try {
             return kryo.readClassAndObject(input);
         } catch (KryoException e) {
@@ -143,14 +142,12 @@ public class KryoObjectInput implements ObjectInput, Cleanable {
     @Override
     @SuppressWarnings("unchecked")
     public <T> T readObject(Class<T> clazz) throws IOException, ClassNotFoundException {
-        // TODO optimization
         return (T) readObject();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T readObject(Class<T> clazz, Type type) throws IOException, ClassNotFoundException {
-        // TODO optimization
         return readObject(clazz);
     }
 
@@ -158,5 +155,9 @@ public class KryoObjectInput implements ObjectInput, Cleanable {
     public void cleanup() {
         KryoUtils.release(kryo);
         kryo = null;
+        if (input != null) {
+            KryoUtils.releaseInput(input);
+            input = null;
+        }
     }
 }
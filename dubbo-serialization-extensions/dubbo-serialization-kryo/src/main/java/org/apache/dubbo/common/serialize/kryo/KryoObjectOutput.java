@@ -35,7 +35,7 @@ public class KryoObjectOutput implements ObjectOutput, Cleanable {
     private Kryo kryo;
 
     public KryoObjectOutput(OutputStream outputStream) {
-        output = new Output(outputStream);
+        output = KryoUtils.getOutput(outputStream);
         this.kryo = KryoUtils.get();
     }
 
@@ -114,5 +114,9 @@ public class KryoObjectOutput implements ObjectOutput, Cleanable {
     public void cleanup() {
         KryoUtils.release(kryo);
         kryo = null;
+        if (output != null) {
+            KryoUtils.releaseOutput(output);
+            output = null;
+        }
     }
 }
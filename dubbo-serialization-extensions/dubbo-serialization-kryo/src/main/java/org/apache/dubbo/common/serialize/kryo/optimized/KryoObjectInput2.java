@@ -36,10 +36,10 @@ import java.util.Map;
 public class KryoObjectInput2 implements ObjectInput, Cleanable {
 
     private Kryo kryo;
-    private final Input input;
+    private Input input;
 
     public KryoObjectInput2(InputStream inputStream) {
-        input = new Input(inputStream);
+        input = KryoUtils.getInput(inputStream);
         this.kryo = KryoUtils.get();
     }
 
@@ -174,6 +174,10 @@ public class KryoObjectInput2 implements ObjectInput, Cleanable {
     public void cleanup() {
         KryoUtils.release(kryo);
         kryo = null;
+        if (input != null) {
+            KryoUtils.releaseInput(input);
+            input = null;
+        }
     }
 
     @Override
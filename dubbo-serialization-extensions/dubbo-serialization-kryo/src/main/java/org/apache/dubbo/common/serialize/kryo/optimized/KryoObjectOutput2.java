@@ -31,11 +31,11 @@ import java.io.OutputStream;
  */
 public class KryoObjectOutput2 implements ObjectOutput, Cleanable {
 
-    private final Output output;
+    private Output output;
     private Kryo kryo;
 
     public KryoObjectOutput2(OutputStream outputStream) {
-        output = new Output(outputStream);
+        output = KryoUtils.getOutput(outputStream);
         this.kryo = KryoUtils.get();
     }
 
@@ -118,5 +118,9 @@ public class KryoObjectOutput2 implements ObjectOutput, Cleanable {
     public void cleanup() {
         KryoUtils.release(kryo);
         kryo = null;
+        if (output != null) {
+            KryoUtils.releaseOutput(output);
+            output = null;
+        }
     }
 }
@@ -18,10 +18,14 @@ package org.apache.dubbo.common.serialize.kryo.utils;
 
 import com.esotericsoftware.kryo.util.Pool;
 import org.apache.dubbo.common.serialize.kryo.CompatibleKryo;
+import org.apache.dubbo.common.serialize.SerializableClassRegistryVersion;
 import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers;
 import com.esotericsoftware.kryo.serializers.JavaSerializer;
 import de.javakaffee.kryoserializers.ArraysAsListSerializer;
@@ -34,6 +38,8 @@ import de.javakaffee.kryoserializers.URISerializer;
 import de.javakaffee.kryoserializers.UUIDSerializer;
 import de.javakaffee.kryoserializers.UnmodifiableCollectionsSerializer;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationHandler;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -50,6 +56,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -59,12 +66,16 @@ import java.util.regex.Pattern;
 
 public abstract class AbstractKryoFactory extends Pool<Kryo> {
 
+    protected static final int BUFFER_SIZE = 4096;
+
     private final Set<Class> registrations = new LinkedHashSet<Class>();
 
     private boolean registrationRequired;
 
     private volatile boolean kryoCreated;
 
+    private volatile RegistrationSnapshot snapshot;
+
     public AbstractKryoFactory() {
         super(true, true);
     }
@@ -88,12 +99,36 @@ public abstract class AbstractKryoFactory extends Pool<Kryo> {
             kryoCreated = true;
         }
 
+        Kryo kryo = newKryo();
+        getSnapshot().registerTo(kryo);
+        return kryo;
+    }
+
+    private Kryo newKryo() {
         Kryo kryo = new CompatibleKryo();
 
         kryo.setReferences(true);
         kryo.setRegistrationRequired(registrationRequired);
 
         kryo.addDefaultSerializer(Throwable.class, new JavaSerializer());
+        return kryo;
+    }
+
+    /**
+     * The registrations are resolved once on a template kryo, new kryo instances replay them with the same ids and
+     * share the explicitly given serializers, only the default serializers are created per instance.
+     */
+    private RegistrationSnapshot getSnapshot() {
+        RegistrationSnapshot current = snapshot;
+        long version = SerializableClassRegistryVersion.get();
+        if (current == null || current.version != version) {
+            current = new RegistrationSnapshot(version);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private void register(Kryo kryo, Set<Class> defaultSerialized) {
         kryo.register(Arrays.asList("").getClass(), new ArraysAsListSerializer());
         kryo.register(GregorianCalendar.class, new GregorianCalendarSerializer());
         kryo.register(InvocationHandler.class, new JdkProxySerializer());
@@ -107,44 +142,91 @@ public abstract class AbstractKryoFactory extends Pool<Kryo> {
         SynchronizedCollectionsSerializer.registerSerializers(kryo);
 
         // now just added some very common classes
-        // TODO optimization
-        kryo.register(HashMap.class);
-        kryo.register(ArrayList.class);
-        kryo.register(LinkedList.class);
-        kryo.register(HashSet.class);
-        kryo.register(TreeSet.class);
-        kryo.register(Hashtable.class);
-        kryo.register(Date.class);
-        kryo.register(Calendar.class);
-        kryo.register(ConcurrentHashMap.class);
-        kryo.register(SimpleDateFormat.class);
-        kryo.register(GregorianCalendar.class);
-        kryo.register(Vector.class);
-        kryo.register(BitSet.class);
-        kryo.register(StringBuffer.class);
-        kryo.register(StringBuilder.class);
-        kryo.register(Object.class);
-        kryo.register(Object[].class);
-        kryo.register(String[].class);
-        kryo.register(byte[].class);
-        kryo.register(char[].class);
-        kryo.register(int[].class);
-        kryo.register(float[].class);
-        kryo.register(double[].class);
+        Class[] common = {
+            HashMap.class, ArrayList.class, LinkedList.class, HashSet.class, TreeSet.class, Hashtable.class,
+            Date.class, Calendar.class, ConcurrentHashMap.class, SimpleDateFormat.class, GregorianCalendar.class,
+            Vector.class, BitSet.class, StringBuffer.class, StringBuilder.class, Object.class, Object[].class,
+            String[].class, byte[].class, char[].class, int[].class, float[].class, double[].class
+        };
+        for (Class clazz : common) {
+            registerDefault(kryo, clazz, defaultSerialized);
+        }
 
         for (Class clazz : registrations) {
-            kryo.register(clazz);
+            registerDefault(kryo, clazz, defaultSerialized);
         }
 
         SerializableClassRegistry.getRegisteredClasses().forEach((clazz, ser) -> {
             if (ser == null) {
-                kryo.register(clazz);
+                registerDefault(kryo, clazz, defaultSerialized);
             } else {
+                defaultSerialized.remove(clazz);
                 kryo.register(clazz, (Serializer) ser);
             }
         });
+    }
 
-        return kryo;
+    private static void registerDefault(Kryo kryo, Class clazz, Set<Class> defaultSerialized) {
+        if (kryo.getClassResolver().getRegistration(clazz) == null) {
+            defaultSerialized.add(clazz);
+        }
+        kryo.register(clazz);
+    }
+
+    private class RegistrationSnapshot {
+
+        private final long version;
+
+        private final List<Registration> registrations = new ArrayList<>();
+
+        private final Set<Class> defaultSerialized = new HashSet<>();
+
+        RegistrationSnapshot(long version) {
+            this.version = version;
+            Kryo template = newKryo();
+            int firstId = template.getNextRegistrationId();
+            register(template, defaultSerialized);
+            for (int id = firstId; id < template.getNextRegistrationId(); id++) {
+                Registration registration = template.getRegistration(id);
+                if (registration != null) {
+                    registrations.add(registration);
+                }
+            }
+        }
+
+        void registerTo(Kryo kryo) {
+            for (Registration registration : registrations) {
+                Class type = registration.getType();
+                if (defaultSerialized.contains(type)) {
+                    // default serializers are bound to their kryo instance
+                    kryo.register(type, registration.getId());
+                } else {
+                    kryo.register(type, registration.getSerializer(), registration.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return an output of the stream, with a buffer reused if the factory pools them
+     */
+    public Output getOutput(OutputStream outputStream) {
+        return new Output(outputStream, BUFFER_SIZE);
+    }
+
+    public void returnOutput(Output output) {
+        // not pooled
+    }
+
+    /**
+     * @return an input of the stream, with a buffer reused if the factory pools them
+     */
+    public Input getInput(InputStream inputStream) {
+        return new Input(inputStream, BUFFER_SIZE);
+    }
+
+    public void returnInput(Input input) {
+        // not pooled
     }
 
     public void setRegistrationRequired(boolean registrationRequired) {
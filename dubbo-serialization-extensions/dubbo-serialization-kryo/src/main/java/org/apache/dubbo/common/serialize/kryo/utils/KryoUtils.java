@@ -17,6 +17,11 @@
 package org.apache.dubbo.common.serialize.kryo.utils;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * The kryo utils used by dubbo
@@ -34,6 +39,22 @@ public class KryoUtils {
         kryoFactory.returnKryo(kryo);
     }
 
+    public static Output getOutput(OutputStream outputStream) {
+        return kryoFactory.getOutput(outputStream);
+    }
+
+    public static void releaseOutput(Output output) {
+        kryoFactory.returnOutput(output);
+    }
+
+    public static Input getInput(InputStream inputStream) {
+        return kryoFactory.getInput(inputStream);
+    }
+
+    public static void releaseInput(Input input) {
+        kryoFactory.returnInput(input);
+    }
+
     public static void register(Class<?> clazz) {
         kryoFactory.registerClass(clazz);
     }
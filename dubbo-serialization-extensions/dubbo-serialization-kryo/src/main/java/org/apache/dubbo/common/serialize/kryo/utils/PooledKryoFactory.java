@@ -17,9 +17,29 @@
 package org.apache.dubbo.common.serialize.kryo.utils;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.Pool;
+
+import java.io.InputStream;
+import java.io.OutputStream;
 
 public class PooledKryoFactory extends AbstractKryoFactory {
 
+    private final Pool<Output> outputs = new Pool<Output>(true, true) {
+        @Override
+        protected Output create() {
+            return new Output(BUFFER_SIZE);
+        }
+    };
+
+    private final Pool<Input> inputs = new Pool<Input>(true, true) {
+        @Override
+        protected Input create() {
+            return new Input(BUFFER_SIZE);
+        }
+    };
+
     @Override
     public Kryo getKryo() {
         return this.obtain();
@@ -29,4 +49,30 @@ public class PooledKryoFactory extends AbstractKryoFactory {
     public void returnKryo(Kryo kryo) {
         this.free(kryo);
     }
+
+    @Override
+    public Output getOutput(OutputStream outputStream) {
+        Output output = outputs.obtain();
+        output.setOutputStream(outputStream);
+        return output;
+    }
+
+    @Override
+    public void returnOutput(Output output) {
+        output.setOutputStream(null);
+        outputs.free(output);
+    }
+
+    @Override
+    public Input getInput(InputStream inputStream) {
+        Input input = inputs.obtain();
+        input.setInputStream(inputStream);
+        return input;
+    }
+
+    @Override
+    public void returnInput(Input input) {
+        input.setInputStream(null);
+        inputs.free(input);
+    }
 }
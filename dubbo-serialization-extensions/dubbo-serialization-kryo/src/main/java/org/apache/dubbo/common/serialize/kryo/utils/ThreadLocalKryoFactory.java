@@ -17,11 +17,24 @@
 package org.apache.dubbo.common.serialize.kryo.utils;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.io.InputStream;
+import java.io.OutputStream;
 
 public class ThreadLocalKryoFactory extends AbstractKryoFactory {
 
     private final ThreadLocal<Kryo> holder = ThreadLocal.withInitial(this::create);
 
+    /**
+     * The buffers are borrowed from the thread, a second output opened on the same thread before the first one is
+     * cleaned up gets a buffer of its own.
+     */
+    private final ThreadLocal<Output> outputHolder = new ThreadLocal<>();
+
+    private final ThreadLocal<Input> inputHolder = new ThreadLocal<>();
+
     @Override
     public void returnKryo(Kryo kryo) {
         // do nothing
@@ -31,4 +44,38 @@ public class ThreadLocalKryoFactory extends AbstractKryoFactory {
     public Kryo getKryo() {
         return holder.get();
     }
+
+    @Override
+    public Output getOutput(OutputStream outputStream) {
+        Output output = outputHolder.get();
+        if (output == null) {
+            return super.getOutput(outputStream);
+        }
+        outputHolder.set(null);
+        output.setOutputStream(outputStream);
+        return output;
+    }
+
+    @Override
+    public void returnOutput(Output output) {
+        output.setOutputStream(null);
+        outputHolder.set(output);
+    }
+
+    @Override
+    public Input getInput(InputStream inputStream) {
+        Input input = inputHolder.get();
+        if (input == null) {
+            return super.getInput(inputStream);
+        }
+        inputHolder.set(null);
+        input.setInputStream(inputStream);
+        return input;
+    }
+
+    @Override
+    public void returnInput(Input input) {
+        input.setInputStream(null);
+        inputHolder.set(input);
+    }
 }
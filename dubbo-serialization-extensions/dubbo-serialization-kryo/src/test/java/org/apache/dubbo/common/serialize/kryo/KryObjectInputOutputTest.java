@@ -23,6 +23,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
@@ -194,4 +196,21 @@ public class KryObjectInputOutputTest {
 //		assertThat(result.getName(), is("abc"));
 //		assertThat(result.getAge(), is(30));
     }
+
+    @Test
+    public void testReuseBuffersAfterCleanup() throws IOException, ClassNotFoundException {
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            KryoObjectOutput output = new KryoObjectOutput(bytes);
+            output.writeUTF("value" + i);
+            output.writeObject(i);
+            output.flushBuffer();
+            output.cleanup();
+
+            KryoObjectInput input = new KryoObjectInput(new ByteArrayInputStream(bytes.toByteArray()));
+            assertThat(input.readUTF(), is("value" + i));
+            assertThat(input.readObject(Integer.class), is(i));
+            input.cleanup();
+        }
+    }
 }
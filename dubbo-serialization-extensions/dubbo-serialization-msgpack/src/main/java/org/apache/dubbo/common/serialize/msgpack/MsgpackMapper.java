@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.msgpack;
+
+import org.apache.dubbo.common.serialize.JacksonFeatures;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.msgpack.jackson.dataformat.MessagePackMapper;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A msgpack {@link ObjectMapper} shared by all msgpack object inputs and outputs of the same configuration,
+ * with the {@link ObjectReader}s and {@link ObjectWriter}s of the types seen so far.
+ * <p>
+ * The url parameter {@code msgpack.features} enables the comma separated {@link SerializationFeature},
+ * {@link DeserializationFeature} and {@link MapperFeature} names, or disables them when prefixed with {@code -}.
+ */
+public class MsgpackMapper {
+
+    public static final String MSGPACK_FEATURES_KEY = "msgpack.features";
+
+    private static final MsgpackMapper DEFAULT = new MsgpackMapper(null);
+
+    private final ObjectMapper mapper;
+
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public MsgpackMapper(String features) {
+        MessagePackMapper.Builder builder = MessagePackMapper.builder(new MessagePackFactory())
+                // the inputs and outputs read and write several values from and to the same stream
+                .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        JacksonFeatures.configure(builder, features, MSGPACK_FEATURES_KEY);
+        this.mapper = builder.build();
+    }
+
+    /**
+     * The mapper of the object inputs and outputs created without a {@link MsgpackMappers}.
+     */
+    public static MsgpackMapper getDefault() {
+        return DEFAULT;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    public ObjectReader getReader(Type type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
+        }
+        return reader;
+    }
+
+    public ObjectWriter getWriter(Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(type, mapper::writerFor);
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.msgpack;
+
+import org.apache.dubbo.common.URL;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.dubbo.common.serialize.msgpack.MsgpackMapper.MSGPACK_FEATURES_KEY;
+
+/**
+ * The {@link MsgpackMapper}s of a framework model, one per url configuration.
+ */
+public class MsgpackMappers {
+
+    private final MsgpackMapper defaultMapper = new MsgpackMapper(null);
+
+    private final ConcurrentMap<String, MsgpackMapper> mappers = new ConcurrentHashMap<>();
+
+    public MsgpackMapper getMapper(URL url) {
+        String features = url == null ? null : url.getParameter(MSGPACK_FEATURES_KEY);
+        if (features == null) {
+            return defaultMapper;
+        }
+        MsgpackMapper mapper = mappers.get(features);
+        if (mapper == null) {
+            mapper = mappers.computeIfAbsent(features, MsgpackMapper::new);
+        }
+        return mapper;
+    }
+}
@@ -20,10 +20,6 @@ package org.apache.dubbo.common.serialize.msgpack;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.utils.PojoUtils;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.msgpack.jackson.dataformat.MessagePackFactory;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
@@ -32,12 +28,15 @@ public class MsgpackObjectInput implements ObjectInput {
 
     private final InputStream in;
 
-    private final ObjectMapper om;
+    private final MsgpackMapper mapper;
 
     public MsgpackObjectInput(InputStream in) {
+        this(MsgpackMapper.getDefault(), in);
+    }
+
+    public MsgpackObjectInput(MsgpackMapper mapper, InputStream in) {
         this.in = in;
-        om = new ObjectMapper(new MessagePackFactory());
-        om.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+        this.mapper = mapper;
     }
 
     @Override
@@ -87,7 +86,7 @@ public class MsgpackObjectInput implements ObjectInput {
 
     @Override
     public Object readObject() throws IOException, ClassNotFoundException {
-        return om.readValue(this.in, Object.class);
+        return read(Object.class);
     }
 
     @Override
@@ -103,7 +102,7 @@ public class MsgpackObjectInput implements ObjectInput {
     }
 
     private <T> T read(Class<T> cls) throws IOException {
-        return om.readValue(this.in, cls);
+        return mapper.getReader(cls).readValue(this.in);
     }
 
     @Override
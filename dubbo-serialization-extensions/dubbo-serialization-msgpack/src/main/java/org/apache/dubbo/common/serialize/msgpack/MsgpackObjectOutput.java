@@ -19,9 +19,6 @@ package org.apache.dubbo.common.serialize.msgpack;
 
 import org.apache.dubbo.common.serialize.ObjectOutput;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.msgpack.jackson.dataformat.MessagePackFactory;
-
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -29,12 +26,16 @@ import java.util.Arrays;
 
 public class MsgpackObjectOutput implements ObjectOutput {
 
-    private OutputStream out;
-    private ObjectMapper om;
+    private final OutputStream out;
+    private final MsgpackMapper mapper;
 
     public MsgpackObjectOutput(OutputStream out) {
+        this(MsgpackMapper.getDefault(), out);
+    }
+
+    public MsgpackObjectOutput(MsgpackMapper mapper, OutputStream out) {
         this.out = out;
-        om = new ObjectMapper(new MessagePackFactory());
+        this.mapper = mapper;
     }
 
     @Override
@@ -90,10 +91,12 @@ public class MsgpackObjectOutput implements ObjectOutput {
 
     @Override
     public void writeObject(Object obj) throws IOException {
-        byte[] bytes = om.writeValueAsBytes(obj);
-        out.write(bytes);
+        if (obj == null) {
+            mapper.getObjectMapper().writeValue(out, null);
+        } else {
+            mapper.getWriter(obj.getClass()).writeValue(out, obj);
+        }
         out.flush();
-        bytes = null;
     }
 
     @Override
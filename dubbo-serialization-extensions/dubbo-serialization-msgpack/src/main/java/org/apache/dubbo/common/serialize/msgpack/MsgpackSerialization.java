@@ -21,15 +21,27 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.rpc.model.FrameworkModel;
+import org.apache.dubbo.rpc.model.ScopeModelAware;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-public class MsgpackSerialization implements Serialization {
+/**
+ * The object mappers are shared by all requests of a framework model, see {@link MsgpackMapper} for their configuration.
+ */
+public class MsgpackSerialization implements Serialization, ScopeModelAware {
 
     byte MSGPACK_SERIALIZATION_ID = 27;
 
+    private MsgpackMappers mappers = new MsgpackMappers();
+
+    @Override
+    public void setFrameworkModel(FrameworkModel frameworkModel) {
+        this.mappers = frameworkModel.getBeanFactory().getOrRegisterBean(MsgpackMappers.class);
+    }
+
     @Override
     public byte getContentTypeId() {
         return MSGPACK_SERIALIZATION_ID;
@@ -42,11 +54,11 @@ public class MsgpackSerialization implements Serialization {
 
     @Override
     public ObjectOutput serialize(URL url, OutputStream output) throws IOException {
-        return new MsgpackObjectOutput(output);
+        return new MsgpackObjectOutput(mappers.getMapper(url), output);
     }
 
     @Override
     public ObjectInput deserialize(URL url, InputStream input) throws IOException {
-        return new MsgpackObjectInput(input);
+        return new MsgpackObjectInput(mappers.getMapper(url), input);
     }
 }
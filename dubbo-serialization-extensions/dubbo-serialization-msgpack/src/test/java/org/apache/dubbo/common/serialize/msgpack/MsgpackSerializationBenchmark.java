@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.msgpack;
+
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.base.SerializationModels;
+import org.apache.dubbo.common.serialize.model.media.MediaContent;
+import org.apache.dubbo.common.serialize.model.person.BigPerson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads {@link BigPerson} and {@link MediaContent} through {@link MsgpackSerialization}, and through
+ * the previous implementation which built an {@link ObjectMapper} per input and output.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.apache.dubbo.common.serialize.msgpack.MsgpackSerializationBenchmark},
+ * or from the IDE, and add {@code -prof gc} to the options to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MsgpackSerializationBenchmark {
+
+    @Param({"BigPerson", "MediaContent"})
+    private String model;
+
+    private final MsgpackSerialization serialization = new MsgpackSerialization();
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
+
+    private Object value;
+
+    private Class<?> type;
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        value = "BigPerson".equals(model) ? SerializationModels.bigPerson() : SerializationModels.mediaContent();
+        type = value.getClass();
+        bytes = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        outputStream.reset();
+        ObjectOutput output = serialization.serialize(null, outputStream);
+        output.writeObject(value);
+        output.flushBuffer();
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object read() throws IOException, ClassNotFoundException {
+        ObjectInput input = serialization.deserialize(null, new ByteArrayInputStream(bytes));
+        return input.readObject(type);
+    }
+
+    @Benchmark
+    public byte[] legacyWrite() throws IOException {
+        outputStream.reset();
+        ObjectMapper mapper = new ObjectMapper(new MessagePackFactory());
+        outputStream.write(mapper.writeValueAsBytes(value));
+        outputStream.flush();
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object legacyRead() throws IOException {
+        ObjectMapper mapper = new ObjectMapper(new MessagePackFactory());
+        mapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+        return mapper.readValue(new ByteArrayInputStream(bytes), type);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MsgpackSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
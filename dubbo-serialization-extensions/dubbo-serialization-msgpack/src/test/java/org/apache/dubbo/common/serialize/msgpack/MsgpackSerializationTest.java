@@ -16,19 +16,27 @@
  */
 package org.apache.dubbo.common.serialize.msgpack;
 
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.base.SerializationModels;
+import org.apache.dubbo.common.serialize.model.media.MediaContent;
+import org.apache.dubbo.common.serialize.model.person.BigPerson;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 
 public class MsgpackSerializationTest {
@@ -61,4 +69,33 @@ public class MsgpackSerializationTest {
         ObjectInput objectInput = msgpackSerialization.deserialize(null, mock(InputStream.class));
         assertThat(objectInput, Matchers.<ObjectInput>instanceOf(MsgpackObjectInput.class));
     }
+
+    @Test
+    public void testMapperShared() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+        MsgpackMappers mappers = new MsgpackMappers();
+        assertThat(mappers.getMapper(url), sameInstance(mappers.getMapper(null)));
+
+        URL configured = url.addParameter(MsgpackMapper.MSGPACK_FEATURES_KEY, "-FAIL_ON_UNKNOWN_PROPERTIES");
+        assertThat(mappers.getMapper(configured), sameInstance(mappers.getMapper(configured)));
+        assertThat(mappers.getMapper(configured), not(sameInstance(mappers.getMapper(url))));
+    }
+
+    @Test
+    public void testModels() throws Exception {
+        BigPerson bigPerson = SerializationModels.bigPerson();
+        MediaContent mediaContent = SerializationModels.mediaContent();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = msgpackSerialization.serialize(null, outputStream);
+        objectOutput.writeObject(bigPerson);
+        objectOutput.writeInt(23);
+        objectOutput.writeObject(mediaContent);
+        objectOutput.flushBuffer();
+
+        ObjectInput objectInput =
+                msgpackSerialization.deserialize(null, new ByteArrayInputStream(outputStream.toByteArray()));
+        assertThat(objectInput.readObject(BigPerson.class), is(bigPerson));
+        assertThat(objectInput.readInt(), is(23));
+        assertThat(objectInput.readObject(MediaContent.class), is(mediaContent));
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff;
+
+import org.apache.dubbo.common.serialize.SerializableClassRegistryVersion;
+import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class ids shared by both sides of a connection when the class dictionary is enabled, see
+ * {@link ProtostuffSerialization#PROTOSTUFF_CLASS_DICTIONARY_KEY}.
+ * <p>
+ * {@link Wrapper} has id 1, followed by the classes registered in {@link SerializableClassRegistry} sorted by name,
+ * so peers registering the same classes agree on the ids whatever the registration order. The other classes get ids
+ * per stream on their first occurrence. Every stream starts with the {@link #getHash() hash} of the dictionary,
+ * peers with different registrations fail fast instead of reading the wrong classes.
+ */
+public final class ProtostuffClassDictionary {
+
+    private static volatile ProtostuffClassDictionary current = new ProtostuffClassDictionary(new ArrayList<>(), 0);
+
+    private final Class<?>[] classes;
+
+    private final Map<Class<?>, Integer> ids;
+
+    private final long version;
+
+    private final int hash;
+
+    private ProtostuffClassDictionary(List<Class<?>> registered, long version) {
+        this.version = version;
+        registered.sort(Comparator.comparing(Class::getName));
+        List<Class<?>> all = new ArrayList<>(registered.size() + 1);
+        all.add(Wrapper.class);
+        for (Class<?> clazz : registered) {
+            if (clazz != Wrapper.class) {
+                all.add(clazz);
+            }
+        }
+        this.classes = all.toArray(new Class<?>[0]);
+        this.ids = new IdentityHashMap<>(classes.length * 2);
+        int h = 1;
+        for (int i = 0; i < classes.length; i++) {
+            ids.put(classes[i], i + 1);
+            h = 31 * h + classes[i].getName().hashCode();
+        }
+        this.hash = h;
+    }
+
+    /**
+     * The dictionary of the classes currently registered in {@link SerializableClassRegistry}.
+     */
+    public static ProtostuffClassDictionary current() {
+        ProtostuffClassDictionary dictionary = current;
+        long version = SerializableClassRegistryVersion.get();
+        if (dictionary.version != version) {
+            dictionary = new ProtostuffClassDictionary(
+                new ArrayList<>(SerializableClassRegistry.getRegisteredClasses().keySet()), version);
+            current = dictionary;
+        }
+        return dictionary;
+    }
+
+    public int getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the number of classes with a fixed id, per stream ids start after them
+     */
+    public int size() {
+        return classes.length;
+    }
+
+    /**
+     * @return the id of the class, or 0 if it has none
+     */
+    public int getId(Class<?> clazz) {
+        Integer id = ids.get(clazz);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * @return the class of the id, or null if the id is not in the dictionary
+     */
+    public Class<?> getClass(int id) {
+        return id > 0 && id <= classes.length ? classes[id - 1] : null;
+    }
+}
@@ -28,6 +28,9 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Protostuff object input implementation
@@ -36,13 +39,28 @@ public class ProtostuffObjectInput implements ObjectInput {
 
     private DataInputStream dis;
 
+    private final ProtostuffClassDictionary dictionary;
+    private List<Class<?>> streamClasses;
+
     public ProtostuffObjectInput(InputStream inputStream) {
+        this(inputStream, null);
+    }
+
+    /**
+     * @param dictionary the class dictionary, or null to read the class names
+     */
+    public ProtostuffObjectInput(InputStream inputStream, ProtostuffClassDictionary dictionary) {
         dis = new DataInputStream(inputStream);
+        this.dictionary = dictionary;
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
     @Override
     public Object readObject() throws IOException, ClassNotFoundException {
+        if (dictionary != null) {
+            return readDictionaryObject();
+        }
+
         int classNameLength = dis.readInt();
         int bytesLength = dis.readInt();
 
@@ -74,6 +92,54 @@ public class ProtostuffObjectInput implements ObjectInput {
         return result;
     }
 
+    @SuppressWarnings("unchecked")
+    private Object readDictionaryObject() throws IOException, ClassNotFoundException {
+        Class<?> clazz = readClass();
+        Schema schema = RuntimeSchema.getSchema(clazz);
+        Object message = schema.newMessage();
+        GraphIOUtil.mergeDelimitedFrom((InputStream) dis, message, schema);
+        return message instanceof Wrapper ? ((Wrapper) message).getData() : message;
+    }
+
+    private Class<?> readClass() throws IOException, ClassNotFoundException {
+        if (streamClasses == null) {
+            int hash = dis.readInt();
+            if (hash != dictionary.getHash()) {
+                throw new IOException("Protostuff class dictionary mismatch, both sides must register the same classes"
+                    + " in SerializableClassRegistry");
+            }
+            streamClasses = new ArrayList<>();
+        }
+        int id = readVarint();
+        if (id == 0) {
+            byte[] classNameBytes = new byte[readVarint()];
+            dis.readFully(classNameBytes);
+            Class<?> clazz = Class.forName(new String(classNameBytes, StandardCharsets.UTF_8));
+            streamClasses.add(clazz);
+            return clazz;
+        }
+        if (id <= dictionary.size()) {
+            return dictionary.getClass(id);
+        }
+        int index = id - dictionary.size() - 1;
+        if (index >= streamClasses.size()) {
+            throw new IOException("Unknown protostuff class id " + id);
+        }
+        return streamClasses.get(index);
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = dis.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed protostuff class id");
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> T readObject(Class<T> clazz) throws IOException, ClassNotFoundException {
@@ -124,7 +190,7 @@ public class ProtostuffObjectInput implements ObjectInput {
     public String readUTF() throws IOException {
         int length = dis.readInt();
         byte[] bytes = new byte[length];
-        dis.read(bytes, 0, length);
+        dis.readFully(bytes, 0, length);
         return new String(bytes);
     }
 
@@ -132,7 +198,7 @@ public class ProtostuffObjectInput implements ObjectInput {
     public byte[] readBytes() throws IOException {
         int length = dis.readInt();
         byte[] bytes = new byte[length];
-        dis.read(bytes, 0, length);
+        dis.readFully(bytes, 0, length);
         return bytes;
     }
 }
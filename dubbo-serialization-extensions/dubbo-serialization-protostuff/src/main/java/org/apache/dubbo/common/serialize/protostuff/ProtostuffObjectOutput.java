@@ -28,45 +28,103 @@ import io.protostuff.runtime.RuntimeSchema;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Protostuff object output implementation
+ * <p>
+ * Objects are written as their class name followed by the message, or with the class dictionary enabled as a class
+ * id followed by the length delimited message, see {@link ProtostuffClassDictionary}.
  */
 public class ProtostuffObjectOutput implements ObjectOutput {
 
+    private static final ClassValue<byte[]> CLASS_NAMES = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return type.getName().getBytes();
+        }
+    };
+
     private LinkedBuffer buffer = LinkedBuffer.allocate();
     private DataOutputStream dos;
 
+    private final ProtostuffClassDictionary dictionary;
+    private Map<Class<?>, Integer> streamIds;
+
     public ProtostuffObjectOutput(OutputStream outputStream) {
+        this(outputStream, null);
+    }
+
+    /**
+     * @param dictionary the class dictionary, or null to write the class names
+     */
+    public ProtostuffObjectOutput(OutputStream outputStream, ProtostuffClassDictionary dictionary) {
         dos = new DataOutputStream(outputStream);
+        this.dictionary = dictionary;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void writeObject(Object obj) throws IOException {
-
-        byte[] bytes;
-        byte[] classNameBytes;
+        Class<?> clazz;
+        Object message;
+        if (obj == null || WrapperUtils.needWrapper(obj)) {
+            clazz = Wrapper.class;
+            message = new Wrapper(obj);
+        } else {
+            clazz = obj.getClass();
+            message = obj;
+        }
+        Schema schema = RuntimeSchema.getSchema(clazz);
 
         try {
-            if (obj == null || WrapperUtils.needWrapper(obj)) {
-                Schema<Wrapper> schema = RuntimeSchema.getSchema(Wrapper.class);
-                Wrapper wrapper = new Wrapper(obj);
-                bytes = GraphIOUtil.toByteArray(wrapper, schema, buffer);
-                classNameBytes = Wrapper.class.getName().getBytes();
+            if (dictionary != null) {
+                writeClassId(clazz);
+                // streams the message through the buffer, prefixed with its length
+                GraphIOUtil.writeDelimitedTo(dos, message, schema, buffer);
             } else {
-                Schema schema = RuntimeSchema.getSchema(obj.getClass());
-                bytes = GraphIOUtil.toByteArray(obj, schema, buffer);
-                classNameBytes = obj.getClass().getName().getBytes();
+                int size = GraphIOUtil.writeTo(buffer, message, schema);
+                byte[] classNameBytes = CLASS_NAMES.get(clazz);
+                dos.writeInt(classNameBytes.length);
+                dos.writeInt(size);
+                dos.write(classNameBytes);
+                LinkedBuffer.writeTo((OutputStream) dos, buffer);
             }
         } finally {
             buffer.clear();
         }
+    }
 
-        dos.writeInt(classNameBytes.length);
-        dos.writeInt(bytes.length);
-        dos.write(classNameBytes);
-        dos.write(bytes);
+    private void writeClassId(Class<?> clazz) throws IOException {
+        if (streamIds == null) {
+            streamIds = new IdentityHashMap<>();
+            dos.writeInt(dictionary.getHash());
+        }
+        int id = dictionary.getId(clazz);
+        if (id == 0) {
+            Integer streamId = streamIds.get(clazz);
+            if (streamId == null) {
+                // first occurrence in the stream, the reader assigns the next id to it
+                streamIds.put(clazz, dictionary.size() + streamIds.size() + 1);
+                writeVarint(0);
+                byte[] classNameBytes = clazz.getName().getBytes(StandardCharsets.UTF_8);
+                writeVarint(classNameBytes.length);
+                dos.write(classNameBytes);
+                return;
+            }
+            id = streamId;
+        }
+        writeVarint(id);
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            dos.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dos.writeByte(value);
     }
 
     @Override
@@ -120,9 +178,7 @@ public class ProtostuffObjectOutput implements ObjectOutput {
     @Override
     public void writeBytes(byte[] v, int off, int len) throws IOException {
         dos.writeInt(len);
-        byte[] bytes = new byte[len];
-        System.arraycopy(v, off, bytes, 0, len);
-        dos.write(bytes);
+        dos.write(v, off, len);
     }
 
     @Override
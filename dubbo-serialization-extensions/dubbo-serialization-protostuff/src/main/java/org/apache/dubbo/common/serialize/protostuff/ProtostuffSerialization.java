@@ -34,8 +34,13 @@ import static org.apache.dubbo.common.serialize.Constants.PROTOSTUFF_SERIALIZATI
  * <pre>
  *     e.g. &lt;dubbo:protocol serialization="protostuff" /&gt;
  * </pre>
+ * With {@code protostuff.class.dictionary=true} on both sides, classes are sent as ids instead of names,
+ * see {@link ProtostuffClassDictionary}.
  */
 public class ProtostuffSerialization implements Serialization {
+
+    public static final String PROTOSTUFF_CLASS_DICTIONARY_KEY = "protostuff.class.dictionary";
+
     @Override
     public byte getContentTypeId() {
         return PROTOSTUFF_SERIALIZATION_ID;
@@ -48,11 +53,18 @@ public class ProtostuffSerialization implements Serialization {
 
     @Override
     public ObjectOutput serialize(URL url, OutputStream output) throws IOException {
-        return new ProtostuffObjectOutput(output);
+        return new ProtostuffObjectOutput(output, getDictionary(url));
     }
 
     @Override
     public ObjectInput deserialize(URL url, InputStream input) throws IOException {
-        return new ProtostuffObjectInput(input);
+        return new ProtostuffObjectInput(input, getDictionary(url));
+    }
+
+    private static ProtostuffClassDictionary getDictionary(URL url) {
+        if (url != null && url.getParameter(PROTOSTUFF_CLASS_DICTIONARY_KEY, false)) {
+            return ProtostuffClassDictionary.current();
+        }
+        return null;
     }
 }
@@ -53,6 +53,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class WrapperUtils {
     private static final Set<Class<?>> WRAPPER_SET = new HashSet<>();
 
+    private static final ClassValue<Boolean> NEED_WRAPPER = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> clazz) {
+            return WRAPPER_SET.contains(clazz) || clazz.isArray() || clazz.isEnum();
+        }
+    };
+
     static {
         if (RuntimeEnv.ID_STRATEGY instanceof DefaultIdStrategy) {
             ((DefaultIdStrategy) RuntimeEnv.ID_STRATEGY).registerDelegate(new TimeDelegate());
@@ -96,13 +103,13 @@ public class WrapperUtils {
     }
 
     /**
-     * Determine if the object needs wrap
+     * Determine if the object needs wrap, the answer is cached per class
      *
      * @param clazz object type
      * @return need wrap
      */
     public static boolean needWrapper(Class<?> clazz) {
-        return WrapperUtils.WRAPPER_SET.contains(clazz) || clazz.isArray() || clazz.isEnum();
+        return NEED_WRAPPER.get(clazz);
     }
 
     /**
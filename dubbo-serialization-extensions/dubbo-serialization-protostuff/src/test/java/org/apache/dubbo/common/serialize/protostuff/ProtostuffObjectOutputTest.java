@@ -16,7 +16,11 @@
  */
 package org.apache.dubbo.common.serialize.protostuff;
 
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.serialize.model.SerializablePerson;
+import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -31,8 +35,12 @@ import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ProtostuffObjectOutputTest {
 
@@ -164,6 +172,70 @@ public class ProtostuffObjectOutputTest {
         assertThat(serializedTime, is(originTime));
     }
 
+    @Test
+    public void testClassDictionary() throws IOException, ClassNotFoundException {
+        SerializableClassRegistry.registerClass(SerializablePerson.class);
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService")
+            .addParameter(ProtostuffSerialization.PROTOSTUFF_CLASS_DICTIONARY_KEY, true);
+        ProtostuffSerialization serialization = new ProtostuffSerialization();
+
+        SerializablePerson person = new SerializablePerson();
+        List<LocalTime> times = new ArrayList<>();
+        times.add(LocalTime.of(12, 30));
+        LocalTimeList timeList = new LocalTimeList(times);
+        ObjectOutput objectOutput = serialization.serialize(url, byteArrayOutputStream);
+        objectOutput.writeObject(person);
+        objectOutput.writeObject(timeList);
+        objectOutput.writeObject(null);
+        objectOutput.writeObject(timeList);
+        objectOutput.writeObject(person);
+        objectOutput.flushBuffer();
+        byte[] bytes = byteArrayOutputStream.toByteArray();
+
+        ObjectInput objectInput = serialization.deserialize(url, new ByteArrayInputStream(bytes));
+        assertThat(objectInput.readObject(), is(person));
+        assertThat(objectInput.readObject(), is(timeList));
+        assertThat(objectInput.readObject(), nullValue());
+        assertThat(objectInput.readObject(), is(timeList));
+        assertThat(objectInput.readObject(), is(person));
+
+        // the class names are not repeated
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        ObjectOutput namesOutput = serialization.serialize(null, names);
+        namesOutput.writeObject(person);
+        namesOutput.writeObject(timeList);
+        namesOutput.writeObject(null);
+        namesOutput.writeObject(timeList);
+        namesOutput.writeObject(person);
+        namesOutput.flushBuffer();
+        assertThat(bytes.length, lessThan(names.size()));
+
+        // a peer with other registrations fails fast
+        byte[] mismatch = bytes.clone();
+        mismatch[0]++;
+        ObjectInput mismatchInput = serialization.deserialize(url, new ByteArrayInputStream(mismatch));
+        assertThrows(IOException.class, mismatchInput::readObject);
+    }
+
+    @Test
+    public void testClassDictionaryReplacedRegistration() {
+        SerializableClassRegistry.registerClass(SerializablePersonList.class);
+        ProtostuffClassDictionary dictionary = ProtostuffClassDictionary.current();
+        assertThat(ProtostuffClassDictionary.current(), sameInstance(dictionary));
+
+        // as many registrations as before, but another class
+        SerializableClassRegistry.getRegisteredClasses().remove(SerializablePersonList.class);
+        SerializableClassRegistry.registerClass(LocalTimeList.class);
+        try {
+            ProtostuffClassDictionary replaced = ProtostuffClassDictionary.current();
+            assertThat(replaced.size(), is(dictionary.size()));
+            assertThat(replaced.getHash(), not(dictionary.getHash()));
+            assertThat(replaced.getId(SerializablePersonList.class), is(0));
+        } finally {
+            SerializableClassRegistry.getRegisteredClasses().remove(LocalTimeList.class);
+        }
+    }
+
     private void flushToInput() throws IOException {
         this.protostuffObjectOutput.flushBuffer();
         this.byteArrayInputStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
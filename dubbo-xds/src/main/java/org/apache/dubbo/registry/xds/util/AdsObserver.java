@@ -25,19 +25,35 @@ import org.apache.dubbo.registry.xds.util.protocol.DeltaResource;
 import org.apache.dubbo.rpc.model.ApplicationModel;
 
 import io.envoyproxy.envoy.config.core.v3.Node;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static org.apache.dubbo.common.constants.LoggerCodeConstants.REGISTRY_ERROR_REQUEST_XDS;
 
+/**
+ * The ADS stream shared by all the xDS protocols.
+ * <p>
+ * With {@code deltaXds=true} resources are fetched by incremental xDS: only the newly (un)subscribed resource names
+ * are sent and the server pushes the changed resources only. The state of the world stream is used otherwise, or if
+ * the server doesn't implement incremental xDS.
+ */
 public class AdsObserver {
     private static final ErrorTypeAwareLogger logger = LoggerFactory.getErrorTypeAwareLogger(AdsObserver.class);
+
+    public static final String DELTA_XDS_KEY = "deltaXds";
+
     private final ApplicationModel applicationModel;
     private final URL url;
     private final Node node;
@@ -47,25 +63,148 @@ public class AdsObserver {
 
     protected StreamObserver<DiscoveryRequest> requestObserver;
 
-    private final Map<String, DiscoveryRequest> observedResources = new ConcurrentHashMap<>();
+    protected StreamObserver<DeltaDiscoveryRequest> deltaRequestObserver;
+
+    private volatile boolean delta;
+
+    private volatile boolean destroyed;
+
+    /**
+     * type url -> subscribed resource names, guarded by this. An empty set subscribes to all the resources of the type.
+     */
+    private final Map<String, Set<String>> subscribedResources = new ConcurrentHashMap<>();
 
     public AdsObserver(URL url, Node node) {
         this.url = url;
         this.node = node;
         this.xdsChannel = new XdsChannel(url);
         this.applicationModel = url.getOrDefaultApplicationModel();
+        this.delta = url.getParameter(DELTA_XDS_KEY, false);
     }
 
     public <T, S extends DeltaResource<T>> void addListener(AbstractProtocol<T, S> protocol) {
         listeners.put(protocol.getTypeUrl(), protocol);
     }
 
-    public void request(DiscoveryRequest discoveryRequest) {
-        if (requestObserver == null) {
-            requestObserver = xdsChannel.createDeltaDiscoveryRequest(new ResponseObserver(this));
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public synchronized void request(DiscoveryRequest discoveryRequest) {
+        subscribedResources.put(discoveryRequest.getTypeUrl(), new HashSet<>(discoveryRequest.getResourceNamesList()));
+        send(discoveryRequest);
+    }
+
+    /**
+     * Adds the resources to the subscription of the type, nothing is sent if all of them are subscribed already.
+     * The first subscription with no resource name subscribes to all the resources of the type.
+     */
+    public synchronized void subscribe(String typeUrl, Set<String> resourceNames) {
+        Set<String> subscribed = subscribedResources.get(typeUrl);
+        Set<String> added = new HashSet<>(resourceNames);
+        if (subscribed != null) {
+            added.removeAll(subscribed);
+            if (added.isEmpty()) {
+                return;
+            }
+        }
+        Set<String> merged = subscribed == null ? new HashSet<>() : new HashSet<>(subscribed);
+        merged.addAll(added);
+        subscribedResources.put(typeUrl, merged);
+        if (delta) {
+            send(DeltaDiscoveryRequest.newBuilder()
+                    .setNode(node)
+                    .setTypeUrl(typeUrl)
+                    .addAllResourceNamesSubscribe(added)
+                    .build());
+        } else {
+            send(buildDiscoveryRequest(typeUrl, merged));
+        }
+    }
+
+    /**
+     * Removes the resources from the subscription of the type, the server stops pushing their updates.
+     */
+    public synchronized void unsubscribe(String typeUrl, Set<String> resourceNames) {
+        Set<String> subscribed = subscribedResources.get(typeUrl);
+        if (subscribed == null) {
+            return;
+        }
+        Set<String> removed = new HashSet<>(resourceNames);
+        removed.retainAll(subscribed);
+        if (removed.isEmpty()) {
+            return;
+        }
+        Set<String> remaining = new HashSet<>(subscribed);
+        remaining.removeAll(removed);
+        if (remaining.isEmpty()) {
+            // an empty subscription would be resubscribed as a wildcard one on reconnect
+            subscribedResources.remove(typeUrl);
+        } else {
+            subscribedResources.put(typeUrl, remaining);
+        }
+        if (delta) {
+            send(DeltaDiscoveryRequest.newBuilder()
+                    .setNode(node)
+                    .setTypeUrl(typeUrl)
+                    .addAllResourceNamesUnsubscribe(removed)
+                    .build());
+        } else if (!remaining.isEmpty()) {
+            send(buildDiscoveryRequest(typeUrl, remaining));
+        }
+        // else nothing to send, an empty list of names subscribes to all the resources of the type. The server
+        // keeps pushing the last names until the stream is recreated, their responses are no longer acked.
+    }
+
+    public ScheduledExecutorService getScheduledExecutor() {
+        return applicationModel
+                .getFrameworkModel()
+                .getBeanFactory()
+                .getBean(FrameworkExecutorRepository.class)
+                .getSharedScheduledExecutor();
+    }
+
+    private void send(DiscoveryRequest discoveryRequest) {
+        try {
+            if (requestObserver == null) {
+                requestObserver = xdsChannel.createDeltaDiscoveryRequest(new ResponseObserver(this));
+            }
+            requestObserver.onNext(discoveryRequest);
+        } catch (Exception e) {
+            // the subscription is kept and sent again once the stream recovers
+            logger.error(REGISTRY_ERROR_REQUEST_XDS, "", "", "Failed to send xDS request.", e);
         }
-        requestObserver.onNext(discoveryRequest);
-        observedResources.put(discoveryRequest.getTypeUrl(), discoveryRequest);
+    }
+
+    private void send(DeltaDiscoveryRequest deltaDiscoveryRequest) {
+        try {
+            if (deltaRequestObserver == null) {
+                deltaRequestObserver = xdsChannel.observeDeltaDiscoveryRequest(new DeltaResponseObserver(this));
+            }
+            deltaRequestObserver.onNext(deltaDiscoveryRequest);
+        } catch (Exception e) {
+            // the subscription is kept and sent again once the stream recovers
+            logger.error(REGISTRY_ERROR_REQUEST_XDS, "", "", "Failed to send delta xDS request.", e);
+        }
+    }
+
+    private DiscoveryRequest buildDiscoveryRequest(String typeUrl, Set<String> resourceNames) {
+        return DiscoveryRequest.newBuilder()
+                .setNode(node)
+                .setTypeUrl(typeUrl)
+                .addAllResourceNames(resourceNames)
+                .build();
+    }
+
+    private DeltaDiscoveryRequest buildDeltaResubscribe(String typeUrl, Set<String> resourceNames) {
+        XdsListener xdsListener = listeners.get(typeUrl);
+        return DeltaDiscoveryRequest.newBuilder()
+                .setNode(node)
+                .setTypeUrl(typeUrl)
+                .addAllResourceNamesSubscribe(resourceNames)
+                .putAllInitialResourceVersions(
+                        xdsListener == null ? Collections.emptyMap() : xdsListener.getResourceVersions())
+                .build();
     }
 
     private static class ResponseObserver implements StreamObserver<DiscoveryResponse> {
@@ -78,21 +217,26 @@ public class AdsObserver {
         @Override
         public void onNext(DiscoveryResponse discoveryResponse) {
             XdsListener xdsListener = adsObserver.listeners.get(discoveryResponse.getTypeUrl());
-            xdsListener.process(discoveryResponse);
-            adsObserver.requestObserver.onNext(buildAck(discoveryResponse));
+            if (xdsListener != null) {
+                xdsListener.process(discoveryResponse);
+            }
+            synchronized (adsObserver) {
+                // an ack with no names would subscribe to all the resources of an unsubscribed type
+                if (adsObserver.subscribedResources.containsKey(discoveryResponse.getTypeUrl())) {
+                    adsObserver.send(buildAck(discoveryResponse));
+                }
+            }
         }
 
         protected DiscoveryRequest buildAck(DiscoveryResponse response) {
             // for ACK
+            Set<String> resourceNames = adsObserver.subscribedResources.get(response.getTypeUrl());
             return DiscoveryRequest.newBuilder()
                     .setNode(adsObserver.node)
                     .setTypeUrl(response.getTypeUrl())
                     .setVersionInfo(response.getVersionInfo())
                     .setResponseNonce(response.getNonce())
-                    .addAllResourceNames(adsObserver
-                            .observedResources
-                            .get(response.getTypeUrl())
-                            .getResourceNamesList())
+                    .addAllResourceNames(resourceNames == null ? Collections.emptySet() : resourceNames)
                     .build();
         }
 
@@ -109,21 +253,92 @@ public class AdsObserver {
         }
     }
 
+    private static class DeltaResponseObserver implements StreamObserver<DeltaDiscoveryResponse> {
+        private final AdsObserver adsObserver;
+
+        public DeltaResponseObserver(AdsObserver adsObserver) {
+            this.adsObserver = adsObserver;
+        }
+
+        @Override
+        public void onNext(DeltaDiscoveryResponse deltaDiscoveryResponse) {
+            XdsListener xdsListener = adsObserver.listeners.get(deltaDiscoveryResponse.getTypeUrl());
+            if (xdsListener != null) {
+                xdsListener.processDelta(deltaDiscoveryResponse);
+            }
+            synchronized (adsObserver) {
+                // for ACK
+                adsObserver.send(DeltaDiscoveryRequest.newBuilder()
+                        .setNode(adsObserver.node)
+                        .setTypeUrl(deltaDiscoveryResponse.getTypeUrl())
+                        .setResponseNonce(deltaDiscoveryResponse.getNonce())
+                        .build());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (Status.fromThrowable(throwable).getCode() == Status.Code.UNIMPLEMENTED) {
+                logger.warn(
+                        REGISTRY_ERROR_REQUEST_XDS,
+                        "",
+                        "",
+                        "xDS server doesn't support incremental xDS, fall back to state of the world xDS.");
+                adsObserver.delta = false;
+            } else {
+                logger.error(
+                        REGISTRY_ERROR_REQUEST_XDS, "", "", "xDS Client received error message! detail:", throwable);
+            }
+            adsObserver.triggerReConnectTask();
+        }
+
+        @Override
+        public void onCompleted() {
+            logger.info("xDS Client completed");
+            adsObserver.triggerReConnectTask();
+        }
+    }
+
+    /**
+     * Closes the stream and its channel, the subscriptions are no longer recovered.
+     */
+    public synchronized void destroy() {
+        destroyed = true;
+        if (requestObserver != null) {
+            requestObserver.onCompleted();
+        }
+        if (deltaRequestObserver != null) {
+            deltaRequestObserver.onCompleted();
+        }
+        if (xdsChannel.getChannel() != null) {
+            xdsChannel.destroy();
+        }
+    }
+
     private void triggerReConnectTask() {
-        ScheduledExecutorService scheduledFuture = applicationModel
-                .getFrameworkModel()
-                .getBeanFactory()
-                .getBean(FrameworkExecutorRepository.class)
-                .getSharedScheduledExecutor();
-        scheduledFuture.schedule(this::recover, 3, TimeUnit.SECONDS);
+        if (destroyed) {
+            return;
+        }
+        getScheduledExecutor().schedule(this::recover, 3, TimeUnit.SECONDS);
     }
 
-    private void recover() {
+    private synchronized void recover() {
+        if (destroyed) {
+            return;
+        }
         try {
             xdsChannel = new XdsChannel(url);
             if (xdsChannel.getChannel() != null) {
-                requestObserver = xdsChannel.createDeltaDiscoveryRequest(new ResponseObserver(this));
-                observedResources.values().forEach(requestObserver::onNext);
+                if (delta) {
+                    deltaRequestObserver = xdsChannel.observeDeltaDiscoveryRequest(new DeltaResponseObserver(this));
+                    // the server only sends the resources changed since the versions held here
+                    subscribedResources.forEach((typeUrl, resourceNames) ->
+                            deltaRequestObserver.onNext(buildDeltaResubscribe(typeUrl, resourceNames)));
+                } else {
+                    requestObserver = xdsChannel.createDeltaDiscoveryRequest(new ResponseObserver(this));
+                    subscribedResources.forEach((typeUrl, resourceNames) ->
+                            requestObserver.onNext(buildDiscoveryRequest(typeUrl, resourceNames)));
+                }
                 return;
             } else {
                 logger.error(
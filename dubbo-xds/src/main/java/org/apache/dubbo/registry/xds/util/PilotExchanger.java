@@ -68,11 +68,13 @@ public class PilotExchanger {
 
     private final ApplicationModel applicationModel;
 
+    private final AdsObserver adsObserver;
+
     protected PilotExchanger(URL url) {
         xdsChannel = new XdsChannel(url);
         int pollingTimeout = url.getParameter("pollingTimeout", 10);
         this.applicationModel = url.getOrDefaultApplicationModel();
-        AdsObserver adsObserver = new AdsObserver(url, NodeBuilder.build());
+        this.adsObserver = new AdsObserver(url, NodeBuilder.build());
         this.ldsProtocol = new LdsProtocol(adsObserver, NodeBuilder.build(), pollingTimeout);
         this.rdsProtocol = new RdsProtocol(adsObserver, NodeBuilder.build(), pollingTimeout);
         this.edsProtocol = new EdsProtocol(adsObserver, NodeBuilder.build(), pollingTimeout);
@@ -156,6 +158,7 @@ public class PilotExchanger {
     }
 
     public void destroy() {
+        adsObserver.destroy();
         xdsChannel.destroy();
     }
 
@@ -16,8 +16,20 @@
  */
 package org.apache.dubbo.registry.xds.util;
 
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
 
+import java.util.Map;
+
 public interface XdsListener {
     void process(DiscoveryResponse discoveryResponse);
+
+    void processDelta(DeltaDiscoveryResponse deltaDiscoveryResponse);
+
+    /**
+     * Versions of the resources received on the delta stream, sent as the initial versions when the stream reconnects
+     *
+     * @return resource name -> version
+     */
+    Map<String, String> getResourceVersions();
 }
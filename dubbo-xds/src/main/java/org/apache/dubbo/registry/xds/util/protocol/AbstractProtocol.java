@@ -18,17 +18,21 @@ package org.apache.dubbo.registry.xds.util.protocol;
 
 import org.apache.dubbo.common.logger.ErrorTypeAwareLogger;
 import org.apache.dubbo.common.logger.LoggerFactory;
-import org.apache.dubbo.common.utils.ConcurrentHashMapUtils;
+import org.apache.dubbo.common.utils.ConcurrentHashSet;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.registry.xds.util.AdsObserver;
 import org.apache.dubbo.registry.xds.util.XdsListener;
 
+import com.google.protobuf.Any;
 import io.envoyproxy.envoy.config.core.v3.Node;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +40,10 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -44,6 +51,14 @@ import java.util.stream.Collectors;
 import static org.apache.dubbo.common.constants.LoggerCodeConstants.INTERNAL_INTERRUPTED;
 import static org.apache.dubbo.common.constants.LoggerCodeConstants.PROTOCOL_FAILED_REQUEST;
 
+/**
+ * Caches the resources of one xDS type and notifies their observers.
+ * <p>
+ * Resources are requested without blocking the other requests: only the names not subscribed yet are sent to the
+ * control plane and the returned future completes once all of them are answered, or fails after
+ * {@code checkInterval} seconds. Responses are merged into the cache and only the observers of the changed
+ * resources are called, on the delta stream this costs the number of changes rather than the number of resources.
+ */
 public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements XdsProtocol<T>, XdsListener {
 
     private static final ErrorTypeAwareLogger logger = LoggerFactory.getErrorTypeAwareLogger(AbstractProtocol.class);
@@ -52,6 +67,9 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
 
     protected final Node node;
 
+    /**
+     * seconds to wait for the control plane to answer a resource request
+     */
     private final int checkInterval;
 
     protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
@@ -63,16 +81,29 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
     protected Set<String> observeResourcesName;
 
     public static final String emptyResourceName = "emptyResourcesName";
-    private final ReentrantLock resourceLock = new ReentrantLock();
 
     protected Map<Set<String>, List<Consumer<Map<String, T>>>> consumerObserveMap = new ConcurrentHashMap<>();
 
+    /**
+     * resource name -> the keys of {@link #consumerObserveMap} containing it, guarded by {@link #lock}
+     */
+    private final Map<String, Set<Set<String>>> observeIndex = new HashMap<>();
+
     public Map<Set<String>, List<Consumer<Map<String, T>>>> getConsumerObserveMap() {
         return consumerObserveMap;
     }
 
     protected Map<String, T> resourcesMap = new ConcurrentHashMap<>();
 
+    /**
+     * resources the control plane answered as not existing
+     */
+    private final Set<String> absentResources = new ConcurrentHashSet<>();
+
+    private final Map<String, String> resourceVersions = new ConcurrentHashMap<>();
+
+    private final Set<PendingRequest<T>> pendingRequests = new ConcurrentHashSet<>();
+
     public AbstractProtocol(AdsObserver adsObserver, Node node, int checkInterval) {
         this.adsObserver = adsObserver;
         this.node = node;
@@ -92,7 +123,7 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
             if ("".equals(resourceName)) {
                 continue;
             }
-            if (!resourcesMap.containsKey(resourceName)) {
+            if (!resourcesMap.containsKey(resourceName) && !absentResources.contains(resourceName)) {
                 return false;
             }
         }
@@ -108,83 +139,86 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
 
     @Override
     public Map<String, T> getResource(Set<String> resourceNames) {
-        resourceNames = resourceNames == null ? Collections.emptySet() : resourceNames;
+        resourceNames = toRequestResourceNames(resourceNames);
+        return await(getResourceAsync(resourceNames), resourceNames);
+    }
 
-        if (!resourceNames.isEmpty() && isCacheExistResource(resourceNames)) {
-            return getResourceFromCache(resourceNames);
-        } else {
-            return getResourceFromRemote(resourceNames);
+    @Override
+    public CompletableFuture<Map<String, T>> getResourceAsync(Set<String> resourceNames) {
+        resourceNames = toRequestResourceNames(resourceNames);
+        if (isCacheExistResource(resourceNames)) {
+            return CompletableFuture.completedFuture(getResourceFromCache(resourceNames));
         }
+        return getResourceFromRemoteAsync(resourceNames);
     }
 
     private Map<String, T> getResourceFromCache(Set<String> resourceNames) {
-        return resourceNames.stream()
-                .filter(o -> !StringUtils.isEmpty(o))
-                .collect(Collectors.toMap(k -> k, this::getCacheResource));
+        Map<String, T> result = new HashMap<>();
+        for (String resourceName : resourceNames) {
+            T resource = getCacheResource(resourceName);
+            if (resource != null) {
+                result.put(resourceName, resource);
+            }
+        }
+        return result;
     }
 
     public Map<String, T> getResourceFromRemote(Set<String> resourceNames) {
-        try {
-            resourceLock.lock();
-            CompletableFuture<Map<String, T>> future = new CompletableFuture<>();
-            observeResourcesName = resourceNames;
-            Set<String> consumerObserveResourceNames = new HashSet<>();
-            if (resourceNames.isEmpty()) {
-                consumerObserveResourceNames.add(emptyResourceName);
-            } else {
-                consumerObserveResourceNames = resourceNames;
-            }
+        resourceNames = toRequestResourceNames(resourceNames);
+        return await(getResourceFromRemoteAsync(resourceNames), resourceNames);
+    }
 
-            Consumer<Map<String, T>> futureConsumer = future::complete;
-            try {
-                writeLock.lock();
-                ConcurrentHashMapUtils.computeIfAbsent(
-                                (ConcurrentHashMap<Set<String>, List<Consumer<Map<String, T>>>>) consumerObserveMap,
-                                consumerObserveResourceNames,
-                                key -> new ArrayList<>())
-                        .add(futureConsumer);
-            } finally {
-                writeLock.unlock();
-            }
+    private CompletableFuture<Map<String, T>> getResourceFromRemoteAsync(Set<String> resourceNames) {
+        PendingRequest<T> request = new PendingRequest<>(resourceNames);
+        pendingRequests.add(request);
 
-            Set<String> resourceNamesToObserve = new HashSet<>(resourceNames);
-            resourceNamesToObserve.addAll(resourcesMap.keySet());
-            adsObserver.request(buildDiscoveryRequest(resourceNamesToObserve));
-            logger.info("Send xDS Observe request to remote. Resource count: " + resourceNamesToObserve.size()
-                    + ". Resource Type: " + getTypeUrl());
+        Set<String> resourceNamesToObserve = new HashSet<>(resourceNames);
+        resourceNamesToObserve.remove(emptyResourceName);
+        adsObserver.subscribe(getTypeUrl(), resourceNamesToObserve);
+        logger.info("Send xDS Observe request to remote. Resource count: " + resourceNamesToObserve.size()
+                + ". Resource Type: " + getTypeUrl());
 
-            try {
-                Map<String, T> result = future.get();
+        ScheduledFuture<?> timeout =
+                adsObserver.getScheduledExecutor().schedule(() -> expire(request), checkInterval, TimeUnit.SECONDS);
+        request.future.whenComplete((result, t) -> timeout.cancel(false));
 
-                try {
-                    writeLock.lock();
-                    consumerObserveMap.get(consumerObserveResourceNames).removeIf(o -> o.equals(futureConsumer));
-                } finally {
-                    writeLock.unlock();
-                }
+        // the resources may have been answered before the request was registered
+        request.waiting.removeIf(o -> resourcesMap.containsKey(o) || absentResources.contains(o));
+        completePendingRequests(Collections.emptySet());
+        return request.future;
+    }
 
-                return result;
-            } catch (InterruptedException e) {
-                logger.error(
-                        INTERNAL_INTERRUPTED,
-                        "",
-                        "",
-                        "InterruptedException occur when request control panel. error=",
-                        e);
-                Thread.currentThread().interrupt();
-            } catch (Exception e) {
-                logger.error(PROTOCOL_FAILED_REQUEST, "", "", "Error occur when request control panel. error=", e);
-            }
-        } finally {
-            resourceLock.unlock();
+    private void expire(PendingRequest<T> request) {
+        if (pendingRequests.remove(request)) {
+            request.future.completeExceptionally(new TimeoutException("Waiting for xDS resources " + request.waiting
+                    + " timed out after " + checkInterval + "s. Resource Type: " + getTypeUrl()));
         }
-        return Collections.emptyMap();
+    }
+
+    private Map<String, T> await(CompletableFuture<Map<String, T>> future, Set<String> resourceNames) {
+        try {
+            // the future fails by itself once the request timed out
+            return future.get();
+        } catch (InterruptedException e) {
+            logger.error(
+                    INTERNAL_INTERRUPTED, "", "", "InterruptedException occur when request control panel. error=", e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error(
+                    PROTOCOL_FAILED_REQUEST, "", "", "Error occur when request control panel. error=", e.getCause());
+        }
+        return getResourceFromCache(resourceNames);
+    }
+
+    private static Set<String> toRequestResourceNames(Set<String> resourceNames) {
+        if (resourceNames == null || resourceNames.isEmpty()) {
+            return Collections.singleton(emptyResourceName);
+        }
+        return resourceNames.stream().filter(o -> !StringUtils.isEmpty(o)).collect(Collectors.toSet());
     }
 
     public void observeResource(Set<String> resourceNames, Consumer<Map<String, T>> consumer, boolean isReConnect) {
-        // call once for full data
         if (!isReConnect) {
-            consumer.accept(getResource(resourceNames));
             try {
                 writeLock.lock();
                 consumerObserveMap.compute(resourceNames, (k, v) -> {
@@ -195,9 +229,21 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
                     v.add(consumer);
                     return v;
                 });
+                for (String resourceName : resourceNames) {
+                    observeIndex.computeIfAbsent(resourceName, k -> new HashSet<>()).add(resourceNames);
+                }
             } finally {
                 writeLock.unlock();
             }
+            // call once for full data, the consumer is registered first so that no update is missed in between
+            getResourceAsync(resourceNames).whenComplete((result, t) -> {
+                if (t == null) {
+                    consumer.accept(result);
+                } else {
+                    logger.error(
+                            PROTOCOL_FAILED_REQUEST, "", "", "Error occur when request control panel. error=", t);
+                }
+            });
         }
         try {
             writeLock.lock();
@@ -209,7 +255,43 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
     }
 
     public void unobserveResource(Set<String> resourceNames, Consumer<Map<String, T>> consumer) {
-        // TODO
+        Set<String> released = new HashSet<>();
+        try {
+            writeLock.lock();
+            List<Consumer<Map<String, T>>> consumers = consumerObserveMap.get(resourceNames);
+            if (consumers == null || !consumers.remove(consumer)) {
+                return;
+            }
+            if (consumers.isEmpty()) {
+                consumerObserveMap.remove(resourceNames);
+                for (String resourceName : resourceNames) {
+                    Set<Set<String>> keys = observeIndex.get(resourceName);
+                    if (keys != null && keys.remove(resourceNames) && keys.isEmpty()) {
+                        observeIndex.remove(resourceName);
+                        released.add(resourceName);
+                    }
+                }
+            }
+            this.observeResourcesName =
+                    consumerObserveMap.keySet().stream().flatMap(Set::stream).collect(Collectors.toSet());
+        } finally {
+            writeLock.unlock();
+        }
+
+        // the wildcard subscription is kept, and so are the resources still requested
+        released.remove(emptyResourceName);
+        for (PendingRequest<T> request : pendingRequests) {
+            released.removeAll(request.names);
+        }
+        if (released.isEmpty()) {
+            return;
+        }
+        adsObserver.unsubscribe(getTypeUrl(), released);
+        for (String resourceName : released) {
+            resourcesMap.remove(resourceName);
+            absentResources.remove(resourceName);
+            resourceVersions.remove(resourceName);
+        }
     }
 
     protected DiscoveryRequest buildDiscoveryRequest(Set<String> resourceNames) {
@@ -222,48 +304,140 @@ public abstract class AbstractProtocol<T, S extends DeltaResource<T>> implements
 
     protected abstract Map<String, T> decodeDiscoveryResponse(DiscoveryResponse response);
 
+    /**
+     * Decodes one resource of the delta stream
+     *
+     * @return the resource, null if it can't be decoded
+     */
+    protected abstract T decodeResource(Any resource);
+
+    /**
+     * Decodes the changes of a delta response
+     *
+     * @return resource name -> the new resource, or null if the resource is removed
+     */
+    protected Map<String, T> decodeDeltaDiscoveryResponse(DeltaDiscoveryResponse response) {
+        Map<String, T> changes = new HashMap<>();
+        for (Resource resource : response.getResourcesList()) {
+            T decoded = decodeResource(resource.getResource());
+            if (decoded != null) {
+                changes.put(resource.getName(), decoded);
+            }
+        }
+        for (String removed : response.getRemovedResourcesList()) {
+            changes.put(removed, null);
+        }
+        return changes;
+    }
+
     @Override
     public final void process(DiscoveryResponse discoveryResponse) {
+        // a state of the world response holds every subscribed resource, the absent ones are removed
         Map<String, T> newResult = decodeDiscoveryResponse(discoveryResponse);
-        Map<String, T> oldResource = resourcesMap;
-        discoveryResponseListener(oldResource, newResult);
-        resourcesMap = newResult;
+        Map<String, T> changes = new HashMap<>();
+        for (String resourceName : resourcesMap.keySet()) {
+            if (!newResult.containsKey(resourceName)) {
+                changes.put(resourceName, null);
+            }
+        }
+        newResult.forEach((key, resource) -> {
+            if (!Objects.equals(resource, resourcesMap.get(key))) {
+                changes.put(key, resource);
+            }
+        });
+        applyChanges(changes, newResult.keySet());
+    }
+
+    @Override
+    public final void processDelta(DeltaDiscoveryResponse deltaDiscoveryResponse) {
+        for (Resource resource : deltaDiscoveryResponse.getResourcesList()) {
+            resourceVersions.put(resource.getName(), resource.getVersion());
+        }
+        deltaDiscoveryResponse.getRemovedResourcesList().forEach(resourceVersions::remove);
+
+        Map<String, T> changes = decodeDeltaDiscoveryResponse(deltaDiscoveryResponse);
+        applyChanges(changes, changes.keySet());
+    }
+
+    @Override
+    public Map<String, String> getResourceVersions() {
+        return new HashMap<>(resourceVersions);
     }
 
-    private void discoveryResponseListener(Map<String, T> oldResult, Map<String, T> newResult) {
+    private void applyChanges(Map<String, T> changes, Set<String> answeredResourceNames) {
         Set<String> changedResourceNames = new HashSet<>();
-        oldResult.forEach((key, origin) -> {
-            if (!Objects.equals(origin, newResult.get(key))) {
-                changedResourceNames.add(key);
+        changes.forEach((key, resource) -> {
+            T origin;
+            if (resource == null) {
+                origin = resourcesMap.remove(key);
+                absentResources.add(key);
+            } else {
+                origin = resourcesMap.put(key, resource);
+                absentResources.remove(key);
             }
-        });
-        newResult.forEach((key, origin) -> {
-            if (!Objects.equals(origin, oldResult.get(key))) {
+            if (!Objects.equals(origin, resource)) {
                 changedResourceNames.add(key);
             }
         });
+
+        completePendingRequests(answeredResourceNames);
         if (changedResourceNames.isEmpty()) {
             return;
         }
 
         logger.info("Receive resource update notification from xds server. Change resource count: "
-                + changedResourceNames.stream() + ". Type: " + getTypeUrl());
+                + changedResourceNames.size() + ". Type: " + getTypeUrl());
+        discoveryResponseListener(changedResourceNames);
+    }
+
+    private void completePendingRequests(Set<String> answeredResourceNames) {
+        for (PendingRequest<T> request : pendingRequests) {
+            request.waiting.removeAll(answeredResourceNames);
+            if (request.waiting.isEmpty() && pendingRequests.remove(request)) {
+                request.future.complete(getResourceFromCache(request.names));
+            }
+        }
+    }
 
-        // call once for full data
+    private void discoveryResponseListener(Set<String> changedResourceNames) {
+        Map<Set<String>, List<Consumer<Map<String, T>>>> consumersToNotify = new HashMap<>();
         try {
             readLock.lock();
-            for (Map.Entry<Set<String>, List<Consumer<Map<String, T>>>> entry : consumerObserveMap.entrySet()) {
-                if (entry.getKey().stream().noneMatch(changedResourceNames::contains)) {
-                    // none update
+            for (String resourceName : changedResourceNames) {
+                Set<Set<String>> keys = observeIndex.get(resourceName);
+                if (keys == null) {
                     continue;
                 }
-
-                Map<String, T> dsResultMap =
-                        entry.getKey().stream().collect(Collectors.toMap(k -> k, v -> newResult.get(v)));
-                entry.getValue().forEach(o -> o.accept(dsResultMap));
+                for (Set<String> key : keys) {
+                    List<Consumer<Map<String, T>>> consumers = consumerObserveMap.get(key);
+                    if (consumers != null && !consumersToNotify.containsKey(key)) {
+                        consumersToNotify.put(key, new ArrayList<>(consumers));
+                    }
+                }
             }
         } finally {
             readLock.unlock();
         }
+
+        // called outside the lock, the consumers may observe other resources
+        consumersToNotify.forEach((key, consumers) -> {
+            Map<String, T> dsResultMap = getResourceFromCache(key);
+            consumers.forEach(o -> o.accept(dsResultMap));
+        });
+    }
+
+    private static class PendingRequest<T> {
+
+        private final Set<String> names;
+
+        private final Set<String> waiting;
+
+        private final CompletableFuture<Map<String, T>> future = new CompletableFuture<>();
+
+        PendingRequest(Set<String> names) {
+            this.names = names;
+            this.waiting = new ConcurrentHashSet<>();
+            this.waiting.addAll(names);
+        }
     }
 }
@@ -18,6 +18,7 @@ package org.apache.dubbo.registry.xds.util.protocol;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public interface XdsProtocol<T> {
@@ -30,6 +31,15 @@ public interface XdsProtocol<T> {
      */
     Map<String, T> getResource(Set<String> resourceNames);
 
+    /**
+     * Gets all {@link T resource} by the specified resource name without blocking.
+     * For LDS, the {@param resourceNames} is ignored
+     *
+     * @param resourceNames specified resource name
+     * @return future of the resources, completed exceptionally if the control plane doesn't answer in time
+     */
+    CompletableFuture<Map<String, T>> getResourceAsync(Set<String> resourceNames);
+
     /**
      * Add a observer resource with {@link Consumer}
      *
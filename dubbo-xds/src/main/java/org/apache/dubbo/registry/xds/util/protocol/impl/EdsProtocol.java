@@ -66,6 +66,12 @@ public class EdsProtocol extends AbstractProtocol<EndpointResult, DeltaEndpoint>
         return new HashMap<>();
     }
 
+    @Override
+    protected EndpointResult decodeResource(Any resource) {
+        ClusterLoadAssignment clusterLoadAssignment = unpackClusterLoadAssignment(resource);
+        return clusterLoadAssignment == null ? null : decodeResourceToEndpoint(clusterLoadAssignment);
+    }
+
     private EndpointResult decodeResourceToEndpoint(ClusterLoadAssignment resource) {
         Set<Endpoint> endpoints = resource.getEndpointsList().stream()
                 .flatMap(e -> e.getLbEndpointsList().stream())
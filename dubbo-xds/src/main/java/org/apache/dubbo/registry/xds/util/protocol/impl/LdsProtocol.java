@@ -30,7 +30,9 @@ import io.envoyproxy.envoy.config.listener.v3.Filter;
 import io.envoyproxy.envoy.config.listener.v3.Listener;
 import io.envoyproxy.envoy.extensions.filters.network.http_connection_manager.v3.HttpConnectionManager;
 import io.envoyproxy.envoy.extensions.filters.network.http_connection_manager.v3.Rds;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -44,6 +46,8 @@ import static org.apache.dubbo.common.constants.LoggerCodeConstants.REGISTRY_ERR
 public class LdsProtocol extends AbstractProtocol<ListenerResult, DeltaListener> {
     private static final ErrorTypeAwareLogger logger = LoggerFactory.getErrorTypeAwareLogger(LdsProtocol.class);
 
+    private final DeltaListener deltaListener = new DeltaListener();
+
     public LdsProtocol(AdsObserver adsObserver, Node node, int checkInterval) {
         super(adsObserver, node, checkInterval);
     }
@@ -72,6 +76,27 @@ public class LdsProtocol extends AbstractProtocol<ListenerResult, DeltaListener>
         return new HashMap<>();
     }
 
+    @Override
+    protected ListenerResult decodeResource(Any resource) {
+        Listener listener = unpackListener(resource);
+        return listener == null ? null : new ListenerResult(decodeResourceToListener(listener));
+    }
+
+    @Override
+    protected Map<String, ListenerResult> decodeDeltaDiscoveryResponse(DeltaDiscoveryResponse response) {
+        // the listeners are merged into a single result, as in the state of the world responses
+        for (Resource resource : response.getResourcesList()) {
+            ListenerResult listener = decodeResource(resource.getResource());
+            if (listener != null) {
+                deltaListener.addResource(resource.getName(), listener.getRouteConfigNames());
+            }
+        }
+        deltaListener.removeResource(response.getRemovedResourcesList());
+        Map<String, ListenerResult> listenerDecodeResult = new HashMap<>();
+        listenerDecodeResult.put(emptyResourceName, deltaListener.getResource());
+        return listenerDecodeResult;
+    }
+
     private Set<String> decodeResourceToListener(Listener resource) {
         return resource.getFilterChainsList().stream()
                 .flatMap(e -> e.getFiltersList().stream())
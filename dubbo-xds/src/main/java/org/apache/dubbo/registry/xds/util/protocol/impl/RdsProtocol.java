@@ -65,6 +65,12 @@ public class RdsProtocol extends AbstractProtocol<RouteResult, DeltaRoute> {
         return new HashMap<>();
     }
 
+    @Override
+    protected RouteResult decodeResource(Any resource) {
+        RouteConfiguration routeConfiguration = unpackRouteConfiguration(resource);
+        return routeConfiguration == null ? null : decodeResourceToListener(routeConfiguration);
+    }
+
     private RouteResult decodeResourceToListener(RouteConfiguration resource) {
         Map<String, Set<String>> map = new HashMap<>();
         Map<String, VirtualHost> rdsVirtualhostMap = new ConcurrentHashMap<>();
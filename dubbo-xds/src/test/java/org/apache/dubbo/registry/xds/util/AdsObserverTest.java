@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.xds.util;
+
+import io.envoyproxy.envoy.config.core.v3.Node;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdsObserverTest {
+
+    private static final String TYPE_URL = "type.googleapis.com/envoy.config.endpoint.v3.ClusterLoadAssignment";
+
+    private FakeAdsServer server;
+
+    private AdsObserver adsObserver;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (adsObserver != null) {
+            adsObserver.destroy();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void testDeltaSubscribeSendsNewNames() throws Exception {
+        server = new FakeAdsServer(true);
+        adsObserver = new AdsObserver(server.getUrl(true), Node.getDefaultInstance());
+
+        adsObserver.subscribe(TYPE_URL, new HashSet<>(Arrays.asList("a", "b")));
+        DeltaDiscoveryRequest request = server.takeDeltaRequest(5000);
+        assertNotNull(request);
+        assertEquals(TYPE_URL, request.getTypeUrl());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(request.getResourceNamesSubscribeList()));
+
+        adsObserver.subscribe(TYPE_URL, new HashSet<>(Arrays.asList("b", "c")));
+        request = server.takeDeltaRequest(5000);
+        assertNotNull(request);
+        assertEquals(Collections.singletonList("c"), request.getResourceNamesSubscribeList());
+
+        // nothing new
+        adsObserver.subscribe(TYPE_URL, Collections.singleton("a"));
+        assertNull(server.takeDeltaRequest(200));
+        assertNull(server.takeRequest(0));
+    }
+
+    @Test
+    void testUnsubscribe() throws Exception {
+        server = new FakeAdsServer(true);
+        adsObserver = new AdsObserver(server.getUrl(true), Node.getDefaultInstance());
+
+        adsObserver.subscribe(TYPE_URL, new HashSet<>(Arrays.asList("a", "b")));
+        assertNotNull(server.takeDeltaRequest(5000));
+
+        adsObserver.unsubscribe(TYPE_URL, new HashSet<>(Arrays.asList("a", "unknown")));
+        DeltaDiscoveryRequest request = server.takeDeltaRequest(5000);
+        assertNotNull(request);
+        assertEquals(Collections.singletonList("a"), request.getResourceNamesUnsubscribeList());
+        assertEquals(0, request.getResourceNamesSubscribeCount());
+
+        // resubscribed as a new name
+        adsObserver.subscribe(TYPE_URL, Collections.singleton("a"));
+        request = server.takeDeltaRequest(5000);
+        assertNotNull(request);
+        assertEquals(Collections.singletonList("a"), request.getResourceNamesSubscribeList());
+    }
+
+    @Test
+    void testStateOfTheWorldSubscribeSendsAllNames() throws Exception {
+        server = new FakeAdsServer(true);
+        adsObserver = new AdsObserver(server.getUrl(false), Node.getDefaultInstance());
+
+        adsObserver.subscribe(TYPE_URL, Collections.singleton("a"));
+        assertNotNull(server.takeRequest(5000));
+        adsObserver.subscribe(TYPE_URL, Collections.singleton("b"));
+        DiscoveryRequest request = server.takeRequest(5000);
+        assertNotNull(request);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(request.getResourceNamesList()));
+
+        adsObserver.unsubscribe(TYPE_URL, Collections.singleton("a"));
+        request = server.takeRequest(5000);
+        assertNotNull(request);
+        assertEquals(Collections.singletonList("b"), request.getResourceNamesList());
+        assertNull(server.takeDeltaRequest(0));
+
+        // an empty list of names would subscribe to all the resources
+        adsObserver.unsubscribe(TYPE_URL, Collections.singleton("b"));
+        assertNull(server.takeRequest(200));
+    }
+
+    @Test
+    void testFallbackToStateOfTheWorld() throws Exception {
+        server = new FakeAdsServer(false);
+        adsObserver = new AdsObserver(server.getUrl(true), Node.getDefaultInstance());
+        assertTrue(adsObserver.isDelta());
+
+        adsObserver.subscribe(TYPE_URL, new HashSet<>(Arrays.asList("a", "b")));
+
+        // the subscriptions are sent again on the state of the world stream once reconnected
+        DiscoveryRequest request = server.takeRequest(10000);
+        assertNotNull(request);
+        assertFalse(adsObserver.isDelta());
+        assertEquals(TYPE_URL, request.getTypeUrl());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(request.getResourceNamesList()));
+
+        adsObserver.subscribe(TYPE_URL, Collections.singleton("c"));
+        request = server.takeRequest(5000);
+        assertNotNull(request);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(request.getResourceNamesList()));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.xds.util;
+
+import org.apache.dubbo.common.URL;
+
+import io.envoyproxy.envoy.service.discovery.v3.AggregatedDiscoveryServiceGrpc;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An ADS server on a local port recording the requests it receives, the test pushes the responses.
+ * The requests ACKing a response are not recorded.
+ */
+public class FakeAdsServer {
+
+    private final BlockingQueue<DiscoveryRequest> requests = new LinkedBlockingQueue<>();
+
+    private final BlockingQueue<DeltaDiscoveryRequest> deltaRequests = new LinkedBlockingQueue<>();
+
+    private final boolean deltaImplemented;
+
+    private final Server server;
+
+    private volatile StreamObserver<DiscoveryResponse> responseObserver;
+
+    private volatile StreamObserver<DeltaDiscoveryResponse> deltaResponseObserver;
+
+    public FakeAdsServer(boolean deltaImplemented) throws IOException {
+        this.deltaImplemented = deltaImplemented;
+        this.server = NettyServerBuilder.forPort(0).addService(new Service()).build().start();
+    }
+
+    public URL getUrl(boolean delta) {
+        return URL.valueOf("xds://127.0.0.1:" + server.getPort() + "?secure=plaintext&deltaXds=" + delta);
+    }
+
+    /**
+     * @return the next state of the world request, null if none is sent within the timeout
+     */
+    public DiscoveryRequest takeRequest(long timeoutMillis) throws InterruptedException {
+        return requests.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the next delta request, null if none is sent within the timeout
+     */
+    public DeltaDiscoveryRequest takeDeltaRequest(long timeoutMillis) throws InterruptedException {
+        return deltaRequests.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void push(DiscoveryResponse response) {
+        responseObserver.onNext(response);
+    }
+
+    public void pushDelta(DeltaDiscoveryResponse response) {
+        deltaResponseObserver.onNext(response);
+    }
+
+    public void shutdown() throws InterruptedException {
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private class Service extends AggregatedDiscoveryServiceGrpc.AggregatedDiscoveryServiceImplBase {
+
+        @Override
+        public StreamObserver<DiscoveryRequest> streamAggregatedResources(
+                StreamObserver<DiscoveryResponse> observer) {
+            responseObserver = observer;
+            return new StreamObserver<DiscoveryRequest>() {
+                @Override
+                public void onNext(DiscoveryRequest request) {
+                    if (request.getResponseNonce().isEmpty()) {
+                        requests.add(request);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onCompleted() {
+                    observer.onCompleted();
+                }
+            };
+        }
+
+        @Override
+        public StreamObserver<DeltaDiscoveryRequest> deltaAggregatedResources(
+                StreamObserver<DeltaDiscoveryResponse> observer) {
+            if (!deltaImplemented) {
+                observer.onError(Status.UNIMPLEMENTED.asRuntimeException());
+            }
+            deltaResponseObserver = observer;
+            return new StreamObserver<DeltaDiscoveryRequest>() {
+                @Override
+                public void onNext(DeltaDiscoveryRequest request) {
+                    if (deltaImplemented && request.getResponseNonce().isEmpty()) {
+                        deltaRequests.add(request);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onCompleted() {
+                    if (deltaImplemented) {
+                        observer.onCompleted();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.xds.util.protocol;
+
+import org.apache.dubbo.registry.xds.util.AdsObserver;
+import org.apache.dubbo.registry.xds.util.FakeAdsServer;
+import org.apache.dubbo.registry.xds.util.protocol.impl.EdsProtocol;
+import org.apache.dubbo.registry.xds.util.protocol.message.EndpointResult;
+
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.config.core.v3.Address;
+import io.envoyproxy.envoy.config.core.v3.Node;
+import io.envoyproxy.envoy.config.core.v3.SocketAddress;
+import io.envoyproxy.envoy.config.endpoint.v3.ClusterLoadAssignment;
+import io.envoyproxy.envoy.config.endpoint.v3.Endpoint;
+import io.envoyproxy.envoy.config.endpoint.v3.LbEndpoint;
+import io.envoyproxy.envoy.config.endpoint.v3.LocalityLbEndpoints;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractProtocolTest {
+
+    private final AtomicInteger nonce = new AtomicInteger();
+
+    private FakeAdsServer server;
+
+    private AdsObserver adsObserver;
+
+    private EdsProtocol edsProtocol;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeAdsServer(true);
+        adsObserver = new AdsObserver(server.getUrl(true), Node.getDefaultInstance());
+        edsProtocol = new EdsProtocol(adsObserver, Node.getDefaultInstance(), 1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        adsObserver.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    void testPendingRequestTimesOut() throws Exception {
+        CompletableFuture<Map<String, EndpointResult>> future =
+                edsProtocol.getResourceAsync(Collections.singleton("a"));
+        assertNotNull(server.takeDeltaRequest(5000));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        // a blocking request returns what is cached
+        assertTrue(edsProtocol.getResource(Collections.singleton("a")).isEmpty());
+    }
+
+    @Test
+    void testPendingRequestCompletes() throws Exception {
+        CompletableFuture<Map<String, EndpointResult>> future =
+                edsProtocol.getResourceAsync(new HashSet<>(Arrays.asList("a", "b")));
+        assertNotNull(server.takeDeltaRequest(5000));
+
+        server.pushDelta(response("a", 1));
+        Thread.sleep(100);
+        assertFalse(future.isDone());
+        server.pushDelta(DeltaDiscoveryResponse.newBuilder()
+                .setTypeUrl(edsProtocol.getTypeUrl())
+                .setNonce(String.valueOf(nonce.incrementAndGet()))
+                .addRemovedResources("b")
+                .build());
+
+        Map<String, EndpointResult> result = future.get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.singleton("a"), result.keySet());
+        // answered from the cache, absent resources included
+        assertEquals(result, edsProtocol.getResourceAsync(Collections.singleton("a")).getNow(null));
+        assertTrue(edsProtocol.getResourceAsync(Collections.singleton("b")).isDone());
+    }
+
+    @Test
+    void testNotifyObserversOfChangedResources() throws Exception {
+        List<Map<String, EndpointResult>> aUpdates = new CopyOnWriteArrayList<>();
+        List<Map<String, EndpointResult>> bUpdates = new CopyOnWriteArrayList<>();
+        edsProtocol.observeResource(Collections.singleton("a"), aUpdates::add, false);
+        edsProtocol.observeResource(Collections.singleton("b"), bUpdates::add, false);
+        assertNotNull(server.takeDeltaRequest(5000));
+        assertNotNull(server.takeDeltaRequest(5000));
+
+        server.pushDelta(response("a", 1));
+        server.pushDelta(response("b", 1));
+        // the update and the initial callback of each observer
+        await().until(() -> aUpdates.size() == 2 && bUpdates.size() == 2);
+
+        server.pushDelta(response("a", 2));
+        await().until(() -> aUpdates.size() == 3);
+        assertEquals(2, aUpdates.get(2).get("a").getEndpoints().iterator().next().getPortValue());
+
+        // unchanged
+        server.pushDelta(response("a", 2));
+        Thread.sleep(200);
+        assertEquals(3, aUpdates.size());
+        assertEquals(2, bUpdates.size());
+    }
+
+    @Test
+    void testUnobserveUnsubscribes() throws Exception {
+        List<Map<String, EndpointResult>> updates = new CopyOnWriteArrayList<>();
+        Consumer<Map<String, EndpointResult>> consumer = updates::add;
+        Consumer<Map<String, EndpointResult>> other = map -> {};
+        edsProtocol.observeResource(Collections.singleton("a"), consumer, false);
+        edsProtocol.observeResource(Collections.singleton("a"), other, false);
+        assertNotNull(server.takeDeltaRequest(5000));
+        server.pushDelta(response("a", 1));
+        await().until(() -> !updates.isEmpty());
+
+        // still observed by the other consumer
+        edsProtocol.unobserveResource(Collections.singleton("a"), consumer);
+        assertNull(server.takeDeltaRequest(200));
+        assertNotNull(edsProtocol.getCacheResource("a"));
+
+        edsProtocol.unobserveResource(Collections.singleton("a"), other);
+        DeltaDiscoveryRequest request = server.takeDeltaRequest(5000);
+        assertNotNull(request);
+        assertEquals(Collections.singletonList("a"), request.getResourceNamesUnsubscribeList());
+        assertNull(edsProtocol.getCacheResource("a"));
+        assertTrue(edsProtocol.getConsumerObserveMap().isEmpty());
+
+        int notified = updates.size();
+        server.pushDelta(response("a", 2));
+        Thread.sleep(200);
+        assertEquals(notified, updates.size());
+    }
+
+    private DeltaDiscoveryResponse response(String clusterName, int port) {
+        ClusterLoadAssignment clusterLoadAssignment = ClusterLoadAssignment.newBuilder()
+                .setClusterName(clusterName)
+                .addEndpoints(LocalityLbEndpoints.newBuilder()
+                        .addLbEndpoints(LbEndpoint.newBuilder()
+                                .setEndpoint(Endpoint.newBuilder()
+                                        .setAddress(Address.newBuilder()
+                                                .setSocketAddress(SocketAddress.newBuilder()
+                                                        .setAddress("127.0.0.1")
+                                                        .setPortValue(port))))))
+                .build();
+        return DeltaDiscoveryResponse.newBuilder()
+                .setTypeUrl(edsProtocol.getTypeUrl())
+                .setNonce(String.valueOf(nonce.incrementAndGet()))
+                .addResources(Resource.newBuilder()
+                        .setName(clusterName)
+                        .setVersion(String.valueOf(port))
+                        .setResource(Any.pack(clusterLoadAssignment)))
+                .build();
+    }
+}